@@ -2,14 +2,23 @@ package it.agilelab.witboost.datafactory.api;
 
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import io.vavr.control.Either;
+import io.vavr.control.Option;
 import it.agilelab.witboost.datafactory.common.FailedOperation;
 import it.agilelab.witboost.datafactory.common.Problem;
 import it.agilelab.witboost.datafactory.common.SpecificProvisionerValidationException;
+import it.agilelab.witboost.datafactory.model.ADFInfo;
 import it.agilelab.witboost.datafactory.model.ProvisionRequest;
 import it.agilelab.witboost.datafactory.model.Specific;
 import it.agilelab.witboost.datafactory.openapi.model.*;
-import it.agilelab.witboost.datafactory.service.provision.ProvisionService;
+import it.agilelab.witboost.datafactory.service.provision.ProvisionTaskService;
+import it.agilelab.witboost.datafactory.service.task.Task;
+import it.agilelab.witboost.datafactory.service.task.TaskLog;
 import it.agilelab.witboost.datafactory.service.validation.ValidationService;
+import it.agilelab.witboost.datafactory.service.validation.ValidationTaskService;
+import jakarta.validation.Validator;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
@@ -18,11 +27,19 @@ import org.springframework.stereotype.Service;
 public class ApiServiceImpl {
 
     private final ValidationService validationService;
-    private final ProvisionService provisionService;
+    private final ValidationTaskService validationTaskService;
+    private final ProvisionTaskService provisionTaskService;
+    private final Validator validator;
 
-    public ApiServiceImpl(ValidationService validationService, ProvisionService provisionService) {
+    public ApiServiceImpl(
+            ValidationService validationService,
+            ValidationTaskService validationTaskService,
+            ProvisionTaskService provisionTaskService,
+            Validator validator) {
         this.validationService = validationService;
-        this.provisionService = provisionService;
+        this.validationTaskService = validationTaskService;
+        this.provisionTaskService = provisionTaskService;
+        this.validator = validator;
     }
 
     public ValidationResult validate(ProvisioningRequest provisioningRequest) {
@@ -36,30 +53,102 @@ public class ApiServiceImpl {
                 provisionRequest -> new ValidationResult(true));
     }
 
-    public ProvisioningStatus provision(ProvisioningRequest provisioningRequest) {
-        return provisionService
-                .provision(provisioningRequest)
-                .fold(
-                        failedOperation -> {
-                            throw new SpecificProvisionerValidationException(failedOperation);
-                        },
-                        adfInfo -> {
-                            var privateInfo = Map.of(
-                                    "adfName", adfInfo.name(),
-                                    "adfInstanceId", adfInfo.instanceId(),
-                                    "adfUrl", adfInfo.url());
-                            return new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "")
-                                    .info(new Info(JsonNodeFactory.instance.objectNode(), privateInfo));
-                        });
+    public String asyncValidate(ProvisioningRequest provisioningRequest) {
+        return validationTaskService.submitValidation(provisioningRequest);
+    }
+
+    public ValidationStatus getValidationStatus(String token) {
+        return validationTaskService
+                .getTask(token)
+                .map(task -> task.getResult()
+                        .map(result -> result.fold(
+                                failedOperation -> new ValidationStatus(ValidationStatus.StatusEnum.FAILED),
+                                problems -> new ValidationStatus(ValidationStatus.StatusEnum.COMPLETED)
+                                        .info(new ValidationInfo(toValidationResult(problems)))))
+                        .getOrElse(() -> new ValidationStatus(ValidationStatus.StatusEnum.RUNNING)))
+                .orElseThrow(() -> new SpecificProvisionerValidationException(
+                        new FailedOperation(Collections.singletonList(new Problem(String.format(
+                                "Unable to find a validation operation with token '%s'. It may have expired",
+                                token))))));
+    }
+
+    public String provision(ProvisioningRequest provisioningRequest) {
+        checkDescriptor(provisioningRequest);
+        return provisionTaskService.submitProvision(provisioningRequest);
+    }
+
+    public String unprovision(ProvisioningRequest provisioningRequest) {
+        checkDescriptor(provisioningRequest);
+        return provisionTaskService.submitUnprovision(provisioningRequest);
     }
 
-    public ProvisioningStatus unprovision(ProvisioningRequest provisioningRequest) {
-        return provisionService
-                .unprovision(provisioningRequest)
-                .fold(
+    // Malformed descriptors are rejected before submitting, the component resources are validated by the operation
+    private void checkDescriptor(ProvisioningRequest provisioningRequest) {
+        var provisionRequest = validationService
+                .parse(provisioningRequest)
+                .getOrElseThrow(SpecificProvisionerValidationException::new);
+        var violations = validator.validate(provisionRequest.component());
+        if (!violations.isEmpty()) {
+            throw new SpecificProvisionerValidationException(new FailedOperation(violations.stream()
+                    .map(constraintViolation -> new Problem(String.format(
+                            "%s %s",
+                            constraintViolation.getPropertyPath().toString(), constraintViolation.getMessage())))
+                    .toList()));
+        }
+    }
+
+    public ProvisioningStatus getStatus(String token) {
+        return provisionTaskService
+                .getTask(token)
+                .map(this::toProvisioningStatus)
+                .orElseThrow(() -> new SpecificProvisionerValidationException(
+                        new FailedOperation(Collections.singletonList(new Problem(String.format(
+                                "Unable to find a provisioning operation with token '%s'. It may have expired",
+                                token))))));
+    }
+
+    private ProvisioningStatus toProvisioningStatus(Task<Option<ADFInfo>> task) {
+        var logs = task.getLogs().stream().map(this::toLog).collect(Collectors.toList());
+        return task.getResult()
+                .map(result -> result.fold(
                         failedOperation -> {
-                            throw new SpecificProvisionerValidationException(failedOperation);
+                            failedOperation
+                                    .problems()
+                                    .forEach(problem -> logs.add(new Log(
+                                            task.getCompletedAt()
+                                                    .getOrElse(task.getCreatedAt())
+                                                    .atOffset(ZoneOffset.UTC),
+                                            Log.LevelEnum.ERROR,
+                                            problem.description())));
+                            String description = failedOperation.problems().stream()
+                                    .map(Problem::description)
+                                    .collect(Collectors.joining("\n"));
+                            return new ProvisioningStatus(ProvisioningStatus.StatusEnum.FAILED, description);
                         },
-                        v -> new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, ""));
+                        optionalAdfInfo -> {
+                            var status = new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "");
+                            optionalAdfInfo.forEach(adfInfo -> {
+                                var privateInfo = Map.of(
+                                        "adfName", adfInfo.name(),
+                                        "adfInstanceId", adfInfo.instanceId(),
+                                        "adfUrl", adfInfo.url());
+                                status.info(new Info(JsonNodeFactory.instance.objectNode(), privateInfo));
+                            });
+                            return status;
+                        }))
+                .getOrElse(() -> new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, ""))
+                .logs(logs);
+    }
+
+    private ValidationResult toValidationResult(List<Problem> problems) {
+        if (problems.isEmpty()) return new ValidationResult(true);
+        return new ValidationResult(false)
+                .error(new ValidationError(
+                        problems.stream().map(Problem::description).collect(Collectors.toList())));
+    }
+
+    private Log toLog(TaskLog taskLog) {
+        return new Log(taskLog.timestamp().atOffset(ZoneOffset.UTC), Log.LevelEnum.INFO, taskLog.message())
+                .phase(taskLog.phase());
     }
 }
@@ -0,0 +1,63 @@
+package it.agilelab.witboost.datafactory.bean;
+
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.http.HttpClient;
+import com.azure.core.util.HttpClientOptions;
+import com.azure.identity.DefaultAzureCredentialBuilder;
+import com.microsoft.graph.core.requests.GraphClientFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.agilelab.witboost.datafactory.config.AzureHttpClientConfig;
+import it.agilelab.witboost.datafactory.config.TokenRefreshConfig;
+import it.agilelab.witboost.datafactory.service.token.PrefetchingTokenCredential;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/***
+ * HTTP clients and credential shared by all the Azure clients, so that they share the connection pools to Microsoft
+ * Entra ID and Azure Resource Manager and the tokens of the credential, refreshed in background
+ */
+@Configuration
+public class AzureHttpClientBean {
+
+    @Bean
+    public HttpClient azureHttpClient(AzureHttpClientConfig config) {
+        return HttpClient.createDefault(new HttpClientOptions()
+                .setMaximumConnectionPoolSize(config.maxConnections())
+                .setConnectionIdleTimeout(config.connectionIdleTimeout())
+                .setConnectTimeout(config.connectTimeout())
+                .setResponseTimeout(config.responseTimeout())
+                .setReadTimeout(config.readTimeout()));
+    }
+
+    // The Graph SDK only runs on OkHttp, which negotiates HTTP/2 with Microsoft Graph
+    @Bean
+    public OkHttpClient graphHttpClient(AzureHttpClientConfig config) {
+        return GraphClientFactory.create()
+                .connectionPool(new ConnectionPool(
+                        config.maxConnections(), config.connectionIdleTimeout().toMillis(), TimeUnit.MILLISECONDS))
+                .connectTimeout(config.connectTimeout())
+                .readTimeout(config.readTimeout())
+                .build();
+    }
+
+    @Bean
+    public TokenCredential azureTokenCredential(
+            HttpClient azureHttpClient,
+            TokenRefreshConfig tokenRefreshConfig,
+            @Qualifier("tokenRefreshExecutor") ScheduledExecutorService tokenRefreshExecutor,
+            MeterRegistry meterRegistry) {
+        return PrefetchingTokenCredential.of(
+                "management",
+                new DefaultAzureCredentialBuilder().httpClient(azureHttpClient).build(),
+                List.of("https://management.azure.com/.default"),
+                tokenRefreshConfig,
+                tokenRefreshExecutor,
+                meterRegistry);
+    }
+}
@@ -1,9 +1,9 @@
 package it.agilelab.witboost.datafactory.bean;
 
 import com.azure.core.credential.TokenCredential;
+import com.azure.core.http.HttpClient;
 import com.azure.core.management.AzureEnvironment;
 import com.azure.core.management.profile.AzureProfile;
-import com.azure.identity.DefaultAzureCredentialBuilder;
 import com.azure.resourcemanager.datafactory.DataFactoryManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,9 +12,10 @@ import org.springframework.context.annotation.Configuration;
 public class DataFactoryManagerBean {
 
     @Bean
-    public DataFactoryManager dataFactoryManager() {
+    public DataFactoryManager dataFactoryManager(HttpClient azureHttpClient, TokenCredential azureTokenCredential) {
         AzureProfile profile = new AzureProfile(AzureEnvironment.AZURE);
-        TokenCredential credential = new DefaultAzureCredentialBuilder().build();
-        return DataFactoryManager.authenticate(credential, profile);
+        return DataFactoryManager.configure()
+                .withHttpClient(azureHttpClient)
+                .authenticate(azureTokenCredential, profile);
     }
 }
@@ -0,0 +1,76 @@
+package it.agilelab.witboost.datafactory.bean;
+
+import it.agilelab.witboost.datafactory.config.AsyncConfig;
+import it.agilelab.witboost.datafactory.config.PowerShellPoolConfig;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+public class ExecutorServiceBean {
+
+    @Bean
+    public ExecutorService provisionExecutor(AsyncConfig config) {
+        return boundedExecutor("provision-", config.provision());
+    }
+
+    @Bean
+    public ExecutorService validationExecutor(AsyncConfig config) {
+        return boundedExecutor("validation-", config.validation());
+    }
+
+    @Bean
+    public ExecutorService provisionStepExecutor(AsyncConfig config) {
+        // Steps are never rejected nor run by the thread submitting them, which can be an HTTP client event loop when
+        // a step follows an asynchronous Azure call. The queue is bounded by the provisioning pool anyway: each
+        // running operation submits a handful of steps
+        return new ThreadPoolExecutor(
+                config.steps().poolSize(),
+                config.steps().poolSize(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("provision-step-"));
+    }
+
+    @Bean
+    public ExecutorService powerShellExecutor(PowerShellPoolConfig config) {
+        // Shared by the PowerShell sessions to read their output: each session of the pool keeps a thread warm, the
+        // threads started during a burst of sessions are released once idle
+        return new ThreadPoolExecutor(
+                config.size(),
+                Integer.MAX_VALUE,
+                1L,
+                TimeUnit.MINUTES,
+                new SynchronousQueue<>(),
+                new CustomizableThreadFactory("powershell-"));
+    }
+
+    @Bean
+    public ScheduledExecutorService tokenRefreshExecutor() {
+        var threadFactory = new CustomizableThreadFactory("token-refresh-");
+        threadFactory.setDaemon(true);
+        return Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    private ExecutorService boundedExecutor(String threadNamePrefix, AsyncConfig.ExecutorConfig config) {
+        // Requests exceeding the queue capacity are rejected, so that an overloaded provisioner
+        // answers immediately instead of accumulating work it won't be able to complete in time
+        return new ThreadPoolExecutor(
+                config.poolSize(),
+                config.poolSize(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.queueCapacity()),
+                new CustomizableThreadFactory(threadNamePrefix),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -1,8 +1,17 @@
 package it.agilelab.witboost.datafactory.bean;
 
+import com.azure.core.http.HttpClient;
 import com.azure.identity.ClientSecretCredentialBuilder;
+import com.microsoft.graph.core.authentication.AzureIdentityAuthenticationProvider;
 import com.microsoft.graph.serviceclient.GraphServiceClient;
+import io.micrometer.core.instrument.MeterRegistry;
 import it.agilelab.witboost.datafactory.config.GraphServiceClientConfig;
+import it.agilelab.witboost.datafactory.config.TokenRefreshConfig;
+import it.agilelab.witboost.datafactory.service.token.PrefetchingTokenCredential;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,18 +19,35 @@ import org.springframework.context.annotation.Configuration;
 public class GraphServiceClientBean {
 
     @Bean
-    public GraphServiceClient graphServiceClient(GraphServiceClientConfig config) {
+    public GraphServiceClient graphServiceClient(
+            GraphServiceClientConfig config,
+            HttpClient azureHttpClient,
+            OkHttpClient graphHttpClient,
+            TokenRefreshConfig tokenRefreshConfig,
+            @Qualifier("tokenRefreshExecutor") ScheduledExecutorService tokenRefreshExecutor,
+            MeterRegistry meterRegistry) {
         // The client credentials flow requires that you request the
         // /.default scope, and pre-configure your permissions on the
         // app registration in Azure. An administrator must grant consent
         // to those permissions beforehand.
         var scopes = new String[] {"https://graph.microsoft.com/.default"};
 
-        var credential = new ClientSecretCredentialBuilder()
-                .clientId(config.clientId())
-                .tenantId(config.tenantId())
-                .clientSecret(config.clientSecret())
-                .build();
-        return new GraphServiceClient(credential, scopes);
+        // The Graph service principal can differ from the one of the other clients, only its token requests share
+        // their connections
+        var credential = PrefetchingTokenCredential.of(
+                "graph",
+                new ClientSecretCredentialBuilder()
+                        .clientId(config.clientId())
+                        .tenantId(config.tenantId())
+                        .clientSecret(config.clientSecret())
+                        .httpClient(azureHttpClient)
+                        .build(),
+                List.of(scopes),
+                tokenRefreshConfig,
+                tokenRefreshExecutor,
+                meterRegistry);
+        var authenticationProvider =
+                new AzureIdentityAuthenticationProvider(credential, new String[] {"graph.microsoft.com"}, scopes);
+        return new GraphServiceClient(authenticationProvider, graphHttpClient);
     }
 }
@@ -3,6 +3,8 @@ package it.agilelab.witboost.datafactory.bean;
 import com.profesorfalken.jpowershell.PowerShell;
 import com.profesorfalken.jpowershell.PowerShellConfig;
 import it.agilelab.witboost.datafactory.config.PowerShellBeanConfig;
+import java.util.concurrent.ExecutorService;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,8 +15,15 @@ public class PowerShellBean {
 
     @Bean
     @Scope(value = ConfigurableBeanFactory.SCOPE_PROTOTYPE)
-    public PowerShell powershell(PowerShellBeanConfig config) {
+    public PowerShell powershell(
+            PowerShellBeanConfig config, @Qualifier("powerShellExecutor") ExecutorService executor) {
         var ps = PowerShell.openSession();
-        return ps.configuration(new PowerShellConfig(config.waitPause(), config.maxWait(), config.tempFolder()));
+        return ps.configuration(new PowerShellConfig(
+                        config.waitPause(),
+                        config.maxWait(),
+                        config.tempFolder(),
+                        config.maxOutputInMemory(),
+                        config.stopGracePeriod()))
+                .executor(executor);
     }
 }
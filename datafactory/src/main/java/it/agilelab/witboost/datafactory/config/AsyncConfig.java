@@ -0,0 +1,22 @@
+package it.agilelab.witboost.datafactory.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "async")
+public record AsyncConfig(ExecutorConfig provision, ExecutorConfig validation, StepsConfig steps) {
+
+    /***
+     * Configuration of a bounded worker pool running asynchronous operations
+     * @param poolSize number of worker threads
+     * @param queueCapacity maximum number of operations waiting for a free worker. When full, new requests are rejected
+     * @param taskRetention how long the outcome of a completed operation is kept available for polling
+     */
+    public record ExecutorConfig(int poolSize, int queueCapacity, Duration taskRetention) {}
+
+    /***
+     * Configuration of the worker pool running the independent steps of the provisioning operations in parallel
+     * @param poolSize number of worker threads, shared by all the running operations
+     */
+    public record StepsConfig(int poolSize) {}
+}
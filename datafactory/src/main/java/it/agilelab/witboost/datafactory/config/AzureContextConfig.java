@@ -0,0 +1,7 @@
+package it.agilelab.witboost.datafactory.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "powershell.azure-context")
+public record AzureContextConfig(boolean enabled, String tenantId, String clientId, Duration refreshMargin) {}
@@ -1,5 +1,6 @@
 package it.agilelab.witboost.datafactory.config;
 
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "git.azure-dev-ops")
@@ -11,4 +12,11 @@ public record AzureGitConfig(
         String rootFolder,
         String lastCommitId,
         String tenantId,
-        boolean disablePublish) {}
+        boolean disablePublish,
+        boolean shallowClone,
+        List<String> sparseCheckoutPaths) {
+
+    public AzureGitConfig {
+        sparseCheckoutPaths = sparseCheckoutPaths == null ? List.of() : List.copyOf(sparseCheckoutPaths);
+    }
+}
@@ -0,0 +1,12 @@
+package it.agilelab.witboost.datafactory.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "azure.http")
+public record AzureHttpClientConfig(
+        int maxConnections,
+        Duration connectionIdleTimeout,
+        Duration connectTimeout,
+        Duration responseTimeout,
+        Duration readTimeout) {}
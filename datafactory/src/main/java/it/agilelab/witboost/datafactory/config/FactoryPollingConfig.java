@@ -0,0 +1,7 @@
+package it.agilelab.witboost.datafactory.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "datafactory.polling")
+public record FactoryPollingConfig(Duration interval) {}
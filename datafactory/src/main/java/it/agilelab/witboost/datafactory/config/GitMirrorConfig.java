@@ -0,0 +1,7 @@
+package it.agilelab.witboost.datafactory.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "git.mirror")
+public record GitMirrorConfig(boolean enabled, String directory, DataSize maxSize) {}
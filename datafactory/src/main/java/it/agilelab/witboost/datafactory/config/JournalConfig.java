@@ -0,0 +1,6 @@
+package it.agilelab.witboost.datafactory.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "journal")
+public record JournalConfig(boolean enabled, String directory, int compactionThreshold) {}
@@ -3,4 +3,5 @@ package it.agilelab.witboost.datafactory.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "powershell")
-public record PowerShellBeanConfig(int waitPause, long maxWait, String tempFolder) {}
+public record PowerShellBeanConfig(
+        int waitPause, long maxWait, String tempFolder, int maxOutputInMemory, long stopGracePeriod) {}
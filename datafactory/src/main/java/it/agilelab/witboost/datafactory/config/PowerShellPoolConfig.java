@@ -0,0 +1,19 @@
+package it.agilelab.witboost.datafactory.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "powershell.pool")
+public record PowerShellPoolConfig(
+        int size,
+        int minIdle,
+        int maxUses,
+        Duration borrowTimeout,
+        Duration healthCheckAfterIdle,
+        List<String> warmupCommands) {
+
+    public PowerShellPoolConfig {
+        warmupCommands = warmupCommands == null ? List.of() : List.copyOf(warmupCommands);
+    }
+}
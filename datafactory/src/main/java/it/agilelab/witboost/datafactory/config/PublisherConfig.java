@@ -0,0 +1,26 @@
+package it.agilelab.witboost.datafactory.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/***
+ * Configuration of the Data Factory publication
+ * @param engine the engine publishing the Data Factory resources
+ * @param parallelism number of objects deployed or deleted concurrently by the native engine, within a dependency
+ *                    level
+ * @param incremental if true, the native engine deploys only the objects changed since the last deployment
+ * @param stateDirectory directory holding the objects deployed to each factory by the native engine
+ */
+@ConfigurationProperties(prefix = "publisher")
+public record PublisherConfig(Engine engine, int parallelism, boolean incremental, String stateDirectory) {
+
+    public enum Engine {
+        /***
+         * Publish-AdfV2FromJson, run by the PowerShell module azure.datafactory.tools
+         */
+        POWERSHELL,
+        /***
+         * Deployment through the Data Factory SDK, in the JVM
+         */
+        NATIVE
+    }
+}
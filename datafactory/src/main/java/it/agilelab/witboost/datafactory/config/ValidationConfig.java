@@ -0,0 +1,22 @@
+package it.agilelab.witboost.datafactory.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/***
+ * Configuration of the validation of the Data Factory resources
+ * @param engine the engine validating the Data Factory resources
+ */
+@ConfigurationProperties(prefix = "validation")
+public record ValidationConfig(Engine engine) {
+
+    public enum Engine {
+        /***
+         * Test-AdfCode, run by the PowerShell module azure.datafactory.tools
+         */
+        POWERSHELL,
+        /***
+         * Checks of the repository structure run in the JVM
+         */
+        NATIVE
+    }
+}
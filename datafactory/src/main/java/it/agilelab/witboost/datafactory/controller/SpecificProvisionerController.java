@@ -13,6 +13,10 @@ import org.springframework.stereotype.Service;
  * V1ApiDelegate} interface. The interface defaults the endpoints to throw 501 Not Implemented
  * unless overridden in this class.
  *
+ * <p>Provision and unprovision requests are run asynchronously: once their descriptor is checked,
+ * they are answered with 202 Accepted and a token that can be used to poll the operation status
+ * through {@link #getStatus(String)}. Malformed descriptors are answered with 400 Bad Request.
+ *
  * <p>Exceptions thrown will be handled by {@link SpecificProvisionerExceptionHandler}
  */
 @Service
@@ -25,13 +29,18 @@ public class SpecificProvisionerController implements V1ApiDelegate {
     }
 
     @Override
-    public ResponseEntity<ProvisioningStatus> provision(ProvisioningRequest provisioningRequest) {
-        return ResponseEntity.ok(apiService.provision(provisioningRequest));
+    public ResponseEntity<String> provision(ProvisioningRequest provisioningRequest) {
+        return ResponseEntity.accepted().body(apiService.provision(provisioningRequest));
+    }
+
+    @Override
+    public ResponseEntity<ProvisioningStatus> getStatus(String token) {
+        return ResponseEntity.ok(apiService.getStatus(token));
     }
 
     @Override
-    public ResponseEntity<ProvisioningStatus> unprovision(ProvisioningRequest provisioningRequest) {
-        return ResponseEntity.ok(apiService.unprovision(provisioningRequest));
+    public ResponseEntity<String> unprovision(ProvisioningRequest provisioningRequest) {
+        return ResponseEntity.accepted().body(apiService.unprovision(provisioningRequest));
     }
 
     @Override
@@ -0,0 +1,35 @@
+package it.agilelab.witboost.datafactory.controller;
+
+import it.agilelab.witboost.datafactory.api.ApiServiceImpl;
+import it.agilelab.witboost.datafactory.openapi.controller.V2ApiDelegate;
+import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.datafactory.openapi.model.ValidationStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+/**
+ * API Controller for the asynchronous validation endpoints, which implements the autogenerated
+ * {@link V2ApiDelegate} interface. Validation requests are answered with 202 Accepted and a token
+ * that can be used to poll the validation status through {@link #getValidationStatus(String)}.
+ *
+ * <p>Exceptions thrown will be handled by {@link SpecificProvisionerExceptionHandler}
+ */
+@Service
+public class SpecificProvisionerV2Controller implements V2ApiDelegate {
+
+    private final ApiServiceImpl apiService;
+
+    public SpecificProvisionerV2Controller(ApiServiceImpl apiService) {
+        this.apiService = apiService;
+    }
+
+    @Override
+    public ResponseEntity<String> asyncValidate(ProvisioningRequest provisioningRequest) {
+        return ResponseEntity.accepted().body(apiService.asyncValidate(provisioningRequest));
+    }
+
+    @Override
+    public ResponseEntity<ValidationStatus> getValidationStatus(String token) {
+        return ResponseEntity.ok(apiService.getValidationStatus(token));
+    }
+}
@@ -2,6 +2,7 @@ package it.agilelab.witboost.datafactory.service;
 
 import io.vavr.control.Either;
 import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.service.powershell.ScriptResult;
 
 /***
  * azure.datafactory.tools PowerShell wrapper
@@ -9,23 +10,29 @@ import it.agilelab.witboost.datafactory.common.FailedOperation;
 public interface ADFToolsWrapperService {
 
     /***
-     * Call the Test-AdfCode PS cmdlet
+     * Call the Test-AdfCode PS cmdlet, or the native validator if configured
      * @param repositoryPath the path where the GIT repository containing the ADF resources is cloned
      * @return nothing or the error encountered
      */
     Either<FailedOperation, Void> validate(String repositoryPath);
 
     /***
-     * Call the Publish-AdfV2FromJson PS cmdlet
+     * Identify the validation logic, so that validation outcomes can be reused until it changes
+     * @return a hash of the validation script
+     */
+    String validatorFingerprint();
+
+    /***
+     * Call the Publish-AdfV2FromJson PS cmdlet, or the native publisher if configured
      * @param repositoryPath the path where the GIT repository containing the ADF resources is cloned
      * @param resourceGroup the resource group of the Data Factory
      * @param dataFactoryName the Data Factory name
      * @param location the location of the Data Factory
      * @param environment the deployment environment
      * @param isDevEnvironment true if the deployment environment is the development one
-     * @return nothing or the error encountered
+     * @return the objects published and the time spent in each phase, or the error encountered
      */
-    Either<FailedOperation, Void> publish(
+    Either<FailedOperation, ScriptResult> publish(
             String repositoryPath,
             String resourceGroup,
             String dataFactoryName,
@@ -3,17 +3,31 @@ package it.agilelab.witboost.datafactory.service;
 import static io.vavr.control.Either.left;
 import static io.vavr.control.Either.right;
 
-import com.profesorfalken.jpowershell.PowerShell;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.profesorfalken.jpowershell.PowerShellResponse;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.vavr.control.Either;
+import io.vavr.control.Option;
 import it.agilelab.witboost.datafactory.common.FailedOperation;
 import it.agilelab.witboost.datafactory.common.Problem;
-import java.io.*;
+import it.agilelab.witboost.datafactory.config.PublisherConfig;
+import it.agilelab.witboost.datafactory.config.ValidationConfig;
+import it.agilelab.witboost.datafactory.service.powershell.AzureContextService;
+import it.agilelab.witboost.datafactory.service.powershell.PowerShellLease;
+import it.agilelab.witboost.datafactory.service.powershell.PowerShellPool;
+import it.agilelab.witboost.datafactory.service.powershell.ScriptRegistry;
+import it.agilelab.witboost.datafactory.service.powershell.ScriptResult;
+import it.agilelab.witboost.datafactory.service.powershell.ScriptResultCollector;
+import it.agilelab.witboost.datafactory.service.publish.DeploymentStateStore;
+import it.agilelab.witboost.datafactory.service.publish.NativePublisher;
+import it.agilelab.witboost.datafactory.service.validation.NativeValidator;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.ApplicationContext;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -21,25 +35,54 @@ public class ADFToolsWrapperServiceImpl implements ADFToolsWrapperService {
 
     private final Logger logger = LoggerFactory.getLogger(ADFToolsWrapperServiceImpl.class);
 
-    private final ApplicationContext applicationContext;
+    private final PowerShellPool powerShellPool;
+    private final AzureContextService azureContextService;
+    private final ObjectMapper objectMapper;
+    private final ScriptRegistry scriptRegistry;
+    private final MeterRegistry meterRegistry;
+    private final NativePublisher nativePublisher;
+    private final PublisherConfig publisherConfig;
+    private final DeploymentStateStore deploymentStateStore;
+    private final NativeValidator nativeValidator;
+    private final ValidationConfig validationConfig;
 
-    @Value("classpath:validate.ps1")
-    private Resource validateScript;
-
-    @Value("classpath:publish.ps1")
-    private Resource publishScript;
-
-    public ADFToolsWrapperServiceImpl(ApplicationContext applicationContext) {
-        this.applicationContext = applicationContext;
+    public ADFToolsWrapperServiceImpl(
+            PowerShellPool powerShellPool,
+            AzureContextService azureContextService,
+            ObjectMapper objectMapper,
+            ScriptRegistry scriptRegistry,
+            MeterRegistry meterRegistry,
+            NativePublisher nativePublisher,
+            PublisherConfig publisherConfig,
+            DeploymentStateStore deploymentStateStore,
+            NativeValidator nativeValidator,
+            ValidationConfig validationConfig) {
+        this.powerShellPool = powerShellPool;
+        this.azureContextService = azureContextService;
+        this.objectMapper = objectMapper;
+        this.scriptRegistry = scriptRegistry;
+        this.meterRegistry = meterRegistry;
+        this.nativePublisher = nativePublisher;
+        this.publisherConfig = publisherConfig;
+        this.deploymentStateStore = deploymentStateStore;
+        this.nativeValidator = nativeValidator;
+        this.validationConfig = validationConfig;
     }
 
     @Override
     public Either<FailedOperation, Void> validate(String repositoryPath) {
-        try (var ps = createPS();
-                var reader = new BufferedReader(new InputStreamReader(validateScript.getInputStream()))) {
+        if (validationConfig.engine() == ValidationConfig.Engine.NATIVE) {
+            return nativeValidator.validate(repositoryPath);
+        }
+        var script = scriptRegistry.path(ScriptRegistry.VALIDATE_SCRIPT);
+        if (script.isLeft()) return left(script.getLeft());
+        try (var lease = powerShellPool.borrow()) {
             String params = String.format("-RootFolder \"%s\"", repositoryPath);
-            var psResponse = ps.executeScript(reader, params);
+            var execution = executeScript(lease, "validation", script.get(), params);
+            var psResponse = execution.response();
             if (psResponse.isError()) {
+                // The session state is unknown after a failure, it is not given back to the pool
+                lease.invalidate();
                 String errorMessage = String.format(
                         "An error occurred while executing the PS validation command. Please try again and if the error persists contact the platform team. Details: isTimeout: %s, isError: %s",
                         psResponse.isTimeout(), psResponse.isError());
@@ -47,34 +90,52 @@ public class ADFToolsWrapperServiceImpl implements ADFToolsWrapperService {
                 logger.error(psResponse.getCommandOutput());
                 return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
             }
-            if (psResponse.getCommandOutput().contains("VALIDATION_KO")) {
+            var scriptResult = execution.result();
+            if (!scriptResult.isReported()) return notReported("validation", psResponse);
+            if (!scriptResult.isSucceeded()) {
                 String errorMessage = String.format(
-                        "The PS validation command returned one or more errors. Details: %s",
-                        psResponse.getCommandOutput());
+                        "The PS validation command returned one or more errors. Details: %d errors, %d warnings%s",
+                        scriptResult.errorCount(),
+                        scriptResult.warningCount(),
+                        scriptResult.message().map(m -> ". " + m).getOrElse(""));
                 logger.error(errorMessage);
                 return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
             }
-            logger.debug(psResponse.getCommandOutput());
+            logger.info("Validation completed with {} warnings", scriptResult.warningCount());
             return right(null);
-        } catch (IOException ex) {
-            String errorMessage = String.format(
-                    "An error occurred while validating the content of the GIT repository. Please try again and if the error persists contact the platform team. Details: %s",
-                    ex.getMessage());
-            logger.error(errorMessage, ex);
-            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, ex))));
         }
     }
 
     @Override
-    public Either<FailedOperation, Void> publish(
+    public String validatorFingerprint() {
+        if (validationConfig.engine() == ValidationConfig.Engine.NATIVE) {
+            return NativeValidator.FINGERPRINT;
+        }
+        return scriptRegistry.fingerprint(ScriptRegistry.VALIDATE_SCRIPT);
+    }
+
+    @Override
+    public Either<FailedOperation, ScriptResult> publish(
             String repositoryPath,
             String resourceGroup,
             String dataFactoryName,
             String location,
             String environment,
             boolean isDevEnvironment) {
-        try (var ps = createPS();
-                var reader = new BufferedReader(new InputStreamReader(publishScript.getInputStream()))) {
+        if (publisherConfig.engine() == PublisherConfig.Engine.NATIVE) {
+            return nativePublisher
+                    .publish(
+                            repositoryPath,
+                            resourceGroup,
+                            dataFactoryName,
+                            isDevEnvironment ? Option.none() : Option.of(environment))
+                    .flatMap(result -> publishOutcome("native publish", result));
+        }
+        var script = scriptRegistry.path(ScriptRegistry.PUBLISH_SCRIPT);
+        if (script.isLeft()) return left(script.getLeft());
+        // The objects recorded by the native engine no longer match the factory
+        deploymentStateStore.remove(resourceGroup, dataFactoryName);
+        try (var lease = powerShellPool.borrow()) {
             StringBuilder sb = new StringBuilder(String.format("-RootFolder \"%s\"", repositoryPath));
             sb.append(String.format(" -ResourceGroupName \"%s\"", resourceGroup));
             sb.append(String.format(" -DataFactoryName \"%s\"", dataFactoryName));
@@ -82,8 +143,19 @@ public class ADFToolsWrapperServiceImpl implements ADFToolsWrapperService {
             if (!isDevEnvironment) {
                 sb.append(String.format(" -Stage \"%s\"", environment));
             }
-            var psResponse = ps.executeScript(reader, sb.toString());
+            if (azureContextService.isEnabled()) {
+                var authenticated = azureContextService.ensureAuthenticated(lease.session());
+                if (authenticated.isLeft()) {
+                    lease.invalidate();
+                    return left(authenticated.getLeft());
+                }
+                sb.append(" -SkipLogin");
+            }
+            var execution = executeScript(lease, "publish", script.get(), sb.toString());
+            var psResponse = execution.response();
             if (psResponse.isError()) {
+                // The session state is unknown after a failure, it is not given back to the pool
+                lease.invalidate();
                 String errorMessage = String.format(
                         "An error occurred while executing the PS publish command. Please try again and if the error persists contact the platform team. Details: isTimeout: %s, isError: %s",
                         psResponse.isTimeout(), psResponse.isError());
@@ -91,25 +163,61 @@ public class ADFToolsWrapperServiceImpl implements ADFToolsWrapperService {
                 logger.error(psResponse.getCommandOutput());
                 return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
             }
-            if (psResponse.getCommandOutput().contains("PUBLISH_KO")) {
-                String errorMessage = String.format(
-                        "The PS publish command returned one or more errors. Details: %s",
-                        psResponse.getCommandOutput());
-                logger.error(errorMessage);
-                return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
-            }
-            logger.debug(psResponse.getCommandOutput());
-            return right(null);
-        } catch (IOException ex) {
+            var scriptResult = execution.result();
+            if (!scriptResult.isReported()) return notReported("publish", psResponse);
+            return publishOutcome("PS publish", scriptResult);
+        }
+    }
+
+    private Either<FailedOperation, ScriptResult> publishOutcome(String command, ScriptResult scriptResult) {
+        if (!scriptResult.isSucceeded()) {
+            List<Problem> problems = new ArrayList<>();
             String errorMessage = String.format(
-                    "An error occurred while publishing resources on Data Factory. Please try again and if the error persists contact the platform team. Details: %s",
-                    ex.getMessage());
-            logger.error(errorMessage, ex);
-            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, ex))));
+                    "The %s command returned one or more errors. Details: %s",
+                    command, scriptResult.message().getOrElse("one or more objects failed"));
+            logger.error(errorMessage);
+            problems.add(new Problem(errorMessage));
+            scriptResult.failedObjects().forEach(object -> {
+                String objectMessage = String.format(
+                        "The publication of the %s '%s' failed. Details: %s",
+                        object.type(), object.name(), object.error().getOrElse(object.status()));
+                logger.error(objectMessage);
+                problems.add(new Problem(objectMessage));
+            });
+            return left(new FailedOperation(problems));
+        }
+        logger.info(
+                "Publish completed: {} objects, phases {}",
+                scriptResult.objects().size(),
+                scriptResult.phases());
+        return right(scriptResult);
+    }
+
+    private record ScriptExecution(PowerShellResponse response, ScriptResult result) {}
+
+    // The result records are decoded line by line while the script runs, the rest of the output is only logged
+    private ScriptExecution executeScript(PowerShellLease lease, String command, Path script, String params) {
+        var collector = new ScriptResultCollector(objectMapper, logger::debug);
+        var psResponse = lease.session().executeScript(script.toString(), params, collector);
+        psResponse.getOutputFile().ifPresent(File::delete);
+        if (psResponse.isTimeout()) {
+            meterRegistry
+                    .counter("powershell.command.timeouts", "command", command)
+                    .increment();
+        }
+        if (psResponse.isKilled()) {
+            meterRegistry
+                    .counter("powershell.command.kills", "command", command)
+                    .increment();
         }
+        return new ScriptExecution(psResponse, collector.result());
     }
 
-    private PowerShell createPS() {
-        return applicationContext.getBean(PowerShell.class);
+    private <T> Either<FailedOperation, T> notReported(String command, PowerShellResponse psResponse) {
+        String errorMessage = String.format(
+                "The PS %s command ended without reporting a result. Please try again and if the error persists contact the platform team. Details: %s",
+                command, psResponse.getCommandOutput());
+        logger.error(errorMessage);
+        return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
     }
 }
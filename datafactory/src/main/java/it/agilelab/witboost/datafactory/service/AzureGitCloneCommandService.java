@@ -2,12 +2,17 @@ package it.agilelab.witboost.datafactory.service;
 
 import it.agilelab.witboost.datafactory.config.AzureGitConfig;
 import java.io.File;
+import java.util.List;
+import java.util.Objects;
 import org.eclipse.jgit.api.CloneCommand;
+import org.eclipse.jgit.api.FetchCommand;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 @Service
 public class AzureGitCloneCommandService {
@@ -21,16 +26,75 @@ public class AzureGitCloneCommandService {
     }
 
     /***
-     * Build a CloneCommand object
+     * Build a CloneCommand object. The clone is shallow if configured, and skips the checkout if a sparse
+     * checkout is configured: the paths returned by {@link #sparseCheckoutPaths()} are then checked out
      * @param repoURI the repository to clone
      * @param path the directory where the repository is cloned
      * @return the CloneCommand object
      */
     public CloneCommand build(String repoURI, File path) {
+        return withCheckoutOptions(Git.cloneRepository()
+                .setURI(repoURI)
+                .setDirectory(path)
+                .setCredentialsProvider(
+                        new UsernamePasswordCredentialsProvider(azureGitConfig.username(), azureGitConfig.password())));
+    }
+
+    /***
+     * @return the paths to check out, relative to the repository root, or an empty list to check out everything
+     */
+    public List<String> sparseCheckoutPaths() {
+        String rootFolder = StringUtils.trimTrailingCharacter(
+                StringUtils.trimLeadingCharacter(Objects.toString(azureGitConfig.rootFolder(), ""), '/'), '/');
+        return azureGitConfig.sparseCheckoutPaths().stream()
+                .map(sparsePath -> rootFolder.isEmpty() ? sparsePath : rootFolder + "/" + sparsePath)
+                .toList();
+    }
+
+    private CloneCommand withCheckoutOptions(CloneCommand cloneCommand) {
+        if (azureGitConfig.shallowClone()) cloneCommand.setDepth(1);
+        if (!azureGitConfig.sparseCheckoutPaths().isEmpty()) cloneCommand.setNoCheckout(true);
+        return cloneCommand;
+    }
+
+    /***
+     * Build a CloneCommand object creating a bare mirror of a repository, with all its references
+     * @param repoURI the repository to mirror
+     * @param path the directory of the mirror
+     * @return the CloneCommand object
+     */
+    public CloneCommand buildMirror(String repoURI, File path) {
         return Git.cloneRepository()
                 .setURI(repoURI)
                 .setDirectory(path)
+                .setMirror(true)
+                .setCredentialsProvider(
+                        new UsernamePasswordCredentialsProvider(azureGitConfig.username(), azureGitConfig.password()));
+    }
+
+    /***
+     * Build a FetchCommand object updating a mirror created with {@link #buildMirror(String, File)}, removing
+     * the references deleted on the remote
+     * @param mirror the mirror repository
+     * @return the FetchCommand object
+     */
+    public FetchCommand buildMirrorFetch(Git mirror) {
+        return mirror.fetch()
+                .setRemote(Constants.DEFAULT_REMOTE_NAME)
+                .setRemoveDeletedRefs(true)
                 .setCredentialsProvider(
                         new UsernamePasswordCredentialsProvider(azureGitConfig.username(), azureGitConfig.password()));
     }
+
+    /***
+     * Build a CloneCommand object cloning a local mirror, without network access. The checkout options are the
+     * same of {@link #build(String, File)}
+     * @param mirror the directory of the mirror
+     * @param path the directory where the repository is cloned
+     * @return the CloneCommand object
+     */
+    public CloneCommand buildFromMirror(File mirror, File path) {
+        return withCheckoutOptions(
+                Git.cloneRepository().setURI(mirror.toURI().toString()).setDirectory(path));
+    }
 }
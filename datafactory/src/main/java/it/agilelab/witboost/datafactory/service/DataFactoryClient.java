@@ -3,6 +3,9 @@ package it.agilelab.witboost.datafactory.service;
 import io.vavr.control.Either;
 import it.agilelab.witboost.datafactory.common.FailedOperation;
 import it.agilelab.witboost.datafactory.model.FactoryGitConfiguration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /***
  * Data Factory services
@@ -14,17 +17,21 @@ public interface DataFactoryClient {
      * @param resourceGroup resource group where to create the data factory
      * @param region region where to create the data factory
      * @param name name of data factory to create
+     * @param onCreated run when the data factory did not exist and was created, before returning
      * @return the ID of the created data factory or the error encountered
      */
-    Either<FailedOperation, String> createADF(String resourceGroup, String region, String name);
+    Either<FailedOperation, String> createADF(String resourceGroup, String region, String name, Runnable onCreated);
 
     /***
-     * Delete an Azure Data Factory instance. If the instance doesn't exist, no error is returned
+     * Delete an Azure Data Factory instance. If the instance doesn't exist, no error is returned. When Azure accepts
+     * the deletion as a long-running operation, the operation is polled until it completes
      * @param resourceGroup resource group of the data factory to delete
      * @param name name of the data factory to delete
-     * @return nothing or the error encountered
+     * @param onProgress notified with a description while the deletion is in progress
+     * @return a future completed with nothing or the error encountered, without blocking a thread while waiting
      */
-    Either<FailedOperation, Void> deleteADF(String resourceGroup, String name);
+    CompletableFuture<Either<FailedOperation, Void>> deleteADFAsync(
+            String resourceGroup, String name, Consumer<String> onProgress);
 
     /***
      * Link a GIT repository to an existing Data Factory instance. If the ADF instance doesn't exist, an error is returned. If there's already a linked repository, no operation is performed
@@ -36,4 +43,52 @@ public interface DataFactoryClient {
      */
     Either<FailedOperation, Void> linkGitRepository(
             String resourceGroup, String region, String name, FactoryGitConfiguration factoryGitConfiguration);
+
+    /***
+     * Create or update an object (pipeline, dataset, etc.) of an existing Data Factory instance
+     * @param resourceGroup resource group of the existing data factory
+     * @param name name of the existing data factory
+     * @param objectPath path of the object relative to the data factory, e.g. pipelines/pipeline1
+     * @param body the JSON body of the object, holding its properties
+     * @return a future completed with nothing or the error encountered, without blocking a thread while waiting
+     */
+    CompletableFuture<Either<FailedOperation, Void>> deployObjectAsync(
+            String resourceGroup, String name, String objectPath, String body);
+
+    /***
+     * Delete an object (pipeline, dataset, etc.) of an existing Data Factory instance. Deleting an object that does
+     * not exist is not an error
+     * @param resourceGroup resource group of the existing data factory
+     * @param name name of the existing data factory
+     * @param objectPath path of the object relative to the data factory, e.g. pipelines/pipeline1
+     * @return a future completed with nothing or the error encountered, without blocking a thread while waiting
+     */
+    CompletableFuture<Either<FailedOperation, Void>> deleteObjectAsync(
+            String resourceGroup, String name, String objectPath);
+
+    /***
+     * List the triggers of an existing Data Factory instance that are started
+     * @param resourceGroup resource group of the existing data factory
+     * @param name name of the existing data factory
+     * @return the names of the started triggers or the error encountered
+     */
+    Either<FailedOperation, Set<String>> listStartedTriggers(String resourceGroup, String name);
+
+    /***
+     * Start a trigger of an existing Data Factory instance
+     * @param resourceGroup resource group of the existing data factory
+     * @param name name of the existing data factory
+     * @param triggerName name of the trigger to start
+     * @return nothing or the error encountered
+     */
+    Either<FailedOperation, Void> startTrigger(String resourceGroup, String name, String triggerName);
+
+    /***
+     * Stop a trigger of an existing Data Factory instance
+     * @param resourceGroup resource group of the existing data factory
+     * @param name name of the existing data factory
+     * @param triggerName name of the trigger to stop
+     * @return nothing or the error encountered
+     */
+    Either<FailedOperation, Void> stopTrigger(String resourceGroup, String name, String triggerName);
 }
@@ -2,19 +2,48 @@ package it.agilelab.witboost.datafactory.service;
 
 import static io.vavr.control.Either.left;
 import static io.vavr.control.Either.right;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
+import com.azure.core.exception.HttpResponseException;
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.rest.Response;
+import com.azure.core.http.rest.SimpleResponse;
 import com.azure.core.management.exception.ManagementException;
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.Context;
+import com.azure.core.util.polling.DefaultPollingStrategy;
+import com.azure.core.util.polling.LongRunningOperationStatus;
+import com.azure.core.util.polling.PollerFlux;
+import com.azure.core.util.serializer.TypeReference;
 import com.azure.resourcemanager.datafactory.DataFactoryManager;
+import com.azure.resourcemanager.datafactory.models.Factory;
 import com.azure.resourcemanager.datafactory.models.FactoryRepoUpdate;
 import com.azure.resourcemanager.datafactory.models.FactoryVstsConfiguration;
+import com.azure.resourcemanager.datafactory.models.TriggerResource;
+import com.azure.resourcemanager.datafactory.models.TriggerRuntimeState;
 import io.vavr.control.Either;
 import it.agilelab.witboost.datafactory.common.FailedOperation;
 import it.agilelab.witboost.datafactory.common.Problem;
+import it.agilelab.witboost.datafactory.config.FactoryCacheConfig;
+import it.agilelab.witboost.datafactory.config.FactoryPollingConfig;
 import it.agilelab.witboost.datafactory.model.FactoryGitConfiguration;
+import java.time.Instant;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 @Service
 public class DataFactoryClientImpl implements DataFactoryClient {
@@ -22,22 +51,42 @@ public class DataFactoryClientImpl implements DataFactoryClient {
     private final Logger logger = LoggerFactory.getLogger(DataFactoryClientImpl.class);
 
     private final DataFactoryManager manager;
+    private final FactoryCacheConfig cacheConfig;
+    private final FactoryPollingConfig pollingConfig;
 
-    public DataFactoryClientImpl(DataFactoryManager manager) {
+    private record CachedFactory(Factory factory, Instant cachedAt) {}
+
+    // Factories found or created recently, by resource group and name. Only existing factories are cached
+    private final LinkedHashMap<String, CachedFactory> factories;
+
+    public DataFactoryClientImpl(
+            DataFactoryManager manager, FactoryCacheConfig cacheConfig, FactoryPollingConfig pollingConfig) {
         this.manager = manager;
+        this.cacheConfig = cacheConfig;
+        this.pollingConfig = pollingConfig;
+        this.factories = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedFactory> eldest) {
+                return size() > cacheConfig.maxEntries();
+            }
+        };
     }
 
     @Override
-    public Either<FailedOperation, String> createADF(String resourceGroup, String region, String name) {
+    public Either<FailedOperation, String> createADF(
+            String resourceGroup, String region, String name, Runnable onCreated) {
         try {
-            var factories = manager.factories().listByResourceGroup(resourceGroup);
-            var optExistingFactory =
-                    factories.stream().filter(f -> f.name().equals(name)).findFirst();
-            var factory = optExistingFactory.orElseGet(() -> manager.factories()
-                    .define(name)
-                    .withRegion(region)
-                    .withExistingResourceGroup(resourceGroup)
-                    .create());
+            var optExistingFactory = findFactory(resourceGroup, name);
+            var factory = optExistingFactory.orElseGet(() -> {
+                var created = manager.factories()
+                        .define(name)
+                        .withRegion(region)
+                        .withExistingResourceGroup(resourceGroup)
+                        .create();
+                cache(resourceGroup, name, created);
+                onCreated.run();
+                return created;
+            });
             return right(factory.id());
         } catch (ManagementException e) {
             String errorMessage = String.format(
@@ -49,29 +98,70 @@ public class DataFactoryClientImpl implements DataFactoryClient {
     }
 
     @Override
-    public Either<FailedOperation, Void> deleteADF(String resourceGroup, String name) {
-        try {
-            var factories = manager.factories().listByResourceGroup(resourceGroup);
-            var optExistingFactory =
-                    factories.stream().filter(f -> f.name().equals(name)).findFirst();
-            optExistingFactory.ifPresent(factory -> manager.factories().deleteById(factory.id()));
-            return right(null);
-        } catch (ManagementException e) {
-            String errorMessage = String.format(
-                    "An error occurred while deleting the ADF '%s' on resource group %s. Please try again and if the error persists contact the platform team. Details: %s",
-                    name, resourceGroup, e.getMessage());
-            logger.error(errorMessage, e);
-            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
-        }
+    public CompletableFuture<Either<FailedOperation, Void>> deleteADFAsync(
+            String resourceGroup, String name, Consumer<String> onProgress) {
+        // Deleting a factory that does not exist succeeds, so no lookup is needed
+        evict(resourceGroup, name);
+        var client = manager.serviceClient();
+        var request = new HttpRequest(HttpMethod.DELETE, factoryUrl(resourceGroup, name, null));
+        // Azure answers either with the outcome or with 202 and the URL of the operation to follow. The poller follows
+        // the Azure-AsyncOperation or Location header at the interval advised by Retry-After, waiting on timers
+        // instead of threads
+        return PollerFlux.create(
+                        pollingConfig.interval(),
+                        () -> client.getHttpPipeline()
+                                .send(request, Context.NONE)
+                                .flatMap(this::toResponse),
+                        new DefaultPollingStrategy<BinaryData, BinaryData>(client.getHttpPipeline()),
+                        TypeReference.createInstance(BinaryData.class),
+                        TypeReference.createInstance(BinaryData.class))
+                .doOnNext(response -> {
+                    if (!response.getStatus().isComplete()) {
+                        onProgress.accept(String.format("The deletion of the Data Factory '%s' is in progress", name));
+                    }
+                })
+                .last()
+                .<Either<FailedOperation, Void>>map(response -> {
+                    if (response.getStatus() == LongRunningOperationStatus.SUCCESSFULLY_COMPLETED) return right(null);
+                    String errorMessage = String.format(
+                            "An error occurred while deleting the ADF '%s' on resource group %s. Please try again and if the error persists contact the platform team. Details: the operation ended with status %s",
+                            name, resourceGroup, response.getStatus());
+                    logger.error(errorMessage);
+                    return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+                })
+                .onErrorResume(e -> {
+                    String errorMessage = String.format(
+                            "An error occurred while deleting the ADF '%s' on resource group %s. Please try again and if the error persists contact the platform team. Details: %s",
+                            name, resourceGroup, e.getMessage());
+                    logger.error(errorMessage, e);
+                    return Mono.just(
+                            left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e)))));
+                })
+                .toFuture();
+    }
+
+    // The polling strategies need the initial response with its body, the failures are reported with the body sent by
+    // Azure
+    private Mono<Response<BinaryData>> toResponse(HttpResponse response) {
+        return response.getBodyAsByteArray().defaultIfEmpty(new byte[0]).flatMap(body -> {
+            response.close();
+            if (response.getStatusCode() / 100 != 2) {
+                return Mono.error(new HttpResponseException(
+                        String.format("HTTP %d %s", response.getStatusCode(), new String(body, UTF_8)), response));
+            }
+            return Mono.just(new SimpleResponse<>(
+                    response.getRequest(),
+                    response.getStatusCode(),
+                    response.getHeaders(),
+                    BinaryData.fromBytes(body)));
+        });
     }
 
     @Override
     public Either<FailedOperation, Void> linkGitRepository(
             String resourceGroup, String region, String name, FactoryGitConfiguration factoryGitConfiguration) {
         try {
-            var factories = manager.factories().listByResourceGroup(resourceGroup);
-            var optExistingFactory =
-                    factories.stream().filter(f -> f.name().equals(name)).findFirst();
+            var optExistingFactory = findFactory(resourceGroup, name);
             if (optExistingFactory.isEmpty()) {
                 String errorMessage = String.format(
                         "Cannot link the Git repository to ADF: unable to find ADF instance named '%s' on resource group %s",
@@ -81,6 +171,7 @@ public class DataFactoryClientImpl implements DataFactoryClient {
             }
             var factory = optExistingFactory.get();
             if (factory.repoConfiguration() == null) {
+                evict(resourceGroup, name);
                 manager.factories()
                         .configureFactoryRepo(
                                 region,
@@ -105,4 +196,151 @@ public class DataFactoryClientImpl implements DataFactoryClient {
             return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
         }
     }
+
+    // Looks the factory up by name, from the cache if it was seen within the TTL
+    private Optional<Factory> findFactory(String resourceGroup, String name) {
+        var cached = cached(resourceGroup, name);
+        if (cached.isPresent()) return cached;
+        try {
+            var factory = manager.factories().getByResourceGroup(resourceGroup, name);
+            cache(resourceGroup, name, factory);
+            return Optional.ofNullable(factory);
+        } catch (ManagementException e) {
+            if (e.getResponse() != null && e.getResponse().getStatusCode() == 404) return Optional.empty();
+            throw e;
+        }
+    }
+
+    private synchronized Optional<Factory> cached(String resourceGroup, String name) {
+        if (!cacheConfig.enabled()) return Optional.empty();
+        var key = cacheKey(resourceGroup, name);
+        var cached = factories.get(key);
+        if (cached == null) return Optional.empty();
+        if (!cached.cachedAt().plus(cacheConfig.ttl()).isAfter(Instant.now())) {
+            factories.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(cached.factory());
+    }
+
+    private synchronized void cache(String resourceGroup, String name, Factory factory) {
+        if (!cacheConfig.enabled() || factory == null) return;
+        factories.put(cacheKey(resourceGroup, name), new CachedFactory(factory, Instant.now()));
+    }
+
+    private synchronized void evict(String resourceGroup, String name) {
+        factories.remove(cacheKey(resourceGroup, name));
+    }
+
+    // Resource group and factory names are case-insensitive
+    private static String cacheKey(String resourceGroup, String name) {
+        return (resourceGroup + "/" + name).toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public CompletableFuture<Either<FailedOperation, Void>> deployObjectAsync(
+            String resourceGroup, String name, String objectPath, String body) {
+        return sendObjectRequest(HttpMethod.PUT, resourceGroup, name, objectPath, body, "deploying '%s' to");
+    }
+
+    @Override
+    public CompletableFuture<Either<FailedOperation, Void>> deleteObjectAsync(
+            String resourceGroup, String name, String objectPath) {
+        return sendObjectRequest(HttpMethod.DELETE, resourceGroup, name, objectPath, null, "deleting '%s' from");
+    }
+
+    private CompletableFuture<Either<FailedOperation, Void>> sendObjectRequest(
+            HttpMethod method, String resourceGroup, String name, String objectPath, String body, String action) {
+        // The objects are sent as they are stored in the repository, so the REST API is called through the
+        // pipeline of the SDK instead of mapping each object type to its SDK model. The pipeline is non-blocking:
+        // no thread waits for the response
+        var client = manager.serviceClient();
+        var request = new HttpRequest(method, factoryUrl(resourceGroup, name, objectPath));
+        if (body != null) {
+            request.setHeader(HttpHeaderName.CONTENT_TYPE, "application/json").setBody(body);
+        }
+        String operation = String.format(action, objectPath);
+        return client.getHttpPipeline()
+                .send(request, Context.NONE)
+                .flatMap(response ->
+                        outcome(response, operation, resourceGroup, name).doFinally(signal -> response.close()))
+                .onErrorResume(e -> {
+                    String errorMessage = String.format(
+                            "An error occurred while %s ADF '%s' on resource group %s. Please try again and if the error persists contact the platform team. Details: %s",
+                            operation, name, resourceGroup, e.getMessage());
+                    logger.error(errorMessage, e);
+                    return Mono.just(
+                            left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e)))));
+                })
+                .toFuture();
+    }
+
+    private String factoryUrl(String resourceGroup, String name, String objectPath) {
+        var client = manager.serviceClient();
+        return String.format(
+                "%s/subscriptions/%s/resourceGroups/%s/providers/Microsoft.DataFactory/factories/%s%s?api-version=%s",
+                client.getEndpoint().replaceAll("/+$", ""),
+                client.getSubscriptionId(),
+                resourceGroup,
+                name,
+                objectPath == null ? "" : "/" + objectPath,
+                client.getApiVersion());
+    }
+
+    private Mono<Either<FailedOperation, Void>> outcome(
+            HttpResponse response, String operation, String resourceGroup, String name) {
+        if (response.getStatusCode() / 100 == 2) return Mono.just(right(null));
+        return response.getBodyAsString().defaultIfEmpty("").map(body -> {
+            String errorMessage = String.format(
+                    "An error occurred while %s ADF '%s' on resource group %s. Details: HTTP %d %s",
+                    operation, name, resourceGroup, response.getStatusCode(), body);
+            logger.error(errorMessage);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+        });
+    }
+
+    @Override
+    public Either<FailedOperation, Set<String>> listStartedTriggers(String resourceGroup, String name) {
+        try {
+            return right(manager.triggers().listByFactory(resourceGroup, name).stream()
+                    .filter(t -> t.properties() != null
+                            && TriggerRuntimeState.STARTED.equals(t.properties().runtimeState()))
+                    .map(TriggerResource::name)
+                    .collect(Collectors.toSet()));
+        } catch (ManagementException e) {
+            String errorMessage = String.format(
+                    "An error occurred while listing the triggers of ADF '%s' on resource group %s. Please try again and if the error persists contact the platform team. Details: %s",
+                    name, resourceGroup, e.getMessage());
+            logger.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+    }
+
+    @Override
+    public Either<FailedOperation, Void> startTrigger(String resourceGroup, String name, String triggerName) {
+        try {
+            manager.triggers().start(resourceGroup, name, triggerName);
+            return right(null);
+        } catch (ManagementException e) {
+            String errorMessage = String.format(
+                    "An error occurred while starting the trigger '%s' of ADF '%s' on resource group %s. Please try again and if the error persists contact the platform team. Details: %s",
+                    triggerName, name, resourceGroup, e.getMessage());
+            logger.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+    }
+
+    @Override
+    public Either<FailedOperation, Void> stopTrigger(String resourceGroup, String name, String triggerName) {
+        try {
+            manager.triggers().stop(resourceGroup, name, triggerName);
+            return right(null);
+        } catch (ManagementException e) {
+            String errorMessage = String.format(
+                    "An error occurred while stopping the trigger '%s' of ADF '%s' on resource group %s. Please try again and if the error persists contact the platform team. Details: %s",
+                    triggerName, name, resourceGroup, e.getMessage());
+            logger.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+    }
 }
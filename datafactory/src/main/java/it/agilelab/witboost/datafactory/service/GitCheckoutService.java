@@ -0,0 +1,169 @@
+package it.agilelab.witboost.datafactory.service;
+
+import static io.vavr.control.Either.left;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import it.agilelab.witboost.datafactory.config.GitMirrorConfig;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.eclipse.jgit.api.Git;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+/***
+ * Checks out GIT repositories. When the mirror cache is enabled, a bare mirror of every repository is kept on disk
+ * and refreshed with incremental fetches, and the checkouts are local clones of the mirror. The least recently
+ * used mirrors are evicted when the cache exceeds its maximum size. Mirrors always hold the full history: the
+ * shallow and sparse checkout options only apply to the checkouts
+ */
+@Service
+public class GitCheckoutService {
+
+    private static final String LAST_USED_MARKER = "witboost-last-used";
+
+    private final Logger logger = LoggerFactory.getLogger(GitCheckoutService.class);
+
+    private final GitMirrorConfig gitMirrorConfig;
+    private final AzureGitCloneCommandService azureGitCloneCommandService;
+    private final GitRepositoryService gitRepositoryService;
+    private final Map<String, ReentrantLock> mirrorLocks = new ConcurrentHashMap<>();
+
+    public GitCheckoutService(
+            GitMirrorConfig gitMirrorConfig,
+            AzureGitCloneCommandService azureGitCloneCommandService,
+            GitRepositoryService gitRepositoryService) {
+        this.gitMirrorConfig = gitMirrorConfig;
+        this.azureGitCloneCommandService = azureGitCloneCommandService;
+        this.gitRepositoryService = gitRepositoryService;
+    }
+
+    /***
+     * Check out the default branch of a repository
+     * @param repoURI the repository to check out
+     * @param path the directory where the repository is checked out
+     * @return nothing or the error encountered
+     */
+    public Either<FailedOperation, Void> checkout(String repoURI, File path) {
+        if (!gitMirrorConfig.enabled()) {
+            return gitRepositoryService.clone(
+                    azureGitCloneCommandService.build(repoURI, path),
+                    azureGitCloneCommandService.sparseCheckoutPaths());
+        }
+        var mirror = Path.of(gitMirrorConfig.directory(), DigestUtils.sha256Hex(repoURI))
+                .toFile();
+        var lock = mirrorLocks.computeIfAbsent(mirror.getName(), k -> new ReentrantLock());
+        Either<FailedOperation, Void> eitherCheckout;
+        lock.lock();
+        try {
+            eitherCheckout = refreshMirror(repoURI, mirror)
+                    .flatMap(v -> gitRepositoryService.clone(
+                            azureGitCloneCommandService.buildFromMirror(mirror, path),
+                            azureGitCloneCommandService.sparseCheckoutPaths()))
+                    .peek(v -> markUsed(mirror));
+        } finally {
+            lock.unlock();
+        }
+        evictLeastRecentlyUsed(mirror.toPath());
+        return eitherCheckout;
+    }
+
+    private Either<FailedOperation, Void> refreshMirror(String repoURI, File mirror) {
+        if (!new File(mirror, "HEAD").exists()) {
+            logger.info("Creating the GIT mirror of {}", repoURI);
+            FileSystemUtils.deleteRecursively(mirror);
+            return gitRepositoryService
+                    .clone(azureGitCloneCommandService.buildMirror(repoURI, mirror))
+                    .peekLeft(error -> FileSystemUtils.deleteRecursively(mirror));
+        }
+        logger.info("Fetching the updates of the GIT mirror of {}", repoURI);
+        try (var git = Git.open(mirror)) {
+            return gitRepositoryService.fetch(azureGitCloneCommandService.buildMirrorFetch(git));
+        } catch (IOException ex) {
+            // An unreadable mirror is dropped, the next checkout will create it again
+            FileSystemUtils.deleteRecursively(mirror);
+            String errorMessage = String.format(
+                    "An error occurred while opening the GIT mirror of %s. Please try again and if the error persists contact the platform team. Details: %s",
+                    repoURI, ex.getMessage());
+            logger.error(errorMessage, ex);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, ex))));
+        }
+    }
+
+    private void markUsed(File mirror) {
+        try {
+            var marker = new File(mirror, LAST_USED_MARKER).toPath();
+            if (!Files.exists(marker)) Files.createFile(marker);
+            Files.setLastModifiedTime(marker, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.warn("Unable to update the last usage of the GIT mirror {}", mirror, e);
+        }
+    }
+
+    private void evictLeastRecentlyUsed(Path lastUsedMirror) {
+        var root = Path.of(gitMirrorConfig.directory());
+        if (!Files.isDirectory(root)) return;
+        try (Stream<Path> children = Files.list(root)) {
+            var mirrors = new ArrayList<>(children.filter(Files::isDirectory).toList());
+            long totalSize = mirrors.stream().mapToLong(this::size).sum();
+            // The mirror just used is never evicted, even if it alone exceeds the maximum size
+            mirrors.remove(lastUsedMirror);
+            mirrors.sort(Comparator.comparing(this::lastUsed));
+            var iterator = mirrors.iterator();
+            while (totalSize > gitMirrorConfig.maxSize().toBytes() && iterator.hasNext()) {
+                var mirror = iterator.next();
+                var lock = mirrorLocks.computeIfAbsent(mirror.getFileName().toString(), k -> new ReentrantLock());
+                // Mirrors in use are skipped, they will be evaluated again on the next checkout
+                if (!lock.tryLock()) continue;
+                try {
+                    long mirrorSize = size(mirror);
+                    logger.info("Evicting the GIT mirror {} ({} bytes)", mirror, mirrorSize);
+                    FileSystemUtils.deleteRecursively(mirror);
+                    totalSize -= mirrorSize;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to evict the GIT mirrors in {}", root, e);
+        }
+    }
+
+    private FileTime lastUsed(Path mirror) {
+        try {
+            return Files.getLastModifiedTime(mirror.resolve(LAST_USED_MARKER));
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private long size(Path mirror) {
+        try (Stream<Path> files = Files.walk(mirror)) {
+            return files.map(file -> {
+                        try {
+                            var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                            return attributes.isRegularFile() ? attributes.size() : 0L;
+                        } catch (IOException e) {
+                            return 0L;
+                        }
+                    })
+                    .mapToLong(Long::longValue)
+                    .sum();
+        } catch (IOException | UncheckedIOException e) {
+            return 0L;
+        }
+    }
+}
@@ -6,9 +6,15 @@ import static io.vavr.control.Either.right;
 import io.vavr.control.Either;
 import it.agilelab.witboost.datafactory.common.FailedOperation;
 import it.agilelab.witboost.datafactory.common.Problem;
+import java.io.File;
+import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 import org.eclipse.jgit.api.CloneCommand;
+import org.eclipse.jgit.api.FetchCommand;
+import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -24,7 +30,20 @@ public class GitRepositoryService {
      * @return nothing or the error encountered
      */
     public Either<FailedOperation, Void> clone(CloneCommand cloneCommand) {
-        try (var ignored = cloneCommand.call()) {
+        return clone(cloneCommand, List.of());
+    }
+
+    /***
+     * Clones a GIT repository, checking out only some paths
+     * @param cloneCommand the command to call. It must skip the checkout if paths are given
+     * @param paths the paths to check out, or an empty list if the command checks out everything
+     * @return nothing or the error encountered
+     */
+    public Either<FailedOperation, Void> clone(CloneCommand cloneCommand, List<String> paths) {
+        try (var git = cloneCommand.call()) {
+            if (!paths.isEmpty()) {
+                git.checkout().setStartPoint(Constants.HEAD).addPaths(paths).call();
+            }
             return right(null);
         } catch (GitAPIException ex) {
             String errorMessage = String.format(
@@ -34,4 +53,45 @@ public class GitRepositoryService {
             return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, ex))));
         }
     }
+
+    /***
+     * Fetches the updates of a GIT repository
+     * @param fetchCommand the command to call
+     * @return nothing or the error encountered
+     */
+    public Either<FailedOperation, Void> fetch(FetchCommand fetchCommand) {
+        try {
+            fetchCommand.call();
+            return right(null);
+        } catch (GitAPIException ex) {
+            String errorMessage = String.format(
+                    "An error occurred while fetching the GIT repository. Please try again and if the error persists contact the platform team. Details: %s",
+                    ex.getMessage());
+            logger.error(errorMessage, ex);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, ex))));
+        }
+    }
+
+    /***
+     * Retrieves the commit checked out in a local GIT repository
+     * @param directory the working tree of the repository
+     * @return the commit id or the error encountered
+     */
+    public Either<FailedOperation, String> headCommit(File directory) {
+        try (var git = Git.open(directory)) {
+            var head = git.getRepository().resolve(Constants.HEAD);
+            if (head == null) {
+                String errorMessage = "The GIT repository has no HEAD commit";
+                logger.error(errorMessage);
+                return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+            }
+            return right(head.name());
+        } catch (IOException ex) {
+            String errorMessage = String.format(
+                    "An error occurred while reading the HEAD commit of the GIT repository. Please try again and if the error persists contact the platform team. Details: %s",
+                    ex.getMessage());
+            logger.error(errorMessage, ex);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, ex))));
+        }
+    }
 }
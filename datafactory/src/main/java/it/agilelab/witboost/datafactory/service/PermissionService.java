@@ -3,6 +3,7 @@ package it.agilelab.witboost.datafactory.service;
 import io.vavr.control.Either;
 import it.agilelab.witboost.datafactory.common.FailedOperation;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /***
  * RBAC services
@@ -13,15 +14,15 @@ public interface PermissionService {
      * Assign owner permissions to the specified objectIds on the specified scope
      * @param objectIds the identities
      * @param scope the specific scope
-     * @return nothing or the error encountered
+     * @return a future completed with nothing or the error encountered, once all the role assignments are created
      */
-    Either<FailedOperation, Void> assignOwnerPermissions(Set<String> objectIds, String scope);
+    CompletableFuture<Either<FailedOperation, Void>> assignOwnerPermissionsAsync(Set<String> objectIds, String scope);
 
     /***
      * Assign reader permissions to the specified objectIds on the specified scope
      * @param objectIds the identities
      * @param scope the specific scope
-     * @return nothing or the error encountered
+     * @return a future completed with nothing or the error encountered, once all the role assignments are created
      */
-    Either<FailedOperation, Void> assignReaderPermissions(Set<String> objectIds, String scope);
+    CompletableFuture<Either<FailedOperation, Void>> assignReaderPermissionsAsync(Set<String> objectIds, String scope);
 }
@@ -1,21 +1,26 @@
 package it.agilelab.witboost.datafactory.service;
 
 import static io.vavr.control.Either.left;
-import static io.vavr.control.Either.right;
 
 import com.azure.core.management.exception.ManagementException;
 import com.azure.resourcemanager.AzureResourceManager;
 import com.azure.resourcemanager.authorization.models.BuiltInRole;
+import com.azure.resourcemanager.authorization.models.RoleAssignment;
 import io.vavr.control.Either;
 import it.agilelab.witboost.datafactory.common.FailedOperation;
 import it.agilelab.witboost.datafactory.common.Problem;
 import it.agilelab.witboost.datafactory.config.PermissionServiceConfig;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Service
 public class PermissionServiceImpl implements PermissionService {
@@ -31,69 +36,77 @@ public class PermissionServiceImpl implements PermissionService {
     }
 
     @Override
-    public Either<FailedOperation, Void> assignOwnerPermissions(Set<String> objectIds, String scope) {
-        try {
-            objectIds.forEach(objectId -> {
-                // contributor role assignment
-                String contributorRoleAssignmentId = UUID.nameUUIDFromBytes(
-                                (objectId + "contributor" + scope).getBytes())
-                        .toString();
-                azureResourceManager
-                        .accessManagement()
-                        .roleAssignments()
-                        .define(contributorRoleAssignmentId)
-                        .forObjectId(objectId)
-                        .withBuiltInRole(BuiltInRole.CONTRIBUTOR)
-                        .withScope(scope)
-                        .create();
+    public CompletableFuture<Either<FailedOperation, Void>> assignOwnerPermissionsAsync(
+            Set<String> objectIds, String scope) {
+        var assignments = objectIds.stream()
+                .flatMap(objectId -> {
+                    // contributor role assignment
+                    String contributorRoleAssignmentId = UUID.nameUUIDFromBytes(
+                                    (objectId + "contributor" + scope).getBytes())
+                            .toString();
+                    var contributor = Mono.defer(() -> azureResourceManager
+                            .accessManagement()
+                            .roleAssignments()
+                            .define(contributorRoleAssignmentId)
+                            .forObjectId(objectId)
+                            .withBuiltInRole(BuiltInRole.CONTRIBUTOR)
+                            .withScope(scope)
+                            .createAsync());
 
-                // custom role assignment to allow testing linked services connections and previewing data on datasets
-                String adfTestConnectionPreviewDataRoleDefinitionId = config.customRoleDefinitionId();
-                String testConnectionPreviewDataRoleAssignmentId = UUID.nameUUIDFromBytes(
-                                (objectId + adfTestConnectionPreviewDataRoleDefinitionId + scope).getBytes())
-                        .toString();
-                azureResourceManager
-                        .accessManagement()
-                        .roleAssignments()
-                        .define(testConnectionPreviewDataRoleAssignmentId)
-                        .forObjectId(objectId)
-                        .withRoleDefinition(adfTestConnectionPreviewDataRoleDefinitionId)
-                        .withScope(scope)
-                        .create();
-            });
-            return right(null);
-        } catch (ManagementException e) {
-            String errorMessage = String.format(
-                    "An error occurred while assigning owner permissions to %s on scope %s. Please try again and if the error persists contact the platform team. Details: %s",
-                    objectIds, scope, e.getMessage());
-            logger.error(errorMessage, e);
-            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
-        }
+                    // custom role assignment to allow testing linked services connections and previewing data on
+                    // datasets
+                    String adfTestConnectionPreviewDataRoleDefinitionId = config.customRoleDefinitionId();
+                    String testConnectionPreviewDataRoleAssignmentId = UUID.nameUUIDFromBytes(
+                                    (objectId + adfTestConnectionPreviewDataRoleDefinitionId + scope).getBytes())
+                            .toString();
+                    var testConnectionPreviewData = Mono.defer(() -> azureResourceManager
+                            .accessManagement()
+                            .roleAssignments()
+                            .define(testConnectionPreviewDataRoleAssignmentId)
+                            .forObjectId(objectId)
+                            .withRoleDefinition(adfTestConnectionPreviewDataRoleDefinitionId)
+                            .withScope(scope)
+                            .createAsync());
+                    return Stream.of(contributor, testConnectionPreviewData);
+                })
+                .toList();
+        return assign(assignments, "owner", objectIds, scope);
     }
 
     @Override
-    public Either<FailedOperation, Void> assignReaderPermissions(Set<String> objectIds, String scope) {
-        try {
-            objectIds.forEach(objectId -> {
-                // reader role assignment
-                String readerRoleAssignmentId = UUID.nameUUIDFromBytes((objectId + "reader" + scope).getBytes())
-                        .toString();
-                azureResourceManager
-                        .accessManagement()
-                        .roleAssignments()
-                        .define(readerRoleAssignmentId)
-                        .forObjectId(objectId)
-                        .withBuiltInRole(BuiltInRole.READER)
-                        .withScope(scope)
-                        .create();
-            });
-            return right(null);
-        } catch (ManagementException e) {
-            String errorMessage = String.format(
-                    "An error occurred while assigning reader permissions to %s on scope %s. Please try again and if the error persists contact the platform team. Details: %s",
-                    objectIds, scope, e.getMessage());
-            logger.error(errorMessage, e);
-            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
-        }
+    public CompletableFuture<Either<FailedOperation, Void>> assignReaderPermissionsAsync(
+            Set<String> objectIds, String scope) {
+        var assignments = objectIds.stream()
+                .map(objectId -> {
+                    // reader role assignment
+                    String readerRoleAssignmentId = UUID.nameUUIDFromBytes((objectId + "reader" + scope).getBytes())
+                            .toString();
+                    return Mono.defer(() -> azureResourceManager
+                            .accessManagement()
+                            .roleAssignments()
+                            .define(readerRoleAssignmentId)
+                            .forObjectId(objectId)
+                            .withBuiltInRole(BuiltInRole.READER)
+                            .withScope(scope)
+                            .createAsync());
+                })
+                .toList();
+        return assign(assignments, "reader", objectIds, scope);
+    }
+
+    // The role assignments are created concurrently, the first error cancels the pending ones
+    private CompletableFuture<Either<FailedOperation, Void>> assign(
+            List<Mono<RoleAssignment>> assignments, String permissions, Set<String> objectIds, String scope) {
+        return Flux.merge(assignments)
+                .then(Mono.just(Either.<FailedOperation, Void>right(null)))
+                .onErrorResume(ManagementException.class, e -> {
+                    String errorMessage = String.format(
+                            "An error occurred while assigning %s permissions to %s on scope %s. Please try again and if the error persists contact the platform team. Details: %s",
+                            permissions, objectIds, scope, e.getMessage());
+                    logger.error(errorMessage, e);
+                    return Mono.just(
+                            left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e)))));
+                })
+                .toFuture();
     }
 }
@@ -0,0 +1,37 @@
+package it.agilelab.witboost.datafactory.service.journal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
+import java.time.Instant;
+
+/***
+ * A line of the append-only journal log
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record JournalEntry(
+        EntryType type,
+        String token,
+        Instant timestamp,
+        OperationType operation,
+        ProvisioningRequest request,
+        String step,
+        String output) {
+
+    enum EntryType {
+        SUBMITTED,
+        STEP_COMPLETED,
+        COMPLETED
+    }
+
+    static JournalEntry submitted(String token, OperationType operation, ProvisioningRequest request) {
+        return new JournalEntry(EntryType.SUBMITTED, token, Instant.now(), operation, request, null, null);
+    }
+
+    static JournalEntry stepCompleted(String token, String step, String output) {
+        return new JournalEntry(EntryType.STEP_COMPLETED, token, Instant.now(), null, null, step, output);
+    }
+
+    static JournalEntry completed(String token) {
+        return new JournalEntry(EntryType.COMPLETED, token, Instant.now(), null, null, null, null);
+    }
+}
@@ -0,0 +1,20 @@
+package it.agilelab.witboost.datafactory.service.journal;
+
+import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
+import java.time.Instant;
+import java.util.Map;
+
+/***
+ * An operation recorded in the journal which didn't complete yet
+ * @param token the token identifying the operation
+ * @param type the operation type
+ * @param request the request of the operation
+ * @param completedSteps the steps already completed with their output
+ * @param submittedAt the submission time
+ */
+public record JournaledOperation(
+        String token,
+        OperationType type,
+        ProvisioningRequest request,
+        Map<String, String> completedSteps,
+        Instant submittedAt) {}
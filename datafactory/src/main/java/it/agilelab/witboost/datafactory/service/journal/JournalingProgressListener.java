@@ -0,0 +1,44 @@
+package it.agilelab.witboost.datafactory.service.journal;
+
+import io.vavr.control.Option;
+import it.agilelab.witboost.datafactory.service.task.TaskProgressListener;
+import java.util.Map;
+
+/***
+ * Progress listener that records the completed steps of an operation in the journal, and exposes the steps
+ * completed by a previous run of the same operation
+ */
+public class JournalingProgressListener implements TaskProgressListener {
+
+    private final TaskProgressListener delegate;
+    private final OperationJournal journal;
+    private final String token;
+    private final Map<String, String> previouslyCompletedSteps;
+
+    public JournalingProgressListener(
+            TaskProgressListener delegate,
+            OperationJournal journal,
+            String token,
+            Map<String, String> previouslyCompletedSteps) {
+        this.delegate = delegate;
+        this.journal = journal;
+        this.token = token;
+        this.previouslyCompletedSteps = Map.copyOf(previouslyCompletedSteps);
+    }
+
+    @Override
+    public void onProgress(String phase, String message) {
+        delegate.onProgress(phase, message);
+    }
+
+    @Override
+    public void onStepCompleted(String step, String output) {
+        journal.recordStepCompleted(token, step, output);
+        delegate.onStepCompleted(step, output);
+    }
+
+    @Override
+    public Option<String> getCompletedStep(String step) {
+        return Option.of(previouslyCompletedSteps.get(step));
+    }
+}
@@ -0,0 +1,37 @@
+package it.agilelab.witboost.datafactory.service.journal;
+
+import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
+import java.util.List;
+
+/***
+ * Durable record of the asynchronous operations, used to resume the ones interrupted by a restart
+ */
+public interface OperationJournal {
+
+    /***
+     * Record the submission of an operation
+     * @param token the token identifying the operation
+     * @param type the operation type
+     * @param request the request of the operation
+     */
+    void recordSubmitted(String token, OperationType type, ProvisioningRequest request);
+
+    /***
+     * Record the completion of a step of an operation
+     * @param token the token identifying the operation
+     * @param step the step identifier
+     * @param output the output of the step
+     */
+    void recordStepCompleted(String token, String step, String output);
+
+    /***
+     * Record the end of an operation, either successful or not. The operation won't be resumed anymore
+     * @param token the token identifying the operation
+     */
+    void recordCompleted(String token);
+
+    /***
+     * @return the operations submitted and not completed yet
+     */
+    List<JournaledOperation> pendingOperations();
+}
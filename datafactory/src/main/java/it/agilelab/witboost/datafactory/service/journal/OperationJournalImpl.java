@@ -0,0 +1,159 @@
+package it.agilelab.witboost.datafactory.service.journal;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.agilelab.witboost.datafactory.config.JournalConfig;
+import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/***
+ * File-backed journal made of an append-only log and a snapshot. Every change is appended to the log and synced
+ * to disk. Once the log grows over the configured threshold, the pending operations are written to a new snapshot
+ * and the log is truncated. On startup the snapshot is loaded and the log is replayed on top of it
+ */
+@Service
+public class OperationJournalImpl implements OperationJournal {
+
+    private static final String LOG_FILE = "journal.log";
+    private static final String SNAPSHOT_FILE = "snapshot.json";
+    private static final String SNAPSHOT_TMP_FILE = "snapshot.json.tmp";
+
+    private final Logger logger = LoggerFactory.getLogger(OperationJournalImpl.class);
+
+    private final JournalConfig config;
+    private final ObjectMapper objectMapper;
+    private final Map<String, JournaledOperation> pending = new LinkedHashMap<>();
+    private int entriesSinceCompaction = 0;
+
+    public OperationJournalImpl(JournalConfig config, ObjectMapper objectMapper) {
+        this.config = config;
+        this.objectMapper = objectMapper;
+        if (config.enabled()) {
+            load();
+        }
+    }
+
+    @Override
+    public synchronized void recordSubmitted(String token, OperationType type, ProvisioningRequest request) {
+        append(JournalEntry.submitted(token, type, request));
+    }
+
+    @Override
+    public synchronized void recordStepCompleted(String token, String step, String output) {
+        append(JournalEntry.stepCompleted(token, step, output));
+    }
+
+    @Override
+    public synchronized void recordCompleted(String token) {
+        append(JournalEntry.completed(token));
+    }
+
+    @Override
+    public synchronized List<JournaledOperation> pendingOperations() {
+        return List.copyOf(pending.values());
+    }
+
+    private void append(JournalEntry entry) {
+        apply(entry);
+        if (!config.enabled()) return;
+        try {
+            var line = objectMapper.writeValueAsString(entry) + System.lineSeparator();
+            Files.writeString(
+                    logFile(),
+                    line,
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND,
+                    StandardOpenOption.DSYNC);
+            if (++entriesSinceCompaction >= config.compactionThreshold()) {
+                compact();
+            }
+        } catch (IOException e) {
+            // The operation goes on: a journal failure only prevents it from being resumed after a restart
+            logger.error(String.format("Unable to record the journal entry %s", entry), e);
+        }
+    }
+
+    private void apply(JournalEntry entry) {
+        switch (entry.type()) {
+            case SUBMITTED -> pending.putIfAbsent(
+                    entry.token(),
+                    new JournaledOperation(
+                            entry.token(), entry.operation(), entry.request(), new HashMap<>(), entry.timestamp()));
+            case STEP_COMPLETED -> {
+                var operation = pending.get(entry.token());
+                if (operation != null) operation.completedSteps().put(entry.step(), entry.output());
+            }
+            case COMPLETED -> pending.remove(entry.token());
+        }
+    }
+
+    private void load() {
+        try {
+            Files.createDirectories(Path.of(config.directory()));
+            if (Files.exists(snapshotFile())) {
+                List<JournaledOperation> snapshot =
+                        objectMapper.readValue(snapshotFile().toFile(), new TypeReference<>() {});
+                snapshot.forEach(operation -> pending.put(
+                        operation.token(),
+                        new JournaledOperation(
+                                operation.token(),
+                                operation.type(),
+                                operation.request(),
+                                new HashMap<>(operation.completedSteps()),
+                                operation.submittedAt())));
+            }
+            if (Files.exists(logFile())) {
+                try (BufferedReader reader = Files.newBufferedReader(logFile(), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isBlank()) continue;
+                        try {
+                            apply(objectMapper.readValue(line, JournalEntry.class));
+                        } catch (IOException e) {
+                            // Only the last line can be partially written, if the process died while appending it
+                            logger.warn("Skipping unreadable journal entry: {}", line);
+                        }
+                    }
+                }
+            }
+            compact();
+            logger.info("Operation journal loaded from {}: {} pending operations", config.directory(), pending.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    String.format("Unable to load the operation journal from %s", config.directory()), e);
+        }
+    }
+
+    private void compact() throws IOException {
+        objectMapper.writeValue(snapshotTmpFile().toFile(), List.copyOf(pending.values()));
+        Files.move(
+                snapshotTmpFile(), snapshotFile(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // Replaying the log over the new snapshot is idempotent, so a crash before the truncation is harmless
+        Files.write(logFile(), new byte[0], StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        entriesSinceCompaction = 0;
+    }
+
+    private Path logFile() {
+        return Path.of(config.directory(), LOG_FILE);
+    }
+
+    private Path snapshotFile() {
+        return Path.of(config.directory(), SNAPSHOT_FILE);
+    }
+
+    private Path snapshotTmpFile() {
+        return Path.of(config.directory(), SNAPSHOT_TMP_FILE);
+    }
+}
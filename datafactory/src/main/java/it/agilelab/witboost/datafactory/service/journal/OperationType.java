@@ -0,0 +1,6 @@
+package it.agilelab.witboost.datafactory.service.journal;
+
+public enum OperationType {
+    PROVISION,
+    UNPROVISION
+}
@@ -0,0 +1,24 @@
+package it.agilelab.witboost.datafactory.service.powershell;
+
+import com.profesorfalken.jpowershell.PowerShell;
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+
+/***
+ * Keeps the Az context of the PowerShell sessions authenticated, so that the scripts don't need to log in
+ */
+public interface AzureContextService {
+
+    /***
+     * @return true if the sessions are authenticated by this service, false if the scripts must log in by themselves
+     */
+    boolean isEnabled();
+
+    /***
+     * Authenticate the Az context of the session, unless it is already authenticated with a token that is not
+     * about to expire
+     * @param session the PowerShell session
+     * @return nothing or the error encountered
+     */
+    Either<FailedOperation, Void> ensureAuthenticated(PowerShell session);
+}
@@ -0,0 +1,88 @@
+package it.agilelab.witboost.datafactory.service.powershell;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.credential.TokenRequestContext;
+import com.profesorfalken.jpowershell.PowerShell;
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import it.agilelab.witboost.datafactory.config.AzureContextConfig;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/***
+ * Connects the Az context of a session with an access token obtained from the Java credential, once per session
+ * and again only when the token is about to expire. The context is process scoped, so it survives between the
+ * scripts executed by a pooled session
+ */
+@Service
+public class AzureContextServiceImpl implements AzureContextService {
+
+    private static final String MANAGEMENT_SCOPE = "https://management.azure.com/.default";
+    private static final String CONNECTED = "AZ_CONTEXT_OK";
+
+    private final Logger logger = LoggerFactory.getLogger(AzureContextServiceImpl.class);
+
+    private final TokenCredential tokenCredential;
+    private final AzureContextConfig config;
+
+    // Expiration of the token each session is authenticated with. Sessions discarded by the pool are dropped
+    private final Map<PowerShell, OffsetDateTime> authenticatedUntil = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public AzureContextServiceImpl(TokenCredential tokenCredential, AzureContextConfig config) {
+        this.tokenCredential = tokenCredential;
+        this.config = config;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return config.enabled();
+    }
+
+    @Override
+    public Either<FailedOperation, Void> ensureAuthenticated(PowerShell session) {
+        var expiresAt = authenticatedUntil.get(session);
+        if (expiresAt != null && expiresAt.isAfter(OffsetDateTime.now().plus(config.refreshMargin()))) {
+            return right(null);
+        }
+        try {
+            AccessToken token = tokenCredential.getTokenSync(new TokenRequestContext().addScopes(MANAGEMENT_SCOPE));
+            var response = session.executeCommand(connectCommand(token));
+            if (response == null
+                    || response.isError()
+                    || !response.getCommandOutput().contains(CONNECTED)) {
+                authenticatedUntil.remove(session);
+                String errorMessage =
+                        "An error occurred while authenticating the PowerShell session on Azure. Please try again and if the error persists contact the platform team. Details: Connect-AzAccount failed";
+                logger.error(errorMessage);
+                return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+            }
+            authenticatedUntil.put(session, token.getExpiresAt());
+            logger.info("PowerShell session authenticated on Azure until {}", token.getExpiresAt());
+            return right(null);
+        } catch (RuntimeException ex) {
+            authenticatedUntil.remove(session);
+            String errorMessage = String.format(
+                    "An error occurred while authenticating the PowerShell session on Azure. Please try again and if the error persists contact the platform team. Details: %s",
+                    ex.getMessage());
+            logger.error(errorMessage, ex);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, ex))));
+        }
+    }
+
+    // A single line, as commands are sent to the session line by line. The token never appears in the output
+    private String connectCommand(AccessToken token) {
+        return String.format(
+                "try { Connect-AzAccount -AccessToken '%s' -AccountId '%s' -Tenant '%s' -Scope Process -ErrorAction Stop | Out-Null; Write-Host '%s' } catch { Write-Host 'AZ_CONTEXT_KO' }",
+                token.getToken(), config.clientId(), config.tenantId(), CONNECTED);
+    }
+}
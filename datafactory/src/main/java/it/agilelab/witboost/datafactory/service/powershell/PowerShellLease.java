@@ -0,0 +1,42 @@
+package it.agilelab.witboost.datafactory.service.powershell;
+
+import com.profesorfalken.jpowershell.PowerShell;
+import java.util.function.Consumer;
+
+/***
+ * A PowerShell session borrowed from a {@link PowerShellPool}. Closing the lease gives the session back to the pool
+ */
+public class PowerShellLease implements AutoCloseable {
+
+    private final PowerShell session;
+    private final Consumer<Boolean> onRelease;
+    private boolean broken = false;
+    private boolean released = false;
+
+    /***
+     * @param session the borrowed session
+     * @param onRelease called once when the lease is closed, with true if the session must not be reused
+     */
+    public PowerShellLease(PowerShell session, Consumer<Boolean> onRelease) {
+        this.session = session;
+        this.onRelease = onRelease;
+    }
+
+    public PowerShell session() {
+        return session;
+    }
+
+    /***
+     * Mark the session as unusable, so that the pool discards it instead of handing it out again
+     */
+    public void invalidate() {
+        this.broken = true;
+    }
+
+    @Override
+    public void close() {
+        if (released) return;
+        released = true;
+        onRelease.accept(broken);
+    }
+}
@@ -0,0 +1,15 @@
+package it.agilelab.witboost.datafactory.service.powershell;
+
+/***
+ * Bounded pool of PowerShell sessions started and warmed up ahead of the requests
+ */
+public interface PowerShellPool {
+
+    /***
+     * Borrow a session, waiting for one to be available if all of them are in use
+     * @return the lease of the session, to be closed once done with it
+     * @throws com.profesorfalken.jpowershell.PowerShellNotAvailableException if no session could be started or
+     * none became available within the configured timeout
+     */
+    PowerShellLease borrow();
+}
@@ -0,0 +1,261 @@
+package it.agilelab.witboost.datafactory.service.powershell;
+
+import com.profesorfalken.jpowershell.PowerShell;
+import com.profesorfalken.jpowershell.PowerShellNotAvailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import it.agilelab.witboost.datafactory.config.PowerShellPoolConfig;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/***
+ * Pool of PowerShell sessions. At most {@code size} sessions exist at the same time. Sessions are started and
+ * warmed up (e.g. importing the modules) in background, checked before being handed out, and discarded after
+ * {@code maxUses} borrows or when a command fails
+ */
+@Service
+public class PowerShellPoolImpl implements PowerShellPool {
+
+    private static final String METRIC_PREFIX = "powershell.pool.";
+
+    private final Logger logger = LoggerFactory.getLogger(PowerShellPoolImpl.class);
+
+    private final ObjectProvider<PowerShell> sessionFactory;
+    private final PowerShellPoolConfig config;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition sessionAvailable = lock.newCondition();
+    private final Deque<PooledSession> idle = new ArrayDeque<>();
+    private int total = 0;
+    private int active = 0;
+    private boolean shutdown = false;
+
+    private final ExecutorService maintenanceExecutor =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("powershell-pool-"));
+
+    private final Counter createdCounter;
+    private final MeterRegistry meterRegistry;
+    private final Timer borrowTimer;
+
+    private static class PooledSession {
+        private final PowerShell powerShell;
+        private int uses = 0;
+        private Instant lastUsed = Instant.now();
+
+        private PooledSession(PowerShell powerShell) {
+            this.powerShell = powerShell;
+        }
+    }
+
+    public PowerShellPoolImpl(
+            ObjectProvider<PowerShell> sessionFactory, PowerShellPoolConfig config, MeterRegistry meterRegistry) {
+        this.sessionFactory = sessionFactory;
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.createdCounter = meterRegistry.counter(METRIC_PREFIX + "created");
+        this.borrowTimer = meterRegistry.timer(METRIC_PREFIX + "borrow");
+        Gauge.builder(METRIC_PREFIX + "idle", this, pool -> pool.withLock(() -> pool.idle.size()))
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "active", this, pool -> pool.withLock(() -> pool.active))
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "total", this, pool -> pool.withLock(() -> pool.total))
+                .register(meterRegistry);
+    }
+
+    /***
+     * Start the minimum number of idle sessions once the application is ready, out of the request path
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prestart() {
+        scheduleRefill();
+    }
+
+    @Override
+    public PowerShellLease borrow() {
+        long start = System.nanoTime();
+        long remaining = config.borrowTimeout().toNanos();
+        while (true) {
+            PooledSession session = null;
+            boolean create = false;
+            lock.lock();
+            try {
+                while (session == null && !create) {
+                    if (shutdown) throw new PowerShellNotAvailableException("The PowerShell pool is shut down");
+                    session = idle.pollFirst();
+                    if (session == null && total < config.size()) {
+                        total++;
+                        create = true;
+                    } else if (session == null) {
+                        if (remaining <= 0) {
+                            throw new PowerShellNotAvailableException(String.format(
+                                    "No PowerShell session became available within %s", config.borrowTimeout()));
+                        }
+                        remaining = sessionAvailable.awaitNanos(remaining);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PowerShellNotAvailableException("Interrupted while waiting for a PowerShell session", e);
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                session = createSession();
+            } else if (!isHealthy(session)) {
+                destroy(session, "unhealthy");
+                continue;
+            }
+            return lease(session, start);
+        }
+    }
+
+    private PowerShellLease lease(PooledSession session, long start) {
+        withLock(() -> active++);
+        session.uses++;
+        borrowTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new PowerShellLease(session.powerShell, broken -> release(session, broken));
+    }
+
+    private void release(PooledSession session, boolean broken) {
+        withLock(() -> active--);
+        if (broken) {
+            destroy(session, "error");
+        } else if (session.uses >= config.maxUses()) {
+            destroy(session, "maxUses");
+        } else if (!session.powerShell.isAlive()) {
+            destroy(session, "dead");
+        } else {
+            session.lastUsed = Instant.now();
+            boolean stopped = withLock(() -> {
+                if (!shutdown) {
+                    idle.offerFirst(session);
+                    sessionAvailable.signal();
+                }
+                return shutdown;
+            });
+            if (stopped) destroy(session, "shutdown");
+        }
+    }
+
+    private boolean isHealthy(PooledSession session) {
+        if (!session.powerShell.isAlive()) return false;
+        if (session.lastUsed.plus(config.healthCheckAfterIdle()).isAfter(Instant.now())) return true;
+        var response = session.powerShell.executeCommand("$true");
+        return response != null && !response.isError() && !response.isTimeout();
+    }
+
+    // The slot in total must already be reserved by the caller
+    private PooledSession createSession() {
+        PowerShell powerShell;
+        try {
+            powerShell = sessionFactory.getObject();
+        } catch (RuntimeException e) {
+            withLock(() -> {
+                total--;
+                sessionAvailable.signal();
+                return null;
+            });
+            throw e;
+        }
+        for (String command : config.warmupCommands()) {
+            var response = powerShell.executeCommand(command);
+            if (response == null || response.isError()) {
+                logger.warn("The PowerShell warm-up command '{}' failed", command);
+            }
+        }
+        createdCounter.increment();
+        logger.info("PowerShell session started and warmed up");
+        return new PooledSession(powerShell);
+    }
+
+    private void destroy(PooledSession session, String reason) {
+        meterRegistry.counter(METRIC_PREFIX + "recycled", "reason", reason).increment();
+        logger.info("Recycling PowerShell session after {} uses, reason: {}", session.uses, reason);
+        boolean stopped = withLock(() -> {
+            total--;
+            sessionAvailable.signal();
+            return shutdown;
+        });
+        if (stopped) {
+            session.powerShell.close();
+            return;
+        }
+        // Closing a session can take a while, it is done out of the request path
+        maintenanceExecutor.execute(session.powerShell::close);
+        scheduleRefill();
+    }
+
+    private void scheduleRefill() {
+        if (withLock(() -> shutdown)) return;
+        maintenanceExecutor.execute(this::refill);
+    }
+
+    private void refill() {
+        while (true) {
+            boolean reserved = withLock(() -> {
+                if (shutdown || idle.size() >= config.minIdle() || total >= config.size()) return false;
+                total++;
+                return true;
+            });
+            if (!reserved) return;
+            try {
+                var session = createSession();
+                boolean stopped = withLock(() -> {
+                    if (!shutdown) {
+                        idle.offerLast(session);
+                        sessionAvailable.signal();
+                    }
+                    return shutdown;
+                });
+                if (stopped) {
+                    session.powerShell.close();
+                    return;
+                }
+            } catch (RuntimeException e) {
+                logger.error("Unable to start a PowerShell session for the pool", e);
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        var sessions = withLock(() -> {
+            shutdown = true;
+            sessionAvailable.signalAll();
+            var idleSessions = new ArrayList<>(idle);
+            idle.clear();
+            return idleSessions;
+        });
+        sessions.forEach(session -> session.powerShell.close());
+        maintenanceExecutor.shutdown();
+    }
+
+    private <T> T withLock(Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package it.agilelab.witboost.datafactory.service.powershell;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import java.nio.file.Path;
+
+/***
+ * PowerShell scripts shipped with the provisioner, written once to disk so that sessions can run them in place
+ */
+public interface ScriptRegistry {
+
+    String VALIDATE_SCRIPT = "validate.ps1";
+    String PUBLISH_SCRIPT = "publish.ps1";
+
+    /***
+     * @param name the script name, e.g. {@link #VALIDATE_SCRIPT}
+     * @return the path of the script on disk or the error encountered
+     */
+    Either<FailedOperation, Path> path(String name);
+
+    /***
+     * @param name the script name, e.g. {@link #VALIDATE_SCRIPT}
+     * @return a hash of the script content
+     */
+    String fingerprint(String name);
+}
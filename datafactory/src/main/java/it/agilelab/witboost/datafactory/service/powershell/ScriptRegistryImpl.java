@@ -0,0 +1,119 @@
+package it.agilelab.witboost.datafactory.service.powershell;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import it.agilelab.witboost.datafactory.config.ScriptRegistryConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+/***
+ * Reads the scripts from the classpath once and writes each of them to a path named after its content hash, e.g.
+ * {@code publish-<sha256>.ps1}. A script that changes gets a new path, so files left by other versions are never
+ * executed, and instances sharing the directory write the same content. The directory is created readable and
+ * writable by its owner only, and an existing file is executed only if its content still matches its hash
+ */
+@Service
+public class ScriptRegistryImpl implements ScriptRegistry {
+
+    private static final List<String> SCRIPTS = List.of(VALIDATE_SCRIPT, PUBLISH_SCRIPT);
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+    private final Logger logger = LoggerFactory.getLogger(ScriptRegistryImpl.class);
+
+    private final Path directory;
+    private final Map<String, Script> scripts;
+
+    private record Script(String name, byte[] content, String hash) {}
+
+    public ScriptRegistryImpl(ScriptRegistryConfig config) {
+        this.directory = Path.of(config.directory());
+        this.scripts = SCRIPTS.stream().map(this::load).collect(Collectors.toMap(Script::name, Function.identity()));
+        scripts.keySet().forEach(this::path);
+    }
+
+    @Override
+    public Either<FailedOperation, Path> path(String name) {
+        var script = getScript(name);
+        var path = directory.resolve(fileName(script));
+        try {
+            // The file is only written again if something removed or altered it
+            if (Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)) {
+                if (script.hash().equals(DigestUtils.sha256Hex(Files.readAllBytes(path)))) return right(path);
+                logger.warn("PowerShell script {} does not match its hash, writing it again", path);
+            }
+            createDirectory();
+            var tmp = Files.createTempFile(directory, script.hash(), ".tmp");
+            Files.write(tmp, script.content());
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("PowerShell script {} written to {}", name, path);
+            return right(path);
+        } catch (IOException ex) {
+            String errorMessage = String.format(
+                    "An error occurred while writing the PowerShell script %s. Please try again and if the error persists contact the platform team. Details: %s",
+                    name, ex.getMessage());
+            logger.error(errorMessage, ex);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, ex))));
+        }
+    }
+
+    private void createDirectory() throws IOException {
+        if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(directory);
+            return;
+        }
+        Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+        // An existing directory may have been created with looser permissions
+        if (!Files.getPosixFilePermissions(directory).equals(OWNER_ONLY)) {
+            Files.setPosixFilePermissions(directory, OWNER_ONLY);
+        }
+    }
+
+    @Override
+    public String fingerprint(String name) {
+        return getScript(name).hash();
+    }
+
+    private Script getScript(String name) {
+        var script = scripts.get(name);
+        if (script == null) throw new IllegalArgumentException("Unknown PowerShell script " + name);
+        return script;
+    }
+
+    private Script load(String name) {
+        try (InputStream inputStream = new ClassPathResource(name).getInputStream()) {
+            byte[] content = inputStream.readAllBytes();
+            return new Script(name, content, DigestUtils.sha256Hex(content));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read the PowerShell script " + name, ex);
+        }
+    }
+
+    private static String fileName(Script script) {
+        String name = script.name();
+        int extension = name.lastIndexOf('.');
+        return name.substring(0, extension) + "-" + script.hash() + name.substring(extension);
+    }
+}
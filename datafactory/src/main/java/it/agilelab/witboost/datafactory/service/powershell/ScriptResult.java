@@ -0,0 +1,58 @@
+package it.agilelab.witboost.datafactory.service.powershell;
+
+import io.vavr.control.Option;
+import java.time.Duration;
+import java.util.List;
+
+/***
+ * Outcome of a PowerShell script, as reported by the result records it emits
+ * @param status the final status reported by the script, OK or KO, if any
+ * @param message the error reported by the script, if any
+ * @param phases the duration of each phase of the script
+ * @param objects the Data Factory objects handled by the script
+ * @param errorCount the number of errors found by a validation
+ * @param warningCount the number of warnings found by a validation
+ */
+public record ScriptResult(
+        Option<String> status,
+        Option<String> message,
+        List<PhaseTiming> phases,
+        List<ObjectResult> objects,
+        int errorCount,
+        int warningCount) {
+
+    public static final String STATUS_OK = "OK";
+
+    /***
+     * @param name the phase name
+     * @param duration the time spent in the phase
+     */
+    public record PhaseTiming(String name, Duration duration) {}
+
+    /***
+     * @param type the Data Factory object type, e.g. pipeline
+     * @param name the object name
+     * @param status the object status, e.g. deployed
+     * @param duration the time spent on the object, if reported
+     * @param error the error of the object, if any
+     */
+    public record ObjectResult(
+            String type, String name, String status, Option<Duration> duration, Option<String> error) {
+
+        public boolean isFailed() {
+            return "failed".equalsIgnoreCase(status) || error.isDefined();
+        }
+    }
+
+    public boolean isReported() {
+        return status.isDefined();
+    }
+
+    public boolean isSucceeded() {
+        return status.contains(STATUS_OK) && errorCount == 0 && objects.stream().noneMatch(ObjectResult::isFailed);
+    }
+
+    public List<ObjectResult> failedObjects() {
+        return objects.stream().filter(ObjectResult::isFailed).toList();
+    }
+}
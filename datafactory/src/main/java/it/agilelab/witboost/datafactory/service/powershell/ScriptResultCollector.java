@@ -0,0 +1,100 @@
+package it.agilelab.witboost.datafactory.service.powershell;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.profesorfalken.jpowershell.PowerShellOutputListener;
+import io.vavr.control.Option;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/***
+ * Decodes the result records emitted by the scripts while they run. A record is a line made of
+ * {@link #RECORD_PREFIX} followed by a JSON object whose {@code type} is one of:
+ * <ul>
+ *     <li>{@code phase}: {@code name}, {@code durationMs}</li>
+ *     <li>{@code object}: {@code objectType}, {@code name}, {@code status}, optional {@code durationMs} and
+ *     {@code error}</li>
+ *     <li>{@code validation}: {@code errorCount}, {@code warningCount}</li>
+ *     <li>{@code result}: {@code status} (OK or KO), optional {@code message}</li>
+ * </ul>
+ * Any other line is handed to the fallback consumer
+ */
+public class ScriptResultCollector implements PowerShellOutputListener {
+
+    public static final String RECORD_PREFIX = "##WITBOOST## ";
+
+    private final Logger logger = LoggerFactory.getLogger(ScriptResultCollector.class);
+
+    private final ObjectMapper objectMapper;
+    private final Consumer<String> otherLines;
+
+    private final List<ScriptResult.PhaseTiming> phases = new ArrayList<>();
+    private final List<ScriptResult.ObjectResult> objects = new ArrayList<>();
+    private int errorCount = 0;
+    private int warningCount = 0;
+    private Option<String> status = Option.none();
+    private Option<String> message = Option.none();
+
+    public ScriptResultCollector(ObjectMapper objectMapper, Consumer<String> otherLines) {
+        this.objectMapper = objectMapper;
+        this.otherLines = otherLines;
+    }
+
+    @Override
+    public synchronized void onLine(String line) {
+        int start = line.indexOf(RECORD_PREFIX);
+        if (start < 0) {
+            otherLines.accept(line);
+            return;
+        }
+        try {
+            collect(objectMapper.readTree(line.substring(start + RECORD_PREFIX.length())));
+        } catch (JsonProcessingException ex) {
+            logger.warn("Ignoring a malformed result record emitted by the script: {}", line);
+        }
+    }
+
+    private void collect(JsonNode record) {
+        switch (record.path("type").asText()) {
+            case "phase" -> phases.add(new ScriptResult.PhaseTiming(
+                    record.path("name").asText(),
+                    Duration.ofMillis(record.path("durationMs").asLong())));
+            case "object" -> objects.add(new ScriptResult.ObjectResult(
+                    record.path("objectType").asText(),
+                    record.path("name").asText(),
+                    record.path("status").asText(),
+                    duration(record),
+                    text(record, "error")));
+            case "validation" -> {
+                errorCount += record.path("errorCount").asInt();
+                warningCount += record.path("warningCount").asInt();
+            }
+            case "result" -> {
+                status = text(record, "status");
+                message = text(record, "message");
+            }
+            default -> logger.warn("Ignoring a result record of unknown type: {}", record);
+        }
+    }
+
+    private static Option<String> text(JsonNode record, String field) {
+        JsonNode node = record.path(field);
+        return node.isNull() || node.isMissingNode() || node.asText().isEmpty()
+                ? Option.none()
+                : Option.some(node.asText());
+    }
+
+    private static Option<Duration> duration(JsonNode record) {
+        JsonNode node = record.path("durationMs");
+        return node.isNumber() ? Option.some(Duration.ofMillis(node.asLong())) : Option.none();
+    }
+
+    public synchronized ScriptResult result() {
+        return new ScriptResult(status, message, List.copyOf(phases), List.copyOf(objects), errorCount, warningCount);
+    }
+}
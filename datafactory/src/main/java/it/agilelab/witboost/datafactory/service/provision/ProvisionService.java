@@ -4,6 +4,8 @@ import io.vavr.control.Either;
 import it.agilelab.witboost.datafactory.common.FailedOperation;
 import it.agilelab.witboost.datafactory.model.ADFInfo;
 import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.datafactory.service.task.TaskProgressListener;
+import java.util.concurrent.CompletableFuture;
 
 /***
  * Provision services
@@ -16,13 +18,38 @@ public interface ProvisionService {
      * @param provisioningRequest the request
      * @return the outcome of the provision
      */
-    Either<FailedOperation, ADFInfo> provision(ProvisioningRequest provisioningRequest);
+    default Either<FailedOperation, ADFInfo> provision(ProvisioningRequest provisioningRequest) {
+        return provision(provisioningRequest, TaskProgressListener.NOOP);
+    }
+
+    /**
+     * Provision the component present in the request, notifying every completed step
+     *
+     * @param provisioningRequest the request
+     * @param progressListener the listener notified on every completed step
+     * @return the outcome of the provision
+     */
+    Either<FailedOperation, ADFInfo> provision(
+            ProvisioningRequest provisioningRequest, TaskProgressListener progressListener);
 
     /**
      * Unprovision the component present in the request
      *
      * @param provisioningRequest the request
-     * @return the outcome of the unprovision
+     * @return a future completed with the outcome of the unprovision
+     */
+    default CompletableFuture<Either<FailedOperation, Void>> unprovision(ProvisioningRequest provisioningRequest) {
+        return unprovision(provisioningRequest, TaskProgressListener.NOOP);
+    }
+
+    /**
+     * Unprovision the component present in the request, notifying every completed step
+     *
+     * @param provisioningRequest the request
+     * @param progressListener the listener notified on every completed step
+     * @return a future completed with the outcome of the unprovision, without blocking a thread while the Data
+     *     Factory is being deleted
      */
-    Either<FailedOperation, Void> unprovision(ProvisioningRequest provisioningRequest);
+    CompletableFuture<Either<FailedOperation, Void>> unprovision(
+            ProvisioningRequest provisioningRequest, TaskProgressListener progressListener);
 }
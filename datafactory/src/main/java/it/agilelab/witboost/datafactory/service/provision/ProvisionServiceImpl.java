@@ -12,96 +12,171 @@ import it.agilelab.witboost.datafactory.config.MiscConfig;
 import it.agilelab.witboost.datafactory.model.*;
 import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
 import it.agilelab.witboost.datafactory.service.*;
+import it.agilelab.witboost.datafactory.service.publish.DeploymentStateStore;
+import it.agilelab.witboost.datafactory.service.task.SingleFlight;
+import it.agilelab.witboost.datafactory.service.task.StepGraph;
+import it.agilelab.witboost.datafactory.service.task.TaskProgressListener;
 import it.agilelab.witboost.datafactory.service.validation.ValidationService;
-import it.agilelab.witboost.datafactory.util.FileUtils;
+import it.agilelab.witboost.datafactory.service.workspace.Workspace;
 import java.io.File;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.util.FileSystemUtils;
 
 @Service
 public class ProvisionServiceImpl implements ProvisionService {
     private static final Logger logger = LoggerFactory.getLogger(ProvisionServiceImpl.class);
 
+    private static final String PHASE_VALIDATION = "validation";
+    private static final String PHASE_GIT = "git";
+    private static final String PHASE_DATA_FACTORY = "dataFactory";
+    private static final String PHASE_PERMISSIONS = "permissions";
+    private static final String PHASE_PUBLISH = "publish";
+
+    private static final String STEP_CREATE_ADF = "createDataFactory";
+    private static final String STEP_LINK_GIT = "linkGitRepository";
+    private static final String STEP_PERMISSIONS = "assignPermissions";
+    private static final String STEP_PUBLISH = "publish";
+
     private final ValidationService validationService;
     private final PrincipalMappingService principalMappingService;
-    private final AzureGitCloneCommandService azureGitCloneCommandService;
-    private final GitRepositoryService gitRepositoryService;
+    private final GitCheckoutService gitCheckoutService;
     private final DataFactoryClient dataFactoryClient;
     private final PermissionService permissionService;
     private final ADFToolsWrapperService adfToolsWrapperService;
+    private final DeploymentStateStore deploymentStateStore;
     private final AzureGitConfig azureGitConfig;
     private final MiscConfig miscConfig;
+    // Requests for the same Data Factory are coalesced when identical, serialized otherwise
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final Executor stepExecutor;
 
     public ProvisionServiceImpl(
             ValidationService validationService,
             PrincipalMappingService principalMappingService,
-            AzureGitCloneCommandService azureGitCloneCommandService,
-            GitRepositoryService gitRepositoryService,
+            GitCheckoutService gitCheckoutService,
             DataFactoryClient dataFactoryClient,
             PermissionService permissionService,
             ADFToolsWrapperService adfToolsWrapperService,
+            DeploymentStateStore deploymentStateStore,
             AzureGitConfig azureGitConfig,
-            MiscConfig miscConfig) {
+            MiscConfig miscConfig,
+            @Qualifier("provisionStepExecutor") Executor stepExecutor) {
         this.validationService = validationService;
         this.principalMappingService = principalMappingService;
-        this.azureGitCloneCommandService = azureGitCloneCommandService;
-        this.gitRepositoryService = gitRepositoryService;
+        this.gitCheckoutService = gitCheckoutService;
         this.dataFactoryClient = dataFactoryClient;
         this.permissionService = permissionService;
         this.adfToolsWrapperService = adfToolsWrapperService;
+        this.deploymentStateStore = deploymentStateStore;
         this.azureGitConfig = azureGitConfig;
         this.miscConfig = miscConfig;
+        this.stepExecutor = stepExecutor;
     }
 
     @Override
-    public Either<FailedOperation, ADFInfo> provision(ProvisioningRequest provisioningRequest) {
-        var eitherValidation = validationService.validate(provisioningRequest);
-        if (eitherValidation.isLeft()) return left(eitherValidation.getLeft());
+    public Either<FailedOperation, ADFInfo> provision(
+            ProvisioningRequest provisioningRequest, TaskProgressListener progressListener) {
+        // Only the descriptor is parsed to find the target Data Factory: identical requests share the checkout and the
+        // validation too
+        var eitherRequest = validationService.parse(provisioningRequest);
+        if (eitherRequest.isLeft()) return left(eitherRequest.getLeft());
+        String adfName = buildDataFactoryName(eitherRequest.get());
+        return singleFlight.execute(
+                adfName,
+                fingerprint("provision", provisioningRequest),
+                () -> validateAndDeploy(provisioningRequest, adfName, progressListener),
+                message -> progressListener.onProgress(PHASE_DATA_FACTORY, message));
+    }
 
-        var provisionRequest = eitherValidation.get();
-        // we can cast directly since checks were done on validation
-        var specific = ((Workload<WorkloadSpecific>) provisionRequest.component()).getSpecific();
+    private Either<FailedOperation, ADFInfo> validateAndDeploy(
+            ProvisioningRequest provisioningRequest, String adfName, TaskProgressListener progressListener) {
+        // The workspace is shared by validation and publish, so that the repository is checked out only once
+        var eitherWorkspace = Workspace.create();
+        if (eitherWorkspace.isLeft()) return left(eitherWorkspace.getLeft());
+        try (var workspace = eitherWorkspace.get()) {
+            var eitherValidation = validationService.validate(provisioningRequest, workspace);
+            if (eitherValidation.isLeft()) return left(eitherValidation.getLeft());
+            progressListener.onProgress(PHASE_VALIDATION, "The provisioning request is valid");
 
-        var eitherTmpDir = FileUtils.createTempDirectory();
-        if (eitherTmpDir.isLeft()) return left(eitherTmpDir.getLeft());
-        var tmpDir = new File(eitherTmpDir.get());
+            var provisionRequest = eitherValidation.get();
+            // we can cast directly since checks were done on validation
+            var specific = ((Workload<WorkloadSpecific>) provisionRequest.component()).getSpecific();
+            return deploy(provisionRequest, specific, workspace, adfName, progressListener);
+        }
+    }
 
+    private <T extends Specific> Either<FailedOperation, ADFInfo> deploy(
+            ProvisionRequest<T> provisionRequest,
+            WorkloadSpecific specific,
+            Workspace workspace,
+            String adfName,
+            TaskProgressListener progressListener) {
         String devEnv = miscConfig.developmentEnvironmentName();
-        String adfName = buildDataFactoryName(provisionRequest);
         Either<FailedOperation, String> eitherDeploy;
-        try {
-            if (devEnv.equalsIgnoreCase(provisionRequest.dataProduct().getEnvironment())) {
-                eitherDeploy = deployOnDev(provisionRequest, specific, tmpDir, adfName);
-            } else {
-                eitherDeploy = deployOnOtherEnvs(provisionRequest, specific, tmpDir, adfName);
-            }
-        } finally {
-            FileSystemUtils.deleteRecursively(tmpDir);
+        if (devEnv.equalsIgnoreCase(provisionRequest.dataProduct().getEnvironment())) {
+            eitherDeploy = deployOnDev(provisionRequest, specific, workspace, adfName, progressListener);
+        } else {
+            eitherDeploy = deployOnOtherEnvs(provisionRequest, specific, workspace, adfName, progressListener);
         }
         return eitherDeploy.map(id -> new ADFInfo(adfName, id, buildDataFactoryUrl(id)));
     }
 
     @Override
-    public Either<FailedOperation, Void> unprovision(ProvisioningRequest provisioningRequest) {
+    public CompletableFuture<Either<FailedOperation, Void>> unprovision(
+            ProvisioningRequest provisioningRequest, TaskProgressListener progressListener) {
+        var eitherRequest = validationService.parse(provisioningRequest);
+        if (eitherRequest.isLeft()) return CompletableFuture.completedFuture(left(eitherRequest.getLeft()));
+        String adfName = buildDataFactoryName(eitherRequest.get());
+
+        // The Data Factory stays locked until its deletion completes, while the thread is released
+        return singleFlight.executeAsync(
+                adfName,
+                fingerprint("unprovision", provisioningRequest),
+                () -> validateAndDelete(provisioningRequest, adfName, progressListener),
+                message -> progressListener.onProgress(PHASE_DATA_FACTORY, message));
+    }
+
+    private CompletableFuture<Either<FailedOperation, Void>> validateAndDelete(
+            ProvisioningRequest provisioningRequest, String adfName, TaskProgressListener progressListener) {
         var eitherValidation = validationService.validate(provisioningRequest);
-        if (eitherValidation.isLeft()) return left(eitherValidation.getLeft());
+        if (eitherValidation.isLeft()) return CompletableFuture.completedFuture(left(eitherValidation.getLeft()));
+        progressListener.onProgress(PHASE_VALIDATION, "The provisioning request is valid");
 
         var provisionRequest = eitherValidation.get();
         // we can cast directly since checks were done on validation
         var specific = ((Workload<WorkloadSpecific>) provisionRequest.component()).getSpecific();
-        String adfName = buildDataFactoryName(provisionRequest);
+        return dataFactoryClient
+                .deleteADFAsync(
+                        specific.getResourceGroup(),
+                        adfName,
+                        message -> progressListener.onProgress(PHASE_DATA_FACTORY, message))
+                .thenApply(deleted -> deleted.peek(v -> {
+                    deploymentStateStore.remove(specific.getResourceGroup(), adfName);
+                    progressListener.onProgress(
+                            PHASE_DATA_FACTORY, String.format("Data Factory '%s' deleted", adfName));
+                }));
+    }
 
-        return dataFactoryClient.deleteADF(specific.getResourceGroup(), adfName);
+    private String fingerprint(String operation, ProvisioningRequest provisioningRequest) {
+        return operation + ":" + DigestUtils.sha256Hex(String.valueOf(provisioningRequest.getDescriptor()));
     }
 
     private <T extends Specific> Either<FailedOperation, String> deployOnDev(
-            ProvisionRequest<T> provisionRequest, WorkloadSpecific specific, File repoPath, String adfName) {
+            ProvisionRequest<T> provisionRequest,
+            WorkloadSpecific specific,
+            Workspace workspace,
+            String adfName,
+            TaskProgressListener progressListener) {
         FactoryGitConfiguration factoryGitConfiguration = new FactoryGitConfiguration(
                 azureGitConfig.accountName(),
                 specific.getProjectName(),
@@ -112,40 +187,68 @@ public class ProvisionServiceImpl implements ProvisionService {
                 azureGitConfig.tenantId(),
                 azureGitConfig.disablePublish());
 
-        return cloneGitRepository(specific, repoPath)
-                .flatMap(v -> upsertDataFactoryInstance(specific, adfName).flatMap(instanceId -> dataFactoryClient
-                        .linkGitRepository(
-                                specific.getResourceGroup(), specific.getRegion(), adfName, factoryGitConfiguration)
-                        .flatMap(vv -> mapOwners(provisionRequest).flatMap(owners -> permissionService
-                                .assignOwnerPermissions(Set.copyOf(owners), instanceId)
-                                .flatMap(vvv -> adfToolsWrapperService
-                                        .publish(
-                                                repoPath.getAbsolutePath(),
-                                                specific.getResourceGroup(),
-                                                adfName,
-                                                specific.getRegion(),
-                                                provisionRequest.dataProduct().getEnvironment(),
-                                                true)
-                                        .map(vvvv -> instanceId))))));
+        // The checkout and the owners mapping are independent. The Data Factory is changed only once the checkout
+        // succeeded, and the owners are joined to it to assign the permissions before publishing
+        var graph = new StepGraph(stepExecutor);
+        var clone = graph.step(() -> cloneGitRepository(specific, workspace, progressListener));
+        var owners = graph.step(() -> mapOwners(provisionRequest, progressListener));
+        var dataFactory = graph.step(clone, v -> upsertDataFactoryInstance(specific, adfName, progressListener));
+        var linkedDataFactory = graph.step(
+                dataFactory, instanceId -> checkpoint(STEP_LINK_GIT, progressListener, () -> dataFactoryClient
+                                .linkGitRepository(
+                                        specific.getResourceGroup(),
+                                        specific.getRegion(),
+                                        adfName,
+                                        factoryGitConfiguration)
+                                .peek(v -> progressListener.onProgress(
+                                        PHASE_DATA_FACTORY, "Git repository linked to the Data Factory")))
+                        .map(v -> instanceId));
+        var permissions = graph.stepAsync(linkedDataFactory, owners, (instanceId, principals) -> checkpointAsync(
+                        STEP_PERMISSIONS, progressListener, () -> permissionService
+                                .assignOwnerPermissionsAsync(Set.copyOf(principals), instanceId)
+                                .thenApply(assigned -> assigned.peek(v ->
+                                        progressListener.onProgress(PHASE_PERMISSIONS, "Owner permissions assigned"))))
+                .thenApply(assigned -> assigned.map(v -> instanceId)));
+        var published = graph.step(permissions, instanceId -> checkpoint(
+                        STEP_PUBLISH,
+                        progressListener,
+                        () -> publish(
+                                provisionRequest, specific, workspace.getDirectory(), adfName, true, progressListener))
+                .map(v -> instanceId));
+        return published.join();
     }
 
     private <T extends Specific> Either<FailedOperation, String> deployOnOtherEnvs(
-            ProvisionRequest<T> provisionRequest, WorkloadSpecific specific, File repoPath, String adfName) {
-        return cloneGitRepository(specific, repoPath).flatMap(v -> upsertDataFactoryInstance(specific, adfName)
-                .flatMap(instanceId -> mapOwners(provisionRequest).flatMap(owners -> permissionService
-                        .assignReaderPermissions(Set.copyOf(owners), instanceId)
-                        .flatMap(vvv -> adfToolsWrapperService
-                                .publish(
-                                        repoPath.getAbsolutePath(),
-                                        specific.getResourceGroup(),
-                                        adfName,
-                                        specific.getRegion(),
-                                        provisionRequest.dataProduct().getEnvironment(),
-                                        false)
-                                .map(vvvv -> instanceId)))));
+            ProvisionRequest<T> provisionRequest,
+            WorkloadSpecific specific,
+            Workspace workspace,
+            String adfName,
+            TaskProgressListener progressListener) {
+        // The checkout and the owners mapping are independent. The Data Factory is changed only once the checkout
+        // succeeded, and the owners are joined to it to assign the permissions before publishing
+        var graph = new StepGraph(stepExecutor);
+        var clone = graph.step(() -> cloneGitRepository(specific, workspace, progressListener));
+        var owners = graph.step(() -> mapOwners(provisionRequest, progressListener));
+        var dataFactory = graph.step(clone, v -> upsertDataFactoryInstance(specific, adfName, progressListener));
+        var permissions = graph.stepAsync(dataFactory, owners, (instanceId, principals) -> checkpointAsync(
+                        STEP_PERMISSIONS, progressListener, () -> permissionService
+                                .assignReaderPermissionsAsync(Set.copyOf(principals), instanceId)
+                                .thenApply(assigned -> assigned.peek(v ->
+                                        progressListener.onProgress(PHASE_PERMISSIONS, "Reader permissions assigned"))))
+                .thenApply(assigned -> assigned.map(v -> instanceId)));
+        var published = graph.step(permissions, instanceId -> checkpoint(
+                        STEP_PUBLISH,
+                        progressListener,
+                        () -> publish(
+                                provisionRequest, specific, workspace.getDirectory(), adfName, false, progressListener))
+                .map(v -> instanceId));
+        return published.join();
     }
 
-    private <T extends Specific> Either<FailedOperation, List<String>> mapOwners(ProvisionRequest<T> provisionRequest) {
+    private <T extends Specific> Either<FailedOperation, List<String>> mapOwners(
+            ProvisionRequest<T> provisionRequest, TaskProgressListener progressListener) {
+        // The owners are only needed to assign the permissions
+        if (progressListener.getCompletedStep(STEP_PERMISSIONS).isDefined()) return right(List.of());
         // FIXME workaround until related bug is fixed in witboost
         String devGroup = provisionRequest.dataProduct().getDevGroup().startsWith("group:")
                 ? provisionRequest.dataProduct().getDevGroup()
@@ -165,13 +268,90 @@ public class ProvisionServiceImpl implements ProvisionService {
         return right(eitherPrincipals.values().stream().map(Either::get).toList());
     }
 
-    private Either<FailedOperation, Void> cloneGitRepository(WorkloadSpecific specific, File path) {
-        var cloneCommand = azureGitCloneCommandService.build(specific.getGitRepo(), path);
-        return gitRepositoryService.clone(cloneCommand);
+    private Either<FailedOperation, Void> cloneGitRepository(
+            WorkloadSpecific specific, Workspace workspace, TaskProgressListener progressListener) {
+        // The checkout is only needed by the publish step, it can be skipped when resuming after it
+        if (progressListener.getCompletedStep(STEP_PUBLISH).isDefined()) return right(null);
+        if (workspace.isCheckedOut()) {
+            progressListener.onProgress(PHASE_GIT, "Reusing the Git repository checked out during validation");
+            return right(null);
+        }
+        return gitCheckoutService
+                .checkout(specific.getGitRepo(), workspace.getDirectory())
+                .peek(v -> {
+                    workspace.markCheckedOut();
+                    progressListener.onProgress(PHASE_GIT, "Git repository cloned");
+                });
+    }
+
+    private Either<FailedOperation, String> upsertDataFactoryInstance(
+            WorkloadSpecific specific, String adfName, TaskProgressListener progressListener) {
+        var completedInstanceId = progressListener.getCompletedStep(STEP_CREATE_ADF);
+        if (completedInstanceId.isDefined()) {
+            logger.info("Step {} already completed for Data Factory '{}', skipping it", STEP_CREATE_ADF, adfName);
+            return right(completedInstanceId.get());
+        }
+        return dataFactoryClient
+                .createADF(
+                        specific.getResourceGroup(),
+                        specific.getRegion(),
+                        adfName,
+                        // The state of a factory deleted by other means must not make the publisher skip objects
+                        () -> deploymentStateStore.remove(specific.getResourceGroup(), adfName))
+                .peek(instanceId -> {
+                    progressListener.onStepCompleted(STEP_CREATE_ADF, instanceId);
+                    progressListener.onProgress(
+                            PHASE_DATA_FACTORY, String.format("Data Factory '%s' is available", adfName));
+                });
+    }
+
+    /***
+     * Run a step unless a previous run of the same operation already completed it, and checkpoint it on success
+     */
+    private Either<FailedOperation, Void> checkpoint(
+            String step, TaskProgressListener progressListener, Supplier<Either<FailedOperation, Void>> action) {
+        if (progressListener.getCompletedStep(step).isDefined()) {
+            logger.info("Step {} already completed, skipping it", step);
+            return right(null);
+        }
+        return action.get().peek(v -> progressListener.onStepCompleted(step, ""));
+    }
+
+    private CompletableFuture<Either<FailedOperation, Void>> checkpointAsync(
+            String step,
+            TaskProgressListener progressListener,
+            Supplier<CompletableFuture<Either<FailedOperation, Void>>> action) {
+        if (progressListener.getCompletedStep(step).isDefined()) {
+            logger.info("Step {} already completed, skipping it", step);
+            return CompletableFuture.completedFuture(right(null));
+        }
+        return action.get().thenApply(result -> result.peek(v -> progressListener.onStepCompleted(step, "")));
     }
 
-    private Either<FailedOperation, String> upsertDataFactoryInstance(WorkloadSpecific specific, String adfName) {
-        return dataFactoryClient.createADF(specific.getResourceGroup(), specific.getRegion(), adfName);
+    private <T extends Specific> Either<FailedOperation, Void> publish(
+            ProvisionRequest<T> provisionRequest,
+            WorkloadSpecific specific,
+            File repoPath,
+            String adfName,
+            boolean isDevEnvironment,
+            TaskProgressListener progressListener) {
+        return adfToolsWrapperService
+                .publish(
+                        repoPath.getAbsolutePath(),
+                        specific.getResourceGroup(),
+                        adfName,
+                        specific.getRegion(),
+                        provisionRequest.dataProduct().getEnvironment(),
+                        isDevEnvironment)
+                .peek(result -> progressListener.onProgress(
+                        PHASE_PUBLISH,
+                        String.format(
+                                "Data Factory resources published: %d objects in %s",
+                                result.objects().size(),
+                                result.phases().stream()
+                                        .map(phase -> phase.name() + " " + phase.duration())
+                                        .collect(Collectors.joining(", ")))))
+                .map(result -> null);
     }
 
     private String buildDataFactoryUrl(String adfInstanceId) {
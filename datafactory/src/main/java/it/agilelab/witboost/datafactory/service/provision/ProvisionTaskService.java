@@ -0,0 +1,35 @@
+package it.agilelab.witboost.datafactory.service.provision;
+
+import io.vavr.control.Option;
+import it.agilelab.witboost.datafactory.model.ADFInfo;
+import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.datafactory.service.task.Task;
+import java.util.Optional;
+
+/***
+ * Asynchronous provisioning services
+ */
+public interface ProvisionTaskService {
+
+    /***
+     * Submit the provision of the component present in the request to the provisioning worker pool
+     * @param provisioningRequest the request
+     * @return the token that can be used to poll the operation status
+     */
+    String submitProvision(ProvisioningRequest provisioningRequest);
+
+    /***
+     * Submit the unprovision of the component present in the request to the provisioning worker pool
+     * @param provisioningRequest the request
+     * @return the token that can be used to poll the operation status
+     */
+    String submitUnprovision(ProvisioningRequest provisioningRequest);
+
+    /***
+     * Retrieve a submitted operation. Provision operations complete with the info of the Data Factory, while
+     * unprovision operations complete with no result
+     * @param token the token returned on submission
+     * @return the operation, or empty if the token is unknown or expired
+     */
+    Optional<Task<Option<ADFInfo>>> getTask(String token);
+}
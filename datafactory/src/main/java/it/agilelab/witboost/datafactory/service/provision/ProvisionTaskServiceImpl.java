@@ -0,0 +1,125 @@
+package it.agilelab.witboost.datafactory.service.provision;
+
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.config.AsyncConfig;
+import it.agilelab.witboost.datafactory.model.ADFInfo;
+import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.datafactory.service.journal.JournaledOperation;
+import it.agilelab.witboost.datafactory.service.journal.JournalingProgressListener;
+import it.agilelab.witboost.datafactory.service.journal.OperationJournal;
+import it.agilelab.witboost.datafactory.service.journal.OperationType;
+import it.agilelab.witboost.datafactory.service.task.Task;
+import it.agilelab.witboost.datafactory.service.task.TaskRegistry;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ProvisionTaskServiceImpl implements ProvisionTaskService {
+
+    private final Logger logger = LoggerFactory.getLogger(ProvisionTaskServiceImpl.class);
+
+    private final ProvisionService provisionService;
+    private final OperationJournal operationJournal;
+    private final TaskRegistry<Option<ADFInfo>> taskRegistry;
+
+    public ProvisionTaskServiceImpl(
+            ProvisionService provisionService,
+            OperationJournal operationJournal,
+            @Qualifier("provisionExecutor") ExecutorService provisionExecutor,
+            AsyncConfig asyncConfig) {
+        this.provisionService = provisionService;
+        this.operationJournal = operationJournal;
+        this.taskRegistry =
+                new TaskRegistry<>(provisionExecutor, asyncConfig.provision().taskRetention());
+    }
+
+    @Override
+    public String submitProvision(ProvisioningRequest provisioningRequest) {
+        String token = UUID.randomUUID().toString();
+        operationJournal.recordSubmitted(token, OperationType.PROVISION, provisioningRequest);
+        submit(token, OperationType.PROVISION, provisioningRequest, Map.of());
+        logger.info("Provision operation submitted with token {}", token);
+        return token;
+    }
+
+    @Override
+    public String submitUnprovision(ProvisioningRequest provisioningRequest) {
+        String token = UUID.randomUUID().toString();
+        operationJournal.recordSubmitted(token, OperationType.UNPROVISION, provisioningRequest);
+        submit(token, OperationType.UNPROVISION, provisioningRequest, Map.of());
+        logger.info("Unprovision operation submitted with token {}", token);
+        return token;
+    }
+
+    @Override
+    public Optional<Task<Option<ADFInfo>>> getTask(String token) {
+        return taskRegistry.get(token);
+    }
+
+    /***
+     * Resume the operations interrupted by a restart, skipping the steps they already completed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingOperations() {
+        for (JournaledOperation operation : operationJournal.pendingOperations()) {
+            logger.info(
+                    "Resuming {} operation {} submitted at {}, completed steps: {}",
+                    operation.type(),
+                    operation.token(),
+                    operation.submittedAt(),
+                    operation.completedSteps().keySet());
+            try {
+                submit(operation.token(), operation.type(), operation.request(), operation.completedSteps());
+            } catch (RejectedExecutionException e) {
+                // The operation stays in the journal and will be resumed on the next restart
+                logger.error(String.format("Unable to resume the operation %s", operation.token()), e);
+            }
+        }
+    }
+
+    private String submit(
+            String token,
+            OperationType type,
+            ProvisioningRequest provisioningRequest,
+            Map<String, String> completedSteps) {
+        try {
+            // The worker is released once an unprovision starts the deletion, the task completes with its future
+            return taskRegistry.submitAsync(token, task -> {
+                var listener = new JournalingProgressListener(task, operationJournal, token, completedSteps);
+                CompletableFuture<Either<FailedOperation, Option<ADFInfo>>> outcome;
+                try {
+                    outcome = run(type, provisioningRequest, listener);
+                } catch (RuntimeException e) {
+                    outcome = CompletableFuture.failedFuture(e);
+                }
+                return outcome.whenComplete((result, e) -> operationJournal.recordCompleted(token));
+            });
+        } catch (RejectedExecutionException e) {
+            operationJournal.recordCompleted(token);
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Either<FailedOperation, Option<ADFInfo>>> run(
+            OperationType type, ProvisioningRequest provisioningRequest, JournalingProgressListener listener) {
+        return switch (type) {
+            case PROVISION -> CompletableFuture.completedFuture(
+                    provisionService.provision(provisioningRequest, listener).map(Option::some));
+            case UNPROVISION -> provisionService
+                    .unprovision(provisioningRequest, listener)
+                    .thenApply(unprovisioned -> unprovisioned.map(v -> Option.none()));
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/***
+ * Orders the Data Factory objects so that each object is deployed after the objects it references
+ */
+public class AdfDependencyGraph {
+
+    private AdfDependencyGraph() {}
+
+    /***
+     * Split the objects in dependency levels: the objects of a level only reference objects of the previous levels,
+     * so they can be deployed concurrently. References to objects that are not in the list are ignored, as they
+     * already exist in the factory (e.g. AutoResolveIntegrationRuntime)
+     * @param objects the objects to deploy
+     * @return the levels in deployment order, or the error encountered if the references form a cycle
+     */
+    public static Either<FailedOperation, List<List<AdfObject>>> levels(List<AdfObject> objects) {
+        Map<String, AdfObject> byKey = new HashMap<>();
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        objects.forEach(o -> {
+            byKey.put(o.key(), o);
+            dependencies.put(o.key(), o.dependencies());
+        });
+        return keyLevels(dependencies).map(levels -> levels.stream()
+                .map(level -> level.stream().map(byKey::get).toList())
+                .toList());
+    }
+
+    /***
+     * Split the objects in dependency levels, as {@link #levels(List)} does
+     * @param dependencies the keys of the objects referenced by each object, by object key
+     * @return the object keys of each level in deployment order, or the error encountered if the references form a
+     * cycle
+     */
+    public static Either<FailedOperation, List<List<String>>> keyLevels(Map<String, Set<String>> dependencies) {
+        Map<String, Set<String>> pending = new HashMap<>();
+        dependencies.forEach((key, references) -> pending.put(
+                key,
+                references.stream()
+                        .filter(d -> dependencies.containsKey(d) && !d.equals(key))
+                        .collect(Collectors.toCollection(HashSet::new))));
+
+        List<List<String>> levels = new ArrayList<>();
+        while (!pending.isEmpty()) {
+            List<String> level = pending.entrySet().stream()
+                    .filter(e -> e.getValue().isEmpty())
+                    .map(Map.Entry::getKey)
+                    .sorted()
+                    .toList();
+            if (level.isEmpty()) {
+                String errorMessage = String.format(
+                        "The Data Factory objects cannot be deployed as their references form a cycle. Details: %s",
+                        pending.keySet().stream().sorted().collect(Collectors.joining(", ")));
+                return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+            }
+            level.forEach(pending::remove);
+            pending.values().forEach(references -> level.forEach(references::remove));
+            levels.add(level);
+        }
+        return right(levels);
+    }
+}
@@ -0,0 +1,30 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Locale;
+import java.util.Set;
+
+/***
+ * A Data Factory object read from a repository
+ * @param type the object type
+ * @param name the object name
+ * @param path the path of the object, relative to the factory REST resource
+ * @param definition the object definition, with the stage configuration applied
+ * @param dependencies the keys of the objects this object references
+ */
+public record AdfObject(AdfObjectType type, String name, String path, ObjectNode definition, Set<String> dependencies) {
+
+    /***
+     * @return the key identifying the object within the factory
+     */
+    public String key() {
+        return key(type, name);
+    }
+
+    /***
+     * Data Factory names are case-insensitive, so are keys
+     */
+    public static String key(AdfObjectType type, String name) {
+        return type.folder() + "/" + name.toLowerCase(Locale.ROOT);
+    }
+}
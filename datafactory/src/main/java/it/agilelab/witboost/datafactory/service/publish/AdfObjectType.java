@@ -0,0 +1,55 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/***
+ * Types of the Data Factory objects stored in a repository, in the layout used by ADF Studio
+ */
+public enum AdfObjectType {
+    MANAGED_VIRTUAL_NETWORK("managedVirtualNetwork", "managedVirtualNetworks", "ManagedVirtualNetworkReference"),
+    MANAGED_PRIVATE_ENDPOINT("managedPrivateEndpoint", "managedPrivateEndpoints", "ManagedPrivateEndpointReference"),
+    INTEGRATION_RUNTIME("integrationRuntime", "integrationRuntimes", "IntegrationRuntimeReference"),
+    CREDENTIAL("credential", "credentials", "CredentialReference"),
+    LINKED_SERVICE("linkedService", "linkedservices", "LinkedServiceReference"),
+    DATASET("dataset", "datasets", "DatasetReference"),
+    DATA_FLOW("dataflow", "dataflows", "DataFlowReference"),
+    PIPELINE("pipeline", "pipelines", "PipelineReference"),
+    TRIGGER("trigger", "triggers", "TriggerReference");
+
+    private final String folder;
+    private final String collection;
+    private final String referenceType;
+
+    AdfObjectType(String folder, String collection, String referenceType) {
+        this.folder = folder;
+        this.collection = collection;
+        this.referenceType = referenceType;
+    }
+
+    /***
+     * @return the repository folder holding the objects of this type, also used as type name in the stage
+     * configurations
+     */
+    public String folder() {
+        return folder;
+    }
+
+    /***
+     * @return the name of the Data Factory REST collection of the objects of this type
+     */
+    public String collection() {
+        return collection;
+    }
+
+    /***
+     * Find the type of the objects a reference points to
+     * @param referenceType the type of the reference, e.g. LinkedServiceReference
+     * @return the type, or empty if the reference does not point to a repository object
+     */
+    public static Optional<AdfObjectType> fromReferenceType(String referenceType) {
+        return Arrays.stream(values())
+                .filter(type -> type.referenceType.equalsIgnoreCase(referenceType))
+                .findFirst();
+    }
+}
@@ -0,0 +1,80 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import io.vavr.control.Option;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/***
+ * Layout of the Data Factory objects in a repository, as exported by ADF Studio: one folder per object type
+ * holding one JSON file per object. Managed private endpoints are stored within the folder of their managed virtual
+ * network
+ */
+public class AdfRepositoryLayout {
+
+    private static final String MANAGED_PRIVATE_ENDPOINT_FOLDER = "managedPrivateEndpoint";
+
+    private AdfRepositoryLayout() {}
+
+    /***
+     * A file holding a Data Factory object
+     * @param type the object type
+     * @param path the file path
+     * @param network the managed virtual network of a managed private endpoint
+     */
+    public record AdfFile(AdfObjectType type, Path path, Option<String> network) {
+
+        /***
+         * @return the object name deduced from the file name
+         */
+        public String fileName() {
+            String fileName = path.getFileName().toString();
+            return fileName.substring(0, fileName.length() - ".json".length());
+        }
+    }
+
+    /***
+     * List the object files of a repository, ordered by type and path
+     * @param rootFolder the folder holding the ADF folders (pipeline, dataset, etc.)
+     * @return the object files
+     * @throws IOException if a folder cannot be listed
+     */
+    public static List<AdfFile> list(Path rootFolder) throws IOException {
+        List<AdfFile> files = new ArrayList<>();
+        for (AdfObjectType type : AdfObjectType.values()) {
+            if (type == AdfObjectType.MANAGED_PRIVATE_ENDPOINT) {
+                Path networks = rootFolder.resolve(AdfObjectType.MANAGED_VIRTUAL_NETWORK.folder());
+                for (Path network : listFolders(networks)) {
+                    for (Path file : listJson(network.resolve(MANAGED_PRIVATE_ENDPOINT_FOLDER))) {
+                        files.add(new AdfFile(
+                                type, file, Option.of(network.getFileName().toString())));
+                    }
+                }
+            } else {
+                for (Path file : listJson(rootFolder.resolve(type.folder()))) {
+                    files.add(new AdfFile(type, file, Option.none()));
+                }
+            }
+        }
+        return files;
+    }
+
+    private static List<Path> listJson(Path folder) throws IOException {
+        if (!Files.isDirectory(folder)) return List.of();
+        try (Stream<Path> list = Files.list(folder)) {
+            return list.filter(f -> f.getFileName().toString().endsWith(".json") && Files.isRegularFile(f))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static List<Path> listFolders(Path folder) throws IOException {
+        if (!Files.isDirectory(folder)) return List.of();
+        try (Stream<Path> list = Files.list(folder)) {
+            return list.filter(Files::isDirectory).sorted().toList();
+        }
+    }
+}
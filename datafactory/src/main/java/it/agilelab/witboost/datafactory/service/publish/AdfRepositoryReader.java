@@ -0,0 +1,133 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/***
+ * Reads the Data Factory objects of a repository, in the layout used by ADF Studio, applying the stage
+ * configuration found in its deployment folder
+ */
+@Component
+public class AdfRepositoryReader {
+
+    private final Logger logger = LoggerFactory.getLogger(AdfRepositoryReader.class);
+
+    private final ObjectMapper objectMapper;
+
+    public AdfRepositoryReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /***
+     * Read the objects of a repository
+     * @param rootFolder the folder holding the ADF folders (pipeline, dataset, etc.)
+     * @param stage the stage configuration to apply: either a name, resolved to deployment/config-{stage}.csv, or
+     *              the path of a CSV file
+     * @return the objects with their dependencies, or the error encountered
+     */
+    public Either<FailedOperation, List<AdfObject>> read(Path rootFolder, Option<String> stage) {
+        var stageConfiguration =
+                stage.map(s -> readStageConfiguration(rootFolder, s)).getOrElse(() -> right(null));
+        if (stageConfiguration.isLeft()) return left(stageConfiguration.getLeft());
+
+        List<AdfRepositoryLayout.AdfFile> files;
+        try {
+            files = AdfRepositoryLayout.list(rootFolder);
+        } catch (IOException e) {
+            return readError(rootFolder, e);
+        }
+        List<AdfObject> objects = new ArrayList<>();
+        for (AdfRepositoryLayout.AdfFile file : files) {
+            var read = readObject(file, stageConfiguration.get());
+            if (read.isLeft()) return left(read.getLeft());
+            objects.add(read.get());
+        }
+        logger.info("Read {} Data Factory objects from {}", objects.size(), rootFolder);
+        return right(objects);
+    }
+
+    private Either<FailedOperation, StageConfiguration> readStageConfiguration(Path rootFolder, String stage) {
+        Path file = stage.toLowerCase().endsWith(".csv")
+                ? Path.of(stage)
+                : rootFolder.resolve("deployment").resolve("config-" + stage + ".csv");
+        if (!Files.isRegularFile(file)) {
+            String errorMessage = String.format(
+                    "The stage configuration %s was not found. The native publisher only supports the CSV format",
+                    file);
+            logger.error(errorMessage);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+        }
+        try {
+            return StageConfiguration.parse(Files.readAllLines(file), System::getenv, objectMapper);
+        } catch (IOException e) {
+            return readError(file, e);
+        }
+    }
+
+    private Either<FailedOperation, AdfObject> readObject(
+            AdfRepositoryLayout.AdfFile file, StageConfiguration stageConfiguration) {
+        ObjectNode definition;
+        try {
+            if (!(objectMapper.readTree(file.path().toFile()) instanceof ObjectNode node)) {
+                String errorMessage = String.format("The Data Factory object %s is not a JSON object", file.path());
+                logger.error(errorMessage);
+                return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+            }
+            definition = node;
+        } catch (IOException e) {
+            return readError(file.path(), e);
+        }
+        AdfObjectType type = file.type();
+        String name = definition.path("name").asText(file.fileName());
+        if (stageConfiguration != null) {
+            var applied = stageConfiguration.apply(type, name, definition);
+            if (applied.isLeft()) return left(applied.getLeft());
+        }
+        Set<String> dependencies = new HashSet<>();
+        collectReferences(definition.path("properties"), dependencies);
+        String path = type.collection() + "/" + name;
+        if (file.network().isDefined()) {
+            String network = file.network().get();
+            dependencies.add(AdfObject.key(AdfObjectType.MANAGED_VIRTUAL_NETWORK, network));
+            path = AdfObjectType.MANAGED_VIRTUAL_NETWORK.collection() + "/" + network + "/" + path;
+        }
+        return right(new AdfObject(type, name, path, definition, dependencies));
+    }
+
+    // References are objects holding the name and the type of the referenced object, wherever they appear
+    private void collectReferences(JsonNode node, Set<String> dependencies) {
+        if (node.isObject() && node.path("referenceName").isTextual()) {
+            AdfObjectType.fromReferenceType(node.path("type").asText())
+                    .ifPresent(type -> dependencies.add(
+                            AdfObject.key(type, node.path("referenceName").asText())));
+        }
+        node.elements().forEachRemaining(child -> collectReferences(child, dependencies));
+    }
+
+    private <T> Either<FailedOperation, T> readError(Path path, IOException e) {
+        String errorMessage = String.format(
+                "An error occurred while reading the Data Factory resources in %s. Please check that the repository contains valid JSON files and if the error persists contact the platform team. Details: %s",
+                path, e.getMessage());
+        logger.error(errorMessage, e);
+        return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+    }
+}
@@ -0,0 +1,13 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import java.util.Set;
+
+/***
+ * An object deployed to a factory by the native publisher
+ * @param type the object type folder, e.g. pipeline
+ * @param name the object name
+ * @param path the path of the object, relative to the factory REST resource
+ * @param hash the SHA-256 hash of the deployed body
+ * @param dependencies the keys of the objects this object references
+ */
+public record DeployedObject(String type, String name, String path, String hash, Set<String> dependencies) {}
@@ -0,0 +1,33 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import java.util.Map;
+
+/***
+ * Keeps the objects deployed to each factory by the native publisher, so that the next publication only deploys
+ * what changed
+ */
+public interface DeploymentStateStore {
+
+    /***
+     * Load the objects deployed to a factory
+     * @param resourceGroup the resource group of the factory
+     * @param dataFactoryName the factory name
+     * @return the deployed objects by object key, empty if the factory state is unknown
+     */
+    Map<String, DeployedObject> load(String resourceGroup, String dataFactoryName);
+
+    /***
+     * Replace the objects deployed to a factory
+     * @param resourceGroup the resource group of the factory
+     * @param dataFactoryName the factory name
+     * @param objects the deployed objects by object key
+     */
+    void save(String resourceGroup, String dataFactoryName, Map<String, DeployedObject> objects);
+
+    /***
+     * Forget the objects deployed to a factory, e.g. because it was deleted or published by another engine
+     * @param resourceGroup the resource group of the factory
+     * @param dataFactoryName the factory name
+     */
+    void remove(String resourceGroup, String dataFactoryName);
+}
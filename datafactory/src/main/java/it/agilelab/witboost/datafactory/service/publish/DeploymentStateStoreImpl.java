@@ -0,0 +1,84 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.agilelab.witboost.datafactory.config.PublisherConfig;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/***
+ * File-backed store holding one JSON file per factory, at {stateDirectory}/{resourceGroup}/{dataFactoryName}.json.
+ * Files are replaced atomically. The state is only an optimization: when it cannot be read the factory is
+ * published in full
+ */
+@Service
+public class DeploymentStateStoreImpl implements DeploymentStateStore {
+
+    private final Logger logger = LoggerFactory.getLogger(DeploymentStateStoreImpl.class);
+
+    private final PublisherConfig config;
+    private final ObjectMapper objectMapper;
+
+    public DeploymentStateStoreImpl(PublisherConfig config, ObjectMapper objectMapper) {
+        this.config = config;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized Map<String, DeployedObject> load(String resourceGroup, String dataFactoryName) {
+        if (!isPersistent()) return Map.of();
+        var file = stateFile(resourceGroup, dataFactoryName);
+        if (!Files.exists(file)) return Map.of();
+        try {
+            return objectMapper.readValue(file.toFile(), new TypeReference<Map<String, DeployedObject>>() {});
+        } catch (IOException e) {
+            logger.warn(String.format("Unable to load the deployment state from %s, publishing in full", file), e);
+            return Map.of();
+        }
+    }
+
+    @Override
+    public synchronized void save(String resourceGroup, String dataFactoryName, Map<String, DeployedObject> objects) {
+        if (!isPersistent()) return;
+        var file = stateFile(resourceGroup, dataFactoryName);
+        var tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            objectMapper.writeValue(tmpFile.toFile(), objects);
+            Files.move(tmpFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // A stale state would skip objects that need to be deployed, so it is better to have none
+            logger.warn(String.format("Unable to persist the deployment state to %s", file), e);
+            remove(resourceGroup, dataFactoryName);
+        }
+    }
+
+    @Override
+    public synchronized void remove(String resourceGroup, String dataFactoryName) {
+        if (!isPersistent()) return;
+        var file = stateFile(resourceGroup, dataFactoryName);
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.error(String.format("Unable to delete the deployment state %s", file), e);
+        }
+    }
+
+    private boolean isPersistent() {
+        return config.stateDirectory() != null && !config.stateDirectory().isBlank();
+    }
+
+    // Resource group and factory names are case-insensitive
+    private Path stateFile(String resourceGroup, String dataFactoryName) {
+        return Path.of(config.stateDirectory())
+                .resolve(resourceGroup.toLowerCase(Locale.ROOT))
+                .resolve(dataFactoryName.toLowerCase(Locale.ROOT) + ".json");
+    }
+}
@@ -0,0 +1,24 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.service.powershell.ScriptResult;
+
+/***
+ * Publishes the Data Factory resources of a repository through the Data Factory SDK, without PowerShell
+ */
+public interface NativePublisher {
+
+    /***
+     * Deploy the objects of the repository in dependency order. The started triggers being deployed are stopped
+     * before the deployment and the triggers defined as started are started after it
+     * @param repositoryPath the path where the GIT repository containing the ADF resources is cloned
+     * @param resourceGroup the resource group of the existing Data Factory
+     * @param dataFactoryName the Data Factory name
+     * @param stage the stage configuration to apply, if any
+     * @return the objects published and the time spent in each phase, or the error encountered before deploying
+     */
+    Either<FailedOperation, ScriptResult> publish(
+            String repositoryPath, String resourceGroup, String dataFactoryName, Option<String> stage);
+}
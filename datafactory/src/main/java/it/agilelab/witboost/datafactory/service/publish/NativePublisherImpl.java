@@ -0,0 +1,311 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import it.agilelab.witboost.datafactory.config.PublisherConfig;
+import it.agilelab.witboost.datafactory.service.DataFactoryClient;
+import it.agilelab.witboost.datafactory.service.powershell.ScriptResult;
+import it.agilelab.witboost.datafactory.service.powershell.ScriptResult.ObjectResult;
+import it.agilelab.witboost.datafactory.service.powershell.ScriptResult.PhaseTiming;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class NativePublisherImpl implements NativePublisher {
+
+    private final Logger logger = LoggerFactory.getLogger(NativePublisherImpl.class);
+
+    private static final String STATUS_KO = "KO";
+    private static final String TRIGGER_STARTED = "Started";
+
+    private final AdfRepositoryReader repositoryReader;
+    private final DataFactoryClient dataFactoryClient;
+    private final DeploymentStateStore stateStore;
+    private final PublisherConfig config;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public NativePublisherImpl(
+            AdfRepositoryReader repositoryReader,
+            DataFactoryClient dataFactoryClient,
+            DeploymentStateStore stateStore,
+            PublisherConfig config,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.repositoryReader = repositoryReader;
+        this.dataFactoryClient = dataFactoryClient;
+        this.stateStore = stateStore;
+        this.config = config;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Either<FailedOperation, ScriptResult> publish(
+            String repositoryPath, String resourceGroup, String dataFactoryName, Option<String> stage) {
+        List<PhaseTiming> phases = new ArrayList<>();
+
+        long start = System.nanoTime();
+        var read = repositoryReader.read(Path.of(repositoryPath), stage);
+        if (read.isLeft()) return left(read.getLeft());
+        var levels = AdfDependencyGraph.levels(read.get());
+        if (levels.isLeft()) return left(levels.getLeft());
+        Map<String, String> bodies = new HashMap<>();
+        for (AdfObject object : read.get()) {
+            var body = body(object, dataFactoryName);
+            if (body.isLeft()) return left(body.getLeft());
+            bodies.put(object.key(), body.get());
+        }
+        // The objects deployed by the previous publications: the unchanged ones are skipped if incremental, the
+        // ones missing from the repository are deleted
+        Map<String, DeployedObject> deployed = new HashMap<>(stateStore.load(resourceGroup, dataFactoryName));
+        Set<String> unchanged = new HashSet<>();
+        if (config.incremental()) {
+            bodies.forEach((key, body) -> {
+                var previous = deployed.get(key);
+                if (previous != null && previous.hash().equals(DigestUtils.sha256Hex(body))) unchanged.add(key);
+            });
+        }
+        List<List<AdfObject>> changedLevels = levels.get().stream()
+                .map(level ->
+                        level.stream().filter(o -> !unchanged.contains(o.key())).toList())
+                .filter(level -> !level.isEmpty())
+                .toList();
+        Map<String, DeployedObject> removed = deployed.entrySet().stream()
+                .filter(e -> !bodies.containsKey(e.getKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        phases.add(phase("read", start));
+        List<AdfObject> triggers = levels.get().stream()
+                .flatMap(List::stream)
+                .filter(o -> o.type() == AdfObjectType.TRIGGER)
+                .toList();
+
+        // A started trigger cannot be updated nor deleted
+        start = System.nanoTime();
+        var startedTriggers = dataFactoryClient.listStartedTriggers(resourceGroup, dataFactoryName);
+        if (startedTriggers.isLeft()) return left(startedTriggers.getLeft());
+        Set<String> triggersToStop = Stream.concat(
+                        changedLevels.stream().flatMap(List::stream).map(AdfObject::key), removed.keySet().stream())
+                .collect(Collectors.toSet());
+        List<String> stoppedTriggers = new ArrayList<>();
+        for (String trigger : startedTriggers.get()) {
+            if (!triggersToStop.contains(AdfObject.key(AdfObjectType.TRIGGER, trigger))) continue;
+            var stopped = dataFactoryClient.stopTrigger(resourceGroup, dataFactoryName, trigger);
+            if (stopped.isLeft()) {
+                startTriggers(resourceGroup, dataFactoryName, stoppedTriggers);
+                return left(stopped.getLeft());
+            }
+            stoppedTriggers.add(trigger);
+        }
+        phases.add(phase("stopTriggers", start));
+
+        start = System.nanoTime();
+        List<ObjectResult> objects = new ArrayList<>();
+        Option<String> failure = Option.none();
+        for (List<AdfObject> level : changedLevels) {
+            var results = runConcurrently(level, o -> deploy(resourceGroup, dataFactoryName, o, bodies.get(o.key())));
+            objects.addAll(results);
+            for (int i = 0; i < level.size(); i++) {
+                var object = level.get(i);
+                if (results.get(i).isFailed()) continue;
+                deployed.put(
+                        object.key(),
+                        new DeployedObject(
+                                object.type().folder(),
+                                object.name(),
+                                object.path(),
+                                DigestUtils.sha256Hex(bodies.get(object.key())),
+                                object.dependencies()));
+            }
+            long failed = results.stream().filter(ObjectResult::isFailed).count();
+            if (failed > 0) {
+                failure = Option.of(String.format(
+                        "%d objects could not be deployed, the objects depending on them were not deployed", failed));
+                break;
+            }
+        }
+        phases.add(phase("deploy", start));
+
+        // The removed objects are deleted once the objects that referenced them are updated, referencing objects
+        // first
+        start = System.nanoTime();
+        if (failure.isEmpty() && !removed.isEmpty()) {
+            var deleteLevels = AdfDependencyGraph.keyLevels(
+                    removed.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue()
+                            .dependencies())));
+            if (deleteLevels.isLeft()) {
+                failure = Option.of(deleteLevels.getLeft().problems().get(0).description());
+            } else {
+                List<List<String>> referencingFirst = new ArrayList<>(deleteLevels.get());
+                Collections.reverse(referencingFirst);
+                for (List<String> level : referencingFirst) {
+                    var results =
+                            runConcurrently(level, key -> delete(resourceGroup, dataFactoryName, removed.get(key)));
+                    objects.addAll(results);
+                    for (int i = 0; i < level.size(); i++) {
+                        if (!results.get(i).isFailed()) deployed.remove(level.get(i));
+                    }
+                    long failed =
+                            results.stream().filter(ObjectResult::isFailed).count();
+                    if (failed > 0) {
+                        failure = Option.of(String.format(
+                                "%d objects could not be deleted, the objects they reference were not deleted",
+                                failed));
+                        break;
+                    }
+                }
+            }
+        }
+        phases.add(phase("delete", start));
+        stateStore.save(resourceGroup, dataFactoryName, deployed);
+
+        // If the publication failed, the triggers are left as they were, except the deleted ones
+        start = System.nanoTime();
+        Set<String> runningTriggers = startedTriggers.get().stream()
+                .filter(t -> !stoppedTriggers.contains(t))
+                .map(t -> AdfObject.key(AdfObjectType.TRIGGER, t))
+                .collect(Collectors.toSet());
+        List<String> triggersToStart = failure.isDefined()
+                ? stoppedTriggers.stream()
+                        .filter(t -> !isDeleted(t, removed, deployed))
+                        .toList()
+                : triggers.stream()
+                        .filter(t -> !runningTriggers.contains(t.key()))
+                        .filter(t -> TRIGGER_STARTED.equalsIgnoreCase(t.definition()
+                                .path("properties")
+                                .path("runtimeState")
+                                .asText()))
+                        .map(AdfObject::name)
+                        .toList();
+        objects.addAll(startTriggers(resourceGroup, dataFactoryName, triggersToStart));
+        phases.add(phase("startTriggers", start));
+
+        boolean succeeded = failure.isEmpty() && objects.stream().noneMatch(ObjectResult::isFailed);
+        logger.info(
+                "Native publication of ADF '{}' {}: {} objects, {} unchanged, phases {}",
+                dataFactoryName,
+                succeeded ? "completed" : "failed",
+                objects.size(),
+                unchanged.size(),
+                phases);
+        return right(new ScriptResult(
+                Option.of(succeeded ? ScriptResult.STATUS_OK : STATUS_KO), failure, phases, objects, 0, 0));
+    }
+
+    private static boolean isDeleted(
+            String trigger, Map<String, DeployedObject> removed, Map<String, DeployedObject> deployed) {
+        String key = AdfObject.key(AdfObjectType.TRIGGER, trigger);
+        return removed.containsKey(key) && !deployed.containsKey(key);
+    }
+
+    private Either<FailedOperation, String> body(AdfObject object, String dataFactoryName) {
+        try {
+            var body = objectMapper
+                    .createObjectNode()
+                    .set("properties", object.definition().path("properties"));
+            return right(objectMapper.writeValueAsString(body));
+        } catch (JsonProcessingException e) {
+            String errorMessage = String.format(
+                    "An error occurred while serializing the %s '%s' of ADF '%s'. Please try again and if the error persists contact the platform team. Details: %s",
+                    object.type().folder(), object.name(), dataFactoryName, e.getMessage());
+            logger.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+    }
+
+    // The requests are non-blocking, at most parallelism of them are in flight. The results are in the order of
+    // the items
+    private <T> List<ObjectResult> runConcurrently(List<T> items, Function<T, CompletableFuture<ObjectResult>> action) {
+        return Flux.fromIterable(items)
+                .flatMapSequential(item -> Mono.fromFuture(() -> action.apply(item)), Math.max(1, config.parallelism()))
+                .collectList()
+                .block();
+    }
+
+    private CompletableFuture<ObjectResult> deploy(
+            String resourceGroup, String dataFactoryName, AdfObject object, String body) {
+        long start = System.nanoTime();
+        return dataFactoryClient
+                .deployObjectAsync(resourceGroup, dataFactoryName, object.path(), body)
+                .thenApply(deployed -> {
+                    long elapsed = System.nanoTime() - start;
+                    meterRegistry
+                            .timer(
+                                    "publisher.native.deploy",
+                                    "type",
+                                    object.type().folder())
+                            .record(elapsed, TimeUnit.NANOSECONDS);
+                    return objectResult(object.type().folder(), object.name(), "deployed", deployed, elapsed);
+                });
+    }
+
+    private CompletableFuture<ObjectResult> delete(
+            String resourceGroup, String dataFactoryName, DeployedObject object) {
+        long start = System.nanoTime();
+        return dataFactoryClient
+                .deleteObjectAsync(resourceGroup, dataFactoryName, object.path())
+                .thenApply(deleted -> {
+                    long elapsed = System.nanoTime() - start;
+                    meterRegistry
+                            .timer("publisher.native.delete", "type", object.type())
+                            .record(elapsed, TimeUnit.NANOSECONDS);
+                    return objectResult(object.type(), object.name(), "deleted", deleted, elapsed);
+                });
+    }
+
+    private static ObjectResult objectResult(
+            String type, String name, String status, Either<FailedOperation, Void> outcome, long elapsed) {
+        return new ObjectResult(
+                type,
+                name,
+                outcome.isRight() ? status : "failed",
+                Option.of(Duration.ofNanos(elapsed)),
+                outcome.swap().toOption().map(error -> error.problems().get(0).description()));
+    }
+
+    private List<ObjectResult> startTriggers(String resourceGroup, String dataFactoryName, List<String> triggers) {
+        List<ObjectResult> failed = new ArrayList<>();
+        for (String trigger : triggers) {
+            var started = dataFactoryClient.startTrigger(resourceGroup, dataFactoryName, trigger);
+            if (started.isLeft()) {
+                failed.add(new ObjectResult(
+                        AdfObjectType.TRIGGER.folder(),
+                        trigger,
+                        "failed",
+                        Option.none(),
+                        Option.of(started.getLeft().problems().get(0).description())));
+            }
+        }
+        return failed;
+    }
+
+    private static PhaseTiming phase(String name, long start) {
+        return new PhaseTiming(name, Duration.ofNanos(System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,239 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/***
+ * Stage configuration in the CSV format of azure.datafactory.tools: each row replaces (no prefix), adds (+) or
+ * removes (-) a property of the objects matching its type and name. Paths are relative to the object properties,
+ * unless they start with $. Names can contain * wildcards, values can refer to environment variables with
+ * $Env:NAME
+ */
+public class StageConfiguration {
+
+    private static final Pattern ENV_VARIABLE = Pattern.compile("\\$\\(\\$Env:(\\w+)\\)|\\$Env:(\\w+)");
+    private static final Pattern INDEXED_SEGMENT = Pattern.compile("(.*)\\[(\\d+)]");
+
+    private enum Action {
+        UPDATE,
+        ADD,
+        REMOVE
+    }
+
+    private record Row(int line, String type, Pattern name, Action action, String path, String value) {}
+
+    private final List<Row> rows;
+    private final ObjectMapper objectMapper;
+
+    private StageConfiguration(List<Row> rows, ObjectMapper objectMapper) {
+        this.rows = rows;
+        this.objectMapper = objectMapper;
+    }
+
+    /***
+     * Parse a stage configuration
+     * @param lines the lines of the CSV file, including the header
+     * @param environment resolves the environment variables referenced by the values
+     * @param objectMapper used to parse the JSON values
+     * @return the configuration or the error encountered
+     */
+    public static Either<FailedOperation, StageConfiguration> parse(
+            List<String> lines, Function<String, String> environment, ObjectMapper objectMapper) {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 1; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank() || line.stripLeading().startsWith("#")) continue;
+            List<String> fields = splitCsv(line);
+            if (fields.size() != 4) return invalidRow(i + 1, "expected the columns type,name,path,value");
+            String path = fields.get(2).trim();
+            Action action = Action.UPDATE;
+            if (path.startsWith("+")) action = Action.ADD;
+            if (path.startsWith("-")) action = Action.REMOVE;
+            if (action != Action.UPDATE) path = path.substring(1);
+            var value = expandEnvironment(fields.get(3), environment);
+            if (value.isLeft()) return invalidRow(i + 1, value.getLeft());
+            rows.add(new Row(i + 1, fields.get(0).trim(), wildcard(fields.get(1).trim()), action, path, value.get()));
+        }
+        return right(new StageConfiguration(rows, objectMapper));
+    }
+
+    /***
+     * Apply the rows matching the object to its definition
+     * @param type the object type
+     * @param name the object name
+     * @param definition the object definition, modified in place
+     * @return nothing or the error encountered
+     */
+    public Either<FailedOperation, Void> apply(AdfObjectType type, String name, ObjectNode definition) {
+        for (Row row : rows) {
+            if (!row.type().equalsIgnoreCase(type.folder())
+                    || !row.name().matcher(name).matches()) continue;
+            var applied = apply(row, definition);
+            if (applied.isLeft()) {
+                String errorMessage = String.format(
+                        "Unable to apply the row %d of the stage configuration to the %s '%s'. Details: %s",
+                        row.line(), type.folder(), name, applied.getLeft());
+                return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+            }
+        }
+        return right(null);
+    }
+
+    private Either<String, Void> apply(Row row, ObjectNode definition) {
+        String path = row.path();
+        JsonNode node = definition;
+        if (path.startsWith("$.")) {
+            path = path.substring(2);
+        } else {
+            node = definition.get("properties");
+            if (node == null) return row.action() == Action.REMOVE ? right(null) : left("no properties");
+        }
+        String[] segments = path.split("\\.");
+        for (int i = 0; i < segments.length - 1; i++) {
+            JsonNode child = child(node, segments[i]);
+            if (child == null && row.action() == Action.ADD && node instanceof ObjectNode objectNode) {
+                child = objectNode.putObject(segments[i]);
+            }
+            if (!(child instanceof ContainerNode<?>)) {
+                return row.action() == Action.REMOVE ? right(null) : left("path not found: " + row.path());
+            }
+            node = child;
+        }
+        String leaf = segments[segments.length - 1];
+        JsonNode existing = child(node, leaf);
+        if (row.action() == Action.REMOVE) {
+            remove(node, leaf);
+            return right(null);
+        }
+        if (existing == null && row.action() == Action.UPDATE) return left("path not found: " + row.path());
+        var value = value(row.value(), existing);
+        if (value.isLeft()) return left(value.getLeft());
+        return set(node, leaf, value.get()) ? right(null) : left("path not found: " + row.path());
+    }
+
+    private Either<String, JsonNode> value(String value, JsonNode existing) {
+        String trimmed = value.trim();
+        try {
+            if (trimmed.startsWith("{") || trimmed.startsWith("[")) return right(objectMapper.readTree(trimmed));
+            if (existing != null && existing.isNumber()) return right(DecimalNode.valueOf(new BigDecimal(trimmed)));
+        } catch (JsonProcessingException | NumberFormatException e) {
+            return left("invalid value " + value);
+        }
+        if (existing != null && existing.isBoolean()) return right(BooleanNode.valueOf(Boolean.parseBoolean(trimmed)));
+        return right(TextNode.valueOf(value));
+    }
+
+    private static JsonNode child(JsonNode node, String segment) {
+        Matcher indexed = INDEXED_SEGMENT.matcher(segment);
+        if (node == null) return null;
+        if (indexed.matches()) {
+            JsonNode array = node.get(indexed.group(1));
+            return array == null ? null : array.get(Integer.parseInt(indexed.group(2)));
+        }
+        return node.get(segment);
+    }
+
+    private static boolean set(JsonNode parent, String segment, JsonNode value) {
+        Matcher indexed = INDEXED_SEGMENT.matcher(segment);
+        if (indexed.matches()) {
+            if (!(parent.get(indexed.group(1)) instanceof ArrayNode array)) return false;
+            int index = Integer.parseInt(indexed.group(2));
+            if (index < array.size()) array.set(index, value);
+            else if (index == array.size()) array.add(value);
+            else return false;
+            return true;
+        }
+        if (!(parent instanceof ObjectNode objectNode)) return false;
+        objectNode.set(segment, value);
+        return true;
+    }
+
+    private static void remove(JsonNode parent, String segment) {
+        Matcher indexed = INDEXED_SEGMENT.matcher(segment);
+        if (indexed.matches()) {
+            if (parent.get(indexed.group(1)) instanceof ArrayNode array) {
+                int index = Integer.parseInt(indexed.group(2));
+                if (index < array.size()) array.remove(index);
+            }
+        } else if (parent instanceof ObjectNode objectNode) {
+            objectNode.remove(segment);
+        }
+    }
+
+    private static Either<String, String> expandEnvironment(String value, Function<String, String> environment) {
+        Matcher matcher = ENV_VARIABLE.matcher(value);
+        StringBuilder sb = new StringBuilder();
+        while (matcher.find()) {
+            String variable = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+            String variableValue = environment.apply(variable);
+            if (variableValue == null) return left("the environment variable " + variable + " is not defined");
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(variableValue));
+        }
+        matcher.appendTail(sb);
+        return right(sb.toString());
+    }
+
+    private static Pattern wildcard(String name) {
+        StringBuilder regex = new StringBuilder();
+        for (String part : name.split("\\*", -1)) {
+            if (!regex.isEmpty()) regex.append(".*");
+            regex.append(Pattern.quote(part));
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+
+    // Fields are separated by commas and can be enclosed in double quotes, escaped by doubling them
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static <T> Either<FailedOperation, T> invalidRow(int line, String details) {
+        String errorMessage =
+                String.format("The row %d of the stage configuration is not valid. Details: %s", line, details);
+        return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+    }
+}
@@ -0,0 +1,106 @@
+package it.agilelab.witboost.datafactory.service.task;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/***
+ * Coordinates the actions targeting the same resource. Identical actions running at the same time share a single
+ * execution and its result, while different actions on the same resource run one at a time in arrival order
+ */
+public class SingleFlight {
+
+    private final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    /***
+     * Run an action on a resource, or join the identical action already in flight
+     * @param key the resource targeted by the action
+     * @param fingerprint identifies the action, actions with the same fingerprint on the same key are identical
+     * @param action the action to run
+     * @param onWait notified with a description when the action has to wait for another one
+     * @return the result of the action
+     * @param <R> the type of the action result
+     */
+    public <R> R execute(String key, String fingerprint, Supplier<R> action, Consumer<String> onWait) {
+        return await(executeAsync(key, fingerprint, () -> CompletableFuture.completedFuture(action.get()), onWait));
+    }
+
+    /***
+     * Run an action completing asynchronously on a resource, or join the identical action already in flight. The
+     * calling thread waits for the turn of the action and starts it, the resource is released when the returned
+     * future completes
+     * @param key the resource targeted by the action
+     * @param fingerprint identifies the action, actions with the same fingerprint on the same key are identical
+     * @param action starts the action
+     * @param onWait notified with a description when the action has to wait for another one
+     * @return a future completed with the result of the action
+     * @param <R> the type of the action result
+     */
+    @SuppressWarnings("unchecked")
+    public <R> CompletableFuture<R> executeAsync(
+            String key, String fingerprint, Supplier<CompletableFuture<R>> action, Consumer<String> onWait) {
+        var lane = lanes.compute(key, (k, existing) -> {
+            var l = existing == null ? new Lane() : existing;
+            l.users++;
+            return l;
+        });
+        var flight = new CompletableFuture<Object>();
+        var inFlight = lane.flights.putIfAbsent(fingerprint, flight);
+        if (inFlight != null) {
+            release(key);
+            logger.info("Joining the identical operation in flight on {}", key);
+            onWait.accept(String.format("Joining the identical operation already in progress on '%s'", key));
+            return (CompletableFuture<R>) inFlight.thenApply(result -> result);
+        }
+        boolean acquired = false;
+        CompletableFuture<R> result;
+        try {
+            if (lane.permit.availablePermits() == 0) {
+                logger.info("Waiting for the operation in progress on {}", key);
+                onWait.accept(String.format("Waiting for the operation in progress on '%s' to complete", key));
+            }
+            lane.permit.acquireUninterruptibly();
+            acquired = true;
+            result = action.get();
+        } catch (RuntimeException | Error e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        boolean holdsPermit = acquired;
+        return result.whenComplete((r, e) -> {
+            lane.flights.remove(fingerprint, flight);
+            if (holdsPermit) lane.permit.release();
+            release(key);
+            if (e != null) flight.completeExceptionally(e);
+            else flight.complete(r);
+        });
+    }
+
+    private void release(String key) {
+        lanes.computeIfPresent(key, (k, l) -> --l.users == 0 ? null : l);
+    }
+
+    private <R> R await(CompletableFuture<R> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            if (e.getCause() instanceof Error error) throw error;
+            throw e;
+        }
+    }
+
+    private static class Lane {
+        // A fair semaphore rather than a lock, as an asynchronous action releases it from the thread completing it
+        private final Semaphore permit = new Semaphore(1, true);
+        private final Map<String, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+        private int users = 0;
+    }
+}
@@ -0,0 +1,121 @@
+package it.agilelab.witboost.datafactory.service.task;
+
+import io.vavr.Tuple;
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/***
+ * Runs the steps of an operation on a worker pool as soon as their dependencies complete, so that independent
+ * steps run concurrently. A step runs only if all its dependencies succeeded, otherwise it fails with the problems
+ * of all the failed dependencies. Joining a step waits for every step of the graph to settle, so that none of them
+ * is still running when the caller releases the resources they use
+ */
+public class StepGraph {
+
+    private final Executor executor;
+    private final List<CompletableFuture<?>> futures = new CopyOnWriteArrayList<>();
+
+    public StepGraph(Executor executor) {
+        this.executor = executor;
+    }
+
+    /***
+     * A step of the graph
+     * @param <T> the type of the step result
+     */
+    public static class Step<T> {
+        private final StepGraph graph;
+        private final CompletableFuture<Either<FailedOperation, T>> future;
+
+        private Step(StepGraph graph, CompletableFuture<Either<FailedOperation, T>> future) {
+            this.graph = graph;
+            this.future = future;
+        }
+
+        /***
+         * Wait for the step and for every other step of the graph to complete, even if one of them failed
+         * @return the result of the step
+         */
+        public Either<FailedOperation, T> join() {
+            graph.settle();
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+                throw e;
+            }
+        }
+    }
+
+    /***
+     * Add a step without dependencies, it starts immediately
+     */
+    public <T> Step<T> step(Supplier<Either<FailedOperation, T>> action) {
+        return register(CompletableFuture.supplyAsync(action, executor));
+    }
+
+    /***
+     * Add a step depending on another one
+     */
+    public <A, T> Step<T> step(Step<A> dependency, Function<A, Either<FailedOperation, T>> action) {
+        return register(dependency.future.thenApplyAsync(a -> a.flatMap(action), executor));
+    }
+
+    /***
+     * Add a step depending on two other ones
+     */
+    public <A, B, T> Step<T> step(Step<A> first, Step<B> second, BiFunction<A, B, Either<FailedOperation, T>> action) {
+        return register(first.future
+                .thenCombine(second.future, Tuple::of)
+                .thenApplyAsync(
+                        results -> results._1().isRight() && results._2().isRight()
+                                ? action.apply(results._1().get(), results._2().get())
+                                : Either.<FailedOperation, T>left(aggregate(results._1(), results._2())),
+                        executor));
+    }
+
+    /***
+     * Add a step depending on two other ones, whose action completes asynchronously: the worker is released as soon
+     * as the action is started
+     */
+    public <A, B, T> Step<T> stepAsync(
+            Step<A> first, Step<B> second, BiFunction<A, B, CompletableFuture<Either<FailedOperation, T>>> action) {
+        return register(first.future
+                .thenCombine(second.future, Tuple::of)
+                .thenComposeAsync(
+                        results -> results._1().isRight() && results._2().isRight()
+                                ? action.apply(results._1().get(), results._2().get())
+                                : CompletableFuture.completedFuture(
+                                        Either.<FailedOperation, T>left(aggregate(results._1(), results._2()))),
+                        executor));
+    }
+
+    private <T> Step<T> register(CompletableFuture<Either<FailedOperation, T>> future) {
+        futures.add(future);
+        return new Step<>(this, future);
+    }
+
+    // A failed step completes its dependents at once, while the independent steps may still be running
+    private void settle() {
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .handle((v, e) -> null)
+                .join();
+    }
+
+    private FailedOperation aggregate(Either<FailedOperation, ?> a, Either<FailedOperation, ?> b) {
+        List<Problem> problems = new ArrayList<>();
+        if (a.isLeft()) problems.addAll(a.getLeft().problems());
+        if (b.isLeft()) problems.addAll(b.getLeft().problems());
+        return new FailedOperation(problems);
+    }
+}
@@ -0,0 +1,66 @@
+package it.agilelab.witboost.datafactory.service.task;
+
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/***
+ * An asynchronous operation tracked by a {@link TaskRegistry}. It collects the progress logs of the operation and,
+ * once done, its outcome
+ * @param <T> the type of the operation result
+ */
+public class Task<T> implements TaskProgressListener {
+
+    private final String token;
+    private final Instant createdAt;
+    private final List<TaskLog> logs = new CopyOnWriteArrayList<>();
+    private volatile Either<FailedOperation, T> result;
+    private volatile Instant completedAt;
+
+    Task(String token) {
+        this.token = token;
+        this.createdAt = Instant.now();
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Option<Instant> getCompletedAt() {
+        return Option.of(completedAt);
+    }
+
+    public TaskStatus getStatus() {
+        var outcome = result;
+        if (outcome == null) return TaskStatus.RUNNING;
+        return outcome.isRight() ? TaskStatus.COMPLETED : TaskStatus.FAILED;
+    }
+
+    /***
+     * @return the outcome of the operation, or none if it is still running
+     */
+    public Option<Either<FailedOperation, T>> getResult() {
+        return Option.of(result);
+    }
+
+    public List<TaskLog> getLogs() {
+        return List.copyOf(logs);
+    }
+
+    @Override
+    public void onProgress(String phase, String message) {
+        logs.add(new TaskLog(Instant.now(), phase, message));
+    }
+
+    void complete(Either<FailedOperation, T> outcome) {
+        this.completedAt = Instant.now();
+        this.result = outcome;
+    }
+}
@@ -0,0 +1,5 @@
+package it.agilelab.witboost.datafactory.service.task;
+
+import java.time.Instant;
+
+public record TaskLog(Instant timestamp, String phase, String message) {}
@@ -0,0 +1,36 @@
+package it.agilelab.witboost.datafactory.service.task;
+
+import io.vavr.control.Option;
+
+/***
+ * Receives the progress notifications of a long-running operation. Operations made of several steps can also
+ * checkpoint the steps they complete, so that a resumed operation can skip them
+ */
+@FunctionalInterface
+public interface TaskProgressListener {
+
+    TaskProgressListener NOOP = (phase, message) -> {};
+
+    /***
+     * Notify that the operation reached a new step
+     * @param phase the phase of the operation
+     * @param message a human-readable description of the progress
+     */
+    void onProgress(String phase, String message);
+
+    /***
+     * Notify that a step of the operation completed
+     * @param step the step identifier
+     * @param output the output of the step, needed by the following steps if this one is skipped on resume
+     */
+    default void onStepCompleted(String step, String output) {}
+
+    /***
+     * Retrieve a step completed by a previous run of the same operation
+     * @param step the step identifier
+     * @return the output of the step, or none if the step has to be executed
+     */
+    default Option<String> getCompletedStep(String step) {
+        return Option.none();
+    }
+}
@@ -0,0 +1,121 @@
+package it.agilelab.witboost.datafactory.service.task;
+
+import static io.vavr.control.Either.left;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/***
+ * In-memory registry of asynchronous operations. Every submitted operation is identified by a random token that
+ * can be used to poll its status. Completed operations are evicted once the configured retention has elapsed
+ * @param <T> the type of the operations result
+ */
+public class TaskRegistry<T> {
+
+    private final Logger logger = LoggerFactory.getLogger(TaskRegistry.class);
+
+    private final Map<String, Task<T>> tasks = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final Duration retention;
+
+    public TaskRegistry(ExecutorService executor, Duration retention) {
+        this.executor = executor;
+        this.retention = retention;
+    }
+
+    /***
+     * Submit an operation to the worker pool
+     * @param operation the operation to run. It receives the task to report its progress
+     * @return the token identifying the submitted operation
+     * @throws java.util.concurrent.RejectedExecutionException if the worker pool cannot accept more operations
+     */
+    public String submit(Function<Task<T>, Either<FailedOperation, T>> operation) {
+        return submit(UUID.randomUUID().toString(), operation);
+    }
+
+    /***
+     * Submit an operation to the worker pool, identified by a given token. Used to resume operations
+     * interrupted by a restart, so that callers can keep polling the token they already received
+     * @param token the token identifying the operation
+     * @param operation the operation to run. It receives the task to report its progress
+     * @return the token identifying the submitted operation
+     * @throws java.util.concurrent.RejectedExecutionException if the worker pool cannot accept more operations
+     */
+    public String submit(String token, Function<Task<T>, Either<FailedOperation, T>> operation) {
+        return submitAsync(token, task -> CompletableFuture.completedFuture(operation.apply(task)));
+    }
+
+    /***
+     * Submit an operation completing asynchronously to the worker pool, identified by a given token. The worker
+     * only starts the operation, the task is completed by the returned future without holding the worker
+     * @param token the token identifying the operation
+     * @param operation starts the operation. It receives the task to report its progress
+     * @return the token identifying the submitted operation
+     * @throws java.util.concurrent.RejectedExecutionException if the worker pool cannot accept more operations
+     */
+    public String submitAsync(
+            String token, Function<Task<T>, CompletableFuture<Either<FailedOperation, T>>> operation) {
+        evictExpired();
+        var task = new Task<T>(token);
+        tasks.put(token, task);
+        try {
+            executor.execute(() -> run(task, operation));
+        } catch (RuntimeException e) {
+            tasks.remove(token);
+            throw e;
+        }
+        return token;
+    }
+
+    /***
+     * Retrieve an operation
+     * @param token the token returned on submission
+     * @return the operation, or empty if the token is unknown or expired
+     */
+    public Optional<Task<T>> get(String token) {
+        evictExpired();
+        return Optional.ofNullable(tasks.get(token));
+    }
+
+    private void run(Task<T> task, Function<Task<T>, CompletableFuture<Either<FailedOperation, T>>> operation) {
+        CompletableFuture<Either<FailedOperation, T>> outcome;
+        try {
+            outcome = operation.apply(task);
+        } catch (Exception e) {
+            outcome = CompletableFuture.failedFuture(e);
+        }
+        outcome.whenComplete((result, e) -> task.complete(e == null ? result : unexpectedError(task, e)));
+    }
+
+    private Either<FailedOperation, T> unexpectedError(Task<T> task, Throwable throwable) {
+        var e = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+        String errorMessage = String.format(
+                "An unexpected error occurred while running the operation %s. Please try again and if the error persists contact the platform team. Details: %s",
+                task.getToken(), e.getMessage());
+        logger.error(errorMessage, e);
+        return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+    }
+
+    private void evictExpired() {
+        var threshold = Instant.now().minus(retention);
+        tasks.values().removeIf(task -> task.getCompletedAt()
+                .map(completedAt -> completedAt.isBefore(threshold))
+                .getOrElse(false));
+    }
+}
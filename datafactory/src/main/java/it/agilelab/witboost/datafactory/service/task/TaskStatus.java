@@ -0,0 +1,7 @@
+package it.agilelab.witboost.datafactory.service.task;
+
+public enum TaskStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,165 @@
+package it.agilelab.witboost.datafactory.service.token;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.credential.TokenRequestContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.agilelab.witboost.datafactory.config.TokenRefreshConfig;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+/***
+ * Caches the access tokens of a credential and refreshes them in background once a fraction of their lifetime has
+ * elapsed, so that the requests never wait for Microsoft Entra ID. Only the tokens requested without claims and
+ * tenant are cached, the other requests are sent to the credential
+ */
+public class PrefetchingTokenCredential implements TokenCredential {
+
+    // The Azure SDK clients ask for a new token 5 minutes before theirs expires: handing out a token closer to its
+    // expiration would make them ask again at every request
+    private static final Duration EXPIRY_MARGIN = Duration.ofMinutes(5);
+
+    private final Logger logger = LoggerFactory.getLogger(PrefetchingTokenCredential.class);
+
+    private final String name;
+    private final TokenCredential delegate;
+    private final TokenRefreshConfig config;
+    private final ScheduledExecutorService scheduler;
+    private final MeterRegistry meterRegistry;
+
+    // Cached tokens and their scheduled refresh, by scopes
+    private final Map<String, AccessToken> tokens = new ConcurrentHashMap<>();
+    private final Map<String, ScheduledFuture<?>> refreshes = new ConcurrentHashMap<>();
+
+    PrefetchingTokenCredential(
+            String name,
+            TokenCredential delegate,
+            TokenRefreshConfig config,
+            ScheduledExecutorService scheduler,
+            MeterRegistry meterRegistry) {
+        this.name = name;
+        this.delegate = delegate;
+        this.config = config;
+        this.scheduler = scheduler;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /***
+     * Wrap a credential, fetching in background the tokens of the given scopes. The first fetch is not awaited, so
+     * that an unavailable identity never prevents the startup
+     * @param name identifies the credential in the logs and in the metrics
+     * @param delegate the credential requesting the tokens
+     * @param scopes the scopes whose tokens are fetched immediately
+     * @param config the refresh settings, the credential is returned as it is when the refresh is disabled
+     * @param scheduler runs the fetches
+     * @param meterRegistry records the fetch time and the failures
+     * @return the wrapped credential
+     */
+    public static TokenCredential of(
+            String name,
+            TokenCredential delegate,
+            List<String> scopes,
+            TokenRefreshConfig config,
+            ScheduledExecutorService scheduler,
+            MeterRegistry meterRegistry) {
+        if (!config.enabled()) return delegate;
+        var credential = new PrefetchingTokenCredential(name, delegate, config, scheduler, meterRegistry);
+        credential.scheduleRefresh(scopes, Duration.ZERO);
+        return credential;
+    }
+
+    @Override
+    public Mono<AccessToken> getToken(TokenRequestContext request) {
+        if (!cacheable(request)) return delegate.getToken(request);
+        var cached = freshToken(request.getScopes());
+        if (cached != null) return Mono.just(cached);
+        return delegate.getToken(request).doOnNext(token -> store(request.getScopes(), token));
+    }
+
+    @Override
+    public AccessToken getTokenSync(TokenRequestContext request) {
+        if (!cacheable(request)) return delegate.getTokenSync(request);
+        var cached = freshToken(request.getScopes());
+        if (cached != null) return cached;
+        var token = delegate.getTokenSync(request);
+        store(request.getScopes(), token);
+        return token;
+    }
+
+    private boolean cacheable(TokenRequestContext request) {
+        return request.getClaims() == null
+                && request.getTenantId() == null
+                && !request.getScopes().isEmpty();
+    }
+
+    private AccessToken freshToken(List<String> scopes) {
+        var token = tokens.get(key(scopes));
+        return token != null
+                        && token.getExpiresAt().isAfter(OffsetDateTime.now().plus(EXPIRY_MARGIN))
+                ? token
+                : null;
+    }
+
+    private void store(List<String> scopes, AccessToken token) {
+        tokens.put(key(scopes), token);
+        var lifetime = Duration.between(OffsetDateTime.now(), token.getExpiresAt());
+        var delay = lifetime.isNegative()
+                ? config.retryInterval()
+                : Duration.ofMillis((long) (lifetime.toMillis() * config.refreshFraction()));
+        scheduleRefresh(scopes, delay);
+    }
+
+    private void scheduleRefresh(List<String> scopes, Duration delay) {
+        List<String> copy = List.copyOf(scopes);
+        refreshes.compute(key(copy), (k, existing) -> {
+            if (existing != null) existing.cancel(false);
+            try {
+                return scheduler.schedule(() -> refresh(copy), delay.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down: the tokens are fetched on demand from now on
+                return null;
+            }
+        });
+    }
+
+    private void refresh(List<String> scopes) {
+        long start = System.nanoTime();
+        try {
+            var token = delegate.getTokenSync(new TokenRequestContext().setScopes(scopes));
+            record(start, "success");
+            logger.debug("Token of {} for {} refreshed, it expires at {}", name, scopes, token.getExpiresAt());
+            store(scopes, token);
+        } catch (RuntimeException e) {
+            record(start, "failure");
+            meterRegistry
+                    .counter("azure.token.refresh.failures", "credential", name)
+                    .increment();
+            logger.warn(
+                    String.format(
+                            "Unable to refresh the token of %s for %s, retrying in %s",
+                            name, scopes, config.retryInterval()),
+                    e);
+            scheduleRefresh(scopes, config.retryInterval());
+        }
+    }
+
+    private void record(long start, String outcome) {
+        meterRegistry
+                .timer("azure.token.refresh", "credential", name, "outcome", outcome)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static String key(List<String> scopes) {
+        return String.join(" ", scopes.stream().sorted().toList());
+    }
+}
@@ -0,0 +1,25 @@
+package it.agilelab.witboost.datafactory.service.validation;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+
+/***
+ * Validates the Data Factory resources of a repository in the JVM, without PowerShell
+ */
+public interface NativeValidator {
+
+    /***
+     * Identifies the checks performed, so that the cached validation outcomes are discarded when they change
+     */
+    String FINGERPRINT = "native-2";
+
+    /***
+     * Check that the objects of the repository are valid JSON objects, named after their file, that their names are
+     * unique within their type, that the objects they reference exist and that their references do not form cycles.
+     * The global parameters of the factory must have a type and a value, and the stage configurations
+     * (deployment/config-*.csv) must be valid and apply to the objects they match
+     * @param repositoryPath the path where the GIT repository containing the ADF resources is cloned
+     * @return nothing or every problem found
+     */
+    Either<FailedOperation, Void> validate(String repositoryPath);
+}
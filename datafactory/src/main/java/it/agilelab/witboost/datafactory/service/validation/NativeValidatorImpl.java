@@ -0,0 +1,264 @@
+package it.agilelab.witboost.datafactory.service.validation;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import it.agilelab.witboost.datafactory.service.publish.AdfDependencyGraph;
+import it.agilelab.witboost.datafactory.service.publish.AdfObject;
+import it.agilelab.witboost.datafactory.service.publish.AdfObjectType;
+import it.agilelab.witboost.datafactory.service.publish.AdfRepositoryLayout;
+import it.agilelab.witboost.datafactory.service.publish.StageConfiguration;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+@Service
+public class NativeValidatorImpl implements NativeValidator {
+
+    private final Logger logger = LoggerFactory.getLogger(NativeValidatorImpl.class);
+
+    // Objects that exist in every factory without being stored in the repository
+    private static final Set<String> BUILT_IN_OBJECTS =
+            Set.of(AdfObject.key(AdfObjectType.INTEGRATION_RUNTIME, "AutoResolveIntegrationRuntime"));
+
+    private static final Set<String> GLOBAL_PARAMETER_TYPES =
+            Set.of("string", "int", "float", "bool", "array", "object");
+
+    private static final String FACTORY_FOLDER = "factory";
+    private static final String DEPLOYMENT_FOLDER = "deployment";
+
+    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+
+    public NativeValidatorImpl(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    private record Reference(AdfObjectType type, String name) {}
+
+    private record ScannedObject(AdfObjectType type, String name, Path path, List<Reference> references) {}
+
+    @Override
+    public Either<FailedOperation, Void> validate(String repositoryPath) {
+        long start = System.nanoTime();
+        Path rootFolder = Path.of(repositoryPath);
+        List<AdfRepositoryLayout.AdfFile> files;
+        try {
+            files = AdfRepositoryLayout.list(rootFolder);
+        } catch (IOException e) {
+            String errorMessage = String.format(
+                    "An error occurred while reading the Data Factory resources in %s. Please try again and if the error persists contact the platform team. Details: %s",
+                    repositoryPath, e.getMessage());
+            logger.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+
+        List<Problem> problems = new ArrayList<>();
+        Map<String, ScannedObject> index = new LinkedHashMap<>();
+        for (AdfRepositoryLayout.AdfFile file : files) {
+            var scanned = scan(file, rootFolder);
+            if (scanned.isLeft()) {
+                problems.add(scanned.getLeft());
+                continue;
+            }
+            var object = scanned.get();
+            if (!object.name().equals(file.fileName())) {
+                problems.add(new Problem(String.format(
+                        "The %s '%s' is stored in %s: the file name must match the object name",
+                        object.type().folder(), object.name(), rootFolder.relativize(object.path()))));
+            }
+            var existing = index.putIfAbsent(AdfObject.key(object.type(), object.name()), object);
+            if (existing != null) {
+                problems.add(new Problem(String.format(
+                        "The %s '%s' is defined more than once: %s and %s",
+                        object.type().folder(),
+                        object.name(),
+                        rootFolder.relativize(existing.path()),
+                        rootFolder.relativize(object.path()))));
+            }
+        }
+
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        index.forEach((key, object) -> {
+            for (Reference reference : object.references()) {
+                String referenceKey = AdfObject.key(reference.type(), reference.name());
+                if (!index.containsKey(referenceKey) && !BUILT_IN_OBJECTS.contains(referenceKey)) {
+                    problems.add(new Problem(String.format(
+                            "The %s '%s' references the %s '%s', which does not exist",
+                            object.type().folder(),
+                            object.name(),
+                            reference.type().folder(),
+                            reference.name())));
+                }
+            }
+            dependencies.put(
+                    key,
+                    object.references().stream()
+                            .map(r -> AdfObject.key(r.type(), r.name()))
+                            .collect(Collectors.toSet()));
+        });
+        AdfDependencyGraph.keyLevels(dependencies).peekLeft(cycle -> problems.addAll(cycle.problems()));
+        try {
+            problems.addAll(validateGlobalParameters(rootFolder));
+            problems.addAll(validateStageConfigurations(rootFolder, index.values()));
+        } catch (IOException e) {
+            String errorMessage = String.format(
+                    "An error occurred while reading the Data Factory resources in %s. Please try again and if the error persists contact the platform team. Details: %s",
+                    repositoryPath, e.getMessage());
+            logger.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+
+        logger.info(
+                "Validated {} Data Factory objects in {} ms: {} problems found",
+                index.size(),
+                (System.nanoTime() - start) / 1_000_000,
+                problems.size());
+        if (!problems.isEmpty()) {
+            problems.forEach(problem -> logger.error(problem.description()));
+            return left(new FailedOperation(problems));
+        }
+        return right(null);
+    }
+
+    // The file is read token by token: only the name of the object and its references are kept
+    private Either<Problem, ScannedObject> scan(AdfRepositoryLayout.AdfFile file, Path rootFolder) {
+        Path relativePath = rootFolder.relativize(file.path());
+        String name = null;
+        List<Reference> references = new ArrayList<>();
+        try (JsonParser parser = jsonFactory.createParser(file.path().toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return left(
+                        new Problem(String.format("The Data Factory object %s is not a JSON object", relativePath)));
+            }
+            // For each open JSON object, the referenceName and type fields found so far
+            Deque<String[]> objects = new ArrayDeque<>();
+            objects.push(new String[2]);
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_OBJECT) {
+                    objects.push(new String[2]);
+                } else if (token == JsonToken.END_OBJECT) {
+                    String[] fields = objects.pop();
+                    if (fields[0] != null && fields[1] != null) {
+                        AdfObjectType.fromReferenceType(fields[1])
+                                .ifPresent(type -> references.add(new Reference(type, fields[0])));
+                    }
+                } else if (token == JsonToken.VALUE_STRING) {
+                    String field = parser.currentName();
+                    if ("name".equals(field) && objects.size() == 1) name = parser.getText();
+                    else if ("referenceName".equals(field)) objects.peek()[0] = parser.getText();
+                    else if ("type".equals(field)) objects.peek()[1] = parser.getText();
+                }
+            }
+        } catch (IOException e) {
+            return left(new Problem(String.format(
+                    "The Data Factory object %s is not valid JSON. Details: %s", relativePath, e.getMessage())));
+        }
+        if (name == null || name.isBlank()) {
+            return left(new Problem(String.format("The Data Factory object %s has no name", relativePath)));
+        }
+        return right(new ScannedObject(file.type(), name, file.path(), references));
+    }
+
+    private List<Problem> validateGlobalParameters(Path rootFolder) throws IOException {
+        List<Problem> problems = new ArrayList<>();
+        for (Path file : listFiles(rootFolder.resolve(FACTORY_FOLDER), ".json")) {
+            Path relativePath = rootFolder.relativize(file);
+            JsonNode factory;
+            try {
+                factory = objectMapper.readTree(file.toFile());
+            } catch (JsonProcessingException e) {
+                problems.add(new Problem(String.format(
+                        "The factory %s is not valid JSON. Details: %s", relativePath, e.getOriginalMessage())));
+                continue;
+            }
+            factory.path("properties").path("globalParameters").fields().forEachRemaining(parameter -> {
+                JsonNode type = parameter.getValue().path("type");
+                if (!type.isTextual()
+                        || !GLOBAL_PARAMETER_TYPES.contains(type.asText().toLowerCase())) {
+                    problems.add(new Problem(String.format(
+                            "The global parameter '%s' of the factory %s has no valid type",
+                            parameter.getKey(), relativePath)));
+                } else if (!parameter.getValue().has("value")) {
+                    problems.add(new Problem(String.format(
+                            "The global parameter '%s' of the factory %s has no value",
+                            parameter.getKey(), relativePath)));
+                }
+            });
+        }
+        return problems;
+    }
+
+    // Each stage configuration is applied to a copy of the objects, as the publisher would do for its stage
+    private List<Problem> validateStageConfigurations(Path rootFolder, Collection<ScannedObject> objects)
+            throws IOException {
+        List<Problem> problems = new ArrayList<>();
+        List<Path> files = listFiles(rootFolder.resolve(DEPLOYMENT_FOLDER), ".csv").stream()
+                .filter(f -> f.getFileName().toString().startsWith("config-"))
+                .toList();
+        if (files.isEmpty()) return problems;
+        Map<ScannedObject, ObjectNode> definitions = new LinkedHashMap<>();
+        for (ScannedObject object : objects) {
+            if (objectMapper.readTree(object.path().toFile()) instanceof ObjectNode definition) {
+                definitions.put(object, definition);
+            }
+        }
+        for (Path file : files) {
+            Path relativePath = rootFolder.relativize(file);
+            var configuration = StageConfiguration.parse(Files.readAllLines(file), System::getenv, objectMapper);
+            if (configuration.isLeft()) {
+                configuration
+                        .getLeft()
+                        .problems()
+                        .forEach(problem -> problems.add(new Problem(String.format(
+                                "The stage configuration %s is not valid. Details: %s",
+                                relativePath, problem.description()))));
+                continue;
+            }
+            definitions.forEach((object, definition) -> configuration
+                    .get()
+                    .apply(object.type(), object.name(), definition.deepCopy())
+                    .peekLeft(failure -> failure.problems()
+                            .forEach(problem -> problems.add(new Problem(String.format(
+                                    "The stage configuration %s is not valid. Details: %s",
+                                    relativePath, problem.description()))))));
+        }
+        return problems;
+    }
+
+    private static List<Path> listFiles(Path folder, String extension) throws IOException {
+        if (!Files.isDirectory(folder)) return List.of();
+        try (Stream<Path> list = Files.list(folder)) {
+            return list.filter(f -> f.getFileName().toString().endsWith(extension) && Files.isRegularFile(f))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package it.agilelab.witboost.datafactory.service.validation;
+
+/***
+ * Bounded cache of the successful repository validations
+ */
+public interface ValidationCache {
+
+    /***
+     * @return true if the cache is enabled
+     */
+    boolean isEnabled();
+
+    /***
+     * Check if a commit was already validated successfully
+     * @param key the validation key
+     * @return true if a successful validation is cached and not expired
+     */
+    boolean isValidated(ValidationCacheKey key);
+
+    /***
+     * Record a successful validation
+     * @param key the validation key
+     */
+    void putValidated(ValidationCacheKey key);
+}
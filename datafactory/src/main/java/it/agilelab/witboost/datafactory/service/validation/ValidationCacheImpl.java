@@ -0,0 +1,106 @@
+package it.agilelab.witboost.datafactory.service.validation;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.agilelab.witboost.datafactory.config.ValidationCacheConfig;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/***
+ * In-memory LRU cache with a time to live. When a persistence file is configured, the cache is written to it on
+ * every change and reloaded on startup
+ */
+@Service
+public class ValidationCacheImpl implements ValidationCache {
+
+    private final Logger logger = LoggerFactory.getLogger(ValidationCacheImpl.class);
+
+    private final ValidationCacheConfig config;
+    private final ObjectMapper objectMapper;
+    private final LinkedHashMap<ValidationCacheKey, Instant> entries;
+
+    record PersistedEntry(ValidationCacheKey key, Instant validatedAt) {}
+
+    public ValidationCacheImpl(ValidationCacheConfig config, ObjectMapper objectMapper) {
+        this.config = config;
+        this.objectMapper = objectMapper;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ValidationCacheKey, Instant> eldest) {
+                return size() > config.maxEntries();
+            }
+        };
+        if (config.enabled() && isPersistent()) load();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return config.enabled();
+    }
+
+    @Override
+    public synchronized boolean isValidated(ValidationCacheKey key) {
+        if (!config.enabled()) return false;
+        var validatedAt = entries.get(key);
+        if (validatedAt == null) return false;
+        if (isExpired(validatedAt)) {
+            entries.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void putValidated(ValidationCacheKey key) {
+        if (!config.enabled()) return;
+        entries.put(key, Instant.now());
+        if (isPersistent()) persist();
+    }
+
+    private boolean isExpired(Instant validatedAt) {
+        return !validatedAt.plus(config.ttl()).isAfter(Instant.now());
+    }
+
+    private boolean isPersistent() {
+        return config.persistenceFile() != null && !config.persistenceFile().isBlank();
+    }
+
+    private void load() {
+        var file = Path.of(config.persistenceFile());
+        if (!Files.exists(file)) return;
+        try {
+            List<PersistedEntry> persisted = objectMapper.readValue(file.toFile(), new TypeReference<>() {});
+            persisted.stream()
+                    .filter(entry -> !isExpired(entry.validatedAt()))
+                    .forEach(entry -> entries.put(entry.key(), entry.validatedAt()));
+            logger.info("Loaded {} cached validations from {}", entries.size(), file);
+        } catch (IOException e) {
+            // The cache is only an optimization, an unreadable file means starting with an empty one
+            logger.warn(String.format("Unable to load the validation cache from %s, starting empty", file), e);
+        }
+    }
+
+    private void persist() {
+        var file = Path.of(config.persistenceFile());
+        var tmpFile = Path.of(config.persistenceFile() + ".tmp");
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            var persisted = entries.entrySet().stream()
+                    .map(entry -> new PersistedEntry(entry.getKey(), entry.getValue()))
+                    .toList();
+            objectMapper.writeValue(tmpFile.toFile(), persisted);
+            Files.move(tmpFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn(String.format("Unable to persist the validation cache to %s", file), e);
+        }
+    }
+}
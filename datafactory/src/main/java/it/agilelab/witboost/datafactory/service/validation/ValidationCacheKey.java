@@ -0,0 +1,9 @@
+package it.agilelab.witboost.datafactory.service.validation;
+
+/***
+ * Identifies a validation outcome: the same validator run on the same commit always gives the same outcome
+ * @param repositoryUrl the URL of the repository
+ * @param commitId the validated commit
+ * @param validatorFingerprint the hash of the validation logic
+ */
+public record ValidationCacheKey(String repositoryUrl, String commitId, String validatorFingerprint) {}
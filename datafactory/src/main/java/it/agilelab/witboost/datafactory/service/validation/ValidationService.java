@@ -5,8 +5,26 @@ import it.agilelab.witboost.datafactory.common.FailedOperation;
 import it.agilelab.witboost.datafactory.model.ProvisionRequest;
 import it.agilelab.witboost.datafactory.model.Specific;
 import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.datafactory.service.workspace.Workspace;
 
 public interface ValidationService {
 
+    /***
+     * Check and parse the descriptor of a request, without validating the resources of the component to provision
+     * @param provisioningRequest the request to parse
+     * @return the parsed request if well-formed, the problems found otherwise
+     */
+    Either<FailedOperation, ProvisionRequest<? extends Specific>> parse(ProvisioningRequest provisioningRequest);
+
     Either<FailedOperation, ProvisionRequest<? extends Specific>> validate(ProvisioningRequest provisioningRequest);
+
+    /***
+     * Validate a request, leaving the checkout of the component repository in the given workspace so that the
+     * following stages of the request can reuse it
+     * @param provisioningRequest the request to validate
+     * @param workspace the workspace of the request
+     * @return the parsed request if valid, the problems found otherwise
+     */
+    Either<FailedOperation, ProvisionRequest<? extends Specific>> validate(
+            ProvisioningRequest provisioningRequest, Workspace workspace);
 }
@@ -4,6 +4,7 @@ import static io.vavr.control.Either.left;
 import static io.vavr.control.Either.right;
 
 import io.vavr.control.Either;
+import io.vavr.control.Option;
 import it.agilelab.witboost.datafactory.common.FailedOperation;
 import it.agilelab.witboost.datafactory.common.Problem;
 import it.agilelab.witboost.datafactory.model.Component;
@@ -13,6 +14,7 @@ import it.agilelab.witboost.datafactory.model.WorkloadSpecific;
 import it.agilelab.witboost.datafactory.openapi.model.DescriptorKind;
 import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
 import it.agilelab.witboost.datafactory.parser.Parser;
+import it.agilelab.witboost.datafactory.service.workspace.Workspace;
 import java.util.Collections;
 import java.util.Map;
 import org.slf4j.Logger;
@@ -39,6 +41,31 @@ public class ValidationServiceImpl implements ValidationService {
     @Override
     public Either<FailedOperation, ProvisionRequest<? extends Specific>> validate(
             ProvisioningRequest provisioningRequest) {
+        return validate(provisioningRequest, Option.none());
+    }
+
+    @Override
+    public Either<FailedOperation, ProvisionRequest<? extends Specific>> validate(
+            ProvisioningRequest provisioningRequest, Workspace workspace) {
+        return validate(provisioningRequest, Option.some(workspace));
+    }
+
+    private Either<FailedOperation, ProvisionRequest<? extends Specific>> validate(
+            ProvisioningRequest provisioningRequest, Option<Workspace> workspace) {
+        var eitherRequest = parse(provisioningRequest);
+        if (eitherRequest.isLeft()) return eitherRequest;
+        var componentToProvision = eitherRequest.get().component();
+        // parse only accepts the supported kinds, currently only workloads have resources to validate
+        var eitherWorkloadValidation = workspace.isDefined()
+                ? workloadValidation.validate(componentToProvision, workspace.get())
+                : workloadValidation.validate(componentToProvision);
+        if (eitherWorkloadValidation.isLeft()) return left(eitherWorkloadValidation.getLeft());
+        return eitherRequest;
+    }
+
+    @Override
+    public Either<FailedOperation, ProvisionRequest<? extends Specific>> parse(
+            ProvisioningRequest provisioningRequest) {
 
         logger.info("Starting Descriptor validation");
         logger.info("Checking Descriptor Kind equals COMPONENT_DESCRIPTOR");
@@ -85,8 +112,6 @@ public class ValidationServiceImpl implements ValidationService {
                 var eitherWorkloadToProvision = Parser.parseComponent(componentToProvisionAsJson, workloadClass);
                 if (eitherWorkloadToProvision.isLeft()) return left(eitherWorkloadToProvision.getLeft());
                 componentToProvision = eitherWorkloadToProvision.get();
-                var eitherWorkloadValidation = workloadValidation.validate(componentToProvision);
-                if (eitherWorkloadValidation.isLeft()) return left(eitherWorkloadValidation.getLeft());
                 break;
             default:
                 String errorMessage = String.format(
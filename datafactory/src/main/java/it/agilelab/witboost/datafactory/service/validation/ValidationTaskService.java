@@ -0,0 +1,28 @@
+package it.agilelab.witboost.datafactory.service.validation;
+
+import it.agilelab.witboost.datafactory.common.Problem;
+import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.datafactory.service.task.Task;
+import java.util.List;
+import java.util.Optional;
+
+/***
+ * Asynchronous validation services
+ */
+public interface ValidationTaskService {
+
+    /***
+     * Submit the validation of the request to the validation worker pool
+     * @param provisioningRequest the request
+     * @return the token that can be used to poll the operation status
+     */
+    String submitValidation(ProvisioningRequest provisioningRequest);
+
+    /***
+     * Retrieve a submitted validation. The operation completes with the list of problems found on the request,
+     * which is empty when the request is valid
+     * @param token the token returned on submission
+     * @return the operation, or empty if the token is unknown or expired
+     */
+    Optional<Task<List<Problem>>> getTask(String token);
+}
@@ -0,0 +1,65 @@
+package it.agilelab.witboost.datafactory.service.validation;
+
+import static io.vavr.control.Either.right;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import it.agilelab.witboost.datafactory.config.AsyncConfig;
+import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.datafactory.service.task.Task;
+import it.agilelab.witboost.datafactory.service.task.TaskRegistry;
+import jakarta.validation.ConstraintViolationException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ValidationTaskServiceImpl implements ValidationTaskService {
+
+    private final Logger logger = LoggerFactory.getLogger(ValidationTaskServiceImpl.class);
+
+    private final ValidationService validationService;
+    private final TaskRegistry<List<Problem>> taskRegistry;
+
+    public ValidationTaskServiceImpl(
+            ValidationService validationService,
+            @Qualifier("validationExecutor") ExecutorService validationExecutor,
+            AsyncConfig asyncConfig) {
+        this.validationService = validationService;
+        this.taskRegistry =
+                new TaskRegistry<>(validationExecutor, asyncConfig.validation().taskRetention());
+    }
+
+    @Override
+    public String submitValidation(ProvisioningRequest provisioningRequest) {
+        String token = taskRegistry.submit(task -> validate(provisioningRequest));
+        logger.info("Validation operation submitted with token {}", token);
+        return token;
+    }
+
+    @Override
+    public Optional<Task<List<Problem>>> getTask(String token) {
+        return taskRegistry.get(token);
+    }
+
+    private Either<FailedOperation, List<Problem>> validate(ProvisioningRequest provisioningRequest) {
+        try {
+            return right(validationService
+                    .validate(provisioningRequest)
+                    .fold(FailedOperation::problems, provisionRequest -> List.of()));
+        } catch (ConstraintViolationException ex) {
+            // An invalid descriptor is a validation outcome, not a failure of the validation task
+            logger.error("Validation error", ex);
+            return right(ex.getConstraintViolations().stream()
+                    .map(constraintViolation -> new Problem(String.format(
+                            "%s %s",
+                            constraintViolation.getPropertyPath().toString(), constraintViolation.getMessage())))
+                    .toList());
+        }
+    }
+}
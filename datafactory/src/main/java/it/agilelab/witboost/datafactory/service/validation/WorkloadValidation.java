@@ -4,20 +4,18 @@ import static io.vavr.control.Either.left;
 import static io.vavr.control.Either.right;
 
 import io.vavr.control.Either;
+import io.vavr.control.Option;
 import it.agilelab.witboost.datafactory.common.FailedOperation;
 import it.agilelab.witboost.datafactory.common.Problem;
 import it.agilelab.witboost.datafactory.model.*;
 import it.agilelab.witboost.datafactory.service.ADFToolsWrapperService;
-import it.agilelab.witboost.datafactory.service.AzureGitCloneCommandService;
+import it.agilelab.witboost.datafactory.service.GitCheckoutService;
 import it.agilelab.witboost.datafactory.service.GitRepositoryService;
-import it.agilelab.witboost.datafactory.util.FileUtils;
+import it.agilelab.witboost.datafactory.service.workspace.Workspace;
 import jakarta.validation.Valid;
-import java.io.File;
 import java.util.Collections;
-import org.eclipse.jgit.api.CloneCommand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.util.FileSystemUtils;
 import org.springframework.validation.annotation.Validated;
 
 @org.springframework.stereotype.Component
@@ -27,37 +25,47 @@ public class WorkloadValidation {
     private static final Logger logger = LoggerFactory.getLogger(WorkloadValidation.class);
 
     private final GitRepositoryService gitRepositoryService;
-    private final AzureGitCloneCommandService azureGitCloneCommandService;
+    private final GitCheckoutService gitCheckoutService;
     private final ADFToolsWrapperService adfToolsWrapperService;
+    private final ValidationCache validationCache;
 
     public WorkloadValidation(
             GitRepositoryService gitRepositoryService,
-            AzureGitCloneCommandService azureGitCloneCommandService,
-            ADFToolsWrapperService adfToolsWrapperService) {
+            GitCheckoutService gitCheckoutService,
+            ADFToolsWrapperService adfToolsWrapperService,
+            ValidationCache validationCache) {
         this.gitRepositoryService = gitRepositoryService;
-        this.azureGitCloneCommandService = azureGitCloneCommandService;
+        this.gitCheckoutService = gitCheckoutService;
         this.adfToolsWrapperService = adfToolsWrapperService;
+        this.validationCache = validationCache;
+    }
+
+    /***
+     * Validate a workload component, checking out its repository in the given workspace. The checkout is reused
+     * if the workspace already holds it, and left in the workspace for the following stages of the request
+     * @param component the component to validate
+     * @param workspace the workspace of the request
+     * @return nothing if the component is valid, the problems found otherwise
+     */
+    public Either<FailedOperation, Void> validate(@Valid Component<? extends Specific> component, Workspace workspace) {
+        return checkWorkloadSpecific(component).flatMap(specific -> validate(specific, workspace));
     }
 
     public Either<FailedOperation, Void> validate(@Valid Component<? extends Specific> component) {
+        return checkWorkloadSpecific(component)
+                .flatMap(specific -> Workspace.create().flatMap(workspace -> {
+                    try (workspace) {
+                        return validate(specific, workspace);
+                    }
+                }));
+    }
+
+    private Either<FailedOperation, WorkloadSpecific> checkWorkloadSpecific(Component<? extends Specific> component) {
         logger.info("Checking component with ID {} is of type Workload", component.getId());
         if (component instanceof Workload<? extends Specific> workload) {
             logger.info("The received component is a Workload");
             if (workload.getSpecific() instanceof WorkloadSpecific specific) {
-                var eitherTmpDir = FileUtils.createTempDirectory();
-                if (eitherTmpDir.isLeft()) return left(eitherTmpDir.getLeft());
-                var tmpDir = eitherTmpDir.get();
-                try {
-                    return Either.<FailedOperation, CloneCommand>right(
-                                    azureGitCloneCommandService.build(specific.getGitRepo(), new File(tmpDir)))
-                            .flatMap(cloneCommand -> gitRepositoryService
-                                    .clone(cloneCommand)
-                                    .flatMap(v -> adfToolsWrapperService
-                                            .validate(tmpDir)
-                                            .flatMap(vv -> right(null))));
-                } finally {
-                    FileSystemUtils.deleteRecursively(new File(tmpDir));
-                }
+                return right(specific);
             } else {
                 String errorMessage = String.format(
                         "The specific section of the component %s is not of type WorkloadSpecific", component.getId());
@@ -70,4 +78,45 @@ public class WorkloadValidation {
             return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
         }
     }
+
+    private Either<FailedOperation, Void> validate(WorkloadSpecific specific, Workspace workspace) {
+        return checkout(specific, workspace).flatMap(v -> {
+            var cacheKey = cacheKey(specific, workspace);
+            if (cacheKey.exists(validationCache::isValidated)) {
+                logger.info(
+                        "Commit {} of repository {} already validated, skipping validation",
+                        cacheKey.get().commitId(),
+                        specific.getGitRepo());
+                return right(null);
+            }
+            return adfToolsWrapperService
+                    .validate(workspace.getDirectory().getAbsolutePath())
+                    .<Void>map(vv -> null)
+                    .peek(vv -> cacheKey.forEach(validationCache::putValidated));
+        });
+    }
+
+    /***
+     * The cache key is the commit checked out in the workspace: it is the commit whose content is validated, and the
+     * one published afterwards from the same workspace. The cache is bypassed if the commit can't be resolved
+     */
+    private Option<ValidationCacheKey> cacheKey(WorkloadSpecific specific, Workspace workspace) {
+        if (!validationCache.isEnabled()) return Option.none();
+        var eitherCommit = gitRepositoryService.headCommit(workspace.getDirectory());
+        if (eitherCommit.isLeft()) {
+            logger.warn(
+                    "Unable to resolve the commit checked out from {}, the validation cache is bypassed",
+                    specific.getGitRepo());
+            return Option.none();
+        }
+        return Option.some(new ValidationCacheKey(
+                specific.getGitRepo(), eitherCommit.get(), adfToolsWrapperService.validatorFingerprint()));
+    }
+
+    private Either<FailedOperation, Void> checkout(WorkloadSpecific specific, Workspace workspace) {
+        if (workspace.isCheckedOut()) return right(null);
+        return gitCheckoutService
+                .checkout(specific.getGitRepo(), workspace.getDirectory())
+                .peek(v -> workspace.markCheckedOut());
+    }
 }
@@ -0,0 +1,50 @@
+package it.agilelab.witboost.datafactory.service.workspace;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.util.FileUtils;
+import java.io.File;
+import org.springframework.util.FileSystemUtils;
+
+/***
+ * Temporary directory holding the checkout of the component repository for the whole lifetime of a request.
+ * It is created by the stage that first needs the repository and handed over to the following ones, so that
+ * the repository is fetched only once. Closing it deletes the directory
+ */
+public class Workspace implements AutoCloseable {
+
+    private final File directory;
+    private volatile boolean checkedOut = false;
+
+    private Workspace(File directory) {
+        this.directory = directory;
+    }
+
+    /***
+     * Create a new empty workspace
+     * @return the workspace, or the error occurred while creating its directory
+     */
+    public static Either<FailedOperation, Workspace> create() {
+        return FileUtils.createTempDirectory().map(path -> new Workspace(new File(path)));
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /***
+     * @return true if the repository was already checked out in the workspace
+     */
+    public boolean isCheckedOut() {
+        return checkedOut;
+    }
+
+    public void markCheckedOut() {
+        this.checkedOut = true;
+    }
+
+    @Override
+    public void close() {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+}
@@ -3,23 +3,60 @@ param (
     [Parameter(Mandatory=$true)][string]$ResourceGroupName,
     [Parameter(Mandatory=$true)][string]$DataFactoryName,
     [Parameter(Mandatory=$true)][string]$Location,
-    [string]$Stage = ""
+    [string]$Stage = "",
+    [switch]$SkipLogin
 )
 
+# Result records are single lines made of this prefix and a compact JSON object, decoded by the provisioner
+function Write-Result([hashtable]$Record) {
+    Write-Host ("##WITBOOST## " + ($Record | ConvertTo-Json -Compress -Depth 5))
+}
+
+function Measure-Phase([string]$Name, [scriptblock]$Action) {
+    $watch = [System.Diagnostics.Stopwatch]::StartNew()
+    try {
+        & $Action
+    }
+    finally {
+        Write-Result @{ type = "phase"; name = $Name; durationMs = $watch.ElapsedMilliseconds }
+    }
+}
+
 try {
-    $SecurePassword = ConvertTo-SecureString -String $env:AZURE_CLIENT_SECRET -AsPlainText -Force
-    $Credential = New-Object -TypeName System.Management.Automation.PSCredential -ArgumentList $env:AZURE_CLIENT_ID, $SecurePassword
-    Connect-AzAccount -ServicePrincipal -Tenant $env:AZURE_TENANT_ID -Credential $Credential -Scope Process -ErrorAction Stop
-    if ([string]::IsNullOrEmpty($Stage) -eq $true)
+    if (-not $SkipLogin)
     {
-        Publish-AdfV2FromJson -RootFolder "$RootFolder" -ResourceGroupName "$ResourceGroupName" -DataFactoryName "$DataFactoryName" -Location "$Location" -ErrorAction Stop
+        Measure-Phase "login" {
+            $SecurePassword = ConvertTo-SecureString -String $env:AZURE_CLIENT_SECRET -AsPlainText -Force
+            $Credential = New-Object -TypeName System.Management.Automation.PSCredential -ArgumentList $env:AZURE_CLIENT_ID, $SecurePassword
+            Connect-AzAccount -ServicePrincipal -Tenant $env:AZURE_TENANT_ID -Credential $Credential -Scope Process -ErrorAction Stop | Out-Null
+        }
+    }
+    $PublishParams = @{
+        RootFolder = "$RootFolder"
+        ResourceGroupName = "$ResourceGroupName"
+        DataFactoryName = "$DataFactoryName"
+        Location = "$Location"
     }
-    else
+    if ([string]::IsNullOrEmpty($Stage) -eq $false)
     {
-        Publish-AdfV2FromJson -RootFolder "$RootFolder" -ResourceGroupName "$ResourceGroupName" -DataFactoryName "$DataFactoryName" -Location "$Location" -Stage "$Stage" -ErrorAction Stop
+        $PublishParams.Stage = "$Stage"
     }
-    Write-Host "PUBLISH_OK"
+    $Adf = Measure-Phase "publish" { Publish-AdfV2FromJson @PublishParams -ErrorAction Stop } | Select-Object -Last 1
+    # The instance returned by the publication knows which objects were deployed
+    if ($null -ne $Adf -and $Adf.PSObject.Methods.Name -contains "AllObjects")
+    {
+        foreach ($Object in $Adf.AllObjects())
+        {
+            Write-Result @{
+                type = "object"
+                objectType = "$($Object.Type)"
+                name = "$($Object.Name)"
+                status = $(if ($Object.Deployed) { "deployed" } else { "skipped" })
+            }
+        }
+    }
+    Write-Result @{ type = "result"; status = "OK" }
 }
 catch {
-    Write-Host "PUBLISH_KO"
-}
\ No newline at end of file
+    Write-Result @{ type = "result"; status = "KO"; message = "$($_.Exception.Message)" }
+}
@@ -2,6 +2,18 @@ param (
     [Parameter(Mandatory=$true)][string]$RootFolder
 )
 
-$result = Test-AdfCode -RootFolder "$RootFolder"
-if ($result.ErrorCount -gt 0) { Write-Host "VALIDATION_KO" }
-else { Write-Host "VALIDATION_OK" }
\ No newline at end of file
+# Result records are single lines made of this prefix and a compact JSON object, decoded by the provisioner
+function Write-Result([hashtable]$Record) {
+    Write-Host ("##WITBOOST## " + ($Record | ConvertTo-Json -Compress -Depth 5))
+}
+
+try {
+    $Watch = [System.Diagnostics.Stopwatch]::StartNew()
+    $Result = Test-AdfCode -RootFolder "$RootFolder" | Select-Object -Last 1
+    Write-Result @{ type = "phase"; name = "validation"; durationMs = $Watch.ElapsedMilliseconds }
+    Write-Result @{ type = "validation"; errorCount = [int]$Result.ErrorCount; warningCount = [int]$Result.WarningCount }
+    Write-Result @{ type = "result"; status = $(if ($Result.ErrorCount -gt 0) { "KO" } else { "OK" }) }
+}
+catch {
+    Write-Result @{ type = "result"; status = "KO"; message = "$($_.Exception.Message)" }
+}
@@ -3,26 +3,41 @@ package it.agilelab.witboost.datafactory.api;
 import static io.vavr.control.Either.left;
 import static io.vavr.control.Either.right;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import io.vavr.control.Either;
+import io.vavr.control.Option;
 import it.agilelab.witboost.datafactory.common.FailedOperation;
 import it.agilelab.witboost.datafactory.common.Problem;
 import it.agilelab.witboost.datafactory.common.SpecificProvisionerValidationException;
 import it.agilelab.witboost.datafactory.model.ADFInfo;
 import it.agilelab.witboost.datafactory.model.ProvisionRequest;
 import it.agilelab.witboost.datafactory.model.Specific;
+import it.agilelab.witboost.datafactory.model.Workload;
+import it.agilelab.witboost.datafactory.model.WorkloadSpecific;
 import it.agilelab.witboost.datafactory.openapi.model.*;
-import it.agilelab.witboost.datafactory.service.provision.ProvisionService;
+import it.agilelab.witboost.datafactory.service.provision.ProvisionTaskService;
+import it.agilelab.witboost.datafactory.service.task.Task;
+import it.agilelab.witboost.datafactory.service.task.TaskLog;
 import it.agilelab.witboost.datafactory.service.validation.ValidationService;
+import it.agilelab.witboost.datafactory.service.validation.ValidationTaskService;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,11 +47,43 @@ public class ApiServiceImplTest {
     private ValidationService validationService;
 
     @Mock
-    private ProvisionService provisionService;
+    private ValidationTaskService validationTaskService;
+
+    @Mock
+    private ProvisionTaskService provisionTaskService;
+
+    @Mock
+    private Task<List<Problem>> validationTask;
+
+    @Mock
+    private Task<Option<ADFInfo>> task;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
 
     @InjectMocks
     private ApiServiceImpl apiService;
 
+    private ProvisionRequest<WorkloadSpecific> workloadRequest(WorkloadSpecific specific) {
+        var workload = new Workload<WorkloadSpecific>();
+        workload.setId("my_id_workload");
+        workload.setName("workload name");
+        workload.setDescription("workload desc");
+        workload.setKind("workload");
+        workload.setSpecific(specific);
+        return new ProvisionRequest<>(null, workload, false);
+    }
+
+    private WorkloadSpecific validSpecific() {
+        var specific = new WorkloadSpecific();
+        specific.setGitRepo("https://dev.azure.com/org/project/_git/repo");
+        specific.setProjectName("project");
+        specific.setRepositoryName("repo");
+        specific.setResourceGroup("rg");
+        specific.setRegion("westeurope");
+        return specific;
+    }
+
     @Test
     public void testValidateOk() {
         ProvisioningRequest provisioningRequest = new ProvisioningRequest();
@@ -62,54 +109,216 @@ public class ApiServiceImplTest {
     }
 
     @Test
-    void testProvisionOK() {
+    void testAsyncValidateSubmitted() {
         ProvisioningRequest provisioningRequest =
                 new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
-        when(provisionService.provision(provisioningRequest))
-                .thenReturn(right(new ADFInfo("name", "instanceId", "url")));
-        var privateInfo = Map.of("adfName", "name", "adfInstanceId", "instanceId", "adfUrl", "url");
+        when(validationTaskService.submitValidation(provisioningRequest)).thenReturn("token");
+
+        var actualRes = apiService.asyncValidate(provisioningRequest);
+
+        assertEquals("token", actualRes);
+    }
+
+    @Test
+    void testGetValidationStatusRunning() {
+        when(validationTask.getResult()).thenReturn(Option.none());
+        when(validationTaskService.getTask("token")).thenReturn(Optional.of(validationTask));
+
+        var actualRes = apiService.getValidationStatus("token");
+
+        assertEquals(new ValidationStatus(ValidationStatus.StatusEnum.RUNNING), actualRes);
+    }
+
+    @Test
+    void testGetValidationStatusValid() {
+        when(validationTask.getResult()).thenReturn(Option.some(right(List.of())));
+        when(validationTaskService.getTask("token")).thenReturn(Optional.of(validationTask));
+        var expectedRes = new ValidationStatus(ValidationStatus.StatusEnum.COMPLETED)
+                .info(new ValidationInfo(new ValidationResult(true)));
+
+        var actualRes = apiService.getValidationStatus("token");
+
+        assertEquals(expectedRes, actualRes);
+    }
+
+    @Test
+    void testGetValidationStatusInvalid() {
+        when(validationTask.getResult()).thenReturn(Option.some(right(List.of(new Problem("error")))));
+        when(validationTaskService.getTask("token")).thenReturn(Optional.of(validationTask));
+        var expectedRes = new ValidationStatus(ValidationStatus.StatusEnum.COMPLETED)
+                .info(new ValidationInfo(new ValidationResult(false).error(new ValidationError(List.of("error")))));
+
+        var actualRes = apiService.getValidationStatus("token");
+
+        assertEquals(expectedRes, actualRes);
+    }
+
+    @Test
+    void testGetValidationStatusFailed() {
+        var failedOperation = new FailedOperation(Collections.singletonList(new Problem("Error")));
+        when(validationTask.getResult()).thenReturn(Option.some(left(failedOperation)));
+        when(validationTaskService.getTask("token")).thenReturn(Optional.of(validationTask));
+
+        var actualRes = apiService.getValidationStatus("token");
+
+        assertEquals(new ValidationStatus(ValidationStatus.StatusEnum.FAILED), actualRes);
+    }
+
+    @Test
+    void testGetValidationStatusUnknownToken() {
+        when(validationTaskService.getTask("token")).thenReturn(Optional.empty());
+
+        Assertions.assertThrows(
+                SpecificProvisionerValidationException.class, () -> apiService.getValidationStatus("token"));
+    }
+
+    @Test
+    void testProvisionSubmitted() {
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+        when(validationService.parse(provisioningRequest)).thenReturn(right(workloadRequest(validSpecific())));
+        when(provisionTaskService.submitProvision(provisioningRequest)).thenReturn("token");
 
         var actualRes = apiService.provision(provisioningRequest);
 
-        assertEquals(ProvisioningStatus.StatusEnum.COMPLETED, actualRes.getStatus());
-        assertEquals(privateInfo, actualRes.getInfo().getPrivateInfo());
+        assertEquals("token", actualRes);
     }
 
     @Test
-    void testProvisionKO() {
+    void testProvisionInvalidSpecificRejected() {
         ProvisioningRequest provisioningRequest =
                 new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
-        var failedOperation = new FailedOperation(Collections.singletonList(new Problem("Error")));
-        when(provisionService.provision(provisioningRequest)).thenReturn(left(failedOperation));
+        var specific = validSpecific();
+        specific.setResourceGroup("");
+        when(validationService.parse(provisioningRequest)).thenReturn(right(workloadRequest(specific)));
 
-        var exception = Assertions.assertThrows(
+        var ex = assertThrows(
                 SpecificProvisionerValidationException.class, () -> apiService.provision(provisioningRequest));
 
-        assertEquals(failedOperation, exception.getFailedOperation());
+        assertEquals(1, ex.getFailedOperation().problems().size());
+        assertTrue(ex.getFailedOperation().problems().get(0).description().startsWith("specific.resourceGroup"));
+        verifyNoInteractions(provisionTaskService);
     }
 
     @Test
-    void testUnprovisionOK() {
+    void testProvisionMalformedDescriptorRejected() {
         ProvisioningRequest provisioningRequest =
                 new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
-        when(provisionService.unprovision(provisioningRequest)).thenReturn(right(null));
+        var failedOperation = new FailedOperation(Collections.singletonList(new Problem("malformed")));
+        when(validationService.parse(provisioningRequest)).thenReturn(Either.left(failedOperation));
+
+        var ex = assertThrows(
+                SpecificProvisionerValidationException.class, () -> apiService.provision(provisioningRequest));
+
+        assertEquals(failedOperation, ex.getFailedOperation());
+        verifyNoInteractions(provisionTaskService);
+    }
+
+    @Test
+    void testUnprovisionSubmitted() {
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+        when(validationService.parse(provisioningRequest)).thenReturn(right(workloadRequest(validSpecific())));
+        when(provisionTaskService.submitUnprovision(provisioningRequest)).thenReturn("token");
 
         var actualRes = apiService.unprovision(provisioningRequest);
 
-        assertEquals(ProvisioningStatus.StatusEnum.COMPLETED, actualRes.getStatus());
+        assertEquals("token", actualRes);
     }
 
     @Test
-    void testUnprovisionKO() {
+    void testUnprovisionInvalidSpecificRejected() {
         ProvisioningRequest provisioningRequest =
                 new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
-        var failedOperation = new FailedOperation(
-                Collections.singletonList(new Problem("Implement the unprovision logic based on your requirements!")));
-        when(provisionService.unprovision(provisioningRequest)).thenReturn(left(failedOperation));
+        var specific = validSpecific();
+        specific.setResourceGroup("");
+        when(validationService.parse(provisioningRequest)).thenReturn(right(workloadRequest(specific)));
 
-        var exception = Assertions.assertThrows(
+        var ex = assertThrows(
                 SpecificProvisionerValidationException.class, () -> apiService.unprovision(provisioningRequest));
 
-        assertEquals(failedOperation, exception.getFailedOperation());
+        assertEquals(1, ex.getFailedOperation().problems().size());
+        assertTrue(ex.getFailedOperation().problems().get(0).description().startsWith("specific.resourceGroup"));
+        verifyNoInteractions(provisionTaskService);
+    }
+
+    @Test
+    void testUnprovisionMalformedDescriptorRejected() {
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+        var failedOperation = new FailedOperation(Collections.singletonList(new Problem("malformed")));
+        when(validationService.parse(provisioningRequest)).thenReturn(Either.left(failedOperation));
+
+        var ex = assertThrows(
+                SpecificProvisionerValidationException.class, () -> apiService.unprovision(provisioningRequest));
+
+        assertEquals(failedOperation, ex.getFailedOperation());
+        verifyNoInteractions(provisionTaskService);
+    }
+
+    @Test
+    void testGetStatusRunning() {
+        when(task.getResult()).thenReturn(Option.none());
+        when(task.getLogs()).thenReturn(List.of(new TaskLog(Instant.now(), "git", "Git repository cloned")));
+        when(provisionTaskService.getTask("token")).thenReturn(Optional.of(task));
+
+        var actualRes = apiService.getStatus("token");
+
+        assertEquals(ProvisioningStatus.StatusEnum.RUNNING, actualRes.getStatus());
+        assertEquals(1, actualRes.getLogs().size());
+        assertEquals("git", actualRes.getLogs().get(0).getPhase());
+        assertEquals("Git repository cloned", actualRes.getLogs().get(0).getMessage());
+    }
+
+    @Test
+    void testGetStatusProvisionCompleted() {
+        when(task.getResult()).thenReturn(Option.some(right(Option.some(new ADFInfo("name", "instanceId", "url")))));
+        when(task.getLogs()).thenReturn(List.of());
+        when(provisionTaskService.getTask("token")).thenReturn(Optional.of(task));
+        var privateInfo = Map.of("adfName", "name", "adfInstanceId", "instanceId", "adfUrl", "url");
+
+        var actualRes = apiService.getStatus("token");
+
+        assertEquals(ProvisioningStatus.StatusEnum.COMPLETED, actualRes.getStatus());
+        assertEquals(privateInfo, actualRes.getInfo().getPrivateInfo());
+    }
+
+    @Test
+    void testGetStatusUnprovisionCompleted() {
+        when(task.getResult()).thenReturn(Option.some(right(Option.none())));
+        when(task.getLogs()).thenReturn(List.of());
+        when(provisionTaskService.getTask("token")).thenReturn(Optional.of(task));
+
+        var actualRes = apiService.getStatus("token");
+
+        assertEquals(ProvisioningStatus.StatusEnum.COMPLETED, actualRes.getStatus());
+        assertNull(actualRes.getInfo());
+    }
+
+    @Test
+    void testGetStatusFailed() {
+        var failedOperation = new FailedOperation(Collections.singletonList(new Problem("Error")));
+        when(task.getResult()).thenReturn(Option.some(left(failedOperation)));
+        when(task.getLogs()).thenReturn(List.of());
+        when(task.getCompletedAt()).thenReturn(Option.some(Instant.now()));
+        when(provisionTaskService.getTask("token")).thenReturn(Optional.of(task));
+
+        var actualRes = apiService.getStatus("token");
+
+        assertEquals(ProvisioningStatus.StatusEnum.FAILED, actualRes.getStatus());
+        assertEquals("Error", actualRes.getResult());
+        assertEquals(1, actualRes.getLogs().size());
+        assertEquals(Log.LevelEnum.ERROR, actualRes.getLogs().get(0).getLevel());
+        assertEquals("Error", actualRes.getLogs().get(0).getMessage());
+    }
+
+    @Test
+    void testGetStatusUnknownToken() {
+        when(provisionTaskService.getTask("token")).thenReturn(Optional.empty());
+
+        var exception = Assertions.assertThrows(
+                SpecificProvisionerValidationException.class, () -> apiService.getStatus("token"));
+
+        assertEquals(1, exception.getFailedOperation().problems().size());
     }
 }
@@ -73,15 +73,12 @@ public class SpecificProvisionerControllerTest {
                 new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
         MockHttpServletRequest mockHttpServletRequest = new MockHttpServletRequest();
         RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(mockHttpServletRequest));
-        when(service.provision(provisioningRequest))
-                .thenReturn(new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, ""));
+        when(service.provision(provisioningRequest)).thenReturn("token");
 
-        ResponseEntity<ProvisioningStatus> actualRes = specificProvisionerController.provision(provisioningRequest);
+        ResponseEntity<String> actualRes = specificProvisionerController.provision(provisioningRequest);
 
-        Assertions.assertEquals(HttpStatusCode.valueOf(200), actualRes.getStatusCode());
-        Assertions.assertEquals(
-                ProvisioningStatus.StatusEnum.COMPLETED,
-                Objects.requireNonNull(actualRes.getBody()).getStatus());
+        Assertions.assertEquals(HttpStatusCode.valueOf(202), actualRes.getStatusCode());
+        Assertions.assertEquals("token", actualRes.getBody());
     }
 
     @Test
@@ -106,14 +103,25 @@ public class SpecificProvisionerControllerTest {
                 new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
         MockHttpServletRequest mockHttpServletRequest = new MockHttpServletRequest();
         RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(mockHttpServletRequest));
-        when(service.unprovision(provisioningRequest))
-                .thenReturn(new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, ""));
+        when(service.unprovision(provisioningRequest)).thenReturn("token");
+
+        ResponseEntity<String> actualRes = specificProvisionerController.unprovision(provisioningRequest);
+
+        Assertions.assertEquals(HttpStatusCode.valueOf(202), actualRes.getStatusCode());
+        Assertions.assertEquals("token", actualRes.getBody());
+    }
+
+    @Test
+    void testGetStatusOk() {
+        MockHttpServletRequest mockHttpServletRequest = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(mockHttpServletRequest));
+        when(service.getStatus("token")).thenReturn(new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, ""));
 
-        ResponseEntity<ProvisioningStatus> actualRes = specificProvisionerController.unprovision(provisioningRequest);
+        ResponseEntity<ProvisioningStatus> actualRes = specificProvisionerController.getStatus("token");
 
         Assertions.assertEquals(HttpStatusCode.valueOf(200), actualRes.getStatusCode());
         Assertions.assertEquals(
-                ProvisioningStatus.StatusEnum.COMPLETED,
+                ProvisioningStatus.StatusEnum.RUNNING,
                 Objects.requireNonNull(actualRes.getBody()).getStatus());
     }
 
@@ -0,0 +1,64 @@
+package it.agilelab.witboost.datafactory.controller;
+
+import static org.mockito.Mockito.when;
+
+import it.agilelab.witboost.datafactory.api.ApiServiceImpl;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import it.agilelab.witboost.datafactory.common.SpecificProvisionerValidationException;
+import it.agilelab.witboost.datafactory.openapi.model.*;
+import java.util.Collections;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+
+@ExtendWith(MockitoExtension.class)
+public class SpecificProvisionerV2ControllerTest {
+
+    @Mock
+    private ApiServiceImpl service;
+
+    @InjectMocks
+    private SpecificProvisionerV2Controller specificProvisionerV2Controller;
+
+    @Test
+    void testAsyncValidateOk() {
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+        when(service.asyncValidate(provisioningRequest)).thenReturn("token");
+
+        ResponseEntity<String> actualRes = specificProvisionerV2Controller.asyncValidate(provisioningRequest);
+
+        Assertions.assertEquals(HttpStatusCode.valueOf(202), actualRes.getStatusCode());
+        Assertions.assertEquals("token", actualRes.getBody());
+    }
+
+    @Test
+    void testGetValidationStatusOk() {
+        var expectedStatus = new ValidationStatus(ValidationStatus.StatusEnum.COMPLETED)
+                .info(new ValidationInfo(new ValidationResult(true)));
+        when(service.getValidationStatus("token")).thenReturn(expectedStatus);
+
+        ResponseEntity<ValidationStatus> actualRes = specificProvisionerV2Controller.getValidationStatus("token");
+
+        Assertions.assertEquals(HttpStatusCode.valueOf(200), actualRes.getStatusCode());
+        Assertions.assertEquals(expectedStatus, actualRes.getBody());
+    }
+
+    @Test
+    void testGetValidationStatusUnknownToken() {
+        var failedOperation = new FailedOperation(Collections.singletonList(new Problem("error")));
+        when(service.getValidationStatus("token"))
+                .thenThrow(new SpecificProvisionerValidationException(failedOperation));
+
+        var ex = Assertions.assertThrows(
+                SpecificProvisionerValidationException.class,
+                () -> specificProvisionerV2Controller.getValidationStatus("token"));
+        Assertions.assertEquals(failedOperation, ex.getFailedOperation());
+    }
+}
@@ -7,17 +7,28 @@ import static org.mockito.Mockito.when;
 import com.azure.resourcemanager.AzureResourceManager;
 import com.microsoft.graph.serviceclient.GraphServiceClient;
 import com.profesorfalken.jpowershell.PowerShell;
+import com.profesorfalken.jpowershell.PowerShellOutputListener;
 import com.profesorfalken.jpowershell.PowerShellResponse;
-import java.io.BufferedReader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import it.agilelab.witboost.datafactory.service.powershell.AzureContextService;
+import it.agilelab.witboost.datafactory.service.powershell.PowerShellLease;
+import it.agilelab.witboost.datafactory.service.powershell.PowerShellPool;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
 @ExtendWith(MockitoExtension.class)
-@SpringBootTest
+@SpringBootTest(properties = {"validation.engine=powershell", "azure.token-refresh.enabled=false"})
 public class ADFToolsWrapperServiceTest {
 
     @MockBean
@@ -29,31 +40,85 @@ public class ADFToolsWrapperServiceTest {
     @MockBean
     private PowerShell mockedPowerShell;
 
+    @MockBean
+    private PowerShellPool powerShellPool;
+
+    @MockBean
+    private AzureContextService azureContextService;
+
     @Autowired
     private ADFToolsWrapperServiceImpl aDFToolsWrapperService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private boolean leaseBroken;
+
+    @BeforeEach
+    public void setUp() {
+        leaseBroken = false;
+        when(powerShellPool.borrow())
+                .thenAnswer(invocation -> new PowerShellLease(mockedPowerShell, broken -> leaseBroken = broken));
+        when(azureContextService.isEnabled()).thenReturn(true);
+        when(azureContextService.ensureAuthenticated(mockedPowerShell)).thenReturn(Either.right(null));
+    }
+
+    private static final String VALIDATION_OK =
+            """
+            Checking the factory...
+            ##WITBOOST## {"type":"phase","name":"validation","durationMs":1200}
+            ##WITBOOST## {"type":"validation","errorCount":0,"warningCount":1}
+            ##WITBOOST## {"type":"result","status":"OK"}""";
+
+    private static final String VALIDATION_KO =
+            """
+            ##WITBOOST## {"type":"validation","errorCount":2,"warningCount":0}
+            ##WITBOOST## {"type":"result","status":"KO"}""";
+
+    private static final String PUBLISH_OK =
+            """
+            ##WITBOOST## {"type":"phase","name":"publish","durationMs":5000}
+            ##WITBOOST## {"type":"object","objectType":"pipeline","name":"pl1","status":"deployed"}
+            ##WITBOOST## {"type":"object","objectType":"dataset","name":"ds1","status":"skipped"}
+            ##WITBOOST## {"type":"result","status":"OK"}""";
+
+    private static final String PUBLISH_KO =
+            """
+            ##WITBOOST## {"type":"object","objectType":"pipeline","name":"pl1","status":"failed","error":"bad ref"}
+            ##WITBOOST## {"type":"result","status":"KO","message":"deployment failed"}""";
+
+    // Hands the output to the listener line by line, as the session does
+    private static Answer<PowerShellResponse> streaming(PowerShellResponse response) {
+        return invocation -> {
+            PowerShellOutputListener listener = invocation.getArgument(2);
+            response.getCommandOutput().lines().forEach(listener::onLine);
+            return response;
+        };
+    }
+
     @Test
     public void testValidateOk() {
-        PowerShellResponse response = new PowerShellResponse(false, "VALIDATION_OK", false);
-        when(mockedPowerShell.executeScript((BufferedReader) any(), eq("-RootFolder \"/tmp/folder\"")))
-                .thenReturn(response);
+        PowerShellResponse response = new PowerShellResponse(false, VALIDATION_OK, false);
+        when(mockedPowerShell.executeScript(anyString(), eq("-RootFolder \"/tmp/folder\""), any()))
+                .thenAnswer(streaming(response));
 
         var actualRes = aDFToolsWrapperService.validate("/tmp/folder");
 
         assertTrue(actualRes.isRight());
+        assertFalse(leaseBroken);
     }
 
     @Test
     public void testValidateTimeout() {
         PowerShellResponse response = new PowerShellResponse(true, "", true);
-        when(mockedPowerShell.executeScript((BufferedReader) any(), anyString()))
-                .thenReturn(response);
+        when(mockedPowerShell.executeScript(anyString(), anyString(), any())).thenAnswer(streaming(response));
         String expectedDesc =
                 "An error occurred while executing the PS validation command. Please try again and if the error persists contact the platform team. Details: isTimeout: true, isError: true";
 
         var actualRes = aDFToolsWrapperService.validate("");
 
         assertTrue(actualRes.isLeft());
+        assertTrue(leaseBroken);
         assertEquals(1, actualRes.getLeft().problems().size());
         actualRes.getLeft().problems().forEach(p -> {
             assertEquals(expectedDesc, p.description());
@@ -63,10 +128,9 @@ public class ADFToolsWrapperServiceTest {
 
     @Test
     public void testValidateScriptError() {
-        PowerShellResponse response = new PowerShellResponse(false, "VALIDATION_KO", false);
-        when(mockedPowerShell.executeScript((BufferedReader) any(), anyString()))
-                .thenReturn(response);
-        String expectedDesc = "The PS validation command returned one or more errors. Details: VALIDATION_KO";
+        PowerShellResponse response = new PowerShellResponse(false, VALIDATION_KO, false);
+        when(mockedPowerShell.executeScript(anyString(), anyString(), any())).thenAnswer(streaming(response));
+        String expectedDesc = "The PS validation command returned one or more errors. Details: 2 errors, 0 warnings";
 
         var actualRes = aDFToolsWrapperService.validate("");
 
@@ -80,26 +144,32 @@ public class ADFToolsWrapperServiceTest {
 
     @Test
     public void testPublishOk() {
-        PowerShellResponse response = new PowerShellResponse(false, "PUBLISH_OK", false);
+        PowerShellResponse response = new PowerShellResponse(false, PUBLISH_OK, false);
         when(mockedPowerShell.executeScript(
-                        (BufferedReader) any(),
+                        anyString(),
                         eq(
-                                "-RootFolder \"/tmp/folder\" -ResourceGroupName \"rs1\" -DataFactoryName \"adf1\" -Location \"we\"")))
-                .thenReturn(response);
+                                "-RootFolder \"/tmp/folder\" -ResourceGroupName \"rs1\" -DataFactoryName \"adf1\" -Location \"we\" -SkipLogin"),
+                        any()))
+                .thenAnswer(streaming(response));
 
         var actualRes = aDFToolsWrapperService.publish("/tmp/folder", "rs1", "adf1", "we", "dev", true);
 
         assertTrue(actualRes.isRight());
+        assertEquals(2, actualRes.get().objects().size());
+        assertEquals("pl1", actualRes.get().objects().get(0).name());
+        assertEquals(1, actualRes.get().phases().size());
+        assertEquals(Duration.ofSeconds(5), actualRes.get().phases().get(0).duration());
     }
 
     @Test
     public void testPublishNonDevOk() {
-        PowerShellResponse response = new PowerShellResponse(false, "PUBLISH_OK", false);
+        PowerShellResponse response = new PowerShellResponse(false, PUBLISH_OK, false);
         when(mockedPowerShell.executeScript(
-                        (BufferedReader) any(),
+                        anyString(),
                         eq(
-                                "-RootFolder \"/tmp/folder\" -ResourceGroupName \"rs1\" -DataFactoryName \"adf1\" -Location \"we\" -Stage \"qa\"")))
-                .thenReturn(response);
+                                "-RootFolder \"/tmp/folder\" -ResourceGroupName \"rs1\" -DataFactoryName \"adf1\" -Location \"we\" -Stage \"qa\" -SkipLogin"),
+                        any()))
+                .thenAnswer(streaming(response));
 
         var actualRes = aDFToolsWrapperService.publish("/tmp/folder", "rs1", "adf1", "we", "qa", false);
 
@@ -108,15 +178,21 @@ public class ADFToolsWrapperServiceTest {
 
     @Test
     public void testPublishTimeout() {
-        PowerShellResponse response = new PowerShellResponse(true, "", true);
-        when(mockedPowerShell.executeScript((BufferedReader) any(), anyString()))
-                .thenReturn(response);
+        PowerShellResponse response = new PowerShellResponse(true, "", true, null, true);
+        when(mockedPowerShell.executeScript(anyString(), anyString(), any())).thenAnswer(streaming(response));
         String expectedDesc =
                 "An error occurred while executing the PS publish command. Please try again and if the error persists contact the platform team. Details: isTimeout: true, isError: true";
+        var timeouts = meterRegistry.counter("powershell.command.timeouts", "command", "publish");
+        var kills = meterRegistry.counter("powershell.command.kills", "command", "publish");
+        double timeoutsBefore = timeouts.count();
+        double killsBefore = kills.count();
 
         var actualRes = aDFToolsWrapperService.publish("", "", "", "", "", true);
 
         assertTrue(actualRes.isLeft());
+        assertTrue(leaseBroken);
+        assertEquals(timeoutsBefore + 1, timeouts.count());
+        assertEquals(killsBefore + 1, kills.count());
         assertEquals(1, actualRes.getLeft().problems().size());
         actualRes.getLeft().problems().forEach(p -> {
             assertEquals(expectedDesc, p.description());
@@ -126,18 +202,58 @@ public class ADFToolsWrapperServiceTest {
 
     @Test
     public void testPublishScriptError() {
-        PowerShellResponse response = new PowerShellResponse(false, "PUBLISH_KO", false);
-        when(mockedPowerShell.executeScript((BufferedReader) any(), anyString()))
-                .thenReturn(response);
-        String expectedDesc = "The PS publish command returned one or more errors. Details: PUBLISH_KO";
+        PowerShellResponse response = new PowerShellResponse(false, PUBLISH_KO, false);
+        when(mockedPowerShell.executeScript(anyString(), anyString(), any())).thenAnswer(streaming(response));
 
         var actualRes = aDFToolsWrapperService.publish("", "", "", "", "", true);
 
         assertTrue(actualRes.isLeft());
-        assertEquals(1, actualRes.getLeft().problems().size());
-        actualRes.getLeft().problems().forEach(p -> {
-            assertEquals(expectedDesc, p.description());
-            assertTrue(p.cause().isEmpty());
-        });
+        var problems = actualRes.getLeft().problems();
+        assertEquals(2, problems.size());
+        assertEquals(
+                "The PS publish command returned one or more errors. Details: deployment failed",
+                problems.get(0).description());
+        assertEquals(
+                "The publication of the pipeline 'pl1' failed. Details: bad ref",
+                problems.get(1).description());
+    }
+
+    @Test
+    public void testPublishWithoutResult() {
+        PowerShellResponse response = new PowerShellResponse(false, "Unexpected crash", false);
+        when(mockedPowerShell.executeScript(anyString(), anyString(), any())).thenAnswer(streaming(response));
+
+        var actualRes = aDFToolsWrapperService.publish("", "", "", "", "", true);
+
+        assertTrue(actualRes.isLeft());
+        assertTrue(actualRes.getLeft().problems().get(0).description().endsWith("Details: Unexpected crash"));
+    }
+
+    @Test
+    public void testPublishLoginByScriptWhenContextDisabled() {
+        when(azureContextService.isEnabled()).thenReturn(false);
+        PowerShellResponse response = new PowerShellResponse(false, PUBLISH_OK, false);
+        when(mockedPowerShell.executeScript(
+                        anyString(),
+                        eq(
+                                "-RootFolder \"/tmp/folder\" -ResourceGroupName \"rs1\" -DataFactoryName \"adf1\" -Location \"we\""),
+                        any()))
+                .thenAnswer(streaming(response));
+
+        var actualRes = aDFToolsWrapperService.publish("/tmp/folder", "rs1", "adf1", "we", "dev", true);
+
+        assertTrue(actualRes.isRight());
+    }
+
+    @Test
+    public void testPublishAuthenticationError() {
+        var failedOperation = new FailedOperation(List.of(new Problem("auth error")));
+        when(azureContextService.ensureAuthenticated(mockedPowerShell)).thenReturn(Either.left(failedOperation));
+
+        var actualRes = aDFToolsWrapperService.publish("/tmp/folder", "rs1", "adf1", "we", "dev", true);
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(failedOperation, actualRes.getLeft());
+        assertTrue(leaseBroken);
     }
 }
@@ -1,14 +1,18 @@
 package it.agilelab.witboost.datafactory.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import it.agilelab.witboost.datafactory.config.AzureGitConfig;
 import java.io.File;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 public class AzureGitCloneCommandServiceTest {
 
-    private final AzureGitConfig azureGitConfig = new AzureGitConfig("username", "password", "", "", "", "", "", true);
+    private final AzureGitConfig azureGitConfig =
+            new AzureGitConfig("username", "password", "", "", "", "", "", true, false, List.of());
 
     private final AzureGitCloneCommandService service = new AzureGitCloneCommandService(azureGitConfig);
 
@@ -21,4 +25,20 @@ public class AzureGitCloneCommandServiceTest {
 
         assertNotNull(actualRes);
     }
+
+    @Test
+    public void testSparseCheckoutPathsUnderRootFolder() {
+        var config = new AzureGitConfig(
+                "username", "password", "", "", "/adf/", "", "", true, true, List.of("pipeline", "dataset"));
+        var sparseService = new AzureGitCloneCommandService(config);
+
+        var actualRes = sparseService.sparseCheckoutPaths();
+
+        assertEquals(List.of("adf/pipeline", "adf/dataset"), actualRes);
+    }
+
+    @Test
+    public void testSparseCheckoutPathsDisabled() {
+        assertTrue(service.sparseCheckoutPaths().isEmpty());
+    }
 }
@@ -1,30 +1,45 @@
 package it.agilelab.witboost.datafactory.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
+import com.azure.core.http.HttpHeaderName;
 import com.azure.core.http.HttpHeaders;
 import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpPipeline;
 import com.azure.core.http.HttpRequest;
-import com.azure.core.http.rest.PagedFlux;
+import com.azure.core.http.HttpResponse;
 import com.azure.core.http.rest.PagedIterable;
-import com.azure.core.http.rest.PagedResponse;
 import com.azure.core.http.rest.PagedResponseBase;
 import com.azure.core.management.exception.ManagementException;
+import com.azure.core.util.Context;
 import com.azure.resourcemanager.datafactory.DataFactoryManager;
 import com.azure.resourcemanager.datafactory.models.Factories;
 import com.azure.resourcemanager.datafactory.models.Factory;
 import com.azure.resourcemanager.datafactory.models.FactoryRepoConfiguration;
+import com.azure.resourcemanager.datafactory.models.Trigger;
+import com.azure.resourcemanager.datafactory.models.TriggerResource;
+import com.azure.resourcemanager.datafactory.models.TriggerRuntimeState;
+import it.agilelab.witboost.datafactory.config.FactoryCacheConfig;
+import it.agilelab.witboost.datafactory.config.FactoryPollingConfig;
 import it.agilelab.witboost.datafactory.model.FactoryGitConfiguration;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Answers;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,7 +48,6 @@ public class DataFactoryClientTest {
     @Mock(answer = Answers.RETURNS_DEEP_STUBS)
     private DataFactoryManager manager;
 
-    @InjectMocks
     private DataFactoryClientImpl dataFactoryClient;
 
     private final String resourceGroup = "a-resourceGroup";
@@ -43,22 +57,25 @@ public class DataFactoryClientTest {
     private final FactoryGitConfiguration config = new FactoryGitConfiguration("", "", "", "", "", "", "", false);
     private final ManagementException ex = new ManagementException("Error", null);
 
-    private PagedIterable<Factory> emptyFactories() {
-        return new PagedIterable<>(new PagedFlux<>(Mono::empty, continuationToken -> Mono.empty()));
+    @BeforeEach
+    public void setUp() {
+        dataFactoryClient = new DataFactoryClientImpl(
+                manager,
+                new FactoryCacheConfig(true, 10, Duration.ofHours(1)),
+                new FactoryPollingConfig(Duration.ofMillis(10)));
     }
 
-    private PagedIterable<Factory> singleFactories(Factory factory) {
-        HttpHeaders headers = new HttpHeaders();
-        HttpRequest request = new HttpRequest(HttpMethod.GET, "http://localhost");
-        final Function<String, PagedResponse<Factory>> pagedResponseSupplier = continuationToken ->
-                new PagedResponseBase<>(request, 200, headers, List.of(factory), continuationToken, null);
-        return new PagedIterable<>(pageSize -> pagedResponseSupplier.apply(null));
+    private ManagementException notFound() {
+        var response = mock(HttpResponse.class);
+        when(response.getStatusCode()).thenReturn(404);
+        return new ManagementException("ResourceNotFound", response);
     }
 
     @Test
     public void testCreateADFNotAlreadyExisting() {
         var mockedFactory = mock(Factory.class);
-        when(manager.factories().listByResourceGroup(resourceGroup)).thenReturn(emptyFactories());
+        var notFound = notFound();
+        when(manager.factories().getByResourceGroup(resourceGroup, name)).thenThrow(notFound);
         when(manager.factories()
                         .define(name)
                         .withRegion(region)
@@ -66,22 +83,25 @@ public class DataFactoryClientTest {
                         .create())
                 .thenReturn(mockedFactory);
         when(mockedFactory.id()).thenReturn(factoryId);
+        var created = new AtomicBoolean(false);
 
-        var actualRes = dataFactoryClient.createADF(resourceGroup, region, name);
+        var actualRes = dataFactoryClient.createADF(resourceGroup, region, name, () -> created.set(true));
 
         assertTrue(actualRes.isRight());
         assertEquals(factoryId, actualRes.get());
+        assertTrue(created.get());
     }
 
     @Test
     public void testCreateADFAlreadyExisting() {
         var mockedFactory = mock(Factory.class);
-        when(manager.factories().listByResourceGroup(resourceGroup)).thenReturn(singleFactories(mockedFactory));
-        when(mockedFactory.name()).thenReturn(name);
+        when(manager.factories().getByResourceGroup(resourceGroup, name)).thenReturn(mockedFactory);
         when(mockedFactory.id()).thenReturn(factoryId);
+        var created = new AtomicBoolean(false);
 
-        var actualRes = dataFactoryClient.createADF(resourceGroup, region, name);
+        var actualRes = dataFactoryClient.createADF(resourceGroup, region, name, () -> created.set(true));
 
+        assertFalse(created.get());
         verify(
                         manager.factories()
                                 .define(anyString())
@@ -97,7 +117,8 @@ public class DataFactoryClientTest {
     public void testCreateADFReturnError() {
         String expectedDesc =
                 "An error occurred while creating the ADF 'a-name' on resource group a-resourceGroup. Please try again and if the error persists contact the platform team. Details: Error";
-        when(manager.factories().listByResourceGroup(resourceGroup)).thenReturn(emptyFactories());
+        var notFound = notFound();
+        when(manager.factories().getByResourceGroup(resourceGroup, name)).thenThrow(notFound);
         when(manager.factories()
                         .define(name)
                         .withRegion(region)
@@ -105,7 +126,7 @@ public class DataFactoryClientTest {
                         .create())
                 .thenThrow(ex);
 
-        var actualRes = dataFactoryClient.createADF(resourceGroup, region, name);
+        var actualRes = dataFactoryClient.createADF(resourceGroup, region, name, () -> {});
 
         assertTrue(actualRes.isLeft());
         assertEquals(1, actualRes.getLeft().problems().size());
@@ -116,61 +137,144 @@ public class DataFactoryClientTest {
         });
     }
 
+    private HttpPipeline mockPipeline() {
+        var pipeline = mock(HttpPipeline.class);
+        when(manager.serviceClient().getEndpoint()).thenReturn("https://management.azure.com/");
+        when(manager.serviceClient().getSubscriptionId()).thenReturn("sub");
+        when(manager.serviceClient().getApiVersion()).thenReturn("2018-06-01");
+        when(manager.serviceClient().getHttpPipeline()).thenReturn(pipeline);
+        return pipeline;
+    }
+
+    private HttpResponse response(HttpRequest request, int statusCode, HttpHeaders headers, String body) {
+        var response = mock(HttpResponse.class);
+        when(response.getStatusCode()).thenReturn(statusCode);
+        lenient().when(response.getHeaders()).thenReturn(headers);
+        lenient()
+                .when(response.getHeaderValue(any(HttpHeaderName.class)))
+                .thenAnswer(i -> headers.getValue(i.<HttpHeaderName>getArgument(0)));
+        lenient().when(response.getRequest()).thenReturn(request);
+        lenient().when(response.getBodyAsByteArray()).thenReturn(Mono.just(body.getBytes()));
+        lenient().when(response.getBody()).thenReturn(Flux.just(ByteBuffer.wrap(body.getBytes())));
+        lenient().when(response.getBodyAsString()).thenReturn(Mono.just(body));
+        return response;
+    }
+
     @Test
-    public void testDeleteADFExisting() {
-        var mockedFactory = mock(Factory.class);
-        var mockedFactories = mock(Factories.class);
-        when(manager.factories()).thenReturn(mockedFactories);
-        when(mockedFactories.listByResourceGroup(resourceGroup)).thenReturn(singleFactories(mockedFactory));
-        when(mockedFactory.id()).thenReturn(factoryId);
-        when(mockedFactory.name()).thenReturn(name);
-        doNothing().when(mockedFactories).deleteById(factoryId);
+    public void testDeleteADF() {
+        var pipeline = mockPipeline();
+        when(pipeline.send(any(HttpRequest.class), any(Context.class)))
+                .thenAnswer(i -> Mono.just(response(i.getArgument(0), 204, new HttpHeaders(), "")));
+        var progress = new ArrayList<String>();
 
-        var actualRes = dataFactoryClient.deleteADF(resourceGroup, name);
+        var actualRes = dataFactoryClient
+                .deleteADFAsync(resourceGroup, name, progress::add)
+                .join();
 
         assertTrue(actualRes.isRight());
+        assertTrue(progress.isEmpty());
+        var request = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(pipeline).send(request.capture(), eq(Context.NONE));
+        assertEquals(HttpMethod.DELETE, request.getValue().getHttpMethod());
+        assertEquals(
+                "https://management.azure.com/subscriptions/sub/resourceGroups/a-resourceGroup/providers/Microsoft.DataFactory/factories/a-name?api-version=2018-06-01",
+                request.getValue().getUrl().toString());
     }
 
     @Test
-    public void testDeleteADFNotExisting() {
-        var mockedFactories = mock(Factories.class);
-        when(manager.factories()).thenReturn(mockedFactories);
-        when(mockedFactories.listByResourceGroup(resourceGroup)).thenReturn(emptyFactories());
+    public void testDeleteADFPollsTheOperation() {
+        var pipeline = mockPipeline();
+        String operationUrl = "https://management.azure.com/operationResults/1";
+        var polls = new AtomicInteger();
+        when(pipeline.send(any(HttpRequest.class), any(Context.class))).thenAnswer(i -> {
+            HttpRequest request = i.getArgument(0);
+            if (request.getHttpMethod() == HttpMethod.DELETE) {
+                var headers = new HttpHeaders()
+                        .set(HttpHeaderName.LOCATION, operationUrl)
+                        .set(HttpHeaderName.RETRY_AFTER, "0");
+                return Mono.just(response(request, 202, headers, ""));
+            }
+            assertEquals(operationUrl, request.getUrl().toString());
+            return Mono.just(response(request, polls.incrementAndGet() < 2 ? 202 : 200, new HttpHeaders(), ""));
+        });
+        var progress = new ArrayList<String>();
 
-        var actualRes = dataFactoryClient.deleteADF(resourceGroup, name);
+        var actualRes = dataFactoryClient
+                .deleteADFAsync(resourceGroup, name, progress::add)
+                .join();
 
-        verify(mockedFactories, never()).deleteById(factoryId);
         assertTrue(actualRes.isRight());
+        assertEquals(2, polls.get());
+        assertFalse(progress.isEmpty());
+        assertEquals("The deletion of the Data Factory 'a-name' is in progress", progress.get(0));
     }
 
     @Test
     public void testDeleteADFReturnError() {
-        var mockedFactory = mock(Factory.class);
-        var mockedFactories = mock(Factories.class);
-        when(manager.factories()).thenReturn(mockedFactories);
-        when(mockedFactories.listByResourceGroup(resourceGroup)).thenReturn(singleFactories(mockedFactory));
-        when(mockedFactory.id()).thenReturn(factoryId);
-        when(mockedFactory.name()).thenReturn(name);
+        var pipeline = mockPipeline();
+        when(pipeline.send(any(HttpRequest.class), any(Context.class)))
+                .thenAnswer(i -> Mono.just(response(i.getArgument(0), 409, new HttpHeaders(), "Conflict")));
         String expectedDesc =
-                "An error occurred while deleting the ADF 'a-name' on resource group a-resourceGroup. Please try again and if the error persists contact the platform team. Details: Error";
-        doThrow(ex).when(mockedFactories).deleteById(factoryId);
+                "An error occurred while deleting the ADF 'a-name' on resource group a-resourceGroup. Please try again and if the error persists contact the platform team. Details: HTTP 409 Conflict";
 
-        var actualRes = dataFactoryClient.deleteADF(resourceGroup, name);
+        var actualRes = dataFactoryClient
+                .deleteADFAsync(resourceGroup, name, message -> {})
+                .join();
 
         assertTrue(actualRes.isLeft());
         assertEquals(1, actualRes.getLeft().problems().size());
         actualRes.getLeft().problems().forEach(p -> {
-            assertEquals(p.description(), expectedDesc);
+            assertEquals(expectedDesc, p.description());
             assertTrue(p.cause().isPresent());
-            assertEquals(ex, p.cause().get());
         });
     }
 
+    @Test
+    public void testFactoryLookupIsCached() {
+        var mockedFactory = mock(Factory.class);
+        var mockedFactories = mock(Factories.class);
+        var mockedFactoryRepoConfiguration = mock(FactoryRepoConfiguration.class);
+        when(manager.factories()).thenReturn(mockedFactories);
+        when(mockedFactories.getByResourceGroup(resourceGroup, name)).thenReturn(mockedFactory);
+        when(mockedFactory.id()).thenReturn(factoryId);
+        when(mockedFactory.repoConfiguration()).thenReturn(mockedFactoryRepoConfiguration);
+
+        dataFactoryClient.createADF(resourceGroup, region, name, () -> {});
+        dataFactoryClient.linkGitRepository(resourceGroup, region, name, config);
+        verify(mockedFactories, times(1)).getByResourceGroup(resourceGroup, name);
+
+        var pipeline = mockPipeline();
+        when(pipeline.send(any(HttpRequest.class), any(Context.class)))
+                .thenAnswer(i -> Mono.just(response(i.getArgument(0), 204, new HttpHeaders(), "")));
+        dataFactoryClient.deleteADFAsync(resourceGroup, name, message -> {}).join();
+        dataFactoryClient.createADF(resourceGroup, region, name, () -> {});
+        verify(mockedFactories, times(2)).getByResourceGroup(resourceGroup, name);
+    }
+
+    @Test
+    public void testFactoryLookupExpires() {
+        dataFactoryClient = new DataFactoryClientImpl(
+                manager,
+                new FactoryCacheConfig(true, 10, Duration.ZERO),
+                new FactoryPollingConfig(Duration.ofMillis(10)));
+        var mockedFactory = mock(Factory.class);
+        var mockedFactories = mock(Factories.class);
+        when(manager.factories()).thenReturn(mockedFactories);
+        when(mockedFactories.getByResourceGroup(resourceGroup, name)).thenReturn(mockedFactory);
+        when(mockedFactory.id()).thenReturn(factoryId);
+
+        dataFactoryClient.createADF(resourceGroup, region, name, () -> {});
+        dataFactoryClient.createADF(resourceGroup, region, name, () -> {});
+
+        verify(mockedFactories, times(2)).getByResourceGroup(resourceGroup, name);
+    }
+
     @Test
     public void testLinkGitRepositoryWhenADFNotExists() {
         var mockedFactories = mock(Factories.class);
         when(manager.factories()).thenReturn(mockedFactories);
-        when(mockedFactories.listByResourceGroup(resourceGroup)).thenReturn(emptyFactories());
+        var notFound = notFound();
+        when(mockedFactories.getByResourceGroup(resourceGroup, name)).thenThrow(notFound);
         String expectedDesc =
                 "Cannot link the Git repository to ADF: unable to find ADF instance named 'a-name' on resource group a-resourceGroup";
 
@@ -189,9 +293,8 @@ public class DataFactoryClientTest {
         var mockedFactory = mock(Factory.class);
         var mockedFactories = mock(Factories.class);
         when(manager.factories()).thenReturn(mockedFactories);
-        when(mockedFactories.listByResourceGroup(resourceGroup)).thenReturn(singleFactories(mockedFactory));
+        when(mockedFactories.getByResourceGroup(resourceGroup, name)).thenReturn(mockedFactory);
         when(mockedFactory.repoConfiguration()).thenReturn(null);
-        when(mockedFactory.name()).thenReturn(name);
         when(mockedFactory.id()).thenReturn(factoryId);
         when(mockedFactories.configureFactoryRepo(eq(region), any())).thenReturn(mockedFactory);
 
@@ -206,9 +309,8 @@ public class DataFactoryClientTest {
         var mockedFactories = mock(Factories.class);
         var mockedFactoryRepoConfiguration = mock(FactoryRepoConfiguration.class);
         when(manager.factories()).thenReturn(mockedFactories);
-        when(mockedFactories.listByResourceGroup(resourceGroup)).thenReturn(singleFactories(mockedFactory));
+        when(mockedFactories.getByResourceGroup(resourceGroup, name)).thenReturn(mockedFactory);
         when(mockedFactory.repoConfiguration()).thenReturn(mockedFactoryRepoConfiguration);
-        when(mockedFactory.name()).thenReturn(name);
 
         var actualRes = dataFactoryClient.linkGitRepository(resourceGroup, region, name, config);
 
@@ -221,9 +323,8 @@ public class DataFactoryClientTest {
         var mockedFactory = mock(Factory.class);
         var mockedFactories = mock(Factories.class);
         when(manager.factories()).thenReturn(mockedFactories);
-        when(mockedFactories.listByResourceGroup(resourceGroup)).thenReturn(singleFactories(mockedFactory));
+        when(mockedFactories.getByResourceGroup(resourceGroup, name)).thenReturn(mockedFactory);
         when(mockedFactory.repoConfiguration()).thenReturn(null);
-        when(mockedFactory.name()).thenReturn(name);
         when(mockedFactory.id()).thenReturn(factoryId);
         String expectedDesc =
                 "An error occurred while linking the Git repository to ADF 'a-name' on resource group a-resourceGroup. Please try again and if the error persists contact the platform team. Details: Error";
@@ -239,4 +340,126 @@ public class DataFactoryClientTest {
             assertEquals(ex, p.cause().get());
         });
     }
+
+    private TriggerResource trigger(String triggerName, TriggerRuntimeState state) {
+        var trigger = mock(TriggerResource.class);
+        var properties = mock(Trigger.class);
+        when(trigger.properties()).thenReturn(properties);
+        when(properties.runtimeState()).thenReturn(state);
+        if (state == TriggerRuntimeState.STARTED) when(trigger.name()).thenReturn(triggerName);
+        return trigger;
+    }
+
+    @Test
+    public void testDeployObject() {
+        var pipeline = mock(HttpPipeline.class);
+        var response = mock(HttpResponse.class);
+        when(manager.serviceClient().getEndpoint()).thenReturn("https://management.azure.com/");
+        when(manager.serviceClient().getSubscriptionId()).thenReturn("sub");
+        when(manager.serviceClient().getApiVersion()).thenReturn("2018-06-01");
+        when(manager.serviceClient().getHttpPipeline()).thenReturn(pipeline);
+        when(pipeline.send(any(HttpRequest.class), eq(Context.NONE))).thenReturn(Mono.just(response));
+        when(response.getStatusCode()).thenReturn(200);
+
+        var actualRes = dataFactoryClient
+                .deployObjectAsync(resourceGroup, name, "pipelines/pl1", "{\"properties\":{}}")
+                .join();
+
+        assertTrue(actualRes.isRight());
+        var request = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(pipeline).send(request.capture(), eq(Context.NONE));
+        assertEquals(HttpMethod.PUT, request.getValue().getHttpMethod());
+        assertEquals(
+                "https://management.azure.com/subscriptions/sub/resourceGroups/a-resourceGroup/providers/Microsoft.DataFactory/factories/a-name/pipelines/pl1?api-version=2018-06-01",
+                request.getValue().getUrl().toString());
+    }
+
+    @Test
+    public void testDeployObjectReturnError() {
+        var pipeline = mock(HttpPipeline.class);
+        var response = mock(HttpResponse.class);
+        when(manager.serviceClient().getEndpoint()).thenReturn("https://management.azure.com");
+        when(manager.serviceClient().getHttpPipeline()).thenReturn(pipeline);
+        when(pipeline.send(any(HttpRequest.class), eq(Context.NONE))).thenReturn(Mono.just(response));
+        when(response.getStatusCode()).thenReturn(400);
+        when(response.getBodyAsString()).thenReturn(Mono.just("BadRequest"));
+        String expectedDesc =
+                "An error occurred while deploying 'pipelines/pl1' to ADF 'a-name' on resource group a-resourceGroup. Details: HTTP 400 BadRequest";
+
+        var actualRes = dataFactoryClient
+                .deployObjectAsync(resourceGroup, name, "pipelines/pl1", "{}")
+                .join();
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(expectedDesc, actualRes.getLeft().problems().get(0).description());
+    }
+
+    @Test
+    public void testDeployObjectTransportError() {
+        var pipeline = mock(HttpPipeline.class);
+        when(manager.serviceClient().getEndpoint()).thenReturn("https://management.azure.com");
+        when(manager.serviceClient().getHttpPipeline()).thenReturn(pipeline);
+        when(pipeline.send(any(HttpRequest.class), eq(Context.NONE)))
+                .thenReturn(Mono.error(new IllegalStateException("Connection reset")));
+        String expectedDesc =
+                "An error occurred while deploying 'pipelines/pl1' to ADF 'a-name' on resource group a-resourceGroup. Please try again and if the error persists contact the platform team. Details: Connection reset";
+
+        var actualRes = dataFactoryClient
+                .deployObjectAsync(resourceGroup, name, "pipelines/pl1", "{}")
+                .join();
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(expectedDesc, actualRes.getLeft().problems().get(0).description());
+    }
+
+    @Test
+    public void testDeleteObjectReturnError() {
+        var pipeline = mock(HttpPipeline.class);
+        var response = mock(HttpResponse.class);
+        when(manager.serviceClient().getEndpoint()).thenReturn("https://management.azure.com");
+        when(manager.serviceClient().getHttpPipeline()).thenReturn(pipeline);
+        when(pipeline.send(any(HttpRequest.class), eq(Context.NONE))).thenReturn(Mono.just(response));
+        when(response.getStatusCode()).thenReturn(400);
+        when(response.getBodyAsString()).thenReturn(Mono.just("BadRequest"));
+        String expectedDesc =
+                "An error occurred while deleting 'pipelines/pl1' from ADF 'a-name' on resource group a-resourceGroup. Details: HTTP 400 BadRequest";
+
+        var actualRes = dataFactoryClient
+                .deleteObjectAsync(resourceGroup, name, "pipelines/pl1")
+                .join();
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(expectedDesc, actualRes.getLeft().problems().get(0).description());
+        var request = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(pipeline).send(request.capture(), eq(Context.NONE));
+        assertEquals(HttpMethod.DELETE, request.getValue().getHttpMethod());
+    }
+
+    @Test
+    public void testListStartedTriggers() {
+        var started = trigger("tr1", TriggerRuntimeState.STARTED);
+        var stopped = trigger("tr2", TriggerRuntimeState.STOPPED);
+        HttpRequest request = new HttpRequest(HttpMethod.GET, "http://localhost");
+        when(manager.triggers().listByFactory(resourceGroup, name))
+                .thenReturn(new PagedIterable<>(pageSize -> new PagedResponseBase<>(
+                        request, 200, new HttpHeaders(), List.of(started, stopped), null, null)));
+
+        var actualRes = dataFactoryClient.listStartedTriggers(resourceGroup, name);
+
+        assertTrue(actualRes.isRight());
+        assertEquals(Set.of("tr1"), actualRes.get());
+    }
+
+    @Test
+    public void testStopTriggerReturnError() {
+        var triggers = manager.triggers();
+        doThrow(ex).when(triggers).stop(resourceGroup, name, "tr1");
+        String expectedDesc =
+                "An error occurred while stopping the trigger 'tr1' of ADF 'a-name' on resource group a-resourceGroup. Please try again and if the error persists contact the platform team. Details: Error";
+
+        var actualRes = dataFactoryClient.stopTrigger(resourceGroup, name, "tr1");
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(expectedDesc, actualRes.getLeft().problems().get(0).description());
+    }
 }
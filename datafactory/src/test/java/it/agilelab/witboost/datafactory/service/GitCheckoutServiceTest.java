@@ -0,0 +1,146 @@
+package it.agilelab.witboost.datafactory.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import it.agilelab.witboost.datafactory.config.AzureGitConfig;
+import it.agilelab.witboost.datafactory.config.GitMirrorConfig;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.StreamSupport;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.util.unit.DataSize;
+
+public class GitCheckoutServiceTest {
+
+    @TempDir
+    private Path directory;
+
+    private final AzureGitCloneCommandService azureGitCloneCommandService = new AzureGitCloneCommandService(
+            new AzureGitConfig("username", "password", "", "", "", "", "", true, false, List.of()));
+
+    @Test
+    public void testCheckoutCreatesMirror() throws Exception {
+        var origin = createOrigin("origin", "pipeline.json");
+        var service = newService(true, DataSize.ofMegabytes(100));
+
+        var actualRes = service.checkout(origin, directory.resolve("checkout").toFile());
+
+        assertTrue(actualRes.isRight());
+        assertTrue(Files.exists(directory.resolve("checkout").resolve("pipeline.json")));
+        assertTrue(Files.exists(mirrorOf(origin).resolve("HEAD")));
+    }
+
+    @Test
+    public void testCheckoutFetchesUpdates() throws Exception {
+        var origin = createOrigin("origin", "pipeline.json");
+        var service = newService(true, DataSize.ofMegabytes(100));
+        service.checkout(origin, directory.resolve("first").toFile());
+        commit(directory.resolve("origin"), "dataset.json");
+
+        var actualRes = service.checkout(origin, directory.resolve("second").toFile());
+
+        assertTrue(actualRes.isRight());
+        assertTrue(Files.exists(directory.resolve("second").resolve("dataset.json")));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedMirrorIsEvicted() throws Exception {
+        var first = createOrigin("first-origin", "pipeline.json");
+        var second = createOrigin("second-origin", "pipeline.json");
+        var service = newService(true, DataSize.ofBytes(1));
+
+        service.checkout(first, directory.resolve("first").toFile());
+        service.checkout(second, directory.resolve("second").toFile());
+
+        assertFalse(Files.exists(mirrorOf(first)));
+        assertTrue(Files.exists(mirrorOf(second)));
+    }
+
+    @Test
+    public void testCheckoutWithoutMirror() throws Exception {
+        var origin = createOrigin("origin", "pipeline.json");
+        var service = newService(false, DataSize.ofMegabytes(100));
+
+        var actualRes = service.checkout(origin, directory.resolve("checkout").toFile());
+
+        assertTrue(actualRes.isRight());
+        assertTrue(Files.exists(directory.resolve("checkout").resolve("pipeline.json")));
+        assertFalse(Files.exists(directory.resolve("mirrors")));
+    }
+
+    @Test
+    public void testCheckoutUnknownRepository() {
+        var service = newService(true, DataSize.ofMegabytes(100));
+        var origin = directory.resolve("missing").toUri().toString();
+
+        var actualRes = service.checkout(origin, directory.resolve("checkout").toFile());
+
+        assertTrue(actualRes.isLeft());
+        assertFalse(Files.exists(mirrorOf(origin)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testShallowSparseCheckout(boolean mirrorEnabled) throws Exception {
+        var origin = createOrigin("origin", "pipeline/pipeline.json");
+        commit(directory.resolve("origin"), "docs/readme.md");
+        var sparseCloneCommandService = new AzureGitCloneCommandService(
+                new AzureGitConfig("username", "password", "", "", "", "", "", true, true, List.of("pipeline")));
+        var service = new GitCheckoutService(
+                new GitMirrorConfig(mirrorEnabled, directory.resolve("mirrors").toString(), DataSize.ofMegabytes(100)),
+                sparseCloneCommandService,
+                new GitRepositoryService());
+        var checkout = directory.resolve("checkout");
+
+        var actualRes = service.checkout(origin, checkout.toFile());
+
+        assertTrue(actualRes.isRight());
+        assertTrue(Files.exists(checkout.resolve("pipeline").resolve("pipeline.json")));
+        assertFalse(Files.exists(checkout.resolve("docs")));
+        try (var git = Git.open(checkout.toFile())) {
+            assertEquals(
+                    1,
+                    StreamSupport.stream(git.log().call().spliterator(), false).count());
+        }
+    }
+
+    private GitCheckoutService newService(boolean enabled, DataSize maxSize) {
+        return new GitCheckoutService(
+                new GitMirrorConfig(enabled, directory.resolve("mirrors").toString(), maxSize),
+                azureGitCloneCommandService,
+                new GitRepositoryService());
+    }
+
+    private Path mirrorOf(String repoURI) {
+        return directory.resolve("mirrors").resolve(DigestUtils.sha256Hex(repoURI));
+    }
+
+    private String createOrigin(String name, String fileName) throws GitAPIException, IOException {
+        var path = directory.resolve(name);
+        Git.init().setDirectory(path.toFile()).call().close();
+        commit(path, fileName);
+        return path.toUri().toString();
+    }
+
+    private void commit(Path repository, String fileName) throws GitAPIException, IOException {
+        Files.createDirectories(repository.resolve(fileName).getParent());
+        Files.writeString(repository.resolve(fileName), "{}");
+        try (var git = Git.open(repository.toFile())) {
+            git.add().addFilepattern(fileName).call();
+            git.commit()
+                    .setMessage("Add " + fileName)
+                    .setAuthor("test", "test@example.com")
+                    .setCommitter("test", "test@example.com")
+                    .setSign(false)
+                    .call();
+        }
+    }
+}
@@ -4,12 +4,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.RefNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -50,4 +52,48 @@ public class GitRepositoryServiceTest {
             assertEquals(ex, p.cause().get());
         });
     }
+
+    @Test
+    public void testHeadCommitOk(@TempDir File directory) throws GitAPIException {
+        String commitId;
+        try (var repository = Git.init().setDirectory(directory).call()) {
+            commitId = repository
+                    .commit()
+                    .setMessage("first")
+                    .setAllowEmpty(true)
+                    .setSign(false)
+                    .call()
+                    .name();
+        }
+
+        var actualRes = gitRepositoryService.headCommit(directory);
+
+        assertTrue(actualRes.isRight());
+        assertEquals(commitId, actualRes.get());
+    }
+
+    @Test
+    public void testHeadCommitNoCommits(@TempDir File directory) throws GitAPIException {
+        Git.init().setDirectory(directory).call().close();
+
+        var actualRes = gitRepositoryService.headCommit(directory);
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(
+                "The GIT repository has no HEAD commit",
+                actualRes.getLeft().problems().get(0).description());
+    }
+
+    @Test
+    public void testHeadCommitNotARepository(@TempDir File directory) {
+        var actualRes = gitRepositoryService.headCommit(directory);
+
+        assertTrue(actualRes.isLeft());
+        assertTrue(actualRes
+                .getLeft()
+                .problems()
+                .get(0)
+                .description()
+                .startsWith("An error occurred while reading the HEAD commit of the GIT repository"));
+    }
 }
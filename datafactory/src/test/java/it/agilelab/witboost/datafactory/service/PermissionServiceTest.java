@@ -20,6 +20,7 @@ import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
 
 @ExtendWith(MockitoExtension.class)
 public class PermissionServiceTest {
@@ -52,8 +53,8 @@ public class PermissionServiceTest {
                         .forObjectId(argThat(objectIds::contains))
                         .withBuiltInRole(BuiltInRole.CONTRIBUTOR)
                         .withScope(scope)
-                        .create())
-                .thenReturn(mockedRoleAssignment);
+                        .createAsync())
+                .thenReturn(Mono.just(mockedRoleAssignment));
         String customRoleDefinitionId = "customRoleDefinitionId";
         var customRoleIds = objectIds.stream()
                 .map(o -> UUID.nameUUIDFromBytes((o + customRoleDefinitionId + scope).getBytes())
@@ -67,10 +68,11 @@ public class PermissionServiceTest {
                         .forObjectId(argThat(objectIds::contains))
                         .withRoleDefinition(customRoleDefinitionId)
                         .withScope(scope)
-                        .create())
-                .thenReturn(mockedRoleAssignment);
+                        .createAsync())
+                .thenReturn(Mono.just(mockedRoleAssignment));
 
-        var actualRes = permissionService.assignOwnerPermissions(objectIds, scope);
+        var actualRes =
+                permissionService.assignOwnerPermissionsAsync(objectIds, scope).join();
 
         assertTrue(actualRes.isRight());
     }
@@ -84,13 +86,14 @@ public class PermissionServiceTest {
                         .forObjectId(argThat(objectIds::contains))
                         .withBuiltInRole(BuiltInRole.CONTRIBUTOR)
                         .withScope(scope)
-                        .create())
-                .thenThrow(ex);
+                        .createAsync())
+                .thenReturn(Mono.error(ex));
         String expectedDesc = String.format(
                 "An error occurred while assigning owner permissions to %s on scope %s. Please try again and if the error persists contact the platform team. Details: Unexpected error",
                 objectIds, scope);
 
-        var actualRes = permissionService.assignOwnerPermissions(objectIds, scope);
+        var actualRes =
+                permissionService.assignOwnerPermissionsAsync(objectIds, scope).join();
 
         assertTrue(actualRes.isLeft());
         assertEquals(1, actualRes.getLeft().problems().size());
@@ -110,10 +113,11 @@ public class PermissionServiceTest {
                         .forObjectId(argThat(objectIds::contains))
                         .withBuiltInRole(BuiltInRole.READER)
                         .withScope(scope)
-                        .create())
-                .thenReturn(mockedRoleAssignment);
+                        .createAsync())
+                .thenReturn(Mono.just(mockedRoleAssignment));
 
-        var actualRes = permissionService.assignReaderPermissions(objectIds, scope);
+        var actualRes =
+                permissionService.assignReaderPermissionsAsync(objectIds, scope).join();
 
         assertTrue(actualRes.isRight());
     }
@@ -127,13 +131,14 @@ public class PermissionServiceTest {
                         .forObjectId(argThat(objectIds::contains))
                         .withBuiltInRole(BuiltInRole.READER)
                         .withScope(scope)
-                        .create())
-                .thenThrow(ex);
+                        .createAsync())
+                .thenReturn(Mono.error(ex));
         String expectedDesc = String.format(
                 "An error occurred while assigning reader permissions to %s on scope %s. Please try again and if the error persists contact the platform team. Details: Unexpected error",
                 objectIds, scope);
 
-        var actualRes = permissionService.assignReaderPermissions(objectIds, scope);
+        var actualRes =
+                permissionService.assignReaderPermissionsAsync(objectIds, scope).join();
 
         assertTrue(actualRes.isLeft());
         assertEquals(1, actualRes.getLeft().problems().size());
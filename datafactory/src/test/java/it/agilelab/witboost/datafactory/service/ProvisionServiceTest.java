@@ -5,24 +5,32 @@ import static io.vavr.control.Either.right;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import io.vavr.control.Option;
 import it.agilelab.witboost.datafactory.common.FailedOperation;
 import it.agilelab.witboost.datafactory.common.Problem;
 import it.agilelab.witboost.datafactory.config.AzureGitConfig;
 import it.agilelab.witboost.datafactory.config.MiscConfig;
 import it.agilelab.witboost.datafactory.model.*;
 import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.datafactory.service.powershell.ScriptResult;
 import it.agilelab.witboost.datafactory.service.provision.ProvisionServiceImpl;
+import it.agilelab.witboost.datafactory.service.publish.DeploymentStateStore;
+import it.agilelab.witboost.datafactory.service.task.TaskProgressListener;
 import it.agilelab.witboost.datafactory.service.validation.ValidationService;
+import it.agilelab.witboost.datafactory.service.workspace.Workspace;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import org.eclipse.jgit.api.CloneCommand;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -36,10 +44,7 @@ public class ProvisionServiceTest {
     private PrincipalMappingService principalMappingService;
 
     @Mock
-    private AzureGitCloneCommandService azureGitCloneCommandService;
-
-    @Mock
-    private GitRepositoryService gitRepositoryService;
+    private GitCheckoutService gitCheckoutService;
 
     @Mock
     private DataFactoryClient dataFactoryClient;
@@ -50,24 +55,41 @@ public class ProvisionServiceTest {
     @Mock
     private ADFToolsWrapperService adfToolsWrapperService;
 
+    @Mock
+    private DeploymentStateStore deploymentStateStore;
+
     @Mock
     private AzureGitConfig azureGitConfig;
 
     @Mock
     private MiscConfig miscConfig;
 
-    @InjectMocks
     private ProvisionServiceImpl provisionService;
 
-    @Mock
-    private CloneCommand cloneCommand;
-
     private final ProvisioningRequest provisioningRequest = new ProvisioningRequest();
 
     private final WorkloadSpecific specific;
     private final Workload<WorkloadSpecific> workload;
     private final String expectedDesc = "Error";
     private final FailedOperation failedOperation = new FailedOperation(List.of(new Problem(expectedDesc)));
+    private final ScriptResult publishResult =
+            new ScriptResult(Option.some(ScriptResult.STATUS_OK), Option.none(), List.of(), List.of(), 0, 0);
+
+    @BeforeEach
+    public void setUp() {
+        // Steps run on the calling thread, so that their order is deterministic
+        provisionService = new ProvisionServiceImpl(
+                validationService,
+                principalMappingService,
+                gitCheckoutService,
+                dataFactoryClient,
+                permissionService,
+                adfToolsWrapperService,
+                deploymentStateStore,
+                azureGitConfig,
+                miscConfig,
+                Runnable::run);
+    }
 
     public ProvisionServiceTest() {
         specific = new WorkloadSpecific();
@@ -85,20 +107,24 @@ public class ProvisionServiceTest {
         String adfUrl = "https://adf.azure.com/en/home?factory=instanceId";
         String userId = UUID.randomUUID().toString();
         String groupId = UUID.randomUUID().toString();
-        when(validationService.validate(provisioningRequest)).thenReturn(right(provisionRequest));
+        when(validationService.parse(provisioningRequest)).thenReturn(right(provisionRequest));
+        when(validationService.validate(eq(provisioningRequest), any(Workspace.class)))
+                .thenReturn(right(provisionRequest));
         when(miscConfig.developmentEnvironmentName()).thenReturn("development");
-        when(azureGitCloneCommandService.build(eq(specific.getGitRepo()), any()))
-                .thenReturn(cloneCommand);
-        when(gitRepositoryService.clone(cloneCommand)).thenReturn(right(null));
-        when(dataFactoryClient.createADF(specific.getResourceGroup(), specific.getRegion(), adfName))
-                .thenReturn(right(adfInstanceId));
+        when(gitCheckoutService.checkout(eq(specific.getGitRepo()), any())).thenReturn(right(null));
+        // The factory is created: the state of a previous factory with the same name is discarded
+        when(dataFactoryClient.createADF(eq(specific.getResourceGroup()), eq(specific.getRegion()), eq(adfName), any()))
+                .thenAnswer(invocation -> {
+                    invocation.<Runnable>getArgument(3).run();
+                    return right(adfInstanceId);
+                });
         when(dataFactoryClient.linkGitRepository(
                         eq(specific.getResourceGroup()), eq(specific.getRegion()), eq(adfName), any()))
                 .thenReturn(right(null));
         when(principalMappingService.map(Set.of("user:name.surname_email.com", "group:group1")))
                 .thenReturn(Map.of("user:name.surname_email.com", right(userId), "group:group1", right(groupId)));
-        when(permissionService.assignOwnerPermissions(Set.of(userId, groupId), adfInstanceId))
-                .thenReturn(right(null));
+        when(permissionService.assignOwnerPermissionsAsync(Set.of(userId, groupId), adfInstanceId))
+                .thenReturn(CompletableFuture.completedFuture(right(null)));
         when(adfToolsWrapperService.publish(
                         anyString(),
                         eq(specific.getResourceGroup()),
@@ -106,13 +132,14 @@ public class ProvisionServiceTest {
                         eq(specific.getRegion()),
                         eq(provisionRequest.dataProduct().getEnvironment()),
                         eq(true)))
-                .thenReturn(right(null));
+                .thenReturn(right(publishResult));
         var expectedAdfInfo = new ADFInfo(adfName, adfInstanceId, adfUrl);
 
         var actualRes = provisionService.provision(provisioningRequest);
 
         assertTrue(actualRes.isRight());
         assertEquals(expectedAdfInfo, actualRes.get());
+        verify(deploymentStateStore).remove(specific.getResourceGroup(), adfName);
     }
 
     @Test
@@ -124,17 +151,17 @@ public class ProvisionServiceTest {
         String adfUrl = "https://adf.azure.com/en/home?factory=instanceId";
         String userId = UUID.randomUUID().toString();
         String groupId = UUID.randomUUID().toString();
-        when(validationService.validate(provisioningRequest)).thenReturn(right(provisionRequest));
+        when(validationService.parse(provisioningRequest)).thenReturn(right(provisionRequest));
+        when(validationService.validate(eq(provisioningRequest), any(Workspace.class)))
+                .thenReturn(right(provisionRequest));
         when(miscConfig.developmentEnvironmentName()).thenReturn("development");
-        when(azureGitCloneCommandService.build(eq(specific.getGitRepo()), any()))
-                .thenReturn(cloneCommand);
-        when(gitRepositoryService.clone(cloneCommand)).thenReturn(right(null));
-        when(dataFactoryClient.createADF(specific.getResourceGroup(), specific.getRegion(), adfName))
+        when(gitCheckoutService.checkout(eq(specific.getGitRepo()), any())).thenReturn(right(null));
+        when(dataFactoryClient.createADF(eq(specific.getResourceGroup()), eq(specific.getRegion()), eq(adfName), any()))
                 .thenReturn(right(adfInstanceId));
         when(principalMappingService.map(Set.of("user:name.surname_email.com", "group:group1")))
                 .thenReturn(Map.of("user:name.surname_email.com", right(userId), "group:group1", right(groupId)));
-        when(permissionService.assignReaderPermissions(Set.of(userId, groupId), adfInstanceId))
-                .thenReturn(right(null));
+        when(permissionService.assignReaderPermissionsAsync(Set.of(userId, groupId), adfInstanceId))
+                .thenReturn(CompletableFuture.completedFuture(right(null)));
         when(adfToolsWrapperService.publish(
                         anyString(),
                         eq(specific.getResourceGroup()),
@@ -142,7 +169,7 @@ public class ProvisionServiceTest {
                         eq(specific.getRegion()),
                         eq(provisionRequest.dataProduct().getEnvironment()),
                         eq(false)))
-                .thenReturn(right(null));
+                .thenReturn(right(publishResult));
         var expectedAdfInfo = new ADFInfo(adfName, adfInstanceId, adfUrl);
 
         var actualRes = provisionService.provision(provisioningRequest);
@@ -151,22 +178,101 @@ public class ProvisionServiceTest {
         assertEquals(expectedAdfInfo, actualRes.get());
     }
 
+    @Test
+    public void testProvisionResumeSkipsCompletedSteps() {
+        DataProduct dp = getDP("prod");
+        var provisionRequest = new ProvisionRequest<>(dp, workload, false);
+        String adfName = "mydomain-dpname-0-prod-8a5e";
+        String adfInstanceId = "instanceId";
+        String adfUrl = "https://adf.azure.com/en/home?factory=instanceId";
+        Map<String, String> completedSteps = Map.of("createDataFactory", adfInstanceId, "assignPermissions", "");
+        TaskProgressListener listener = new TaskProgressListener() {
+            @Override
+            public void onProgress(String phase, String message) {}
+
+            @Override
+            public Option<String> getCompletedStep(String step) {
+                return Option.of(completedSteps.get(step));
+            }
+        };
+        when(validationService.parse(provisioningRequest)).thenReturn(right(provisionRequest));
+        when(validationService.validate(eq(provisioningRequest), any(Workspace.class)))
+                .thenReturn(right(provisionRequest));
+        when(miscConfig.developmentEnvironmentName()).thenReturn("development");
+        when(gitCheckoutService.checkout(eq(specific.getGitRepo()), any())).thenReturn(right(null));
+        when(adfToolsWrapperService.publish(
+                        anyString(),
+                        eq(specific.getResourceGroup()),
+                        eq(adfName),
+                        eq(specific.getRegion()),
+                        eq(provisionRequest.dataProduct().getEnvironment()),
+                        eq(false)))
+                .thenReturn(right(publishResult));
+        var expectedAdfInfo = new ADFInfo(adfName, adfInstanceId, adfUrl);
+
+        var actualRes = provisionService.provision(provisioningRequest, listener);
+
+        assertTrue(actualRes.isRight());
+        assertEquals(expectedAdfInfo, actualRes.get());
+        verifyNoInteractions(dataFactoryClient, principalMappingService, permissionService);
+    }
+
+    @Test
+    public void testProvisionReusesValidationCheckout() {
+        DataProduct dp = getDP("prod");
+        var provisionRequest = new ProvisionRequest<>(dp, workload, false);
+        String adfName = "mydomain-dpname-0-prod-8a5e";
+        String adfInstanceId = "instanceId";
+        when(validationService.parse(provisioningRequest)).thenReturn(right(provisionRequest));
+        when(validationService.validate(eq(provisioningRequest), any(Workspace.class)))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(1, Workspace.class).markCheckedOut();
+                    return right(provisionRequest);
+                });
+        when(miscConfig.developmentEnvironmentName()).thenReturn("development");
+        when(dataFactoryClient.createADF(eq(specific.getResourceGroup()), eq(specific.getRegion()), eq(adfName), any()))
+                .thenReturn(right(adfInstanceId));
+        when(principalMappingService.map(Set.of("user:name.surname_email.com", "group:group1")))
+                .thenReturn(Map.of("user:name.surname_email.com", right("userId"), "group:group1", right("groupId")));
+        when(permissionService.assignReaderPermissionsAsync(Set.of("userId", "groupId"), adfInstanceId))
+                .thenReturn(CompletableFuture.completedFuture(right(null)));
+        when(adfToolsWrapperService.publish(
+                        anyString(),
+                        eq(specific.getResourceGroup()),
+                        eq(adfName),
+                        eq(specific.getRegion()),
+                        eq(provisionRequest.dataProduct().getEnvironment()),
+                        eq(false)))
+                .thenReturn(right(publishResult));
+
+        var actualRes = provisionService.provision(provisioningRequest);
+
+        assertTrue(actualRes.isRight());
+        verifyNoInteractions(gitCheckoutService);
+    }
+
     @Test
     public void testUnprovisionOk() {
         DataProduct dp = getDP("development");
         var provisionRequest = new ProvisionRequest<>(dp, workload, false);
         String adfName = "mydomain-dpname-0-developmen-1e25";
+        when(validationService.parse(provisioningRequest)).thenReturn(right(provisionRequest));
         when(validationService.validate(provisioningRequest)).thenReturn(right(provisionRequest));
-        when(dataFactoryClient.deleteADF(specific.getResourceGroup(), adfName)).thenReturn(right(null));
+        when(dataFactoryClient.deleteADFAsync(eq(specific.getResourceGroup()), eq(adfName), any()))
+                .thenReturn(CompletableFuture.completedFuture(right(null)));
 
-        var actualRes = provisionService.unprovision(provisioningRequest);
+        var actualRes = provisionService.unprovision(provisioningRequest).join();
 
         assertTrue(actualRes.isRight());
+        verify(deploymentStateStore).remove(specific.getResourceGroup(), adfName);
     }
 
     @Test
     public void testProvisionValidationKo() {
-        when(validationService.validate(provisioningRequest)).thenReturn(left(failedOperation));
+        when(validationService.parse(provisioningRequest))
+                .thenReturn(right(new ProvisionRequest<>(getDP("development"), workload, false)));
+        when(validationService.validate(eq(provisioningRequest), any(Workspace.class)))
+                .thenReturn(left(failedOperation));
 
         var actualRes = provisionService.provision(provisioningRequest);
 
@@ -178,11 +284,24 @@ public class ProvisionServiceTest {
         });
     }
 
+    @Test
+    public void testProvisionMalformedDescriptorSkipsValidation() {
+        when(validationService.parse(provisioningRequest)).thenReturn(left(failedOperation));
+
+        var actualRes = provisionService.provision(provisioningRequest);
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(failedOperation, actualRes.getLeft());
+        verify(validationService, never()).validate(eq(provisioningRequest), any(Workspace.class));
+    }
+
     @Test
     public void testUnprovisionValidationKo() {
+        when(validationService.parse(provisioningRequest))
+                .thenReturn(right(new ProvisionRequest<>(getDP("development"), workload, false)));
         when(validationService.validate(provisioningRequest)).thenReturn(left(failedOperation));
 
-        var actualRes = provisionService.unprovision(provisioningRequest);
+        var actualRes = provisionService.unprovision(provisioningRequest).join();
 
         assertTrue(actualRes.isLeft());
         assertEquals(1, actualRes.getLeft().problems().size());
@@ -197,10 +316,12 @@ public class ProvisionServiceTest {
         DataProduct dp = getDP("development");
         var provisionRequest = new ProvisionRequest<>(dp, workload, false);
         String adfName = "mydomain-dpname-0-developmen-1e25";
+        when(validationService.parse(provisioningRequest)).thenReturn(right(provisionRequest));
         when(validationService.validate(provisioningRequest)).thenReturn(right(provisionRequest));
-        when(dataFactoryClient.deleteADF(specific.getResourceGroup(), adfName)).thenReturn(left(failedOperation));
+        when(dataFactoryClient.deleteADFAsync(eq(specific.getResourceGroup()), eq(adfName), any()))
+                .thenReturn(CompletableFuture.completedFuture(left(failedOperation)));
 
-        var actualRes = provisionService.unprovision(provisioningRequest);
+        var actualRes = provisionService.unprovision(provisioningRequest).join();
 
         assertTrue(actualRes.isLeft());
         assertEquals(1, actualRes.getLeft().problems().size());
@@ -217,12 +338,12 @@ public class ProvisionServiceTest {
         String adfName = "mydomain-dpname-0-developmen-1e25";
         String adfInstanceId = "instanceId";
         String userId = UUID.randomUUID().toString();
-        when(validationService.validate(provisioningRequest)).thenReturn(right(provisionRequest));
+        when(validationService.parse(provisioningRequest)).thenReturn(right(provisionRequest));
+        when(validationService.validate(eq(provisioningRequest), any(Workspace.class)))
+                .thenReturn(right(provisionRequest));
         when(miscConfig.developmentEnvironmentName()).thenReturn("development");
-        when(azureGitCloneCommandService.build(eq(specific.getGitRepo()), any()))
-                .thenReturn(cloneCommand);
-        when(gitRepositoryService.clone(cloneCommand)).thenReturn(right(null));
-        when(dataFactoryClient.createADF(specific.getResourceGroup(), specific.getRegion(), adfName))
+        when(gitCheckoutService.checkout(eq(specific.getGitRepo()), any())).thenReturn(right(null));
+        when(dataFactoryClient.createADF(eq(specific.getResourceGroup()), eq(specific.getRegion()), eq(adfName), any()))
                 .thenReturn(right(adfInstanceId));
         when(dataFactoryClient.linkGitRepository(
                         eq(specific.getResourceGroup()), eq(specific.getRegion()), eq(adfName), any()))
@@ -241,6 +362,32 @@ public class ProvisionServiceTest {
         });
     }
 
+    @Test
+    public void testProvisionAggregatesFailuresOfParallelSteps() {
+        DataProduct dp = getDP("prod");
+        var provisionRequest = new ProvisionRequest<>(dp, workload, false);
+        var cloneFailure = new FailedOperation(List.of(new Problem("Clone error")));
+        when(validationService.parse(provisioningRequest)).thenReturn(right(provisionRequest));
+        when(validationService.validate(eq(provisioningRequest), any(Workspace.class)))
+                .thenReturn(right(provisionRequest));
+        when(miscConfig.developmentEnvironmentName()).thenReturn("development");
+        when(gitCheckoutService.checkout(eq(specific.getGitRepo()), any())).thenReturn(left(cloneFailure));
+        when(principalMappingService.map(Set.of("user:name.surname_email.com", "group:group1")))
+                .thenReturn(
+                        Map.of("user:name.surname_email.com", right("userId"), "group:group1", left(failedOperation)));
+
+        var actualRes = provisionService.provision(provisioningRequest);
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(
+                List.of("Clone error", expectedDesc),
+                actualRes.getLeft().problems().stream()
+                        .map(Problem::description)
+                        .toList());
+        // Azure is left untouched when the checkout fails
+        verifyNoInteractions(dataFactoryClient, permissionService, adfToolsWrapperService);
+    }
+
     private DataProduct getDP(String env) {
         DataProduct dp = new DataProduct();
         dp.setName("dp name");
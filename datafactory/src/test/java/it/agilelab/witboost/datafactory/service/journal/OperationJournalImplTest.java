@@ -0,0 +1,92 @@
+package it.agilelab.witboost.datafactory.service.journal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.agilelab.witboost.datafactory.config.JournalConfig;
+import it.agilelab.witboost.datafactory.openapi.model.DescriptorKind;
+import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OperationJournalImplTest {
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ProvisioningRequest request =
+            new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "descriptor", false);
+
+    @Test
+    public void testPendingOperationsSurviveRestart() {
+        var journal = newJournal(100);
+        journal.recordSubmitted("token1", OperationType.PROVISION, request);
+        journal.recordStepCompleted("token1", "createDataFactory", "instanceId");
+        journal.recordSubmitted("token2", OperationType.UNPROVISION, request);
+        journal.recordCompleted("token2");
+
+        var pending = newJournal(100).pendingOperations();
+
+        assertEquals(1, pending.size());
+        var operation = pending.get(0);
+        assertEquals("token1", operation.token());
+        assertEquals(OperationType.PROVISION, operation.type());
+        assertEquals("descriptor", operation.request().getDescriptor());
+        assertEquals(Map.of("createDataFactory", "instanceId"), operation.completedSteps());
+    }
+
+    @Test
+    public void testCompactionKeepsOnlyPendingOperations() throws IOException {
+        var journal = newJournal(2);
+        journal.recordSubmitted("token1", OperationType.PROVISION, request);
+        journal.recordCompleted("token1");
+        journal.recordSubmitted("token2", OperationType.PROVISION, request);
+        journal.recordStepCompleted("token2", "publish", "");
+
+        assertEquals(0, Files.size(directory.resolve("journal.log")));
+        var pending = newJournal(2).pendingOperations();
+        assertEquals(1, pending.size());
+        assertEquals("token2", pending.get(0).token());
+        assertEquals(Map.of("publish", ""), pending.get(0).completedSteps());
+    }
+
+    @Test
+    public void testTruncatedEntryIsSkipped() throws IOException {
+        var journal = newJournal(100);
+        journal.recordSubmitted("token1", OperationType.PROVISION, request);
+        Files.writeString(
+                directory.resolve("journal.log"),
+                "{\"type\":\"COMPLETED\",\"tok",
+                StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        var pending = newJournal(100).pendingOperations();
+
+        assertEquals(1, pending.size());
+        assertEquals("token1", pending.get(0).token());
+    }
+
+    @Test
+    public void testDisabledJournalDoesNotWriteFiles() throws IOException {
+        var journal = new OperationJournalImpl(new JournalConfig(false, directory.toString(), 100), objectMapper);
+
+        journal.recordSubmitted("token1", OperationType.PROVISION, request);
+
+        assertEquals(1, journal.pendingOperations().size());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private OperationJournalImpl newJournal(int compactionThreshold) {
+        return new OperationJournalImpl(
+                new JournalConfig(true, directory.toString(), compactionThreshold), objectMapper);
+    }
+}
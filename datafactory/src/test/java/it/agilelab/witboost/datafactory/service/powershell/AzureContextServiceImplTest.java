@@ -0,0 +1,86 @@
+package it.agilelab.witboost.datafactory.service.powershell;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.credential.TokenRequestContext;
+import com.profesorfalken.jpowershell.PowerShell;
+import com.profesorfalken.jpowershell.PowerShellResponse;
+import it.agilelab.witboost.datafactory.config.AzureContextConfig;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class AzureContextServiceImplTest {
+
+    @Mock
+    private TokenCredential tokenCredential;
+
+    @Mock
+    private PowerShell session;
+
+    private AzureContextServiceImpl service;
+
+    @BeforeEach
+    public void setUp() {
+        service = new AzureContextServiceImpl(
+                tokenCredential, new AzureContextConfig(true, "tenant", "client", Duration.ofMinutes(5)));
+    }
+
+    @Test
+    public void testSessionAuthenticatedOnce() {
+        when(tokenCredential.getTokenSync(any(TokenRequestContext.class)))
+                .thenReturn(new AccessToken("token", OffsetDateTime.now().plusHours(1)));
+        when(session.executeCommand(contains("Connect-AzAccount -AccessToken 'token' -AccountId 'client'")))
+                .thenReturn(new PowerShellResponse(false, "AZ_CONTEXT_OK", false));
+
+        assertTrue(service.ensureAuthenticated(session).isRight());
+        assertTrue(service.ensureAuthenticated(session).isRight());
+
+        verify(session, times(1)).executeCommand(any());
+    }
+
+    @Test
+    public void testSessionAuthenticatedAgainBeforeExpiry() {
+        when(tokenCredential.getTokenSync(any(TokenRequestContext.class)))
+                .thenReturn(new AccessToken("token", OffsetDateTime.now().plusMinutes(2)));
+        when(session.executeCommand(any())).thenReturn(new PowerShellResponse(false, "AZ_CONTEXT_OK", false));
+
+        assertTrue(service.ensureAuthenticated(session).isRight());
+        assertTrue(service.ensureAuthenticated(session).isRight());
+
+        verify(session, times(2)).executeCommand(any());
+    }
+
+    @Test
+    public void testConnectFailure() {
+        when(tokenCredential.getTokenSync(any(TokenRequestContext.class)))
+                .thenReturn(new AccessToken("token", OffsetDateTime.now().plusHours(1)));
+        when(session.executeCommand(any())).thenReturn(new PowerShellResponse(false, "AZ_CONTEXT_KO", false));
+
+        var actualRes = service.ensureAuthenticated(session);
+
+        assertTrue(actualRes.isLeft());
+        assertTrue(actualRes.getLeft().problems().get(0).description().contains("Connect-AzAccount failed"));
+    }
+
+    @Test
+    public void testTokenFailure() {
+        when(tokenCredential.getTokenSync(any(TokenRequestContext.class))).thenThrow(new RuntimeException("no token"));
+
+        var actualRes = service.ensureAuthenticated(session);
+
+        assertTrue(actualRes.isLeft());
+        assertTrue(actualRes.getLeft().problems().get(0).description().endsWith("Details: no token"));
+        verifyNoInteractions(session);
+    }
+}
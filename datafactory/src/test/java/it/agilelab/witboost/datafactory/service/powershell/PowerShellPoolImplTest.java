@@ -0,0 +1,152 @@
+package it.agilelab.witboost.datafactory.service.powershell;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.profesorfalken.jpowershell.PowerShell;
+import com.profesorfalken.jpowershell.PowerShellNotAvailableException;
+import com.profesorfalken.jpowershell.PowerShellResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.agilelab.witboost.datafactory.config.PowerShellPoolConfig;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+@ExtendWith(MockitoExtension.class)
+public class PowerShellPoolImplTest {
+
+    @Mock
+    private ObjectProvider<PowerShell> sessionFactory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PowerShellPoolImpl pool;
+
+    @AfterEach
+    public void tearDown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    private PowerShellPoolImpl createPool(int size, int maxUses, List<String> warmupCommands) {
+        var config = new PowerShellPoolConfig(
+                size, 0, maxUses, Duration.ofMillis(100), Duration.ofMinutes(1), warmupCommands);
+        pool = new PowerShellPoolImpl(sessionFactory, config, meterRegistry);
+        return pool;
+    }
+
+    private PowerShell aliveSession() {
+        PowerShell powerShell = mock(PowerShell.class);
+        lenient().when(powerShell.isAlive()).thenReturn(true);
+        return powerShell;
+    }
+
+    @Test
+    public void testBorrowReusesSession() {
+        var session = aliveSession();
+        when(sessionFactory.getObject()).thenReturn(session);
+        createPool(1, 10, List.of());
+
+        try (var lease = pool.borrow()) {
+            assertSame(session, lease.session());
+        }
+        try (var lease = pool.borrow()) {
+            assertSame(session, lease.session());
+        }
+
+        verify(sessionFactory, times(1)).getObject();
+        assertEquals(1.0, meterRegistry.get("powershell.pool.created").counter().count());
+    }
+
+    @Test
+    public void testWarmupCommandsRunOnCreation() {
+        var session = aliveSession();
+        when(session.executeCommand("Import-Module Az.Accounts")).thenReturn(new PowerShellResponse(false, "", false));
+        when(sessionFactory.getObject()).thenReturn(session);
+        createPool(1, 10, List.of("Import-Module Az.Accounts"));
+
+        try (var ignored = pool.borrow()) {
+            verify(session).executeCommand("Import-Module Az.Accounts");
+        }
+    }
+
+    @Test
+    public void testSessionRecycledAfterMaxUses() {
+        var first = aliveSession();
+        var second = aliveSession();
+        when(sessionFactory.getObject()).thenReturn(first, second);
+        createPool(1, 1, List.of());
+
+        try (var lease = pool.borrow()) {
+            assertSame(first, lease.session());
+        }
+        verify(first, timeout(1000)).close();
+        try (var lease = pool.borrow()) {
+            assertSame(second, lease.session());
+            assertEquals(
+                    1.0,
+                    meterRegistry
+                            .get("powershell.pool.recycled")
+                            .tag("reason", "maxUses")
+                            .counter()
+                            .count());
+        }
+    }
+
+    @Test
+    public void testInvalidatedSessionIsDiscarded() {
+        var first = aliveSession();
+        var second = aliveSession();
+        when(sessionFactory.getObject()).thenReturn(first, second);
+        createPool(1, 10, List.of());
+
+        try (var lease = pool.borrow()) {
+            lease.invalidate();
+        }
+        try (var lease = pool.borrow()) {
+            assertSame(second, lease.session());
+        }
+
+        verify(first, timeout(1000)).close();
+    }
+
+    @Test
+    public void testDeadIdleSessionIsReplaced() {
+        var first = aliveSession();
+        var second = aliveSession();
+        when(sessionFactory.getObject()).thenReturn(first, second);
+        createPool(1, 10, List.of());
+
+        try (var ignored = pool.borrow()) {
+            when(first.isAlive()).thenReturn(false);
+        }
+        try (var lease = pool.borrow()) {
+            assertSame(second, lease.session());
+        }
+    }
+
+    @Test
+    public void testBorrowTimesOutWhenPoolIsExhausted() {
+        var session = aliveSession();
+        when(sessionFactory.getObject()).thenReturn(session);
+        createPool(1, 10, List.of());
+
+        try (var ignored = pool.borrow()) {
+            assertThrows(PowerShellNotAvailableException.class, () -> pool.borrow());
+        }
+        assertEquals(1.0, meterRegistry.get("powershell.pool.total").gauge().value());
+    }
+
+    @Test
+    public void testBorrowFailsAfterShutdown() {
+        createPool(1, 10, List.of());
+
+        pool.shutdown();
+
+        assertThrows(PowerShellNotAvailableException.class, () -> pool.borrow());
+    }
+}
@@ -0,0 +1,82 @@
+package it.agilelab.witboost.datafactory.service.powershell;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import it.agilelab.witboost.datafactory.config.ScriptRegistryConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+public class ScriptRegistryImplTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testScriptsWrittenAtStartupWithContentHash() throws IOException {
+        var registry = new ScriptRegistryImpl(new ScriptRegistryConfig(directory.toString()));
+        String hash;
+        try (InputStream inputStream = new ClassPathResource(ScriptRegistry.PUBLISH_SCRIPT).getInputStream()) {
+            hash = DigestUtils.sha256Hex(inputStream);
+        }
+
+        var actualRes = registry.path(ScriptRegistry.PUBLISH_SCRIPT);
+
+        assertTrue(actualRes.isRight());
+        assertEquals(directory.resolve("publish-" + hash + ".ps1"), actualRes.get());
+        assertEquals(hash, registry.fingerprint(ScriptRegistry.PUBLISH_SCRIPT));
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void testScriptWrittenAgainIfRemoved() throws IOException {
+        var registry = new ScriptRegistryImpl(new ScriptRegistryConfig(directory.toString()));
+        var path = registry.path(ScriptRegistry.VALIDATE_SCRIPT).get();
+        Files.delete(path);
+
+        var actualRes = registry.path(ScriptRegistry.VALIDATE_SCRIPT);
+
+        assertTrue(actualRes.isRight());
+        assertTrue(Files.isRegularFile(path));
+    }
+
+    @Test
+    public void testScriptWrittenAgainIfAltered() throws IOException {
+        var registry = new ScriptRegistryImpl(new ScriptRegistryConfig(directory.toString()));
+        var path = registry.path(ScriptRegistry.VALIDATE_SCRIPT).get();
+        var content = Files.readAllBytes(path);
+        Files.writeString(path, "Write-Output 'altered'");
+
+        var actualRes = registry.path(ScriptRegistry.VALIDATE_SCRIPT);
+
+        assertTrue(actualRes.isRight());
+        assertArrayEquals(content, Files.readAllBytes(path));
+    }
+
+    @Test
+    public void testDirectoryCreatedOwnerOnly() throws IOException {
+        var scripts = directory.resolve("scripts");
+        new ScriptRegistryImpl(new ScriptRegistryConfig(scripts.toString()));
+
+        assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(scripts));
+    }
+
+    @Test
+    public void testWriteError() throws IOException {
+        var file = Files.createFile(directory.resolve("file"));
+        var registry = new ScriptRegistryImpl(new ScriptRegistryConfig(file.toString()));
+
+        var actualRes = registry.path(ScriptRegistry.VALIDATE_SCRIPT);
+
+        assertTrue(actualRes.isLeft());
+        assertTrue(actualRes.getLeft().problems().get(0).description().contains("validate.ps1"));
+    }
+}
@@ -0,0 +1,71 @@
+package it.agilelab.witboost.datafactory.service.powershell;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vavr.control.Option;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ScriptResultCollectorTest {
+
+    private final List<String> otherLines = new ArrayList<>();
+    private final ScriptResultCollector collector = new ScriptResultCollector(new ObjectMapper(), otherLines::add);
+
+    @Test
+    public void testRecordsDecoded() {
+        collector.onLine("Publishing...");
+        collector.onLine("##WITBOOST## {\"type\":\"phase\",\"name\":\"publish\",\"durationMs\":1500}");
+        collector.onLine(
+                "##WITBOOST## {\"type\":\"object\",\"objectType\":\"pipeline\",\"name\":\"pl1\",\"status\":\"deployed\",\"durationMs\":20}");
+        collector.onLine("##WITBOOST## {\"type\":\"result\",\"status\":\"OK\"}");
+
+        var result = collector.result();
+
+        assertTrue(result.isReported());
+        assertTrue(result.isSucceeded());
+        assertEquals(List.of(new ScriptResult.PhaseTiming("publish", Duration.ofMillis(1500))), result.phases());
+        assertEquals(
+                List.of(new ScriptResult.ObjectResult(
+                        "pipeline", "pl1", "deployed", Option.some(Duration.ofMillis(20)), Option.none())),
+                result.objects());
+        assertEquals(List.of("Publishing..."), otherLines);
+    }
+
+    @Test
+    public void testValidationErrorsFailTheResult() {
+        collector.onLine("##WITBOOST## {\"type\":\"validation\",\"errorCount\":3,\"warningCount\":2}");
+        collector.onLine("##WITBOOST## {\"type\":\"result\",\"status\":\"OK\"}");
+
+        var result = collector.result();
+
+        assertFalse(result.isSucceeded());
+        assertEquals(3, result.errorCount());
+        assertEquals(2, result.warningCount());
+    }
+
+    @Test
+    public void testFailedObjectFailsTheResult() {
+        collector.onLine(
+                "##WITBOOST## {\"type\":\"object\",\"objectType\":\"dataset\",\"name\":\"ds1\",\"status\":\"failed\",\"error\":\"boom\"}");
+        collector.onLine("##WITBOOST## {\"type\":\"result\",\"status\":\"OK\"}");
+
+        var result = collector.result();
+
+        assertFalse(result.isSucceeded());
+        assertEquals(1, result.failedObjects().size());
+        assertEquals(Option.some("boom"), result.failedObjects().get(0).error());
+    }
+
+    @Test
+    public void testMalformedRecordIgnored() {
+        collector.onLine("##WITBOOST## {not json");
+
+        var result = collector.result();
+
+        assertFalse(result.isReported());
+        assertTrue(otherLines.isEmpty());
+    }
+}
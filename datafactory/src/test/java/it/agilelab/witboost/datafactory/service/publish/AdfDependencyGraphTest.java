@@ -0,0 +1,48 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class AdfDependencyGraphTest {
+
+    private static AdfObject object(AdfObjectType type, String name, String... dependencies) {
+        return new AdfObject(
+                type,
+                name,
+                type.collection() + "/" + name,
+                JsonNodeFactory.instance.objectNode(),
+                Set.of(dependencies));
+    }
+
+    @Test
+    public void testLevelsInDependencyOrder() {
+        var linkedService = object(AdfObjectType.LINKED_SERVICE, "ls1", "integrationRuntime/autoresolve");
+        var dataset1 = object(AdfObjectType.DATASET, "ds1", "linkedService/ls1");
+        var dataset2 = object(AdfObjectType.DATASET, "ds2", "linkedService/ls1");
+        var pipeline = object(AdfObjectType.PIPELINE, "pl1", "dataset/ds1", "dataset/ds2", "pipeline/pl1");
+        var trigger = object(AdfObjectType.TRIGGER, "tr1", "pipeline/pl1");
+
+        var actualRes = AdfDependencyGraph.levels(List.of(trigger, pipeline, dataset2, dataset1, linkedService));
+
+        assertTrue(actualRes.isRight());
+        assertEquals(
+                List.of(List.of(linkedService), List.of(dataset1, dataset2), List.of(pipeline), List.of(trigger)),
+                actualRes.get());
+    }
+
+    @Test
+    public void testCycle() {
+        var pipeline1 = object(AdfObjectType.PIPELINE, "pl1", "pipeline/pl2");
+        var pipeline2 = object(AdfObjectType.PIPELINE, "pl2", "pipeline/pl1");
+        var dataset = object(AdfObjectType.DATASET, "ds1");
+
+        var actualRes = AdfDependencyGraph.levels(List.of(pipeline1, pipeline2, dataset));
+
+        assertTrue(actualRes.isLeft());
+        assertTrue(actualRes.getLeft().problems().get(0).description().endsWith("Details: pipeline/pl1, pipeline/pl2"));
+    }
+}
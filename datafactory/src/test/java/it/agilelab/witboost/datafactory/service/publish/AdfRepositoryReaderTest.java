@@ -0,0 +1,105 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vavr.control.Option;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AdfRepositoryReaderTest {
+
+    @TempDir
+    private Path root;
+
+    private final AdfRepositoryReader reader = new AdfRepositoryReader(new ObjectMapper());
+
+    private void write(String path, String content) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        write(
+                "linkedService/ls1.json",
+                """
+                {"name":"ls1","properties":{"type":"AzureBlobStorage","typeProperties":{"url":"dev"},"connectVia":{"referenceName":"AutoResolveIntegrationRuntime","type":"IntegrationRuntimeReference"}}}""");
+        write(
+                "pipeline/pl1.json",
+                """
+                {"name":"pl1","properties":{"activities":[{"name":"copy","inputs":[{"referenceName":"DS1","type":"DatasetReference"}]},{"name":"run","typeProperties":{"pipeline":{"referenceName":"pl2","type":"PipelineReference"}}}]}}""");
+        write("managedVirtualNetwork/default.json", """
+                {"name":"default","properties":{}}""");
+        write(
+                "managedVirtualNetwork/default/managedPrivateEndpoint/pe1.json",
+                """
+                {"name":"pe1","properties":{"groupId":"blob"}}""");
+        write("pipeline/notes.txt", "not an object");
+    }
+
+    @Test
+    public void testObjectsAndReferences() {
+        var actualRes = reader.read(root, Option.none());
+
+        assertTrue(actualRes.isRight());
+        assertEquals(4, actualRes.get().size());
+        var pipeline = actualRes.get().stream()
+                .filter(o -> o.type() == AdfObjectType.PIPELINE)
+                .findFirst()
+                .get();
+        assertEquals("pipelines/pl1", pipeline.path());
+        assertEquals(Set.of("dataset/ds1", "pipeline/pl2"), pipeline.dependencies());
+        var endpoint = actualRes.get().stream()
+                .filter(o -> o.type() == AdfObjectType.MANAGED_PRIVATE_ENDPOINT)
+                .findFirst()
+                .get();
+        assertEquals("managedVirtualNetworks/default/managedPrivateEndpoints/pe1", endpoint.path());
+        assertEquals(Set.of("managedVirtualNetwork/default"), endpoint.dependencies());
+    }
+
+    @Test
+    public void testStageConfigurationApplied() throws IOException {
+        write("deployment/config-prod.csv", "type,name,path,value\nlinkedService,ls1,typeProperties.url,prod\n");
+
+        var actualRes = reader.read(root, Option.of("prod"));
+
+        assertTrue(actualRes.isRight());
+        var linkedService = actualRes.get().stream()
+                .filter(o -> o.type() == AdfObjectType.LINKED_SERVICE)
+                .findFirst()
+                .get();
+        assertEquals(
+                "prod",
+                linkedService
+                        .definition()
+                        .path("properties")
+                        .path("typeProperties")
+                        .path("url")
+                        .asText());
+    }
+
+    @Test
+    public void testMissingStageConfiguration() {
+        var actualRes = reader.read(root, Option.of("qa"));
+
+        assertTrue(actualRes.isLeft());
+        assertTrue(actualRes.getLeft().problems().get(0).description().contains("config-qa.csv was not found"));
+    }
+
+    @Test
+    public void testInvalidJson() throws IOException {
+        write("dataset/ds1.json", "{\"name\":");
+
+        var actualRes = reader.read(root, Option.none());
+
+        assertTrue(actualRes.isLeft());
+        assertTrue(actualRes.getLeft().problems().get(0).description().contains("ds1.json"));
+    }
+}
@@ -0,0 +1,66 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.agilelab.witboost.datafactory.config.PublisherConfig;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DeploymentStateStoreImplTest {
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, DeployedObject> state = Map.of(
+            "pipeline/pl1",
+            new DeployedObject("pipeline", "pl1", "pipelines/pl1", "hash", Set.of("linkedService/ls1")));
+
+    private DeploymentStateStoreImpl store(String stateDirectory) {
+        return new DeploymentStateStoreImpl(
+                new PublisherConfig(PublisherConfig.Engine.NATIVE, 8, true, stateDirectory), objectMapper);
+    }
+
+    @Test
+    public void testSaveAndLoad() {
+        var store = store(directory.toString());
+
+        store.save("RG", "ADF", state);
+
+        assertEquals(state, store(directory.toString()).load("rg", "adf"));
+        assertTrue(Files.exists(directory.resolve("rg").resolve("adf.json")));
+        assertEquals(Map.of(), store.load("rg", "other"));
+    }
+
+    @Test
+    public void testRemove() {
+        var store = store(directory.toString());
+        store.save("rg", "adf", state);
+
+        store.remove("rg", "adf");
+
+        assertEquals(Map.of(), store.load("rg", "adf"));
+    }
+
+    @Test
+    public void testUnreadableStateIsEmpty() throws Exception {
+        Files.createDirectories(directory.resolve("rg"));
+        Files.writeString(directory.resolve("rg").resolve("adf.json"), "not json");
+
+        assertEquals(Map.of(), store(directory.toString()).load("rg", "adf"));
+    }
+
+    @Test
+    public void testDisabled() {
+        var store = store("");
+
+        store.save("rg", "adf", state);
+
+        assertEquals(Map.of(), store.load("rg", "adf"));
+    }
+}
@@ -0,0 +1,187 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vavr.control.Option;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import it.agilelab.witboost.datafactory.config.PublisherConfig;
+import it.agilelab.witboost.datafactory.service.DataFactoryClient;
+import it.agilelab.witboost.datafactory.service.powershell.ScriptResult;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class NativePublisherImplTest {
+
+    @Mock
+    private AdfRepositoryReader repositoryReader;
+
+    @Mock
+    private DataFactoryClient dataFactoryClient;
+
+    @Mock
+    private DeploymentStateStore stateStore;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private NativePublisherImpl publisher;
+
+    private final AdfObject linkedService = object(AdfObjectType.LINKED_SERVICE, "ls1", "{}");
+    private final AdfObject pipeline = object(AdfObjectType.PIPELINE, "pl1", "{}", "linkedService/ls1");
+    private final AdfObject trigger =
+            object(AdfObjectType.TRIGGER, "tr1", "{\"runtimeState\":\"Started\"}", "pipeline/pl1");
+
+    private AdfObject object(AdfObjectType type, String name, String properties, String... dependencies) {
+        try {
+            var definition = (ObjectNode)
+                    objectMapper.readTree(String.format("{\"name\":\"%s\",\"properties\":%s}", name, properties));
+            return new AdfObject(type, name, type.collection() + "/" + name, definition, Set.of(dependencies));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        publisher = new NativePublisherImpl(
+                repositoryReader,
+                dataFactoryClient,
+                stateStore,
+                new PublisherConfig(PublisherConfig.Engine.NATIVE, 8, true, ""),
+                objectMapper,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testPublishInDependencyOrder() {
+        when(repositoryReader.read(Path.of("/tmp/repo"), Option.of("qa")))
+                .thenReturn(right(List.of(trigger, pipeline, linkedService)));
+        when(dataFactoryClient.listStartedTriggers("rg", "adf")).thenReturn(right(Set.of("TR1", "other")));
+        when(dataFactoryClient.stopTrigger("rg", "adf", "TR1")).thenReturn(right(null));
+        when(dataFactoryClient.deployObjectAsync(eq("rg"), eq("adf"), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(right(null)));
+        when(dataFactoryClient.startTrigger("rg", "adf", "tr1")).thenReturn(right(null));
+
+        var actualRes = publisher.publish("/tmp/repo", "rg", "adf", Option.of("qa"));
+
+        assertTrue(actualRes.isRight());
+        assertTrue(actualRes.get().isSucceeded());
+        assertEquals(3, actualRes.get().objects().size());
+        assertEquals(
+                List.of("read", "stopTriggers", "deploy", "delete", "startTriggers"),
+                actualRes.get().phases().stream()
+                        .map(ScriptResult.PhaseTiming::name)
+                        .toList());
+        InOrder inOrder = inOrder(dataFactoryClient);
+        inOrder.verify(dataFactoryClient).stopTrigger("rg", "adf", "TR1");
+        inOrder.verify(dataFactoryClient).deployObjectAsync("rg", "adf", "linkedservices/ls1", "{\"properties\":{}}");
+        inOrder.verify(dataFactoryClient).deployObjectAsync(eq("rg"), eq("adf"), eq("pipelines/pl1"), anyString());
+        inOrder.verify(dataFactoryClient)
+                .deployObjectAsync("rg", "adf", "triggers/tr1", "{\"properties\":{\"runtimeState\":\"Started\"}}");
+        inOrder.verify(dataFactoryClient).startTrigger("rg", "adf", "tr1");
+        verify(dataFactoryClient, never()).stopTrigger("rg", "adf", "other");
+        verify(stateStore).save(eq("rg"), eq("adf"), argThat(state -> state.keySet()
+                .equals(Set.of("linkedService/ls1", "pipeline/pl1", "trigger/tr1"))));
+    }
+
+    @Test
+    public void testIncrementalPublish() {
+        var unchangedHash = DigestUtils.sha256Hex("{\"properties\":{}}");
+        var state = Map.of(
+                "linkedService/ls1",
+                new DeployedObject("linkedService", "ls1", "linkedservices/ls1", unchangedHash, Set.of()),
+                "pipeline/pl1",
+                new DeployedObject("pipeline", "pl1", "pipelines/pl1", "old", Set.of("linkedService/ls1")),
+                "pipeline/pl0",
+                new DeployedObject("pipeline", "pl0", "pipelines/pl0", "old", Set.of("linkedService/ls1")),
+                "trigger/tr0",
+                new DeployedObject("trigger", "tr0", "triggers/tr0", "old", Set.of("pipeline/pl0")));
+        when(repositoryReader.read(Path.of("/tmp/repo"), Option.none()))
+                .thenReturn(right(List.of(pipeline, linkedService)));
+        when(stateStore.load("rg", "adf")).thenReturn(state);
+        when(dataFactoryClient.listStartedTriggers("rg", "adf")).thenReturn(right(Set.of("tr0")));
+        when(dataFactoryClient.stopTrigger("rg", "adf", "tr0")).thenReturn(right(null));
+        when(dataFactoryClient.deployObjectAsync(eq("rg"), eq("adf"), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(right(null)));
+        when(dataFactoryClient.deleteObjectAsync(eq("rg"), eq("adf"), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(right(null)));
+
+        var actualRes = publisher.publish("/tmp/repo", "rg", "adf", Option.none());
+
+        assertTrue(actualRes.isRight());
+        assertTrue(actualRes.get().isSucceeded());
+        assertEquals(
+                List.of("pl1:deployed", "tr0:deleted", "pl0:deleted"),
+                actualRes.get().objects().stream()
+                        .map(o -> o.name() + ":" + o.status())
+                        .toList());
+        InOrder inOrder = inOrder(dataFactoryClient);
+        inOrder.verify(dataFactoryClient).stopTrigger("rg", "adf", "tr0");
+        inOrder.verify(dataFactoryClient).deployObjectAsync(eq("rg"), eq("adf"), eq("pipelines/pl1"), anyString());
+        inOrder.verify(dataFactoryClient).deleteObjectAsync("rg", "adf", "triggers/tr0");
+        inOrder.verify(dataFactoryClient).deleteObjectAsync("rg", "adf", "pipelines/pl0");
+        verify(dataFactoryClient, never()).deployObjectAsync("rg", "adf", "linkedservices/ls1", "{\"properties\":{}}");
+        verify(dataFactoryClient, never()).startTrigger(anyString(), anyString(), anyString());
+        verify(stateStore)
+                .save(
+                        eq("rg"),
+                        eq("adf"),
+                        argThat(saved -> saved.keySet().equals(Set.of("linkedService/ls1", "pipeline/pl1"))
+                                && !saved.get("pipeline/pl1").hash().equals("old")));
+    }
+
+    @Test
+    public void testFailedLevelStopsTheDeployment() {
+        when(repositoryReader.read(Path.of("/tmp/repo"), Option.none()))
+                .thenReturn(right(List.of(trigger, pipeline, linkedService)));
+        when(dataFactoryClient.listStartedTriggers("rg", "adf")).thenReturn(right(Set.of("tr1")));
+        when(dataFactoryClient.stopTrigger("rg", "adf", "tr1")).thenReturn(right(null));
+        when(dataFactoryClient.deployObjectAsync(eq("rg"), eq("adf"), eq("linkedservices/ls1"), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(
+                        left(new FailedOperation(List.of(new Problem("bad linked service"))))));
+        when(dataFactoryClient.startTrigger("rg", "adf", "tr1")).thenReturn(right(null));
+
+        var actualRes = publisher.publish("/tmp/repo", "rg", "adf", Option.none());
+
+        assertTrue(actualRes.isRight());
+        assertFalse(actualRes.get().isSucceeded());
+        assertEquals(1, actualRes.get().failedObjects().size());
+        assertEquals(
+                Option.of("bad linked service"),
+                actualRes.get().failedObjects().get(0).error());
+        verify(dataFactoryClient, times(1)).deployObjectAsync(anyString(), anyString(), anyString(), anyString());
+        // The trigger stopped before the deployment is started again
+        verify(dataFactoryClient).startTrigger("rg", "adf", "tr1");
+        verify(dataFactoryClient, never()).deleteObjectAsync(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void testReadError() {
+        var error = new FailedOperation(List.of(new Problem("invalid")));
+        when(repositoryReader.read(Path.of("/tmp/repo"), Option.none())).thenReturn(left(error));
+
+        var actualRes = publisher.publish("/tmp/repo", "rg", "adf", Option.none());
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(error, actualRes.getLeft());
+        verifyNoInteractions(dataFactoryClient);
+    }
+}
@@ -0,0 +1,84 @@
+package it.agilelab.witboost.datafactory.service.publish;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class StageConfigurationTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ObjectNode linkedService() throws Exception {
+        return (ObjectNode)
+                objectMapper.readTree(
+                        """
+                        {"name":"LS_KeyVault","properties":{"type":"AzureKeyVault","typeProperties":{"baseUrl":"https://dev.vault.azure.net/","timeout":10,"urls":["a","b"]},"annotations":[]}}""");
+    }
+
+    @Test
+    public void testRowsApplied() throws Exception {
+        var configuration = StageConfiguration.parse(
+                        List.of(
+                                "type,name,path,value",
+                                "# comment",
+                                "linkedService,LS_*,typeProperties.baseUrl,\"https://$Env:VAULT.vault.azure.net/\"",
+                                "linkedService,ls_keyvault,typeProperties.timeout,30",
+                                "linkedService,LS_KeyVault,typeProperties.urls[1],c",
+                                "linkedService,LS_KeyVault,+typeProperties.extra.flag,\"{\"\"enabled\"\":true}\"",
+                                "linkedService,LS_KeyVault,-annotations,",
+                                "dataset,LS_KeyVault,$.name,other"),
+                        Map.of("VAULT", "prod")::get,
+                        objectMapper)
+                .get();
+        var definition = linkedService();
+
+        var actualRes = configuration.apply(AdfObjectType.LINKED_SERVICE, "LS_KeyVault", definition);
+
+        assertTrue(actualRes.isRight());
+        assertEquals(
+                """
+                {"name":"LS_KeyVault","properties":{"type":"AzureKeyVault","typeProperties":{"baseUrl":"https://prod.vault.azure.net/","timeout":30,"urls":["a","c"],"extra":{"flag":{"enabled":true}}}}}""",
+                definition.toString());
+    }
+
+    @Test
+    public void testUpdateOfMissingProperty() throws Exception {
+        var configuration = StageConfiguration.parse(
+                        List.of("type,name,path,value", "linkedService,LS_KeyVault,typeProperties.missing,x"),
+                        Map.<String, String>of()::get,
+                        objectMapper)
+                .get();
+
+        var actualRes = configuration.apply(AdfObjectType.LINKED_SERVICE, "LS_KeyVault", linkedService());
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(
+                "Unable to apply the row 2 of the stage configuration to the linkedService 'LS_KeyVault'. Details: path not found: typeProperties.missing",
+                actualRes.getLeft().problems().get(0).description());
+    }
+
+    @Test
+    public void testInvalidRows() {
+        var missingColumn = StageConfiguration.parse(
+                List.of("type,name,path,value", "linkedService,LS_KeyVault,typeProperties.baseUrl"),
+                Map.<String, String>of()::get,
+                objectMapper);
+        var missingVariable = StageConfiguration.parse(
+                List.of("type,name,path,value", "linkedService,LS_KeyVault,typeProperties.baseUrl,$($Env:MISSING)"),
+                Map.<String, String>of()::get,
+                objectMapper);
+
+        assertTrue(missingColumn.isLeft());
+        assertTrue(missingVariable.isLeft());
+        assertTrue(missingVariable
+                .getLeft()
+                .problems()
+                .get(0)
+                .description()
+                .endsWith("the environment variable MISSING is not defined"));
+    }
+}
@@ -0,0 +1,160 @@
+package it.agilelab.witboost.datafactory.service.task;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testIdenticalActionsShareOneExecution() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var executions = new AtomicInteger();
+        var waits = Collections.synchronizedList(new ArrayList<String>());
+
+        var first = executor.submit(() -> singleFlight.execute(
+                "adf",
+                "same",
+                () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return "result";
+                },
+                waits::add));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        var second = executor.submit(() -> singleFlight.execute(
+                "adf",
+                "same",
+                () -> {
+                    executions.incrementAndGet();
+                    return "other";
+                },
+                waits::add));
+        awaitWaits(waits, 1);
+        release.countDown();
+
+        assertEquals("result", first.get(5, TimeUnit.SECONDS));
+        assertEquals("result", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+        assertEquals(List.of("Joining the identical operation already in progress on 'adf'"), waits);
+    }
+
+    @Test
+    public void testDifferentActionsAreSerialized() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var order = Collections.synchronizedList(new ArrayList<String>());
+        var waits = Collections.synchronizedList(new ArrayList<String>());
+
+        var first = executor.submit(() -> singleFlight.execute(
+                "adf",
+                "first",
+                () -> {
+                    order.add("first-start");
+                    started.countDown();
+                    await(release);
+                    order.add("first-end");
+                    return "first";
+                },
+                waits::add));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        var second = executor.submit(() -> singleFlight.execute(
+                "adf",
+                "second",
+                () -> {
+                    order.add("second");
+                    return "second";
+                },
+                waits::add));
+        awaitWaits(waits, 1);
+        release.countDown();
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first-start", "first-end", "second"), order);
+    }
+
+    @Test
+    public void testFailureIsSharedWithJoinedActions() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var waits = Collections.synchronizedList(new ArrayList<String>());
+
+        var first = executor.submit(() -> singleFlight.execute(
+                "adf",
+                "same",
+                () -> {
+                    started.countDown();
+                    await(release);
+                    throw new IllegalStateException("boom");
+                },
+                waits::add));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        var second = executor.submit(() -> singleFlight.execute("adf", "same", () -> "other", waits::add));
+        awaitWaits(waits, 1);
+        release.countDown();
+
+        var firstException = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        var secondException = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, firstException.getCause());
+        assertInstanceOf(IllegalStateException.class, secondException.getCause());
+    }
+
+    @Test
+    public void testAsyncActionHoldsTheResourceUntilCompleted() throws Exception {
+        var pending = new CompletableFuture<String>();
+        var waits = Collections.synchronizedList(new ArrayList<String>());
+
+        var first = singleFlight.executeAsync("adf", "first", () -> pending, waits::add);
+        var second = executor.submit(() -> singleFlight.execute("adf", "second", () -> "second", waits::add));
+        awaitWaits(waits, 1);
+
+        assertFalse(second.isDone());
+        pending.complete("first");
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("Waiting for the operation in progress on 'adf' to complete"), waits);
+    }
+
+    @Test
+    public void testSequentialActionsRunAgain() {
+        var executions = new AtomicInteger();
+
+        singleFlight.execute("adf", "same", executions::incrementAndGet, s -> fail("Unexpected wait"));
+        singleFlight.execute("adf", "same", executions::incrementAndGet, s -> fail("Unexpected wait"));
+
+        assertEquals(2, executions.get());
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void awaitWaits(List<String> waits, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (waits.size() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, waits.size());
+    }
+}
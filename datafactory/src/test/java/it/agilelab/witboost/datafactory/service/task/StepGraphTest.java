@@ -0,0 +1,138 @@
+package it.agilelab.witboost.datafactory.service.task;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class StepGraphTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final StepGraph graph = new StepGraph(executor);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testIndependentStepsRunConcurrently() {
+        var bothStarted = new CountDownLatch(2);
+        var first = graph.step(() -> awaitBoth(bothStarted, "first"));
+        var second = graph.step(() -> awaitBoth(bothStarted, "second"));
+
+        var joined = graph.step(first, second, (a, b) -> right(a + "-" + b));
+
+        assertEquals(right("first-second"), joined.join());
+    }
+
+    @Test
+    public void testDependentStepReceivesResult() {
+        var first = graph.step(() -> right(1));
+
+        var second = graph.step(first, v -> right(v + 1));
+
+        assertEquals(right(2), second.join());
+    }
+
+    @Test
+    public void testFailuresAreAggregatedAndDependentsSkipped() {
+        var executed = new AtomicBoolean(false);
+        var first = graph.step(() -> Either.<FailedOperation, String>left(failure("first")));
+        var second = graph.step(() -> Either.<FailedOperation, String>left(failure("second")));
+
+        var joined = graph.step(first, second, (a, b) -> {
+            executed.set(true);
+            return right("never");
+        });
+
+        var result = joined.join();
+        assertTrue(result.isLeft());
+        assertEquals(
+                List.of("first", "second"),
+                result.getLeft().problems().stream().map(Problem::description).toList());
+        assertFalse(executed.get());
+    }
+
+    @Test
+    public void testAsyncStepReleasesTheWorker() {
+        var pending = new CompletableFuture<Either<FailedOperation, String>>();
+        var first = graph.step(() -> right("first"));
+        var second = graph.step(() -> right("second"));
+
+        var joined =
+                graph.stepAsync(first, second, (a, b) -> pending.thenApply(r -> r.map(c -> a + "-" + b + "-" + c)));
+        // Both workers are free for another operation while the async step is pending
+        var otherGraph = new StepGraph(executor);
+        var bothStarted = new CountDownLatch(2);
+        var other = otherGraph.step(
+                otherGraph.step(() -> awaitBoth(bothStarted, "a")),
+                otherGraph.step(() -> awaitBoth(bothStarted, "b")),
+                (a, b) -> right(a + b));
+        assertEquals(right("ab"), other.join());
+        pending.complete(right("third"));
+
+        assertEquals(right("first-second-third"), joined.join());
+    }
+
+    @Test
+    public void testExceptionIsRethrownOnJoin() {
+        var step = graph.step(() -> {
+            throw new IllegalStateException("boom");
+        });
+
+        var dependent = graph.step(step, v -> right(v));
+
+        assertThrows(IllegalStateException.class, dependent::join);
+    }
+
+    @Test
+    public void testJoinWaitsForRunningSteps() {
+        var release = new CountDownLatch(1);
+        var finished = new AtomicBoolean(false);
+        var failing = graph.step(() -> {
+            release.countDown();
+            throw new IllegalStateException("boom");
+        });
+        var running = graph.step(() -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finished.set(true);
+            return right("running");
+        });
+
+        var joined = graph.step(failing, running, (a, b) -> right(a + b));
+
+        assertThrows(IllegalStateException.class, joined::join);
+        assertTrue(finished.get());
+    }
+
+    private Either<FailedOperation, String> awaitBoth(CountDownLatch latch, String value) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS) ? right(value) : left(failure("not concurrent"));
+        } catch (InterruptedException e) {
+            return left(failure("interrupted"));
+        }
+    }
+
+    private FailedOperation failure(String description) {
+        return new FailedOperation(List.of(new Problem(description)));
+    }
+}
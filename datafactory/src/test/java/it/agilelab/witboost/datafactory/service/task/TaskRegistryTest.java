@@ -0,0 +1,151 @@
+package it.agilelab.witboost.datafactory.service.task;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class TaskRegistryTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSubmitCompleted() throws InterruptedException {
+        var registry = new TaskRegistry<String>(executor, Duration.ofHours(1));
+
+        String token = registry.submit(task -> {
+            task.onProgress("phase", "message");
+            return right("result");
+        });
+        awaitTermination();
+
+        var task = registry.get(token).orElseThrow();
+        assertEquals(TaskStatus.COMPLETED, task.getStatus());
+        assertEquals("result", task.getResult().get().get());
+        assertEquals(1, task.getLogs().size());
+        assertEquals("phase", task.getLogs().get(0).phase());
+    }
+
+    @Test
+    public void testSubmitFailed() throws InterruptedException {
+        var registry = new TaskRegistry<String>(executor, Duration.ofHours(1));
+        var failedOperation = new FailedOperation(Collections.singletonList(new Problem("Error")));
+
+        String token = registry.submit(task -> left(failedOperation));
+        awaitTermination();
+
+        var task = registry.get(token).orElseThrow();
+        assertEquals(TaskStatus.FAILED, task.getStatus());
+        assertEquals(failedOperation, task.getResult().get().getLeft());
+    }
+
+    @Test
+    public void testSubmitUnexpectedException() throws InterruptedException {
+        var registry = new TaskRegistry<String>(executor, Duration.ofHours(1));
+
+        String token = registry.submit(task -> {
+            throw new IllegalStateException("Unexpected");
+        });
+        awaitTermination();
+
+        var task = registry.get(token).orElseThrow();
+        assertEquals(TaskStatus.FAILED, task.getStatus());
+        var problem = task.getResult().get().getLeft().problems().get(0);
+        assertTrue(problem.description().contains("Unexpected"));
+        assertTrue(problem.cause().isPresent());
+    }
+
+    @Test
+    public void testRunning() throws InterruptedException {
+        var registry = new TaskRegistry<String>(executor, Duration.ofHours(1));
+        var latch = new CountDownLatch(1);
+
+        String token = registry.submit(task -> {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return right("result");
+        });
+
+        var task = registry.get(token).orElseThrow();
+        assertEquals(TaskStatus.RUNNING, task.getStatus());
+        assertTrue(task.getResult().isEmpty());
+        latch.countDown();
+    }
+
+    @Test
+    public void testSubmitAsyncCompletedByTheFuture() throws InterruptedException {
+        var registry = new TaskRegistry<String>(executor, Duration.ofHours(1));
+        var pending = new CompletableFuture<Either<FailedOperation, String>>();
+
+        String token = registry.submitAsync("token", task -> pending);
+        // The only worker is free for other operations while the first one is pending
+        String other = registry.submit(task -> right("other"));
+        awaitTermination();
+
+        assertEquals("token", token);
+        assertEquals(TaskStatus.RUNNING, registry.get(token).orElseThrow().getStatus());
+        assertEquals(TaskStatus.COMPLETED, registry.get(other).orElseThrow().getStatus());
+        pending.complete(right("result"));
+        var task = registry.get(token).orElseThrow();
+        assertEquals(TaskStatus.COMPLETED, task.getStatus());
+        assertEquals("result", task.getResult().get().get());
+    }
+
+    @Test
+    public void testSubmitAsyncExceptionalCompletion() throws InterruptedException {
+        var registry = new TaskRegistry<String>(executor, Duration.ofHours(1));
+
+        String token = registry.submitAsync(
+                "token", task -> CompletableFuture.failedFuture(new IllegalStateException("Unexpected")));
+        awaitTermination();
+
+        var task = registry.get(token).orElseThrow();
+        assertEquals(TaskStatus.FAILED, task.getStatus());
+        var problem = task.getResult().get().getLeft().problems().get(0);
+        assertTrue(problem.description().contains("Unexpected"));
+        assertTrue(problem.cause().isPresent());
+    }
+
+    @Test
+    public void testExpiredTaskEvicted() throws InterruptedException {
+        var registry = new TaskRegistry<String>(executor, Duration.ZERO);
+
+        String token = registry.submit(task -> right("result"));
+        awaitTermination();
+        Thread.sleep(5);
+
+        assertTrue(registry.get(token).isEmpty());
+    }
+
+    @Test
+    public void testUnknownToken() {
+        var registry = new TaskRegistry<String>(executor, Duration.ofHours(1));
+
+        assertTrue(registry.get("unknown").isEmpty());
+    }
+
+    private void awaitTermination() throws InterruptedException {
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,153 @@
+package it.agilelab.witboost.datafactory.service.token;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.credential.TokenRequestContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.agilelab.witboost.datafactory.config.TokenRefreshConfig;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PrefetchingTokenCredentialTest {
+
+    private static final String SCOPE = "https://management.azure.com/.default";
+
+    @Mock
+    private TokenCredential delegate;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TokenRequestContext request = new TokenRequestContext().addScopes(SCOPE);
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private AccessToken token(String value) {
+        return new AccessToken(value, OffsetDateTime.now().plusHours(1));
+    }
+
+    private TokenCredential credential(double refreshFraction) {
+        return PrefetchingTokenCredential.of(
+                "management",
+                delegate,
+                List.of(SCOPE),
+                new TokenRefreshConfig(true, refreshFraction, Duration.ofMillis(10)),
+                scheduler,
+                meterRegistry);
+    }
+
+    @Test
+    public void testPrefetchedTokenIsCached() {
+        var token = token("t1");
+        when(delegate.getTokenSync(any(TokenRequestContext.class))).thenReturn(token);
+
+        var credential = credential(0.75);
+        verify(delegate, timeout(5000)).getTokenSync(any(TokenRequestContext.class));
+        await(() -> meterRegistry.find("azure.token.refresh").timer() != null);
+
+        assertSame(token, credential.getTokenSync(request));
+        assertSame(token, credential.getToken(request).block());
+        verify(delegate, times(1)).getTokenSync(any(TokenRequestContext.class));
+        verify(delegate, never()).getToken(any());
+        assertEquals(
+                1,
+                meterRegistry
+                        .timer("azure.token.refresh", "credential", "management", "outcome", "success")
+                        .count());
+    }
+
+    @Test
+    public void testTokenRefreshedBeforeExpiry() {
+        when(delegate.getTokenSync(any(TokenRequestContext.class)))
+                .thenReturn(token("t1"))
+                .thenReturn(token("t2"));
+
+        var credential = credential(0.0001);
+
+        verify(delegate, timeout(5000).atLeast(2)).getTokenSync(any(TokenRequestContext.class));
+        await(() -> "t2".equals(credential.getTokenSync(request).getToken()));
+    }
+
+    @Test
+    public void testFailedRefreshIsRetried() {
+        when(delegate.getTokenSync(any(TokenRequestContext.class)))
+                .thenThrow(new IllegalStateException("unavailable"))
+                .thenReturn(token("t1"));
+
+        var credential = credential(0.75);
+
+        verify(delegate, timeout(5000).times(2)).getTokenSync(any(TokenRequestContext.class));
+        await(() -> meterRegistry
+                        .timer("azure.token.refresh", "credential", "management", "outcome", "success")
+                        .count()
+                == 1);
+        assertEquals(
+                1.0,
+                meterRegistry
+                        .counter("azure.token.refresh.failures", "credential", "management")
+                        .count());
+        assertEquals("t1", credential.getTokenSync(request).getToken());
+    }
+
+    @Test
+    public void testRequestsWithClaimsAreNotCached() {
+        var credential = PrefetchingTokenCredential.of(
+                "management",
+                delegate,
+                List.of(),
+                new TokenRefreshConfig(true, 0.75, Duration.ofSeconds(30)),
+                scheduler,
+                meterRegistry);
+        var claimsRequest = new TokenRequestContext().addScopes(SCOPE).setClaims("{}");
+        when(delegate.getTokenSync(claimsRequest)).thenReturn(token("t1"));
+
+        credential.getTokenSync(claimsRequest);
+        credential.getTokenSync(claimsRequest);
+
+        verify(delegate, times(2)).getTokenSync(claimsRequest);
+    }
+
+    @Test
+    public void testDisabled() {
+        var credential = PrefetchingTokenCredential.of(
+                "management",
+                delegate,
+                List.of(SCOPE),
+                new TokenRefreshConfig(false, 0.75, Duration.ofSeconds(30)),
+                scheduler,
+                meterRegistry);
+
+        assertSame(delegate, credential);
+        verifyNoInteractions(delegate);
+    }
+
+    private void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) throw new AssertionError("Condition not met in time");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
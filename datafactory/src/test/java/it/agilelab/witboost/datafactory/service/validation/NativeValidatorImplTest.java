@@ -0,0 +1,148 @@
+package it.agilelab.witboost.datafactory.service.validation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.agilelab.witboost.datafactory.common.Problem;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class NativeValidatorImplTest {
+
+    @TempDir
+    private Path root;
+
+    private final NativeValidatorImpl validator = new NativeValidatorImpl(new ObjectMapper());
+
+    private void write(String path, String content) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        write(
+                "linkedService/ls1.json",
+                """
+                {"name":"ls1","properties":{"type":"AzureBlobStorage","connectVia":{"type":"IntegrationRuntimeReference","referenceName":"AutoResolveIntegrationRuntime"}}}""");
+        write(
+                "dataset/ds1.json",
+                """
+                {"name":"ds1","properties":{"linkedServiceName":{"referenceName":"LS1","type":"LinkedServiceReference"},"type":"Parquet"}}""");
+        write(
+                "pipeline/pl1.json",
+                """
+                {"name":"pl1","properties":{"activities":[{"name":"copy","type":"Copy","inputs":[{"referenceName":"ds1","type":"DatasetReference"}]}]}}""");
+    }
+
+    @Test
+    public void testValidRepository() {
+        var actualRes = validator.validate(root.toString());
+
+        assertTrue(actualRes.isRight());
+    }
+
+    @Test
+    public void testEveryProblemReported() throws IOException {
+        write("pipeline/pl1_copy.json", """
+                {"name":"PL1","properties":{"activities":[]}}""");
+        write(
+                "pipeline/pl2.json",
+                """
+                {"name":"pl2","properties":{"activities":[{"name":"run","type":"ExecutePipeline","typeProperties":{"pipeline":{"referenceName":"pl3","type":"PipelineReference"}}},{"name":"copy","type":"Copy","outputs":[{"referenceName":"missing","type":"DatasetReference"}]}]}}""");
+        write(
+                "pipeline/pl3.json",
+                """
+                {"name":"pl3","properties":{"activities":[{"name":"run","type":"ExecutePipeline","typeProperties":{"pipeline":{"referenceName":"pl2","type":"PipelineReference"}}}]}}""");
+        write("trigger/tr1.json", "{\"name\":\"tr1\",");
+        write("dataflow/df1.json", "{\"properties\":{}}");
+
+        var actualRes = validator.validate(root.toString());
+
+        assertTrue(actualRes.isLeft());
+        var descriptions = actualRes.getLeft().problems().stream()
+                .map(Problem::description)
+                .toList();
+        assertEquals(6, descriptions.size());
+        assertEquals("The Data Factory object dataflow/df1.json has no name", descriptions.get(0));
+        assertEquals(
+                "The pipeline 'PL1' is stored in pipeline/pl1_copy.json: the file name must match the object name",
+                descriptions.get(1));
+        assertEquals(
+                "The pipeline 'PL1' is defined more than once: pipeline/pl1.json and pipeline/pl1_copy.json",
+                descriptions.get(2));
+        assertTrue(descriptions.get(3).startsWith("The Data Factory object trigger/tr1.json is not valid JSON"));
+        assertEquals("The pipeline 'pl2' references the dataset 'missing', which does not exist", descriptions.get(4));
+        assertEquals(
+                "The Data Factory objects cannot be deployed as their references form a cycle. Details: pipeline/pl2, pipeline/pl3",
+                descriptions.get(5));
+    }
+
+    @Test
+    public void testGlobalParametersValidated() throws IOException {
+        write(
+                "factory/adf1.json",
+                """
+                {"name":"adf1","properties":{"globalParameters":{"ok":{"type":"String","value":"a"},"noType":{"value":"b"},"noValue":{"type":"Int"}}}}""");
+
+        var actualRes = validator.validate(root.toString());
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(
+                List.of(
+                        "The global parameter 'noType' of the factory factory/adf1.json has no valid type",
+                        "The global parameter 'noValue' of the factory factory/adf1.json has no value"),
+                actualRes.getLeft().problems().stream()
+                        .map(Problem::description)
+                        .toList());
+    }
+
+    @Test
+    public void testStageConfigurationsValidated() throws IOException {
+        write(
+                "deployment/config-test.csv",
+                """
+                type,name,path,value
+                dataset,ds1,typeProperties.location,"{}"
+                """);
+        write(
+                "deployment/config-prod.csv",
+                """
+                type,name,path,value
+                pipeline,pl*,+description,production
+                linkedService,ls1,$.properties.connectVia.referenceName,ir1
+                """);
+        write(
+                "deployment/config-broken.csv",
+                """
+                type,name,path,value
+                pipeline,pl1
+                """);
+
+        var actualRes = validator.validate(root.toString());
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(
+                List.of(
+                        "The stage configuration deployment/config-broken.csv is not valid. Details: The row 2 of the stage configuration is not valid. Details: expected the columns type,name,path,value",
+                        "The stage configuration deployment/config-test.csv is not valid. Details: Unable to apply the row 2 of the stage configuration to the dataset 'ds1'. Details: path not found: typeProperties.location"),
+                actualRes.getLeft().problems().stream()
+                        .map(Problem::description)
+                        .toList());
+        // The objects themselves are left untouched
+        assertFalse(Files.readString(root.resolve("pipeline/pl1.json")).contains("production"));
+    }
+
+    @Test
+    public void testNoObjects() throws IOException {
+        var actualRes = validator.validate(root.resolve("empty").toString());
+
+        assertTrue(actualRes.isRight());
+    }
+}
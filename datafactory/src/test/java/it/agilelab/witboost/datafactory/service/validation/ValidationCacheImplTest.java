@@ -0,0 +1,76 @@
+package it.agilelab.witboost.datafactory.service.validation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.agilelab.witboost.datafactory.config.ValidationCacheConfig;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ValidationCacheImplTest {
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ValidationCacheKey key = new ValidationCacheKey("https://repo", "commit", "fingerprint");
+
+    @Test
+    public void testPutAndGet() {
+        var cache = new ValidationCacheImpl(new ValidationCacheConfig(true, 10, Duration.ofHours(1), ""), objectMapper);
+
+        cache.putValidated(key);
+
+        assertTrue(cache.isValidated(key));
+        assertFalse(cache.isValidated(new ValidationCacheKey("https://repo", "other", "fingerprint")));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        var cache = new ValidationCacheImpl(new ValidationCacheConfig(true, 2, Duration.ofHours(1), ""), objectMapper);
+        var second = new ValidationCacheKey("https://repo", "second", "fingerprint");
+        var third = new ValidationCacheKey("https://repo", "third", "fingerprint");
+
+        cache.putValidated(key);
+        cache.putValidated(second);
+        cache.isValidated(key);
+        cache.putValidated(third);
+
+        assertTrue(cache.isValidated(key));
+        assertFalse(cache.isValidated(second));
+        assertTrue(cache.isValidated(third));
+    }
+
+    @Test
+    public void testExpiredEntryIsNotValid() {
+        var cache = new ValidationCacheImpl(new ValidationCacheConfig(true, 10, Duration.ZERO, ""), objectMapper);
+
+        cache.putValidated(key);
+
+        assertFalse(cache.isValidated(key));
+    }
+
+    @Test
+    public void testDisabledCache() {
+        var cache =
+                new ValidationCacheImpl(new ValidationCacheConfig(false, 10, Duration.ofHours(1), ""), objectMapper);
+
+        cache.putValidated(key);
+
+        assertFalse(cache.isEnabled());
+        assertFalse(cache.isValidated(key));
+    }
+
+    @Test
+    public void testPersistenceSurvivesRestart() {
+        var file = directory.resolve("cache").resolve("validations.json").toString();
+        var config = new ValidationCacheConfig(true, 10, Duration.ofHours(1), file);
+
+        new ValidationCacheImpl(config, objectMapper).putValidated(key);
+        var reloaded = new ValidationCacheImpl(config, objectMapper);
+
+        assertTrue(reloaded.isValidated(key));
+    }
+}
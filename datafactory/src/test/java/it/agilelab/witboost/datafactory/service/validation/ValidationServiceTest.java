@@ -5,6 +5,7 @@ import static io.vavr.control.Either.right;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import it.agilelab.witboost.datafactory.common.FailedOperation;
@@ -41,6 +42,18 @@ public class ValidationServiceTest {
         assertTrue(actualRes.isRight());
     }
 
+    @Test
+    public void testParseSkipsWorkloadValidation() throws IOException {
+        String ymlDescriptor = ResourceUtils.getContentFromResource("/pr_descriptor_workload.yml");
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, ymlDescriptor, false);
+
+        var actualRes = service.parse(provisioningRequest);
+
+        assertTrue(actualRes.isRight());
+        verifyNoInteractions(workloadValidation);
+    }
+
     @Test
     public void testValidateWorkloadKo() throws IOException {
         String ymlDescriptor = ResourceUtils.getContentFromResource("/pr_descriptor_workload.yml");
@@ -0,0 +1,111 @@
+package it.agilelab.witboost.datafactory.service.validation;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import it.agilelab.witboost.datafactory.common.FailedOperation;
+import it.agilelab.witboost.datafactory.common.Problem;
+import it.agilelab.witboost.datafactory.config.AsyncConfig;
+import it.agilelab.witboost.datafactory.model.ProvisionRequest;
+import it.agilelab.witboost.datafactory.model.Specific;
+import it.agilelab.witboost.datafactory.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.datafactory.service.task.TaskStatus;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ValidationTaskServiceTest {
+
+    @Mock
+    private ValidationService validationService;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final AsyncConfig asyncConfig = new AsyncConfig(
+            new AsyncConfig.ExecutorConfig(1, 1, Duration.ofHours(1)),
+            new AsyncConfig.ExecutorConfig(1, 1, Duration.ofHours(1)),
+            new AsyncConfig.StepsConfig(1));
+
+    private final ProvisioningRequest provisioningRequest = new ProvisioningRequest();
+
+    @Test
+    public void testValidationOk() throws InterruptedException {
+        var validationTaskService = new ValidationTaskServiceImpl(validationService, executor, asyncConfig);
+        when(validationService.validate(provisioningRequest))
+                .thenReturn(right(new ProvisionRequest<Specific>(null, null, false)));
+
+        var token = validationTaskService.submitValidation(provisioningRequest);
+        awaitTermination();
+
+        var task = validationTaskService.getTask(token).orElseThrow();
+        assertEquals(TaskStatus.COMPLETED, task.getStatus());
+        assertTrue(task.getResult().get().get().isEmpty());
+    }
+
+    @Test
+    public void testValidationKo() throws InterruptedException {
+        var validationTaskService = new ValidationTaskServiceImpl(validationService, executor, asyncConfig);
+        var failedOperation = new FailedOperation(Collections.singletonList(new Problem("error")));
+        when(validationService.validate(provisioningRequest)).thenReturn(left(failedOperation));
+
+        var token = validationTaskService.submitValidation(provisioningRequest);
+        awaitTermination();
+
+        var task = validationTaskService.getTask(token).orElseThrow();
+        assertEquals(TaskStatus.COMPLETED, task.getStatus());
+        assertEquals(failedOperation.problems(), task.getResult().get().get());
+    }
+
+    @Test
+    public void testValidationConstraintViolation() throws InterruptedException {
+        var validationTaskService = new ValidationTaskServiceImpl(validationService, executor, asyncConfig);
+        ConstraintViolation<?> violation = mock(ConstraintViolation.class);
+        Path path = mock(Path.class);
+        when(path.toString()).thenReturn("specific.gitRepo");
+        when(violation.getPropertyPath()).thenReturn(path);
+        when(violation.getMessage()).thenReturn("must not be blank");
+        var exception = new ConstraintViolationException(Set.of(violation));
+        when(validationService.validate(provisioningRequest)).thenThrow(exception);
+
+        var token = validationTaskService.submitValidation(provisioningRequest);
+        awaitTermination();
+
+        var task = validationTaskService.getTask(token).orElseThrow();
+        assertEquals(TaskStatus.COMPLETED, task.getStatus());
+        assertEquals(
+                List.of("specific.gitRepo must not be blank"),
+                task.getResult().get().get().stream().map(Problem::description).toList());
+    }
+
+    @Test
+    public void testValidationUnexpectedError() throws InterruptedException {
+        var validationTaskService = new ValidationTaskServiceImpl(validationService, executor, asyncConfig);
+        when(validationService.validate(provisioningRequest)).thenThrow(new IllegalStateException("Unexpected"));
+
+        var token = validationTaskService.submitValidation(provisioningRequest);
+        awaitTermination();
+
+        var task = validationTaskService.getTask(token).orElseThrow();
+        assertEquals(TaskStatus.FAILED, task.getStatus());
+    }
+
+    private void awaitTermination() throws InterruptedException {
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
@@ -6,6 +6,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import it.agilelab.witboost.datafactory.common.FailedOperation;
@@ -15,8 +18,10 @@ import it.agilelab.witboost.datafactory.model.Specific;
 import it.agilelab.witboost.datafactory.model.Workload;
 import it.agilelab.witboost.datafactory.model.WorkloadSpecific;
 import it.agilelab.witboost.datafactory.service.ADFToolsWrapperService;
-import it.agilelab.witboost.datafactory.service.AzureGitCloneCommandService;
+import it.agilelab.witboost.datafactory.service.GitCheckoutService;
 import it.agilelab.witboost.datafactory.service.GitRepositoryService;
+import it.agilelab.witboost.datafactory.service.workspace.Workspace;
+import java.io.File;
 import java.util.Collections;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -31,10 +36,13 @@ public class WorkloadValidationTest {
     private GitRepositoryService gitRepositoryService;
 
     @Mock
-    private AzureGitCloneCommandService azureGitCloneCommandService;
+    private ADFToolsWrapperService adfToolsWrapperService;
 
     @Mock
-    private ADFToolsWrapperService adfToolsWrapperService;
+    private GitCheckoutService gitCheckoutService;
+
+    @Mock
+    private ValidationCache validationCache;
 
     @InjectMocks
     private WorkloadValidation workloadValidation;
@@ -53,19 +61,98 @@ public class WorkloadValidationTest {
 
     @Test
     public void testValidateOk() {
-        when(gitRepositoryService.clone(any())).thenReturn(right(null));
+        when(gitCheckoutService.checkout(any(), any())).thenReturn(right(null));
+        when(adfToolsWrapperService.validate(anyString())).thenReturn(right(null));
+
+        var actualRes = workloadValidation.validate(workload);
+
+        assertTrue(actualRes.isRight());
+    }
+
+    @Test
+    public void testValidateLeavesCheckoutInWorkspace() {
+        when(gitCheckoutService.checkout(any(), any())).thenReturn(right(null));
+        when(adfToolsWrapperService.validate(anyString())).thenReturn(right(null));
+
+        try (var workspace = Workspace.create().get()) {
+            var actualRes = workloadValidation.validate(workload, workspace);
+
+            assertTrue(actualRes.isRight());
+            assertTrue(workspace.isCheckedOut());
+            assertTrue(workspace.getDirectory().exists());
+        }
+    }
+
+    @Test
+    public void testValidateReusesWorkspaceCheckout() {
+        when(adfToolsWrapperService.validate(anyString())).thenReturn(right(null));
+
+        try (var workspace = Workspace.create().get()) {
+            workspace.markCheckedOut();
+
+            var actualRes = workloadValidation.validate(workload, workspace);
+
+            assertTrue(actualRes.isRight());
+            verifyNoInteractions(gitCheckoutService);
+        }
+    }
+
+    @Test
+    public void testValidateCacheHitSkipsValidation() {
+        var key = new ValidationCacheKey(null, "commit", "fingerprint");
+        when(validationCache.isEnabled()).thenReturn(true);
+        when(gitCheckoutService.checkout(any(), any())).thenReturn(right(null));
+        when(gitRepositoryService.headCommit(any(File.class))).thenReturn(right("commit"));
+        when(adfToolsWrapperService.validatorFingerprint()).thenReturn("fingerprint");
+        when(validationCache.isValidated(key)).thenReturn(true);
+
+        try (var workspace = Workspace.create().get()) {
+            var actualRes = workloadValidation.validate(workload, workspace);
+
+            assertTrue(actualRes.isRight());
+            // The commit found in the cache is the one left in the workspace for publishing
+            assertTrue(workspace.isCheckedOut());
+            verify(gitRepositoryService).headCommit(workspace.getDirectory());
+            verify(adfToolsWrapperService, never()).validate(anyString());
+        }
+    }
+
+    @Test
+    public void testValidateCacheMissStoresSuccess() {
+        var key = new ValidationCacheKey(null, "commit", "fingerprint");
+        when(validationCache.isEnabled()).thenReturn(true);
+        when(gitCheckoutService.checkout(any(), any())).thenReturn(right(null));
+        when(gitRepositoryService.headCommit(any(File.class))).thenReturn(right("commit"));
+        when(adfToolsWrapperService.validatorFingerprint()).thenReturn("fingerprint");
+        when(validationCache.isValidated(key)).thenReturn(false);
         when(adfToolsWrapperService.validate(anyString())).thenReturn(right(null));
 
         var actualRes = workloadValidation.validate(workload);
 
         assertTrue(actualRes.isRight());
+        verify(validationCache).putValidated(key);
+    }
+
+    @Test
+    public void testValidateFailureNotCached() {
+        var fail = new FailedOperation(Collections.singletonList(new Problem("invalid")));
+        when(validationCache.isEnabled()).thenReturn(true);
+        when(gitCheckoutService.checkout(any(), any())).thenReturn(right(null));
+        when(gitRepositoryService.headCommit(any(File.class))).thenReturn(right("commit"));
+        when(adfToolsWrapperService.validatorFingerprint()).thenReturn("fingerprint");
+        when(adfToolsWrapperService.validate(anyString())).thenReturn(left(fail));
+
+        var actualRes = workloadValidation.validate(workload);
+
+        assertTrue(actualRes.isLeft());
+        verify(validationCache, never()).putValidated(any());
     }
 
     @Test
     public void testValidateCloneFailure() {
         String expectedDesc = "Error while cloning";
         var fail = new FailedOperation(Collections.singletonList(new Problem(expectedDesc)));
-        when(gitRepositoryService.clone(any())).thenReturn(left(fail));
+        when(gitCheckoutService.checkout(any(), any())).thenReturn(left(fail));
 
         var actualRes = workloadValidation.validate(workload);
 
@@ -81,7 +168,7 @@ public class WorkloadValidationTest {
     public void testValidateInvalidGitContent() {
         String expectedDesc = "Found an invalid json file name";
         var fail = new FailedOperation(Collections.singletonList(new Problem(expectedDesc)));
-        when(gitRepositoryService.clone(any())).thenReturn(right(null));
+        when(gitCheckoutService.checkout(any(), any())).thenReturn(right(null));
         when(adfToolsWrapperService.validate(anyString())).thenReturn(left(fail));
 
         var actualRes = workloadValidation.validate(workload);
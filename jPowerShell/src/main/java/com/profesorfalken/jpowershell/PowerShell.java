@@ -19,22 +19,31 @@ import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 /**
  * This API allows to open a session into PowerShell console and launch different commands.<br>
@@ -61,22 +70,45 @@ public class PowerShell implements AutoCloseable {
     // Writer to send commands
     private PrintWriter commandWriter;
 
+    // Reader of the command outputs
+    private PowerShellOutputReader outputReader;
+
+    // Used to make the end marker of each command unique
+    private final AtomicLong executions = new AtomicLong();
+
     // Threaded session variables
     private boolean closed = false;
-    private ExecutorService threadpool;
+    private Executor executor;
+
+    // Tasks of this session that have not finished yet, cancelled when the session is closed
+    private final Set<Future<?>> tasks = ConcurrentHashMap.newKeySet();
+
+    // Executor shared by the sessions that are not given one, created when the first session needs it
+    private static final class SharedExecutor {
+        private static final AtomicLong threads = new AtomicLong();
+        private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "jpowershell-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
     // Default PowerShell executable path
     private static final String DEFAULT_WIN_EXECUTABLE = System.getProperty("psExecutable", "powershell.exe");
     private static final String DEFAULT_LINUX_EXECUTABLE = System.getProperty("psExecutable", "pwsh");
 
     // Config values
-    private int waitPause = 10;
     private long maxWait = 50000;
     private File tempFolder = null;
+    private int maxOutputInMemory = PowerShellConfig.DEFAULT_MAX_OUTPUT_IN_MEMORY;
+    private long stopGracePeriod = PowerShellConfig.DEFAULT_STOP_GRACE_PERIOD;
 
-    // Variables used for script mode
+    // Prefix of the marker written at the end of each command
     public static final String END_SCRIPT_STRING = "--END-JPOWERSHELL-SCRIPT--";
 
+    // Status of the last command, as $? is overwritten by the command writing the end marker
+    private static final String LAST_STATUS_VARIABLE = "$jpowershellLastStatus";
+
     // Private constructor. Instance using openSession method
     private PowerShell() {}
 
@@ -88,13 +120,36 @@ public class PowerShell implements AutoCloseable {
      */
     public PowerShell configuration(PowerShellConfig config) {
         if (config != null) {
-            this.waitPause = config.waitPause();
             this.maxWait = config.maxWait();
             this.tempFolder = getTempFolder(config.tempFolder());
+            this.maxOutputInMemory = config.maxOutputInMemory();
+            this.stopGracePeriod = config.stopGracePeriod();
         }
         return this;
     }
 
+    /**
+     * Allows to override the executor running the output readers and the close tasks of this session. By default
+     * the sessions share a cached pool of daemon threads, so that threads are reused from one session to the next.
+     * The executor is not shut down when the session is closed
+     *
+     * @param executor the executor to use, null for the shared one
+     * @return instance to chain
+     */
+    public PowerShell executor(Executor executor) {
+        this.executor = executor != null ? executor : SharedExecutor.INSTANCE;
+        return this;
+    }
+
+    /**
+     * Number of tasks of this session (output readers and close tasks) submitted to the executor and not finished
+     *
+     * @return the number of pending tasks
+     */
+    public int pendingTasks() {
+        return tasks.size();
+    }
+
     /**
      * Creates a session in PowerShell console an returns an instance which allows
      * to execute commands in PowerShell context.<br>
@@ -177,9 +232,13 @@ public class PowerShell implements AutoCloseable {
         // Prepare writer that will be used to send commands to powershell
         this.commandWriter =
                 new PrintWriter(new OutputStreamWriter(new BufferedOutputStream(p.getOutputStream())), true);
+        this.outputReader = new PowerShellOutputReader(p.getInputStream());
 
-        // Init thread pool. 2 threads are needed: one to write and read console and the other to close it
-        this.threadpool = Executors.newFixedThreadPool(2);
+        // Threads are taken from the shared executor unless another one is configured: one reads the console while
+        // a command runs, another one closes it
+        if (this.executor == null) {
+            this.executor = SharedExecutor.INSTANCE;
+        }
 
         // Get and store the PID of the process
         this.pid = p.pid();
@@ -207,37 +266,66 @@ public class PowerShell implements AutoCloseable {
      * PowerShell console context
      *
      * @param command the command to call. Ex: dir
-     * @param scriptMode if the command is a script specification (absolute file path plus params)
+     * @param scriptMode if the command is a script specification (absolute file path plus params). Scripts and
+     *                   commands are now read the same way, the flag is kept for compatibility
      * @return PowerShellResponse the information returned by powerShell
      */
     public PowerShellResponse executeCommand(String command, boolean scriptMode) {
+        return executeCommand(command, null);
+    }
+
+    /**
+     * Execute a PowerShell command, handing its output to the listener line by line while it runs.
+     * <p>
+     * This method launch a thread which will be executed in the already created
+     * PowerShell console context
+     *
+     * @param command  the command to call. Ex: dir
+     * @param listener receives each line of the output, can be null
+     * @return PowerShellResponse the information returned by powerShell. If the output is bigger than the
+     * configured maxOutputInMemory, only its last part is in the response and the whole output is in
+     * {@link PowerShellResponse#getOutputFile()}, also when the command timed out, to be deleted by the caller. If
+     * the command does not finish within maxWait, it is stopped: see {@link PowerShellResponse#isKilled()}
+     */
+    public PowerShellResponse executeCommand(String command, PowerShellOutputListener listener) {
         String commandOutput = "";
         boolean isError = false;
         boolean timeout = false;
+        boolean killed = false;
+        boolean completed = false;
 
         checkState();
 
-        PowerShellCommandProcessor commandProcessor = scriptMode
-                ? new PowerShellScriptProcessor(p.getInputStream(), this.waitPause)
-                : new PowerShellCommandProcessor(p.getInputStream(), this.waitPause);
+        long execution = executions.incrementAndGet();
+        PowerShellOutputSink sink = new PowerShellOutputSink(listener, this.maxOutputInMemory, this.tempFolder);
+        PowerShellCommandProcessor commandProcessor =
+                new PowerShellCommandProcessor(outputReader, endMarker(execution), sink);
 
-        Future<String> result = threadpool.submit(commandProcessor);
+        Future<String> result = submit(commandProcessor);
 
-        // Launch command
+        // Launch command, then write the end marker once it has finished
         commandWriter.println(command);
+        commandWriter.println(endMarkerCommand(execution));
 
         try {
-            if (!result.isDone()) {
-                try {
-                    commandOutput = result.get(maxWait, TimeUnit.MILLISECONDS);
-                } catch (TimeoutException timeoutEx) {
-                    timeout = true;
-                    isError = true;
-                    // Interrupt command after timeout
-                    result.cancel(true);
-                }
+            commandOutput = result.get(maxWait, TimeUnit.MILLISECONDS);
+            completed = true;
+        } catch (TimeoutException timeoutEx) {
+            timeout = true;
+            isError = true;
+            logger.log(Level.WARNING, "PowerShell command timed out after " + maxWait + " ms. Stopping it");
+            Optional<String> stoppedOutput = stopCommand(result);
+            if (stoppedOutput.isPresent()) {
+                commandOutput = stoppedOutput.get();
+                completed = true;
+            } else {
+                killed = true;
             }
-        } catch (InterruptedException | ExecutionException ex) {
+        } catch (ExecutionException ex) {
+            logger.log(Level.SEVERE, "Unexpected error when processing PowerShell command", ex);
+            isError = true;
+            completed = true;
+        } catch (InterruptedException ex) {
             logger.log(Level.SEVERE, "Unexpected error when processing PowerShell command", ex);
             isError = true;
         } finally {
@@ -246,7 +334,120 @@ public class PowerShell implements AutoCloseable {
             commandProcessor.close();
         }
 
-        return new PowerShellResponse(isError, commandOutput, timeout);
+        // The output of a command still being read cannot be handed over, its file is deleted once complete
+        if (!completed) {
+            sink.discard();
+        }
+        return new PowerShellResponse(isError, commandOutput, timeout, completed ? sink.getOutputFile() : null, killed);
+    }
+
+    // Stops the running pipeline by interrupting PowerShell and the processes it started, as Ctrl+C does. If the end
+    // marker is not written within the grace period, the whole process tree is killed and the session closed
+    private Optional<String> stopCommand(Future<String> result) {
+        // Once PowerShell is gone, its children can no longer be found from it
+        List<ProcessHandle> descendants = p.descendants().toList();
+        interrupt(descendants);
+        try {
+            String output = result.get(stopGracePeriod, TimeUnit.MILLISECONDS);
+            if (p.isAlive()) {
+                // Native commands started by the pipeline may survive it
+                descendants.forEach(ProcessHandle::destroyForcibly);
+                return Optional.of(output);
+            }
+        } catch (TimeoutException timeoutEx) {
+            logger.log(Level.WARNING, "PowerShell command did not stop within " + stopGracePeriod + " ms");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            logger.log(Level.SEVERE, "Unexpected error when stopping PowerShell command", ex);
+        }
+        killProcessTree(descendants);
+        return Optional.empty();
+    }
+
+    // Sends SIGINT to PowerShell and its children. Windows has no equivalent for a process without a console
+    // window, there the command is only given the grace period to finish
+    private void interrupt(List<ProcessHandle> descendants) {
+        if (OSDetector.isWindows()) {
+            return;
+        }
+        List<String> command = new ArrayList<>(List.of("kill", "-INT", String.valueOf(this.pid)));
+        descendants.forEach(descendant -> command.add(String.valueOf(descendant.pid())));
+        try {
+            new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start()
+                    .waitFor(stopGracePeriod, TimeUnit.MILLISECONDS);
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Unable to interrupt PowerShell command", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Kills PowerShell, then every process it started, including the ones found before it was interrupted
+    private void killProcessTree(List<ProcessHandle> knownDescendants) {
+        logger.log(Level.WARNING, "Killing PowerShell process tree. PID: " + this.pid);
+        List<ProcessHandle> descendants = p.descendants().toList();
+        p.destroyForcibly();
+        Stream.concat(descendants.stream(), knownDescendants.stream()).forEach(ProcessHandle::destroyForcibly);
+        try {
+            p.waitFor(stopGracePeriod, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        commandWriter.close();
+        cancelTasks();
+        this.closed = true;
+    }
+
+    // Runs a task of this session on the executor, keeping track of it until it finishes
+    private <T> Future<T> submit(Callable<T> task) {
+        // The task is forgotten before its result is published, so that it is not counted once get() returns
+        FutureTask<T> future = new FutureTask<>(task) {
+            @Override
+            protected void set(T result) {
+                tasks.remove(this);
+                super.set(result);
+            }
+
+            @Override
+            protected void setException(Throwable ex) {
+                tasks.remove(this);
+                super.setException(ex);
+            }
+
+            @Override
+            protected void done() {
+                tasks.remove(this);
+            }
+        };
+        tasks.add(future);
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException ex) {
+            tasks.remove(future);
+            throw ex;
+        }
+        return future;
+    }
+
+    // The process is gone, so the readers are already returning. Only the tasks of this session are cancelled, the
+    // executor is left running for the other sessions
+    private void cancelTasks() {
+        tasks.forEach(task -> task.cancel(true));
+    }
+
+    // Each command has its own marker, so that the output of a command that timed out is never taken as the output
+    // of the next one
+    private static String endMarker(long execution) {
+        return END_SCRIPT_STRING + execution + "--";
+    }
+
+    // The marker is composed by PowerShell, so that it is not found in the command itself if the console echoes it
+    private static String endMarkerCommand(long execution) {
+        return LAST_STATUS_VARIABLE + " = $?; Write-Output ('" + END_SCRIPT_STRING + "{0}--' -f " + execution + ")";
     }
 
     /**
@@ -283,6 +484,8 @@ public class PowerShell implements AutoCloseable {
         if (response.length > 0) {
             handleResponse(response[0], powerShellResponse);
         }
+        // The response is not returned, so nobody else can delete its output file
+        powerShellResponse.getOutputFile().ifPresent(File::delete);
 
         return this;
     }
@@ -296,13 +499,22 @@ public class PowerShell implements AutoCloseable {
         }
     }
 
+    /**
+     * Indicates if the session can still execute commands
+     *
+     * @return true if the session is not closed and the PowerShell process is running
+     */
+    public boolean isAlive() {
+        return !this.closed && p != null && p.isAlive();
+    }
+
     /**
      * Indicates if the last executed command finished in error
      *
      * @return boolean
      */
     public boolean isLastCommandInError() {
-        return !Boolean.valueOf(executeCommand("$?", false).getCommandOutput());
+        return !Boolean.valueOf(executeCommand(LAST_STATUS_VARIABLE, false).getCommandOutput());
     }
 
     /**
@@ -326,15 +538,32 @@ public class PowerShell implements AutoCloseable {
      */
     @SuppressWarnings("WeakerAccess")
     public PowerShellResponse executeScript(String scriptPath, String params) {
-        try (BufferedReader srcReader = new BufferedReader(new FileReader(new File(scriptPath)))) {
-            return executeScript(srcReader, params);
-        } catch (FileNotFoundException fnfex) {
-            logger.log(Level.SEVERE, "Unexpected error when processing PowerShell script: file not found", fnfex);
+        return executeScript(scriptPath, params, null);
+    }
+
+    /**
+     * Executed the provided PowerShell script in PowerShell console, handing its output to the listener line by
+     * line while it runs.
+     * <p>
+     * The script is executed in place, without being copied
+     *
+     * @param scriptPath the full path of the script
+     * @param params     the parameters of the script
+     * @param listener   receives each line of the output, can be null
+     * @return response with the output of the command
+     */
+    public PowerShellResponse executeScript(String scriptPath, String params, PowerShellOutputListener listener) {
+        File script = new File(scriptPath);
+        if (!script.isFile()) {
+            logger.log(Level.SEVERE, "Unexpected error when processing PowerShell script: file not found");
             return new PowerShellResponse(true, "Wrong script path: " + scriptPath, false);
-        } catch (IOException ioe) {
-            logger.log(Level.SEVERE, "Unexpected error when processing PowerShell script", ioe);
-            return new PowerShellResponse(true, "IO error reading: " + scriptPath, false);
         }
+        return executeCommand(scriptCommand(script, params), listener);
+    }
+
+    // Invokes the script with the call operator, quoting its path so that it can contain spaces
+    private static String scriptCommand(File script, String params) {
+        return "& '" + script.getAbsolutePath().replace("'", "''") + "' " + params;
     }
 
     /**
@@ -357,11 +586,25 @@ public class PowerShell implements AutoCloseable {
      * @return response with the output of the command
      */
     public PowerShellResponse executeScript(BufferedReader srcReader, String params) {
+        return executeScript(srcReader, params, null);
+    }
+
+    /**
+     * Execute the provided PowerShell script in PowerShell console, handing its output to the listener line by
+     * line while it runs.
+     *
+     * @param srcReader the script as BufferedReader (when loading File from jar)
+     * @param params    the parameters of the script
+     * @param listener  receives each line of the output, can be null
+     * @return response with the output of the command
+     */
+    public PowerShellResponse executeScript(
+            BufferedReader srcReader, String params, PowerShellOutputListener listener) {
         PowerShellResponse response;
         if (srcReader != null) {
             File tmpFile = createWriteTempFile(srcReader);
             if (tmpFile != null) {
-                response = executeCommand(tmpFile.getAbsolutePath() + " " + params, true);
+                response = executeCommand(scriptCommand(tmpFile, params), listener);
                 tmpFile.delete();
             } else {
                 response = new PowerShellResponse(true, "Cannot create temp script file!", false);
@@ -392,9 +635,6 @@ public class PowerShell implements AutoCloseable {
                 tmpWriter.write(line);
                 tmpWriter.newLine();
             }
-
-            // Add end script line
-            tmpWriter.write("Write-Output \"" + END_SCRIPT_STRING + "\"");
         } catch (IOException ioex) {
             logger.log(Level.SEVERE, "Unexpected error while writing temporary PowerShell script", ioex);
         } finally {
@@ -417,24 +657,14 @@ public class PowerShell implements AutoCloseable {
     public void close() {
         if (!this.closed) {
             try {
-                Future<String> closeTask = threadpool.submit(() -> {
+                Future<String> closeTask = submit(() -> {
                     commandWriter.println("exit");
                     p.waitFor();
                     return "OK";
                 });
                 if (!closeAndWait(closeTask) && this.pid > 0) {
-                    // If it can be closed, force kill the process
-                    Logger.getLogger(PowerShell.class.getName())
-                            .log(Level.INFO, "Forcing PowerShell to close. PID: " + this.pid);
-                    try {
-                        // TODO why not using p.destroyForcibly() ??
-                        if (OSDetector.isWindows()) Runtime.getRuntime().exec("taskkill.exe /PID " + pid + " /F /T");
-                        else Runtime.getRuntime().exec("kill -9 " + pid);
-                        this.closed = true;
-                    } catch (IOException e) {
-                        Logger.getLogger(PowerShell.class.getName())
-                                .log(Level.SEVERE, "Unexpected error while killing powershell process", e);
-                    }
+                    // If it can be closed, force kill the process and the ones it started
+                    killProcessTree(List.of());
                 }
             } catch (InterruptedException | ExecutionException ex) {
                 logger.log(Level.SEVERE, "Unexpected error when when closing PowerShell", ex);
@@ -447,14 +677,7 @@ public class PowerShell implements AutoCloseable {
                 } catch (IOException ex) {
                     logger.log(Level.SEVERE, "Unexpected error when when closing streams", ex);
                 }
-                if (this.threadpool != null) {
-                    try {
-                        this.threadpool.shutdownNow();
-                        this.threadpool.awaitTermination(5, TimeUnit.SECONDS);
-                    } catch (InterruptedException ex) {
-                        logger.log(Level.SEVERE, "Unexpected error when when shutting down thread pool", ex);
-                    }
-                }
+                cancelTasks();
                 this.closed = true;
             }
         }
@@ -464,7 +687,7 @@ public class PowerShell implements AutoCloseable {
         boolean closed = true;
         if (!task.isDone()) {
             try {
-                task.get(maxWait, TimeUnit.MILLISECONDS);
+                task.get(stopGracePeriod, TimeUnit.MILLISECONDS);
             } catch (TimeoutException timeoutEx) {
                 logger.log(Level.WARNING, "Powershell process cannot be closed. Session seems to be blocked");
                 // Interrupt command after timeout
@@ -16,8 +16,41 @@
 package com.profesorfalken.jpowershell;
 
 /**
- * Record class to hold the configuration
+ * Record class to hold the configuration.<p>
+ * The output is read until the end of each command without polling, so waitPause is no longer used and is kept
+ * for compatibility.<p>
+ * When a command exceeds maxWait, its pipeline is interrupted and, if it has not stopped after stopGracePeriod,
+ * the whole PowerShell process tree is killed
  *
  * @author Javier Garcia Alonso
  */
-public record PowerShellConfig(int waitPause, long maxWait, String tempFolder) {}
+public record PowerShellConfig(
+        int waitPause, long maxWait, String tempFolder, int maxOutputInMemory, long stopGracePeriod) {
+
+    /**
+     * Number of characters of output kept in memory by default, beyond which the output is written to a file
+     */
+    public static final int DEFAULT_MAX_OUTPUT_IN_MEMORY = 1024 * 1024;
+
+    /**
+     * Milliseconds given by default to an interrupted command, or to a closing session, before killing it
+     */
+    public static final long DEFAULT_STOP_GRACE_PERIOD = 10000;
+
+    public PowerShellConfig(int waitPause, long maxWait, String tempFolder) {
+        this(waitPause, maxWait, tempFolder, DEFAULT_MAX_OUTPUT_IN_MEMORY);
+    }
+
+    public PowerShellConfig(int waitPause, long maxWait, String tempFolder, int maxOutputInMemory) {
+        this(waitPause, maxWait, tempFolder, maxOutputInMemory, DEFAULT_STOP_GRACE_PERIOD);
+    }
+
+    public PowerShellConfig {
+        if (maxOutputInMemory <= 0) {
+            maxOutputInMemory = DEFAULT_MAX_OUTPUT_IN_MEMORY;
+        }
+        if (stopGracePeriod <= 0) {
+            stopGracePeriod = DEFAULT_STOP_GRACE_PERIOD;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016-2018 Javier Garcia Alonso.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.profesorfalken.jpowershell;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Reader of the output of a PowerShell session.<p>
+ * It lives as long as the session: the output is read in blocks, without polling, until the end marker of a
+ * command is found. The marker is searched incrementally (Knuth-Morris-Pratt), so each character is examined
+ * once whatever the size of the output. What follows the marker stays buffered for the next command.
+ */
+class PowerShellOutputReader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+
+    // The marker is written with Write-Output, so it is followed by a line terminator that is not part of the output
+    private boolean skipLineTerminator = false;
+
+    /**
+     * Constructor that takes the output of the PowerShell session
+     *
+     * @param inputStream the stream needed to read the command output
+     */
+    PowerShellOutputReader(InputStream inputStream) {
+        this.reader = new InputStreamReader(inputStream);
+    }
+
+    /**
+     * Reads the output until the end marker, blocking while no output is available
+     *
+     * @param marker    the end marker of the command
+     * @param output    the output of the command, without the end marker
+     * @param cancelled checked before each blocking read: if true, the reading stops and the data not
+     *                  consumed yet is kept
+     * @return true if the end marker was found, false if the reading was cancelled or the stream ended
+     * @throws IOException error when reading data
+     */
+    synchronized boolean readUntil(String marker, Appendable output, BooleanSupplier cancelled) throws IOException {
+        int[] failure = failureTable(marker);
+        int matched = 0;
+        while (true) {
+            if (position == limit) {
+                if (cancelled.getAsBoolean()) {
+                    output.append(marker, 0, matched);
+                    return false;
+                }
+                int read = reader.read(buffer, 0, buffer.length);
+                if (read == -1) {
+                    output.append(marker, 0, matched);
+                    return false;
+                }
+                position = 0;
+                limit = read;
+                // The blocking read may have returned the output of the next command
+                if (cancelled.getAsBoolean()) {
+                    output.append(marker, 0, matched);
+                    return false;
+                }
+            }
+
+            char c = buffer[position++];
+            if (skipLineTerminator) {
+                if (c == '\r') {
+                    continue;
+                }
+                skipLineTerminator = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+
+            while (matched > 0 && c != marker.charAt(matched)) {
+                // Characters that are no longer a prefix of the marker belong to the output
+                int fallback = failure[matched - 1];
+                output.append(marker, 0, matched - fallback);
+                matched = fallback;
+            }
+            if (c == marker.charAt(matched)) {
+                matched++;
+                if (matched == marker.length()) {
+                    skipLineTerminator = true;
+                    return true;
+                }
+            } else {
+                output.append(c);
+            }
+        }
+    }
+
+    // failure[i] is the length of the longest proper prefix of marker[0..i] that is also a suffix of it
+    private static int[] failureTable(String marker) {
+        int[] failure = new int[marker.length()];
+        int length = 0;
+        for (int i = 1; i < marker.length(); i++) {
+            while (length > 0 && marker.charAt(i) != marker.charAt(length)) {
+                length = failure[length - 1];
+            }
+            if (marker.charAt(i) == marker.charAt(length)) {
+                length++;
+            }
+            failure[i] = length;
+        }
+        return failure;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015-2018 Javier Garcia Alonso.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.profesorfalken.jpowershell;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Destination of the output of a command.<p>
+ * Lines are handed to the listener as soon as they are complete. Only the last {@code maxInMemory} characters are
+ * kept in memory, in a ring buffer: when the output grows beyond that, the whole output is written to a temporary
+ * file instead.
+ */
+class PowerShellOutputSink implements Appendable {
+
+    private static final Logger logger = Logger.getLogger(PowerShellOutputSink.class.getName());
+
+    private final PowerShellOutputListener listener;
+    private final File tempFolder;
+
+    private final char[] ring;
+    private int ringStart = 0;
+    private int ringSize = 0;
+
+    private final StringBuilder line = new StringBuilder();
+
+    private File spillFile;
+    private Writer spillWriter;
+    private boolean spillFailed = false;
+
+    // Set by the first of finish and discard, the second one deletes the file
+    private final AtomicBoolean settled = new AtomicBoolean(false);
+
+    /**
+     * @param listener    receives each line of the output, can be null
+     * @param maxInMemory the maximum number of characters kept in memory
+     * @param tempFolder  the folder of the temporary file, null for the default one
+     */
+    PowerShellOutputSink(PowerShellOutputListener listener, int maxInMemory, File tempFolder) {
+        this.listener = listener;
+        this.ring = new char[Math.max(maxInMemory, 1)];
+        this.tempFolder = tempFolder;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            append(csq.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        if (c == '\n') {
+            emitLine();
+        } else {
+            line.append(c);
+            // A single line cannot hold more than the ring buffer either
+            if (line.length() >= ring.length) {
+                emitLine();
+            }
+        }
+
+        if (ringSize == ring.length && spillWriter == null && !spillFailed) {
+            startSpilling();
+        }
+        if (spillWriter != null) {
+            spillWriter.write(c);
+        }
+        if (ringSize == ring.length) {
+            ring[ringStart] = c;
+            ringStart = (ringStart + 1) % ring.length;
+        } else {
+            ring[(ringStart + ringSize) % ring.length] = c;
+            ringSize++;
+        }
+        return this;
+    }
+
+    /**
+     * Hands the last line to the listener and completes the temporary file, if any
+     */
+    void finish() {
+        if (line.length() > 0) {
+            emitLine();
+        }
+        if (spillWriter != null) {
+            try {
+                spillWriter.close();
+            } catch (IOException ex) {
+                logger.log(Level.SEVERE, "Unexpected error when closing the PowerShell output file", ex);
+            }
+        }
+        if (!settled.compareAndSet(false, true)) {
+            deleteOutputFile();
+        }
+    }
+
+    /**
+     * Gives up the output while it may still be written, as the reader of a killed command can outlive it. The
+     * temporary file, if any, is deleted now if the output is complete or by {@link #finish()} otherwise
+     */
+    void discard() {
+        if (!settled.compareAndSet(false, true)) {
+            deleteOutputFile();
+        }
+    }
+
+    /**
+     * @return the output kept in memory, that is the whole output if it was not written to a file or its last part
+     *         otherwise, without trailing whitespaces
+     */
+    String getOutput() {
+        int end = ringSize;
+        while (end > 0 && Character.isWhitespace(ring[(ringStart + end - 1) % ring.length])) {
+            end--;
+        }
+        StringBuilder output = new StringBuilder(end);
+        int firstPart = Math.min(end, ring.length - ringStart);
+        output.append(ring, ringStart, firstPart);
+        output.append(ring, 0, end - firstPart);
+        return output.toString();
+    }
+
+    /**
+     * @return the file holding the whole output, or null if the output fitted in memory. The file is not deleted
+     *         by the sink, whoever receives it has to
+     */
+    File getOutputFile() {
+        return spillWriter != null ? spillFile : null;
+    }
+
+    private void startSpilling() {
+        try {
+            spillFile = File.createTempFile("psoutput_", ".log", tempFolder);
+            spillWriter =
+                    new BufferedWriter(new OutputStreamWriter(new FileOutputStream(spillFile), StandardCharsets.UTF_8));
+            spillWriter.write(ring, ringStart, ring.length - ringStart);
+            spillWriter.write(ring, 0, ringStart);
+        } catch (IOException ex) {
+            // The output is still available in memory, truncated to its last part
+            logger.log(Level.SEVERE, "Unexpected error when writing the PowerShell output to a file", ex);
+            spillFailed = true;
+            spillWriter = null;
+            if (spillFile != null) {
+                spillFile.delete();
+            }
+        }
+    }
+
+    private void deleteOutputFile() {
+        if (spillFile != null && !spillFile.delete() && spillFile.exists()) {
+            logger.log(Level.WARNING, "Unable to delete the PowerShell output file " + spillFile);
+        }
+    }
+
+    private void emitLine() {
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            length--;
+        }
+        if (listener != null) {
+            try {
+                listener.onLine(line.substring(0, length));
+            } catch (RuntimeException ex) {
+                logger.log(Level.SEVERE, "Unexpected error in the PowerShell output listener", ex);
+            }
+        }
+        line.setLength(0);
+    }
+}
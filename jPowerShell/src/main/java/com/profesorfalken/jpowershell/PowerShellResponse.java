@@ -15,6 +15,9 @@
  */
 package com.profesorfalken.jpowershell;
 
+import java.io.File;
+import java.util.Optional;
+
 /**
  * Response of PowerShell command. This object encapsulate all the useful
  * returned information
@@ -26,11 +29,23 @@ public class PowerShellResponse {
     private final boolean error;
     private final String commandOutput;
     private final boolean timeout;
+    private final File outputFile;
+    private final boolean killed;
 
     public PowerShellResponse(boolean isError, String commandOutput, boolean timeout) {
+        this(isError, commandOutput, timeout, null);
+    }
+
+    public PowerShellResponse(boolean isError, String commandOutput, boolean timeout, File outputFile) {
+        this(isError, commandOutput, timeout, outputFile, false);
+    }
+
+    public PowerShellResponse(boolean isError, String commandOutput, boolean timeout, File outputFile, boolean killed) {
         this.error = isError;
         this.commandOutput = commandOutput;
         this.timeout = timeout;
+        this.outputFile = outputFile;
+        this.killed = killed;
     }
 
     /**
@@ -46,7 +61,8 @@ public class PowerShellResponse {
     }
 
     /**
-     * Retrieves the content returned by the executed command
+     * Retrieves the content returned by the executed command. If the output did not fit in memory, only its
+     * last part is returned: see {@link #getOutputFile()}
      *
      * @return boolean value
      */
@@ -54,6 +70,16 @@ public class PowerShellResponse {
         return commandOutput;
     }
 
+    /**
+     * Retrieves the temporary file holding the whole output, when it did not fit in memory. The file is not
+     * deleted automatically, the caller has to delete it once read
+     *
+     * @return the file, or empty if the whole output is returned by {@link #getCommandOutput()}
+     */
+    public Optional<File> getOutputFile() {
+        return Optional.ofNullable(outputFile);
+    }
+
     /**
      * True if the command finished in timeout
      *
@@ -62,4 +88,14 @@ public class PowerShellResponse {
     public boolean isTimeout() {
         return timeout;
     }
+
+    /**
+     * True if the command timed out and did not stop when interrupted, so the PowerShell process tree was killed.
+     * The session is closed and cannot be used anymore
+     *
+     * @return boolean value
+     */
+    public boolean isKilled() {
+        return killed;
+    }
 }
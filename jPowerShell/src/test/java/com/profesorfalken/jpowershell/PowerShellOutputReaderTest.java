@@ -0,0 +1,108 @@
+package com.profesorfalken.jpowershell;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the reader of the PowerShell output
+ */
+public class PowerShellOutputReaderTest {
+
+    private static final String MARKER = PowerShell.END_SCRIPT_STRING + "1--";
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns one byte per read, so that the marker spans several reads
+    private static InputStream slowStream(String content) {
+        InputStream delegate = stream(content);
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                return delegate.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return delegate.read(b, off, Math.min(len, 1));
+            }
+        };
+    }
+
+    @Test
+    public void testReadUntilMarker() throws IOException {
+        PowerShellOutputReader reader =
+                new PowerShellOutputReader(stream("line1\r\nline2\r\n" + MARKER + "\r\nnext\n"));
+        StringBuilder output = new StringBuilder();
+
+        Assertions.assertTrue(reader.readUntil(MARKER, output, () -> false));
+
+        Assertions.assertEquals("line1\r\nline2\r\n", output.toString());
+    }
+
+    @Test
+    public void testRemainingOutputKeptForNextCommand() throws IOException {
+        String secondMarker = PowerShell.END_SCRIPT_STRING + "2--";
+        PowerShellOutputReader reader =
+                new PowerShellOutputReader(stream("first\n" + MARKER + "\nsecond\n" + secondMarker + "\n"));
+        StringBuilder first = new StringBuilder();
+        StringBuilder second = new StringBuilder();
+
+        Assertions.assertTrue(reader.readUntil(MARKER, first, () -> false));
+        Assertions.assertTrue(reader.readUntil(secondMarker, second, () -> false));
+
+        Assertions.assertEquals("first\n", first.toString());
+        Assertions.assertEquals("second\n", second.toString());
+    }
+
+    @Test
+    public void testPartialMarkersBelongToOutput() throws IOException {
+        String content = "--END---END-JPOWERSHELL-SCRIPT--12--" + PowerShell.END_SCRIPT_STRING + "--";
+        PowerShellOutputReader reader = new PowerShellOutputReader(slowStream(content + MARKER));
+        StringBuilder output = new StringBuilder();
+
+        Assertions.assertTrue(reader.readUntil(MARKER, output, () -> false));
+
+        Assertions.assertEquals(content, output.toString());
+    }
+
+    @Test
+    public void testMarkerOfPreviousCommandIsNotTheEnd() throws IOException {
+        String secondMarker = PowerShell.END_SCRIPT_STRING + "2--";
+        PowerShellOutputReader reader =
+                new PowerShellOutputReader(stream("late\n" + MARKER + "\nsecond\n" + secondMarker + "\n"));
+        StringBuilder output = new StringBuilder();
+
+        Assertions.assertTrue(reader.readUntil(secondMarker, output, () -> false));
+
+        Assertions.assertTrue(output.toString().endsWith("second\n"));
+    }
+
+    @Test
+    public void testEndOfStream() throws IOException {
+        PowerShellOutputReader reader = new PowerShellOutputReader(stream("output" + PowerShell.END_SCRIPT_STRING));
+        StringBuilder output = new StringBuilder();
+
+        Assertions.assertFalse(reader.readUntil(MARKER, output, () -> false));
+
+        Assertions.assertEquals("output" + PowerShell.END_SCRIPT_STRING, output.toString());
+    }
+
+    @Test
+    public void testCancelledKeepsUnreadOutput() throws IOException {
+        PowerShellOutputReader reader = new PowerShellOutputReader(stream("output\n" + MARKER + "\n"));
+        StringBuilder cancelled = new StringBuilder();
+        StringBuilder output = new StringBuilder();
+
+        Assertions.assertFalse(reader.readUntil(MARKER, cancelled, () -> true));
+        Assertions.assertTrue(reader.readUntil(MARKER, output, () -> false));
+
+        Assertions.assertEquals("", cancelled.toString());
+        Assertions.assertEquals("output\n", output.toString());
+    }
+}
@@ -0,0 +1,108 @@
+package com.profesorfalken.jpowershell;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the destination of the PowerShell output
+ */
+public class PowerShellOutputSinkTest {
+
+    @Test
+    public void testLinesHandedToListener() throws IOException {
+        List<String> lines = new ArrayList<>();
+        PowerShellOutputSink sink = new PowerShellOutputSink(lines::add, 1024, null);
+
+        sink.append("first\r\nsecond\n\nlast");
+        sink.finish();
+
+        Assertions.assertEquals(List.of("first", "second", "", "last"), lines);
+        Assertions.assertEquals("first\r\nsecond\n\nlast", sink.getOutput());
+        Assertions.assertNull(sink.getOutputFile());
+    }
+
+    @Test
+    public void testTrailingWhitespacesRemoved() throws IOException {
+        PowerShellOutputSink sink = new PowerShellOutputSink(null, 1024, null);
+
+        sink.append("output\r\n\r\n");
+        sink.finish();
+
+        Assertions.assertEquals("output", sink.getOutput());
+    }
+
+    @Test
+    public void testOutputSpilledToFileBeyondMemoryLimit() throws IOException {
+        List<String> lines = new ArrayList<>();
+        PowerShellOutputSink sink = new PowerShellOutputSink(lines::add, 16, null);
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            content.append("line").append(i).append('\n');
+        }
+
+        sink.append(content);
+        sink.finish();
+
+        File outputFile = sink.getOutputFile();
+        try {
+            Assertions.assertNotNull(outputFile);
+            Assertions.assertEquals(content.toString(), Files.readString(outputFile.toPath(), StandardCharsets.UTF_8));
+            Assertions.assertEquals("ne7\nline8\nline9", sink.getOutput());
+            Assertions.assertEquals(10, lines.size());
+            Assertions.assertEquals("line9", lines.get(9));
+        } finally {
+            if (outputFile != null) {
+                outputFile.delete();
+            }
+        }
+    }
+
+    @Test
+    public void testDiscardedOutputFileDeletedOnceComplete() throws IOException {
+        PowerShellOutputSink sink = new PowerShellOutputSink(null, 16, null);
+        sink.append("line0\nline1\nline2\nline3\n");
+        File outputFile = sink.getOutputFile();
+        Assertions.assertNotNull(outputFile);
+
+        sink.discard();
+        Assertions.assertTrue(outputFile.exists());
+        sink.append("line4\n");
+        sink.finish();
+
+        Assertions.assertFalse(outputFile.exists());
+    }
+
+    @Test
+    public void testDiscardedOutputFileDeletedWhenComplete() throws IOException {
+        PowerShellOutputSink sink = new PowerShellOutputSink(null, 16, null);
+        sink.append("line0\nline1\nline2\nline3\n");
+        sink.finish();
+        File outputFile = sink.getOutputFile();
+        Assertions.assertNotNull(outputFile);
+
+        sink.discard();
+
+        Assertions.assertFalse(outputFile.exists());
+    }
+
+    @Test
+    public void testListenerErrorsDoNotStopTheOutput() throws IOException {
+        PowerShellOutputSink sink = new PowerShellOutputSink(
+                line -> {
+                    throw new IllegalStateException("listener error");
+                },
+                1024,
+                null);
+
+        sink.append("first\nsecond\n");
+        sink.finish();
+
+        Assertions.assertEquals("first\nsecond", sink.getOutput());
+    }
+}
@@ -5,7 +5,11 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
+import java.nio.file.Files;
 import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -633,6 +637,189 @@ public class PowerShellTest {
         }
     }
 
+    /**
+     * Test of the timeout of a command that does not stop when interrupted
+     */
+    @Test
+    public void testTimeoutKillsProcessTree() throws Exception {
+        System.out.println("start testTimeoutKillsProcessTree");
+        if (!OSDetector.isWindows()) {
+            // Fake PowerShell that ignores its input and the interruption, with a child process
+            File pidFile = File.createTempFile("pschild_", ".pid");
+            File executable = File.createTempFile("fakepwsh_", ".sh");
+            Files.writeString(
+                    executable.toPath(),
+                    "#!/bin/sh\ntrap '' INT\nsleep 600 &\necho $! > " + pidFile.getAbsolutePath()
+                            + "\nwhile true; do read line; done\n");
+            Assertions.assertTrue(executable.setExecutable(true));
+
+            try {
+                PowerShell powerShell = PowerShell.openSession(executable.getAbsolutePath())
+                        .configuration(new PowerShellConfig(10, 500, null, 0, 500));
+                long childPid =
+                        Long.parseLong(Files.readString(pidFile.toPath()).trim());
+
+                PowerShellResponse response = powerShell.executeCommand("Start-Sleep 600");
+
+                Assertions.assertTrue(response.isTimeout());
+                Assertions.assertTrue(response.isKilled());
+                Assertions.assertFalse(powerShell.isAlive());
+                // SIGKILL is delivered asynchronously
+                for (int i = 0; i < 50 && isRunning(childPid); i++) {
+                    Thread.sleep(100);
+                }
+                Assertions.assertFalse(isRunning(childPid));
+
+                powerShell.close();
+            } finally {
+                pidFile.delete();
+                executable.delete();
+            }
+            System.out.println("end testTimeoutKillsProcessTree");
+        }
+    }
+
+    /**
+     * Test of the output file of a command stopped in timeout
+     */
+    @Test
+    public void testTimeoutOutputFileHandedOver() throws Exception {
+        System.out.println("start testTimeoutOutputFileHandedOver");
+        if (!OSDetector.isWindows()) {
+            // Fake PowerShell that writes more output than kept in memory, then writes the end marker once interrupted
+            File tempFolder = Files.createTempDirectory("psoutput_").toFile();
+            File executable = File.createTempFile("fakepwsh_", ".sh");
+            Files.writeString(
+                    executable.toPath(),
+                    "#!/bin/sh\nread line\ni=0\nwhile [ $i -lt 100 ]; do echo \"output line $i\"; i=$((i+1)); done\n"
+                            + "read line\nn=${line##* }\n"
+                            + "trap 'echo \"--END-JPOWERSHELL-SCRIPT--${n%)}--\"' INT\n"
+                            + "sleep 600 &\nwait\nwhile read line; do :; done\n");
+            Assertions.assertTrue(executable.setExecutable(true));
+
+            try {
+                PowerShell powerShell = PowerShell.openSession(executable.getAbsolutePath())
+                        .configuration(new PowerShellConfig(10, 1000, tempFolder.getAbsolutePath(), 64, 2000));
+
+                PowerShellResponse response = powerShell.executeCommand("Start-Sleep 600");
+                powerShell.close();
+
+                Assertions.assertTrue(response.isTimeout());
+                Assertions.assertFalse(response.isKilled());
+                Assertions.assertTrue(response.getOutputFile().isPresent());
+                Assertions.assertTrue(
+                        Files.readString(response.getOutputFile().get().toPath())
+                                .contains("output line 0"));
+                response.getOutputFile().get().delete();
+                Assertions.assertEquals(0, tempFolder.list().length);
+            } finally {
+                executable.delete();
+                for (File file : tempFolder.listFiles()) {
+                    file.delete();
+                }
+                tempFolder.delete();
+            }
+            System.out.println("end testTimeoutOutputFileHandedOver");
+        }
+    }
+
+    /**
+     * Test of the output file of a command killed in timeout
+     */
+    @Test
+    public void testKilledOutputFileDeleted() throws Exception {
+        System.out.println("start testKilledOutputFileDeleted");
+        if (!OSDetector.isWindows()) {
+            // Fake PowerShell that writes more output than kept in memory, then ignores the interruption
+            File tempFolder = Files.createTempDirectory("psoutput_").toFile();
+            File executable = File.createTempFile("fakepwsh_", ".sh");
+            Files.writeString(
+                    executable.toPath(),
+                    "#!/bin/sh\ntrap '' INT\nread line\ni=0\n"
+                            + "while [ $i -lt 100 ]; do echo \"output line $i\"; i=$((i+1)); done\n"
+                            + "while true; do read line; done\n");
+            Assertions.assertTrue(executable.setExecutable(true));
+
+            try {
+                PowerShell powerShell = PowerShell.openSession(executable.getAbsolutePath())
+                        .configuration(new PowerShellConfig(10, 1000, tempFolder.getAbsolutePath(), 64, 500));
+
+                PowerShellResponse response = powerShell.executeCommand("Start-Sleep 600");
+                powerShell.close();
+
+                Assertions.assertTrue(response.isKilled());
+                Assertions.assertFalse(response.getOutputFile().isPresent());
+                // The reader of the killed command deletes the file once it stops
+                for (int i = 0; i < 50 && tempFolder.list().length > 0; i++) {
+                    Thread.sleep(100);
+                }
+                Assertions.assertEquals(0, tempFolder.list().length);
+            } finally {
+                executable.delete();
+                for (File file : tempFolder.listFiles()) {
+                    file.delete();
+                }
+                tempFolder.delete();
+            }
+            System.out.println("end testKilledOutputFileDeleted");
+        }
+    }
+
+    /**
+     * Test of sessions sharing an executor
+     */
+    @Test
+    public void testSessionsShareExecutor() throws Exception {
+        System.out.println("start testSessionsShareExecutor");
+        if (!OSDetector.isWindows()) {
+            // Fake PowerShell that echoes its input and writes the end marker of each command
+            File executable = File.createTempFile("fakepwsh_", ".sh");
+            Files.writeString(
+                    executable.toPath(),
+                    "#!/bin/sh\nwhile read line; do\n  case \"$line\" in\n"
+                            + "    *END-JPOWERSHELL-SCRIPT*) n=${line##* }; echo \"--END-JPOWERSHELL-SCRIPT--${n%)}--\" ;;\n"
+                            + "    exit) exit 0 ;;\n"
+                            + "    *) echo \"$line\" ;;\n  esac\ndone\n");
+            Assertions.assertTrue(executable.setExecutable(true));
+            AtomicInteger threads = new AtomicInteger();
+            ExecutorService executor = Executors.newCachedThreadPool(task -> {
+                threads.incrementAndGet();
+                return new Thread(task);
+            });
+
+            try {
+                for (int i = 0; i < 3; i++) {
+                    PowerShell powerShell =
+                            PowerShell.openSession(executable.getAbsolutePath()).executor(executor);
+
+                    PowerShellResponse response = powerShell.executeCommand("hello" + i);
+
+                    Assertions.assertFalse(response.isError());
+                    Assertions.assertTrue(response.getCommandOutput().contains("hello" + i));
+                    powerShell.close();
+                    Assertions.assertEquals(0, powerShell.pendingTasks());
+                }
+                Assertions.assertFalse(executor.isShutdown());
+                // The threads of a closed session are reused by the next one
+                Assertions.assertTrue(threads.get() <= 2);
+            } finally {
+                executor.shutdownNow();
+                executable.delete();
+            }
+            System.out.println("end testSessionsShareExecutor");
+        }
+    }
+
+    // A killed process stays visible as a zombie until its new parent reaps it
+    private static boolean isRunning(long pid) throws Exception {
+        File stat = new File("/proc/" + pid + "/stat");
+        if (stat.isFile()) {
+            String content = Files.readString(stat.toPath());
+            return !content.substring(content.lastIndexOf(')') + 2).startsWith("Z");
+        }
+        return ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+    }
+
     private static String generateScript(String scriptContent) throws Exception {
         File tmpFile = null;
         FileWriter writer = null;